@@ -0,0 +1,149 @@
+package org.devconnect.devconnectbackend.archive;
+
+import org.devconnect.devconnectbackend.model.Conversation;
+import org.devconnect.devconnectbackend.model.Message;
+import org.devconnect.devconnectbackend.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message as stored in an archive block, and the binary encoding of a block's messages.
+ * Timestamps are stored as UTC epoch microseconds (the database's precision); -1 marks a missing one.
+ */
+public record ArchivedMessage(
+        Integer messageId,
+        Integer senderId,
+        String content,
+        Message.MessageStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime deliveredAt,
+        LocalDateTime readAt,
+        LocalDateTime editedAt,
+        boolean deleted
+) {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final long NO_TIME = -1L;
+
+    public static ArchivedMessage of(Message message) {
+        return new ArchivedMessage(
+                message.getMessageId(),
+                message.getSender().getUserId(),
+                message.getContent(),
+                message.getStatus(),
+                message.getCreatedAt(),
+                message.getDeliveredAt(),
+                message.getReadAt(),
+                message.getEditedAt(),
+                message.isDeleted()
+        );
+    }
+
+    /**
+     * A detached Message carrying the archived fields; sender and conversation are id-only stand-ins
+     */
+    public Message toMessage(Integer conversationId) {
+        User sender = new User();
+        sender.setUserId(senderId);
+        Conversation conversation = new Conversation();
+        conversation.setConversationId(conversationId);
+
+        Message message = new Message();
+        message.setMessageId(messageId);
+        message.setConversation(conversation);
+        message.setSender(sender);
+        message.setContent(content);
+        message.setStatus(status);
+        message.setCreatedAt(createdAt);
+        message.setDeliveredAt(deliveredAt);
+        message.setReadAt(readAt);
+        message.setEditedAt(editedAt);
+        message.setDeleted(deleted);
+        return message;
+    }
+
+    /**
+     * Encode messages (oldest → newest) as one uncompressed block
+     */
+    public static byte[] encode(List<ArchivedMessage> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(messages.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(messages.size());
+            for (ArchivedMessage message : messages) {
+                out.writeInt(message.messageId());
+                out.writeInt(message.senderId());
+                out.writeByte(message.status().ordinal());
+                out.writeBoolean(message.deleted());
+                out.writeLong(toMicros(message.createdAt()));
+                out.writeLong(toMicros(message.deliveredAt()));
+                out.writeLong(toMicros(message.readAt()));
+                out.writeLong(toMicros(message.editedAt()));
+                // Length-prefixed rather than writeUTF, which caps at 64 KB
+                byte[] content = message.content().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(content.length);
+                out.write(content);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a block produced by {@link #encode(List)}
+     */
+    public static List<ArchivedMessage> decode(byte[] block) {
+        Message.MessageStatus[] statuses = Message.MessageStatus.values();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(block))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported archive block format " + version);
+            }
+            int count = in.readInt();
+            List<ArchivedMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Integer messageId = in.readInt();
+                Integer senderId = in.readInt();
+                Message.MessageStatus status = statuses[in.readUnsignedByte()];
+                boolean deleted = in.readBoolean();
+                LocalDateTime createdAt = fromMicros(in.readLong());
+                LocalDateTime deliveredAt = fromMicros(in.readLong());
+                LocalDateTime readAt = fromMicros(in.readLong());
+                LocalDateTime editedAt = fromMicros(in.readLong());
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                messages.add(new ArchivedMessage(messageId, senderId, new String(content, StandardCharsets.UTF_8),
+                        status, createdAt, deliveredAt, readAt, editedAt, deleted));
+            }
+            return messages;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,209 @@
+package org.devconnect.devconnectbackend.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only segment files holding deflate-compressed blocks of archived messages.
+ * Blocks are appended to the newest segment until it reaches maxSegmentBytes, then a new one is started;
+ * nothing is ever rewritten. Reads go through a read-only memory mapping of the whole segment, remapped
+ * when a block lies past the end of the current mapping (the segment still being appended to).
+ *
+ * Block layout: magic, conversation id, compressed length, raw length, CRC32 of the compressed bytes
+ * (all 4-byte ints), then the compressed bytes.
+ */
+public class SegmentStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x4D534731; // "MSG1"
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.dat");
+
+    /**
+     * Where a block was written; what the per-conversation block index stores
+     */
+    public record BlockLocation(int segmentId, long offset, int length) {
+    }
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private FileChannel activeChannel;
+    private int activeSegmentId;
+
+    public SegmentStore(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * Compress and append one block, forcing it to disk before returning
+     */
+    public synchronized BlockLocation append(int conversationId, byte[] raw) {
+        byte[] compressed = compress(raw);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+
+        ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + compressed.length)
+                .putInt(MAGIC)
+                .putInt(conversationId)
+                .putInt(compressed.length)
+                .putInt(raw.length)
+                .putInt((int) crc.getValue())
+                .put(compressed)
+                .flip();
+
+        try {
+            FileChannel channel = channelFor(block.remaining());
+            long offset = channel.size();
+            while (block.hasRemaining()) {
+                channel.write(block, offset + block.position());
+            }
+            channel.force(false);
+            return new BlockLocation(activeSegmentId, offset, HEADER_BYTES + compressed.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to message archive", e);
+        }
+    }
+
+    /**
+     * Read and decompress one block, checking that it is intact and belongs to the conversation
+     */
+    public byte[] read(int conversationId, BlockLocation location) {
+        ByteBuffer block = map(location).slice((int) location.offset(), location.length());
+        if (block.getInt() != MAGIC || block.getInt() != conversationId) {
+            throw new IllegalStateException("Archive block at " + location + " does not belong to conversation " + conversationId);
+        }
+        int compressedLength = block.getInt();
+        int rawLength = block.getInt();
+        int expectedCrc = block.getInt();
+
+        ByteBuffer compressed = block.slice(block.position(), compressedLength);
+        CRC32 crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IllegalStateException("Archive block at " + location + " is corrupt");
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Archive block at " + location + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        mappings.clear();
+        if (activeChannel != null) {
+            try {
+                activeChannel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing message archive segment: " + e.getMessage());
+            }
+            activeChannel = null;
+        }
+    }
+
+    /**
+     * Helper: The channel to append the next block to; continues the newest segment on disk after a restart
+     * and starts a new segment once the current one would grow past the limit
+     */
+    private FileChannel channelFor(int blockBytes) throws IOException {
+        if (activeChannel == null) {
+            Files.createDirectories(directory);
+            activeSegmentId = Math.max(newestSegmentId(), 1);
+            activeChannel = open(activeSegmentId);
+        }
+        if (activeChannel.size() > 0 && activeChannel.size() + blockBytes > maxSegmentBytes) {
+            activeChannel.close();
+            activeSegmentId++;
+            activeChannel = open(activeSegmentId);
+        }
+        return activeChannel;
+    }
+
+    private FileChannel open(int segmentId) throws IOException {
+        return FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private int newestSegmentId() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    /**
+     * Helper: A mapping of the segment that covers the block, mapping (again) if the segment grew
+     */
+    private MappedByteBuffer map(BlockLocation location) {
+        long end = location.offset() + location.length();
+        MappedByteBuffer mapping = mappings.get(location.segmentId());
+        if (mapping != null && mapping.capacity() >= end) {
+            return mapping;
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(location.segmentId()), StandardOpenOption.READ)) {
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map message archive segment " + location.segmentId(), e);
+        }
+        if (mapping.capacity() < end) {
+            throw new IllegalStateException("Archive block at " + location + " lies past the end of its segment");
+        }
+        mappings.put(location.segmentId(), mapping);
+        return mapping;
+    }
+
+    private Path segmentPath(int segmentId) {
+        return directory.resolve(String.format("segment-%06d.dat", segmentId));
+    }
+
+    private static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteBuffer out = ByteBuffer.allocate(raw.length + 64);
+            while (!deflater.finished()) {
+                if (!out.hasRemaining()) {
+                    out = ByteBuffer.allocate(out.capacity() * 2).put(out.flip());
+                }
+                deflater.deflate(out);
+            }
+            byte[] compressed = new byte[out.position()];
+            out.flip().get(compressed);
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.devconnect.devconnectbackend.cluster;
+
+import java.util.Set;
+
+/**
+ * Everything nodes exchange over a {@link ClusterTransport}.
+ * Transports that leave the JVM must serialize these; the loopback transport passes them as is.
+ */
+public sealed interface ClusterEnvelope {
+
+    String originNodeId();
+
+    /**
+     * A frame for a /user destination, already converted to bytes by the sending node
+     */
+    record UserFrame(String originNodeId, String destination, String contentType, byte[] payload)
+            implements ClusterEnvelope {
+    }
+
+    /**
+     * A user's first session opened on, or last session closed on, the origin node
+     */
+    record PresenceUpdate(String originNodeId, String user, boolean online) implements ClusterEnvelope {
+    }
+
+    /**
+     * Sent by a node joining the cluster; every other node answers with a {@link PresenceSnapshot}
+     */
+    record PresenceSnapshotRequest(String originNodeId) implements ClusterEnvelope {
+    }
+
+    /**
+     * Every user connected to the origin node
+     */
+    record PresenceSnapshot(String originNodeId, Set<String> users) implements ClusterEnvelope {
+    }
+
+    /**
+     * The origin node is shutting down; forget every user registered there
+     */
+    record NodeLeft(String originNodeId) implements ClusterEnvelope {
+    }
+}
@@ -0,0 +1,27 @@
+package org.devconnect.devconnectbackend.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries envelopes between chat nodes.
+ * Envelopes from one node to another must arrive in the order they were sent.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Join the cluster as nodeId; envelopes for this node are handed to receiver
+     */
+    void start(String nodeId, Consumer<ClusterEnvelope> receiver);
+
+    /**
+     * Send to one node; dropped if that node is not (or no longer) in the cluster
+     */
+    void send(String targetNodeId, ClusterEnvelope envelope);
+
+    /**
+     * Send to every other node
+     */
+    void broadcast(ClusterEnvelope envelope);
+
+    void stop();
+}
@@ -0,0 +1,98 @@
+package org.devconnect.devconnectbackend.cluster;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.util.Set;
+
+/**
+ * Broker channel interceptor that extends /user destinations across nodes.
+ * A frame for a user is delivered locally as usual and also forwarded to each node the
+ * registry lists for that user, and to no other node; the receiving node re-publishes it to its own broker.
+ * Frames addressed to a single session (e.g. replies to the sending session) stay local.
+ */
+public class ClusterUserDestinationRouter implements ChannelInterceptor {
+
+    // Marks frames that arrived from another node so they are not forwarded again
+    public static final String ORIGIN_NODE_HEADER = "clusterOriginNode";
+
+    private static final String USER_PREFIX = "/user/";
+
+    private final ClusterUserRegistry registry;
+    private final ClusterTransport transport;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+
+    public ClusterUserDestinationRouter(ClusterUserRegistry registry, ClusterTransport transport,
+                                        ObjectProvider<SimpMessagingTemplate> messagingTemplate) {
+        this.registry = registry;
+        this.transport = transport;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public void start() {
+        transport.start(registry.getLocalNodeId(), this::receive);
+        registry.announceJoin();
+    }
+
+    public void stop() {
+        registry.announceLeave();
+        transport.stop();
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || destination == null
+                || !destination.startsWith(USER_PREFIX)
+                || SimpMessageHeaderAccessor.getSessionId(headers) != null
+                || headers.containsKey(ORIGIN_NODE_HEADER)
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        int userEnd = destination.indexOf('/', USER_PREFIX.length());
+        if (userEnd < 0) {
+            return message;
+        }
+        Set<String> nodes = registry.remoteNodesFor(destination.substring(USER_PREFIX.length(), userEnd));
+        if (!nodes.isEmpty()) {
+            Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+            ClusterEnvelope.UserFrame frame = new ClusterEnvelope.UserFrame(
+                    registry.getLocalNodeId(), destination, contentType != null ? contentType.toString() : null, payload);
+            for (String nodeId : nodes) {
+                transport.send(nodeId, frame);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Helper: Handle an envelope from another node
+     */
+    private void receive(ClusterEnvelope envelope) {
+        if (!(envelope instanceof ClusterEnvelope.UserFrame frame)) {
+            registry.apply(envelope);
+            return;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(frame.destination());
+        if (frame.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(frame.contentType()));
+        }
+        accessor.setHeader(ORIGIN_NODE_HEADER, frame.originNodeId());
+        accessor.setLeaveMutable(true);
+        messagingTemplate.getObject().send(frame.destination(),
+                MessageBuilder.createMessage(frame.payload(), accessor.getMessageHeaders()));
+    }
+}
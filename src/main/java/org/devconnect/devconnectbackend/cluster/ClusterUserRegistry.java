@@ -0,0 +1,141 @@
+package org.devconnect.devconnectbackend.cluster;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which nodes each authenticated user has WebSocket sessions on.
+ * Local sessions are tracked by session id from STOMP connect/disconnect events, so a disconnect event
+ * published twice for one session is harmless; only a user's first connect and last disconnect on this
+ * node are announced to the cluster, so presence traffic stays per user, not per session.
+ */
+public class ClusterUserRegistry {
+
+    private final String localNodeId;
+    private final ClusterTransport transport;
+
+    // user -> ids of their open sessions on this node
+    private final Map<String, Set<String>> localSessions = new ConcurrentHashMap<>();
+
+    // user -> other nodes with at least one session for that user
+    private final Map<String, Set<String>> remoteNodes = new ConcurrentHashMap<>();
+
+    public ClusterUserRegistry(String localNodeId, ClusterTransport transport) {
+        this.localNodeId = localNodeId;
+        this.transport = transport;
+    }
+
+    public String getLocalNodeId() {
+        return localNodeId;
+    }
+
+    /**
+     * Other nodes the user is connected to
+     */
+    public Set<String> remoteNodesFor(String user) {
+        return remoteNodes.getOrDefault(user, Set.of());
+    }
+
+    public boolean isConnectedLocally(String user) {
+        return localSessions.containsKey(user);
+    }
+
+    @EventListener
+    public void handleSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null) {
+            return;
+        }
+        boolean[] first = {false};
+        localSessions.compute(user.getName(), (name, sessions) -> {
+            first[0] = sessions == null;
+            Set<String> updated = sessions == null ? ConcurrentHashMap.newKeySet() : sessions;
+            updated.add(sessionId);
+            return updated;
+        });
+        if (first[0]) {
+            transport.broadcast(new ClusterEnvelope.PresenceUpdate(localNodeId, user.getName(), true));
+        }
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user == null) {
+            return;
+        }
+        boolean[] last = {false};
+        localSessions.computeIfPresent(user.getName(), (name, sessions) -> {
+            // A repeated event for a session already gone changes nothing
+            last[0] = sessions.remove(event.getSessionId()) && sessions.isEmpty();
+            return sessions.isEmpty() ? null : sessions;
+        });
+        if (last[0]) {
+            transport.broadcast(new ClusterEnvelope.PresenceUpdate(localNodeId, user.getName(), false));
+        }
+    }
+
+    /**
+     * Ask the nodes already in the cluster who is connected to them
+     */
+    public void announceJoin() {
+        transport.broadcast(new ClusterEnvelope.PresenceSnapshotRequest(localNodeId));
+    }
+
+    public void announceLeave() {
+        transport.broadcast(new ClusterEnvelope.NodeLeft(localNodeId));
+    }
+
+    /**
+     * Apply a presence envelope received from another node
+     */
+    public void apply(ClusterEnvelope envelope) {
+        switch (envelope) {
+            case ClusterEnvelope.PresenceUpdate update -> {
+                if (update.online()) {
+                    addRemote(update.user(), update.originNodeId());
+                } else {
+                    removeRemote(update.user(), update.originNodeId());
+                }
+            }
+            case ClusterEnvelope.PresenceSnapshotRequest request -> transport.send(request.originNodeId(),
+                    new ClusterEnvelope.PresenceSnapshot(localNodeId, Set.copyOf(localSessions.keySet())));
+            case ClusterEnvelope.PresenceSnapshot snapshot -> {
+                for (String user : snapshot.users()) {
+                    addRemote(user, snapshot.originNodeId());
+                }
+            }
+            case ClusterEnvelope.NodeLeft left -> {
+                for (String user : remoteNodes.keySet()) {
+                    removeRemote(user, left.originNodeId());
+                }
+            }
+            case ClusterEnvelope.UserFrame frame -> {
+                // Frames are routed by ClusterUserDestinationRouter
+            }
+        }
+    }
+
+    private void addRemote(String user, String nodeId) {
+        remoteNodes.compute(user, (name, nodes) -> {
+            Set<String> updated = nodes == null ? ConcurrentHashMap.newKeySet() : nodes;
+            updated.add(nodeId);
+            return updated;
+        });
+    }
+
+    private void removeRemote(String user, String nodeId) {
+        remoteNodes.computeIfPresent(user, (name, nodes) -> {
+            nodes.remove(nodeId);
+            return nodes.isEmpty() ? null : nodes;
+        });
+    }
+}
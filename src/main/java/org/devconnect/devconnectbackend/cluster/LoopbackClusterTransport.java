@@ -0,0 +1,91 @@
+package org.devconnect.devconnectbackend.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport: nodes that join the same named hub in one JVM reach each other directly.
+ * Each node receives on its own virtual thread, in order, so a sender never runs the receiver's handlers.
+ * Meant for tests and single-host development.
+ */
+public class LoopbackClusterTransport implements ClusterTransport {
+
+    private static final Map<String, Map<String, LoopbackClusterTransport>> HUBS = new ConcurrentHashMap<>();
+
+    private final String hub;
+    private final AtomicLong received = new AtomicLong();
+    private String nodeId;
+    private Consumer<ClusterEnvelope> receiver;
+    private ExecutorService inbox;
+
+    public LoopbackClusterTransport(String hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void start(String nodeId, Consumer<ClusterEnvelope> receiver) {
+        this.nodeId = nodeId;
+        this.receiver = receiver;
+        this.inbox = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("cluster-" + nodeId).factory());
+        if (nodes().putIfAbsent(nodeId, this) != null) {
+            inbox.shutdown();
+            throw new IllegalStateException("Node " + nodeId + " already joined hub " + hub);
+        }
+    }
+
+    @Override
+    public void send(String targetNodeId, ClusterEnvelope envelope) {
+        LoopbackClusterTransport target = nodes().get(targetNodeId);
+        if (target != null) {
+            target.deliver(envelope);
+        }
+    }
+
+    @Override
+    public void broadcast(ClusterEnvelope envelope) {
+        for (LoopbackClusterTransport node : nodes().values()) {
+            if (node != this) {
+                node.deliver(envelope);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (nodeId != null) {
+            nodes().remove(nodeId, this);
+            inbox.shutdown();
+        }
+    }
+
+    /**
+     * Number of envelopes this node has received
+     */
+    public long received() {
+        return received.get();
+    }
+
+    private Map<String, LoopbackClusterTransport> nodes() {
+        return HUBS.computeIfAbsent(hub, name -> new ConcurrentHashMap<>());
+    }
+
+    private void deliver(ClusterEnvelope envelope) {
+        try {
+            inbox.execute(() -> {
+                received.incrementAndGet();
+                try {
+                    receiver.accept(envelope);
+                } catch (RuntimeException e) {
+                    System.err.println("Error handling cluster envelope on " + nodeId + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Node is shutting down
+        }
+    }
+}
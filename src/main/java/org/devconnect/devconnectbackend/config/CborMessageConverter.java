@@ -0,0 +1,72 @@
+package org.devconnect.devconnectbackend.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Compact binary STOMP payloads: CBOR, with LocalDateTime fields as epoch milliseconds and null fields
+ * left out. Only used for frames whose content-type is application/cbor, so JSON stays the default;
+ * outbound frames are switched per connection by {@link PayloadEncodingInterceptor}.
+ */
+public class CborMessageConverter extends MappingJackson2MessageConverter {
+
+    public static final MimeType APPLICATION_CBOR = MimeType.valueOf("application/cbor");
+
+    private final CBORMapper mapper;
+
+    public CborMessageConverter() {
+        super(APPLICATION_CBOR);
+        this.mapper = createMapper();
+        setObjectMapper(mapper);
+        setStrictContentTypeMatch(true);
+    }
+
+    /**
+     * Encode a payload object directly, for frames that were first converted to JSON
+     */
+    public byte[] encode(Object payload) {
+        try {
+            return mapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode CBOR payload", e);
+        }
+    }
+
+    static CBORMapper createMapper() {
+        SimpleModule epochMillis = new SimpleModule("EpochMillisLocalDateTime");
+        epochMillis.addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider)
+                    throws IOException {
+                generator.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        });
+        epochMillis.addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneId.systemDefault());
+            }
+        });
+        return CBORMapper.builder()
+                .addModule(epochMillis)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.devconnect.devconnectbackend.cluster.ClusterTransport;
+import org.devconnect.devconnectbackend.cluster.ClusterUserDestinationRouter;
+import org.devconnect.devconnectbackend.cluster.ClusterUserRegistry;
+import org.devconnect.devconnectbackend.cluster.LoopbackClusterTransport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+/**
+ * Multi-node WebSocket delivery, enabled with messaging.cluster.enabled=true.
+ * Each node tracks where users are connected and forwards /user frames only to the nodes holding them.
+ *
+ * The only transport is loopback, which joins nodes running in the same JVM (tests, local development);
+ * there is no network transport yet, so separate server processes cannot form a cluster. Loopback must be
+ * asked for by naming its hub (messaging.cluster.loopback.hub), and startup fails otherwise rather than
+ * running every node as an island that silently never delivers to users on the others.
+ */
+@Configuration
+@ConditionalOnProperty(name = "messaging.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Value("${messaging.cluster.node-id:${random.uuid}}")
+    private String nodeId;
+
+    @Value("${messaging.cluster.transport:loopback}")
+    private String transport;
+
+    @Value("${messaging.cluster.loopback.hub:}")
+    private String loopbackHub;
+
+    @Bean
+    public ClusterTransport clusterTransport() {
+        if (!"loopback".equals(transport)) {
+            throw new IllegalStateException("Unsupported cluster transport: " + transport
+                    + " (only loopback exists, which connects nodes in the same JVM)");
+        }
+        if (loopbackHub.isBlank()) {
+            throw new IllegalStateException("messaging.cluster.enabled=true needs a transport between nodes, but only "
+                    + "the in-JVM loopback transport exists; set messaging.cluster.loopback.hub to use it for tests "
+                    + "or local development, or turn cluster mode off");
+        }
+        return new LoopbackClusterTransport(loopbackHub);
+    }
+
+    @Bean
+    public ClusterUserRegistry clusterUserRegistry(ClusterTransport clusterTransport) {
+        return new ClusterUserRegistry(nodeId, clusterTransport);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ClusterUserDestinationRouter clusterUserDestinationRouter(
+            ClusterUserRegistry clusterUserRegistry,
+            ClusterTransport clusterTransport,
+            ObjectProvider<SimpMessagingTemplate> messagingTemplate) {
+        return new ClusterUserDestinationRouter(clusterUserRegistry, clusterTransport, messagingTemplate);
+    }
+}
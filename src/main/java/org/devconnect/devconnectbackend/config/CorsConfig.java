@@ -1,5 +1,6 @@
 package org.devconnect.devconnectbackend.config;
 
+import org.devconnect.devconnectbackend.controller.MessageController;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,6 +14,13 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("*")  // Configure this to your frontend URL in production
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                // Let browsers read the pagination cursors and replay marker
+                .exposedHeaders(
+                        MessageController.BEFORE_CURSOR_HEADER,
+                        MessageController.AFTER_CURSOR_HEADER,
+                        MessageController.HAS_MORE_HEADER,
+                        MessageController.NEXT_CURSOR_HEADER,
+                        IdempotencyFilter.REPLAYED_HEADER)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -1,9 +1,14 @@
 package org.devconnect.devconnectbackend.config;
 
+import org.devconnect.devconnectbackend.service.ConversationSummaryService;
+import org.devconnect.devconnectbackend.service.MessageSearchService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
 @Configuration
 public class DatabaseMigrationConfig {
@@ -36,4 +41,78 @@ public class DatabaseMigrationConfig {
             }
         };
     }
+
+    @Bean
+    public CommandLineRunner alignSequenceIncrements(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            // Sequences must step by the entities' allocationSize for pooled id allocation
+            String[] scripts = {
+                    "db/migration/V4__pooled_message_sequence.sql",
+                    "db/migration/V5__pooled_entity_sequences.sql",
+                    "db/migration/V6__rating_sequence.sql"
+            };
+            for (String script : scripts) {
+                try {
+                    new ResourceDatabasePopulator(new ClassPathResource(script))
+                            .execute(jdbcTemplate.getDataSource());
+                    System.out.println("✅ Applied " + script);
+                } catch (Exception e) {
+                    System.out.println("ℹ️ " + script + ": " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    @Bean
+    public CommandLineRunner backfillConversationSummaries(ConversationSummaryService summaryService,
+                                                           JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                // Store every conversation as (lower user id, higher user id), merging pairs stored both ways.
+                // Runs before the backfill so merged conversations get their summary rebuilt.
+                new ResourceDatabasePopulator(new ClassPathResource("db/migration/V7__canonical_conversation_pairs.sql"))
+                        .execute(jdbcTemplate.getDataSource());
+                System.out.println("✅ Conversations stored as canonical pairs");
+            } catch (Exception e) {
+                System.out.println("ℹ️ canonical conversation pairs: " + e.getMessage());
+            }
+
+            try {
+                // Seed read watermarks on summaries written before they existed (idempotent)
+                new ResourceDatabasePopulator(new ClassPathResource("db/migration/V3__conversation_read_watermarks.sql"))
+                        .execute(jdbcTemplate.getDataSource());
+            } catch (Exception e) {
+                System.out.println("ℹ️ read watermark seeding: " + e.getMessage());
+            }
+
+            try {
+                // One-off: conversations created before summaries existed get one built from their messages
+                int created = summaryService.backfillMissing();
+                if (created > 0) {
+                    System.out.println("✅ Backfilled " + created + " conversation summaries");
+                }
+            } catch (Exception e) {
+                System.out.println("ℹ️ conversation summary backfill: " + e.getMessage());
+            }
+        };
+    }
+
+    @Bean
+    public CommandLineRunner backfillSearchIndex(MessageSearchService searchService,
+                                                 @Value("${messaging.search.backfill-on-startup:false}") boolean enabled) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                // Opt-in: rereads every message without postings on each start; normally run once through the admin endpoint
+                int indexed = searchService.backfill();
+                if (indexed > 0) {
+                    System.out.println("✅ Indexed " + indexed + " messages for search");
+                }
+            } catch (Exception e) {
+                System.out.println("ℹ️ message search backfill: " + e.getMessage());
+            }
+        };
+    }
 }
@@ -0,0 +1,234 @@
+package org.devconnect.devconnectbackend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key support for POST endpoints that create data.
+ * The first request with a key runs normally and its response is kept in an {@link IdempotencyStore};
+ * a retry with the same key gets that response back without reaching the controller, and a duplicate
+ * that arrives while the first one still runs waits for it. Keys are scoped to the caller and the path.
+ * Only successful (2xx) responses are kept. The controllers answer most failures, transient ones included,
+ * with a 400, so any other response releases the key and a retry runs again.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final List<String> paths;
+    private final long waitTimeoutMs;
+    private final int maxResponseBytes;
+
+    public IdempotencyFilter(
+            @Value("${messaging.idempotency.paths:/api/messages/send,/api/projects/create,/api/ratings/create}") List<String> paths,
+            @Value("${messaging.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${messaging.idempotency.ttl-ms:86400000}") long ttlMs,
+            @Value("${messaging.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+            @Value("${messaging.idempotency.max-response-bytes:65536}") int maxResponseBytes) {
+        this.store = new IdempotencyStore(maxEntries, ttlMs);
+        this.paths = paths;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid Idempotency-Key");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        String key = scope(request) + "|" + idempotencyKey;
+        String fingerprint = fingerprint(body);
+
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(key, fingerprint);
+            if (claim.mismatch()) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        "Idempotency-Key was already used for a different request");
+                return;
+            }
+            if (claim.owner()) {
+                runAndStore(new CachedBodyRequest(request, body), response, filterChain, key, claim);
+                return;
+            }
+
+            IdempotencyStore.StoredResponse stored;
+            try {
+                stored = claim.response().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this Idempotency-Key is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // The first request gave the key up without a response; try to claim it again
+        }
+    }
+
+    /**
+     * Helper: Run the request and keep its response for replays if it succeeded
+     */
+    private void runAndStore(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                             String key, IdempotencyStore.Claim claim) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            byte[] body = wrapper.getContentAsByteArray();
+            // A failed or rate-limited request created nothing, so a retry with the same key must run again
+            if (HttpStatus.valueOf(wrapper.getStatus()).is2xxSuccessful() && body.length <= maxResponseBytes) {
+                store.complete(key, claim, new IdempotencyStore.StoredResponse(
+                        wrapper.getStatus(), wrapper.getContentType(), body));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(key, claim);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    /**
+     * Helper: Keys belong to the authenticated caller (or the remote address) and the endpoint
+     */
+    private static String scope(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String caller = authentication != null && authentication.isAuthenticated()
+                ? authentication.getName()
+                : request.getRemoteAddr();
+        return caller + "|" + request.getRequestURI();
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Request whose body was read up front for fingerprinting and can be read again by the controller
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
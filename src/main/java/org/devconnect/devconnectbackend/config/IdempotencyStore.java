@@ -0,0 +1,103 @@
+package org.devconnect.devconnectbackend.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded, expiring map from idempotency key to the response of the request that first used it.
+ * The first request with a key claims it and runs; duplicates that arrive while it runs get the
+ * same future and wait on it instead of running again. Completed responses expire after ttlMillis;
+ * once maxEntries is reached the oldest key is dropped.
+ */
+public class IdempotencyStore {
+
+    /**
+     * Everything needed to replay a response
+     */
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * Outcome of claiming a key. The owner must call {@link #complete} or {@link #release};
+     * everyone else waits on response, which completes with null if the owner released the key.
+     */
+    public record Claim(boolean owner, boolean mismatch, CompletableFuture<StoredResponse> response) {
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        // In-flight entries never expire
+        long expiresAtMillis = Long.MAX_VALUE;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(int maxEntries, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Claim a key for a request whose content hashes to fingerprint. Reusing a key for a different
+     * request is reported as a mismatch rather than replaying an unrelated response.
+     */
+    public synchronized Claim claim(String key, String fingerprint) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new Entry(fingerprint);
+            entries.put(key, entry);
+            return new Claim(true, false, entry.response);
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            return new Claim(false, true, null);
+        }
+        return new Claim(false, false, entry.response);
+    }
+
+    /**
+     * Store the owner's response and hand it to everyone waiting
+     */
+    public void complete(String key, Claim claim, StoredResponse response) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            // The entry may have been evicted, and the key claimed again, while the owner ran
+            if (entry != null && entry.response == claim.response()) {
+                entry.expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+            }
+        }
+        claim.response().complete(response);
+    }
+
+    /**
+     * Give the key up without a response (e.g. the request failed); waiting duplicates then run themselves
+     */
+    public void release(String key, Claim claim) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response == claim.response()) {
+                entries.remove(key);
+            }
+        }
+        claim.response().complete(null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
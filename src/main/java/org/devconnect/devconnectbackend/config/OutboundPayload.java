@@ -0,0 +1,37 @@
+package org.devconnect.devconnectbackend.config;
+
+import java.util.function.Function;
+
+/**
+ * The object an outbound frame was converted from, carried in the {@link #HEADER} message header
+ * next to the JSON payload. The header is copied, not rebuilt, as the broker fans a message out to
+ * sessions, so every copy shares one instance and the CBOR encoding is computed at most once.
+ */
+public final class OutboundPayload {
+
+    public static final String HEADER = "devconnectOutboundPayload";
+
+    private final Object source;
+    private volatile byte[] cbor;
+
+    public OutboundPayload(Object source) {
+        this.source = source;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+
+    /**
+     * The CBOR encoding of the source, encoded by the first caller
+     */
+    public byte[] cbor(Function<Object, byte[]> encoder) {
+        byte[] encoded = cbor;
+        if (encoded == null) {
+            // Racing callers may both encode; either result is the same bytes
+            encoded = encoder.apply(source);
+            cbor = encoded;
+        }
+        return encoded;
+    }
+}
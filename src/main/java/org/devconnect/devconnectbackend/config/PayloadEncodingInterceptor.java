@@ -0,0 +1,120 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-connection payload encoding, negotiated with "payload-encoding: cbor" on the STOMP CONNECT frame.
+ * On the inbound channel it records which sessions asked for CBOR; on the outbound channel it re-encodes
+ * their MESSAGE frames from the retained source object (see {@link OutboundPayload}). Every other
+ * connection, and any frame without a retained source, keeps the JSON payload.
+ *
+ * CBOR connections get all their STOMP frames as binary WebSocket messages. SockJS has no binary
+ * messages, so only native WebSocket connections can negotiate CBOR; SockJS ones stay on JSON.
+ */
+@Component
+public class PayloadEncodingInterceptor implements ChannelInterceptor {
+
+    public static final String ENCODING_HEADER = "payload-encoding";
+    public static final String CBOR = "cbor";
+
+    private final CborMessageConverter cborConverter = new CborMessageConverter();
+    private final Set<String> nativeSessions = ConcurrentHashMap.newKeySet();
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    public CborMessageConverter getCborConverter() {
+        return cborConverter;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (sessionId == null) {
+            return message;
+        }
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        if (type == SimpMessageType.MESSAGE) {
+            return cborSessions.contains(sessionId) ? toCbor(message) : message;
+        }
+        if (type == SimpMessageType.CONNECT) {
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+            if (accessor != null && accessor.getCommand() == StompCommand.CONNECT
+                    && CBOR.equalsIgnoreCase(accessor.getFirstNativeHeader(ENCODING_HEADER))
+                    && nativeSessions.contains(sessionId)) {
+                cborSessions.add(sessionId);
+            }
+        } else if (type == SimpMessageType.DISCONNECT) {
+            cborSessions.remove(sessionId);
+        }
+        return message;
+    }
+
+    /**
+     * Decorate the STOMP handler so that frames to CBOR connections leave as binary WebSocket messages
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                if (!(session instanceof SockJsSession)) {
+                    nativeSessions.add(session.getId());
+                }
+                super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                    @Override
+                    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                        if (message instanceof TextMessage text && cborSessions.contains(getId())) {
+                            // The STOMP frame was encoded to bytes; send them unchanged
+                            super.sendMessage(new BinaryMessage(text.asBytes(), text.isLast()));
+                        } else {
+                            super.sendMessage(message);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                nativeSessions.remove(session.getId());
+                cborSessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Helper: The frame with its payload encoded as CBOR, or unchanged if it has no retained source
+     */
+    private Message<?> toCbor(Message<?> message) {
+        if (!(message.getHeaders().get(OutboundPayload.HEADER) instanceof OutboundPayload payload)) {
+            return message;
+        }
+        byte[] cbor = payload.cbor(cborConverter::encode);
+        return MessageBuilder.withPayload(cbor)
+                .copyHeaders(message.getHeaders())
+                .setHeader(MessageHeaders.CONTENT_TYPE, CborMessageConverter.APPLICATION_CBOR)
+                .build();
+    }
+}
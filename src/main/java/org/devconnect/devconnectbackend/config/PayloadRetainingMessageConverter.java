@@ -0,0 +1,72 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.SmartMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+/**
+ * Wraps the JSON converter so that outbound messages also carry the object they were converted from
+ * (see {@link OutboundPayload}); connections that negotiated another encoding are re-encoded from it.
+ */
+public class PayloadRetainingMessageConverter implements SmartMessageConverter {
+
+    private final MessageConverter delegate;
+
+    public PayloadRetainingMessageConverter(MessageConverter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @Nullable
+    public Object fromMessage(Message<?> message, Class<?> targetClass) {
+        return delegate.fromMessage(message, targetClass);
+    }
+
+    @Override
+    @Nullable
+    public Object fromMessage(Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+        return delegate instanceof SmartMessageConverter smart
+                ? smart.fromMessage(message, targetClass, conversionHint)
+                : delegate.fromMessage(message, targetClass);
+    }
+
+    @Override
+    @Nullable
+    public Message<?> toMessage(Object payload, @Nullable MessageHeaders headers) {
+        return toMessage(payload, headers, null);
+    }
+
+    @Override
+    @Nullable
+    public Message<?> toMessage(Object payload, @Nullable MessageHeaders headers, @Nullable Object conversionHint) {
+        MessageHeaderAccessor accessor = headers != null
+                ? MessageHeaderAccessor.getAccessor(headers, MessageHeaderAccessor.class)
+                : null;
+        if (accessor != null && accessor.isMutable()) {
+            // The messaging templates pass mutable headers that end up on the message as they are
+            accessor.setHeader(OutboundPayload.HEADER, new OutboundPayload(payload));
+            Message<?> message = convert(payload, headers, conversionHint);
+            if (message == null) {
+                accessor.removeHeader(OutboundPayload.HEADER);
+            }
+            return message;
+        }
+        Message<?> message = convert(payload, headers, conversionHint);
+        if (message == null) {
+            return null;
+        }
+        return MessageBuilder.fromMessage(message)
+                .setHeader(OutboundPayload.HEADER, new OutboundPayload(payload))
+                .build();
+    }
+
+    private Message<?> convert(Object payload, @Nullable MessageHeaders headers, @Nullable Object conversionHint) {
+        return delegate instanceof SmartMessageConverter smart
+                ? smart.toMessage(payload, headers, conversionHint)
+                : delegate.toMessage(payload, headers);
+    }
+}
@@ -0,0 +1,41 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.devconnect.devconnectbackend.service.PresenceService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Counts every inbound frame of an authenticated session (SEND, SUBSCRIBE, STOMP heart-beats, ...) as activity,
+ * so a user who is chatting or just keeping the connection alive is not expired as idle.
+ * CONNECT and DISCONNECT are left to the session event listener.
+ */
+@Component
+public class PresenceActivityInterceptor implements ChannelInterceptor {
+
+    private final PresenceService presenceService;
+
+    public PresenceActivityInterceptor(PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user == null || type == SimpMessageType.CONNECT || type == SimpMessageType.DISCONNECT) {
+            return message;
+        }
+        try {
+            presenceService.touch(Integer.valueOf(user.getName()));
+        } catch (NumberFormatException e) {
+            // Not a session authenticated by StompAuthChannelInterceptor
+        }
+        return message;
+    }
+}
@@ -1,5 +1,6 @@
 package org.devconnect.devconnectbackend.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -50,6 +51,10 @@ public class SecurityConfig {
                 .requestMatchers("/api/projects/pending", "/api/projects/all", "/api/projects/{id}").permitAll()
                 .requestMatchers("/api/developers/**").permitAll()
                 .requestMatchers("/ws/**").permitAll()
+                // Streamed responses (exports) finish on an async dispatch, after the request was authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Operational endpoints
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
                 )
@@ -0,0 +1,129 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Executor for the client inbound channel.
+ * Work runs on virtual threads, one session at a time in arrival order, and each session may
+ * have at most maxInFlightPerSession client messages queued or running. A SEND beyond that
+ * limit is not queued; it is handed to the rejection callback instead.
+ * Connect, subscribe and disconnect frames are never rejected.
+ */
+public class SessionOrderedExecutor implements TaskExecutor {
+
+    private final Executor virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, SessionQueue> sessions = new ConcurrentHashMap<>();
+    private final int maxInFlightPerSession;
+    private final Consumer<Message<?>> onRejected;
+
+    // Guarded by ConcurrentHashMap.compute on the session's key
+    private static final class SessionQueue {
+        final ArrayDeque<MessageHandlingRunnable> tasks = new ArrayDeque<>();
+        // The channel submits one task per subscriber for the same message; count messages, not tasks
+        final Map<Message<?>, Integer> inFlight = new IdentityHashMap<>();
+        Message<?> lastRejected;
+    }
+
+    public SessionOrderedExecutor(int maxInFlightPerSession, Consumer<Message<?>> onRejected) {
+        this.maxInFlightPerSession = maxInFlightPerSession;
+        this.onRejected = onRejected;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        String sessionId = task instanceof MessageHandlingRunnable handling
+                ? SimpMessageHeaderAccessor.getSessionId(handling.getMessage().getHeaders())
+                : null;
+        if (sessionId == null) {
+            virtualThreads.execute(task);
+            return;
+        }
+
+        MessageHandlingRunnable handling = (MessageHandlingRunnable) task;
+        Message<?> message = handling.getMessage();
+        boolean[] startDrain = {false};
+        boolean[] rejected = {false};
+        boolean[] firstRejection = {false};
+
+        sessions.compute(sessionId, (id, queue) -> {
+            if (queue == null) {
+                queue = new SessionQueue();
+                startDrain[0] = true;
+            }
+            if (!queue.inFlight.containsKey(message)) {
+                if (queue.lastRejected == message) {
+                    rejected[0] = true;
+                } else if (queue.inFlight.size() >= maxInFlightPerSession && isClientSend(message)) {
+                    rejected[0] = true;
+                    firstRejection[0] = true;
+                    queue.lastRejected = message;
+                }
+            }
+            if (rejected[0]) {
+                // Nothing queued; drop a queue created just for this message
+                startDrain[0] = false;
+                return queue.tasks.isEmpty() && queue.inFlight.isEmpty() ? null : queue;
+            }
+            queue.inFlight.merge(message, 1, Integer::sum);
+            queue.tasks.add(handling);
+            return queue;
+        });
+
+        if (firstRejection[0]) {
+            onRejected.accept(message);
+        }
+        if (startDrain[0]) {
+            virtualThreads.execute(() -> drain(sessionId));
+        }
+    }
+
+    /**
+     * Number of client messages currently queued or running for a session
+     */
+    public int inFlight(String sessionId) {
+        SessionQueue queue = sessions.get(sessionId);
+        return queue == null ? 0 : queue.inFlight.size();
+    }
+
+    /**
+     * Helper: Run a session's tasks one after another; the session entry is removed once its queue is empty
+     */
+    private void drain(String sessionId) {
+        while (true) {
+            MessageHandlingRunnable[] next = new MessageHandlingRunnable[1];
+            sessions.computeIfPresent(sessionId, (id, queue) -> {
+                next[0] = queue.tasks.poll();
+                return next[0] == null ? null : queue;
+            });
+            if (next[0] == null) {
+                return;
+            }
+
+            try {
+                next[0].run();
+            } finally {
+                Message<?> message = next[0].getMessage();
+                sessions.computeIfPresent(sessionId, (id, queue) -> {
+                    queue.inFlight.computeIfPresent(message, (m, count) -> count > 1 ? count - 1 : null);
+                    return queue;
+                });
+            }
+        }
+    }
+
+    private boolean isClientSend(Message<?> message) {
+        return SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE;
+    }
+}
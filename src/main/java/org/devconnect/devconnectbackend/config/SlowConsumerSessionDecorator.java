@@ -0,0 +1,268 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+
+/**
+ * Outbound buffer for one WebSocket session with a slow-consumer policy.
+ * sendMessage never blocks: frames are queued and written by one writer task at a time, so a client
+ * that stops reading only fills its own buffer. Once the buffer holds droppableThreshold bytes, frames
+ * for droppable destinations (typing, presence) are discarded instead of queued. A frame that would
+ * push the buffer past bufferSizeLimit first evicts queued droppable frames; only if that is not
+ * enough — or a single write has been blocked for sendTimeLimitMs — is the session closed with
+ * SESSION_NOT_RELIABLE, and the client recovers what it missed through delta sync.
+ */
+public class SlowConsumerSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final byte[] DESTINATION_HEADER = "\ndestination:".getBytes(StandardCharsets.UTF_8);
+
+    private record Pending(WebSocketMessage<?> message, int size, boolean droppable) {
+    }
+
+    private final int bufferSizeLimit;
+    private final int droppableThreshold;
+    private final long sendTimeLimitMs;
+    private final List<String> droppableDestinations;
+    private final Executor writer;
+    private final LongConsumer onDropped;
+    private final Runnable onSlowConsumerClosed;
+
+    // Guarded by lock
+    private final Object lock = new Object();
+    private final ArrayDeque<Pending> buffer = new ArrayDeque<>();
+    private long queuedBytes;
+    private long inFlightBytes;
+    private long writeStartedAt;
+    private boolean writing;
+    private boolean closing;
+    private long droppedFrames;
+
+    public SlowConsumerSessionDecorator(WebSocketSession session,
+                                        int bufferSizeLimit,
+                                        int droppableThreshold,
+                                        long sendTimeLimitMs,
+                                        List<String> droppableDestinations,
+                                        Executor writer,
+                                        LongConsumer onDropped,
+                                        Runnable onSlowConsumerClosed) {
+        super(session);
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.droppableThreshold = droppableThreshold;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.droppableDestinations = droppableDestinations;
+        this.writer = writer;
+        this.onDropped = onDropped;
+        this.onSlowConsumerClosed = onSlowConsumerClosed;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        int size = message.getPayloadLength();
+        boolean droppable = isDroppable(message);
+        long dropped = 0;
+        boolean slowConsumer = false;
+        boolean startWriter = false;
+
+        synchronized (lock) {
+            if (closing) {
+                return;
+            }
+            long buffered = queuedBytes + inFlightBytes;
+            if (writeStartedAt > 0 && System.currentTimeMillis() - writeStartedAt > sendTimeLimitMs) {
+                slowConsumer = true;
+            } else if (droppable && buffered + size > droppableThreshold) {
+                dropped = 1;
+            } else {
+                if (buffered > 0 && buffered + size > bufferSizeLimit) {
+                    // Typing and presence go first; close only if the frame still does not fit
+                    int before = buffer.size();
+                    buffered -= evictDroppable();
+                    dropped = before - buffer.size();
+                    slowConsumer = buffered + size > bufferSizeLimit;
+                }
+                if (!slowConsumer) {
+                    buffer.add(new Pending(message, size, droppable));
+                    queuedBytes += size;
+                    startWriter = !writing;
+                    writing = true;
+                }
+            }
+            droppedFrames += dropped;
+            if (slowConsumer) {
+                closing = true;
+                buffer.clear();
+                queuedBytes = 0;
+            }
+        }
+
+        if (dropped > 0) {
+            onDropped.accept(dropped);
+        }
+        if (slowConsumer) {
+            onSlowConsumerClosed.run();
+            // The close frame may block behind the stalled write; keep it off the sending thread
+            writer.execute(() -> closeDelegate(CloseStatus.SESSION_NOT_RELIABLE));
+        } else if (startWriter) {
+            writer.execute(this::writeBuffered);
+        }
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        synchronized (lock) {
+            closing = true;
+            buffer.clear();
+            queuedBytes = 0;
+        }
+        super.close(status);
+    }
+
+    /**
+     * Bytes queued or being written
+     */
+    public long getBufferedBytes() {
+        synchronized (lock) {
+            return queuedBytes + inFlightBytes;
+        }
+    }
+
+    /**
+     * Frames queued or being written
+     */
+    public int getBufferedFrames() {
+        synchronized (lock) {
+            return buffer.size() + (inFlightBytes > 0 ? 1 : 0);
+        }
+    }
+
+    public long getDroppedFrames() {
+        synchronized (lock) {
+            return droppedFrames;
+        }
+    }
+
+    /**
+     * Helper: Write queued frames in order until the buffer is empty; only one writer runs per session
+     */
+    private void writeBuffered() {
+        while (true) {
+            Pending next;
+            synchronized (lock) {
+                next = buffer.poll();
+                if (next == null || closing) {
+                    writing = false;
+                    return;
+                }
+                queuedBytes -= next.size();
+                inFlightBytes = next.size();
+                writeStartedAt = System.currentTimeMillis();
+            }
+            try {
+                getDelegate().sendMessage(next.message());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error writing to WebSocket session " + getId() + ": " + e.getMessage());
+                synchronized (lock) {
+                    closing = true;
+                    buffer.clear();
+                    queuedBytes = 0;
+                }
+                closeDelegate(CloseStatus.SESSION_NOT_RELIABLE);
+            } finally {
+                synchronized (lock) {
+                    inFlightBytes = 0;
+                    writeStartedAt = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper: Remove queued droppable frames to make room; returns the bytes freed. Caller holds lock.
+     */
+    private long evictDroppable() {
+        long freed = 0;
+        for (Iterator<Pending> it = buffer.iterator(); it.hasNext(); ) {
+            Pending pending = it.next();
+            if (pending.droppable()) {
+                it.remove();
+                freed += pending.size();
+            }
+        }
+        queuedBytes -= freed;
+        return freed;
+    }
+
+    private void closeDelegate(CloseStatus status) {
+        try {
+            getDelegate().close(status);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error closing WebSocket session " + getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper: Whether the STOMP frame is addressed to a droppable destination; only the header block is scanned
+     */
+    private boolean isDroppable(WebSocketMessage<?> message) {
+        if (droppableDestinations.isEmpty() || !(message instanceof TextMessage text)) {
+            return false;
+        }
+        String destination = destinationOf(text.asBytes());
+        if (destination == null) {
+            return false;
+        }
+        for (String droppableDestination : droppableDestinations) {
+            if (destination.endsWith(droppableDestination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The destination header of an encoded STOMP frame, or null if it has none
+     */
+    static String destinationOf(byte[] frame) {
+        for (int i = 0; i < frame.length; i++) {
+            if (frame[i] != '\n') {
+                continue;
+            }
+            if (i + 1 < frame.length && (frame[i + 1] == '\n' || frame[i + 1] == '\r')) {
+                // End of the header block
+                return null;
+            }
+            if (startsWith(frame, i, DESTINATION_HEADER)) {
+                int start = i + DESTINATION_HEADER.length;
+                int end = start;
+                while (end < frame.length && frame[end] != '\n' && frame[end] != '\r') {
+                    end++;
+                }
+                return new String(frame, start, end - start, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] frame, int offset, byte[] prefix) {
+        if (offset + prefix.length > frame.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (frame[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.devconnect.devconnectbackend.service.JWTService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Authenticates STOMP CONNECT frames carrying "Authorization: Bearer {accessToken}".
+ * The session's principal name becomes the user id, so /user destinations route by user id.
+ * A CONNECT without a valid token is refused, so every session that can send has a user id.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private final JWTService jwtService;
+
+    public StompAuthChannelInterceptor(JWTService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Missing access token");
+        }
+
+        String token = authHeader.substring(7);
+        if (!jwtService.isTokenValid(token)) {
+            throw new IllegalArgumentException("Invalid access token");
+        }
+
+        String userId = String.valueOf(jwtService.extractUserId(token));
+        accessor.setUser(new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+        if (accessor.getSessionAttributes() != null) {
+            accessor.getSessionAttributes().put(USER_ID_ATTRIBUTE, userId);
+        }
+        return message;
+    }
+}
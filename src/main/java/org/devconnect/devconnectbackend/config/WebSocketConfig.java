@@ -1,14 +1,62 @@
 package org.devconnect.devconnectbackend.config;
 
+import org.devconnect.devconnectbackend.cluster.ClusterUserDestinationRouter;
+import org.devconnect.devconnectbackend.dto.WebSocketErrorDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    // Resolved lazily; the template is built from this configuration's own channels
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+
+    // Present only when messaging.cluster.enabled=true
+    private final ObjectProvider<ClusterUserDestinationRouter> clusterRouter;
+
+    private final WebSocketOutboundMonitor outboundMonitor;
+
+    private final PayloadEncodingInterceptor payloadEncodingInterceptor;
+
+    private final PresenceActivityInterceptor presenceActivityInterceptor;
+
+    @Value("${messaging.websocket.inbound.max-in-flight-per-session:32}")
+    private int maxInFlightPerSession = 32;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                           ObjectProvider<ClusterUserDestinationRouter> clusterRouter,
+                           WebSocketOutboundMonitor outboundMonitor,
+                           PayloadEncodingInterceptor payloadEncodingInterceptor,
+                           PresenceActivityInterceptor presenceActivityInterceptor) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.messagingTemplate = messagingTemplate;
+        this.clusterRouter = clusterRouter;
+        this.outboundMonitor = outboundMonitor;
+        this.payloadEncodingInterceptor = payloadEncodingInterceptor;
+        this.presenceActivityInterceptor = presenceActivityInterceptor;
+    }
     
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -22,8 +70,56 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         
         // Set user destination prefix for private messages
         config.setUserDestinationPrefix("/user");
+
+        // Forward /user frames to the other nodes the recipient is connected to
+        clusterRouter.ifAvailable(router -> config.configureBrokerChannel().interceptors(router));
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate CONNECT frames before they are queued, note the payload encoding they ask for,
+        // and count every later frame as presence activity
+        registration.interceptors(stompAuthChannelInterceptor, payloadEncodingInterceptor, presenceActivityInterceptor);
+
+        // Virtual threads, in order per session, with a bounded number of messages in flight per session
+        registration.executor(new SessionOrderedExecutor(maxInFlightPerSession, this::rejectOverloaded));
     }
     
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Re-encode frames for connections that negotiated CBOR
+        registration.interceptors(payloadEncodingInterceptor);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Boot's converters (string, bytes, JSON) are registered first; keep them and their order,
+        // retain the source object of JSON payloads and accept application/cbor beside JSON
+        if (messageConverters.isEmpty()) {
+            messageConverters.add(new StringMessageConverter());
+            messageConverters.add(new ByteArrayMessageConverter());
+            messageConverters.add(new MappingJackson2MessageConverter());
+        }
+        messageConverters.replaceAll(converter -> converter instanceof MappingJackson2MessageConverter
+                && !(converter instanceof CborMessageConverter)
+                ? new PayloadRetainingMessageConverter(converter)
+                : converter);
+        messageConverters.add(payloadEncodingInterceptor.getCborConverter());
+        return false;
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Sessions are buffered with the slow-consumer policy before the STOMP handler sees them, so
+        // Spring's own per-session buffer is only a hand-off between outbound threads. Bursts from several
+        // threads can briefly fill it past our limit; its limits stay as a looser backstop
+        registration.setSendBufferSizeLimit(outboundMonitor.getSendBufferSizeLimit() * 4);
+        registration.setSendTimeLimit(outboundMonitor.getSendTimeLimitMs());
+        registration.addDecoratorFactory(outboundMonitor::decorate);
+        // Added last, so it wraps the raw session and sees frames as the buffered writer sends them
+        registration.addDecoratorFactory(payloadEncodingInterceptor::decorate);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register STOMP endpoint that clients will connect to
@@ -35,4 +131,29 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
     }
+
+    /**
+     * Helper: Tell a session that one of its frames was dropped because it has too many in flight
+     */
+    private void rejectOverloaded(Message<?> message) {
+        StompHeaderAccessor rejected = StompHeaderAccessor.wrap(message);
+        String sessionId = rejected.getSessionId();
+
+        WebSocketErrorDTO error = new WebSocketErrorDTO(
+                "Too many messages in flight, retry later",
+                rejected.getDestination(),
+                rejected.getReceipt()
+        );
+
+        // Address the session directly so anonymous and authenticated sessions both receive it
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        try {
+            messagingTemplate.getObject().convertAndSendToUser(
+                    sessionId, "/queue/errors", error, headers.getMessageHeaders());
+        } catch (Exception e) {
+            System.err.println("Error rejecting WebSocket frame: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.devconnect.devconnectbackend.dto.OutboundBufferStatsDTO;
+import org.devconnect.devconnectbackend.dto.SessionBufferDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.security.Principal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps every WebSocket session in a {@link SlowConsumerSessionDecorator} and keeps the per-session
+ * outbound buffer figures (buffered bytes and frames, dropped frames, slow-consumer disconnects)
+ * for the admin stats endpoint.
+ */
+@Component
+public class WebSocketOutboundMonitor {
+
+    private final int sendBufferSizeLimit;
+    private final int droppableThreshold;
+    private final int sendTimeLimitMs;
+    private final List<String> droppableDestinations;
+
+    // Writes block on slow clients; each session's writer is a virtual thread while it has frames queued
+    private final Executor writers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, SlowConsumerSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder slowConsumerDisconnects = new LongAdder();
+
+    public WebSocketOutboundMonitor(
+            @Value("${messaging.websocket.outbound.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+            @Value("${messaging.websocket.outbound.droppable-threshold:131072}") int droppableThreshold,
+            @Value("${messaging.websocket.outbound.send-time-limit-ms:15000}") int sendTimeLimitMs,
+            @Value("${messaging.websocket.outbound.droppable-destinations:/queue/typing,/queue/presence}") List<String> droppableDestinations) {
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.droppableThreshold = droppableThreshold;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.droppableDestinations = droppableDestinations;
+    }
+
+    public int getSendBufferSizeLimit() {
+        return sendBufferSizeLimit;
+    }
+
+    public int getSendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+
+    /**
+     * Decorate the STOMP handler so that it only ever sees buffered sessions
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SlowConsumerSessionDecorator buffered = new SlowConsumerSessionDecorator(
+                        session,
+                        sendBufferSizeLimit,
+                        droppableThreshold,
+                        sendTimeLimitMs,
+                        droppableDestinations,
+                        writers,
+                        droppedFrames::add,
+                        slowConsumerDisconnects::increment
+                );
+                sessions.put(session.getId(), buffered);
+                super.afterConnectionEstablished(buffered);
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                super.handleMessage(buffered(session), message);
+            }
+
+            @Override
+            public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+                super.handleTransportError(buffered(session), exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                WebSocketSession buffered = sessions.remove(session.getId());
+                super.afterConnectionClosed(buffered != null ? buffered : session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Totals plus the sessions with the most bytes buffered
+     */
+    public OutboundBufferStatsDTO getStats(int limit) {
+        List<SessionBufferDTO> buffers = sessions.values().stream()
+                .map(WebSocketOutboundMonitor::toSessionBuffer)
+                .sorted(Comparator.comparingLong(SessionBufferDTO::getBufferedBytes).reversed())
+                .toList();
+        long bufferedBytes = buffers.stream().mapToLong(SessionBufferDTO::getBufferedBytes).sum();
+        return new OutboundBufferStatsDTO(
+                buffers.size(),
+                bufferedBytes,
+                droppedFrames.sum(),
+                slowConsumerDisconnects.sum(),
+                buffers.subList(0, Math.min(limit, buffers.size()))
+        );
+    }
+
+    /**
+     * Bytes buffered for one session, 0 if it is not connected
+     */
+    public long getBufferedBytes(String sessionId) {
+        SlowConsumerSessionDecorator session = sessions.get(sessionId);
+        return session != null ? session.getBufferedBytes() : 0;
+    }
+
+    private WebSocketSession buffered(WebSocketSession session) {
+        WebSocketSession buffered = sessions.get(session.getId());
+        return buffered != null ? buffered : session;
+    }
+
+    private static SessionBufferDTO toSessionBuffer(SlowConsumerSessionDecorator session) {
+        Principal user = session.getPrincipal();
+        return new SessionBufferDTO(
+                session.getId(),
+                user != null ? user.getName() : null,
+                session.getBufferedBytes(),
+                session.getBufferedFrames(),
+                session.getDroppedFrames()
+        );
+    }
+}
@@ -1,40 +1,81 @@
 package org.devconnect.devconnectbackend.controller;
 
 import org.devconnect.devconnectbackend.dto.ChatDTO;
+import org.devconnect.devconnectbackend.dto.DeliveryAckDTO;
 import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.MessagePageDTO;
+import org.devconnect.devconnectbackend.dto.MessageSearchPageDTO;
+import org.devconnect.devconnectbackend.dto.MessageSearchResultDTO;
+import org.devconnect.devconnectbackend.dto.SyncResponseDTO;
+import org.devconnect.devconnectbackend.dto.UserStatusDTO;
 import org.devconnect.devconnectbackend.model.User;
 import org.devconnect.devconnectbackend.service.ConversationService;
+import org.devconnect.devconnectbackend.service.MessageIngestionService;
+import org.devconnect.devconnectbackend.service.MessageSearchService;
 import org.devconnect.devconnectbackend.service.MessageService;
+import org.devconnect.devconnectbackend.service.PresenceService;
+import org.devconnect.devconnectbackend.service.SendRateLimitService;
+import org.devconnect.devconnectbackend.service.SyncService;
 import org.devconnect.devconnectbackend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.zip.GZIPOutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/messages")
 public class MessageController {
 
+    public static final String BEFORE_CURSOR_HEADER = "X-Before-Cursor";
+    public static final String AFTER_CURSOR_HEADER = "X-After-Cursor";
+    public static final String HAS_MORE_HEADER = "X-Has-More";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private MessageIngestionService messageIngestionService;
+
     @Autowired
     private ConversationService conversationService;
 
+    @Autowired
+    private MessageSearchService messageSearchService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private PresenceService presenceService;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SendRateLimitService rateLimitService;
+
     /**
-     * Get all conversations for a user
-     * GET /api/messages/chats/{userId}
+     * Get a page of conversations for a user, most recently active first
+     * GET /api/messages/chats/{userId}[?page={page}&size={size}]
      */
     @GetMapping("/chats/{userId}")
-    public ResponseEntity<List<ChatDTO>> getUserChats(@PathVariable Long userId) {
+    public ResponseEntity<List<ChatDTO>> getUserChats(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<ChatDTO> chats = conversationService.getConversationsForUser(userId.intValue());
+            List<ChatDTO> chats = conversationService.getConversationsForUser(userId.intValue(), page, size);
             return ResponseEntity.ok(chats);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -42,34 +83,58 @@ public class MessageController {
     }
 
     /**
-     * Get messages between two users
-     * GET /api/messages/conversation?userId1={id1}&userId2={id2}
+     * Get a page of messages between two users (newest page when no cursor is given)
+     * GET /api/messages/conversation?userId1={id1}&userId2={id2}[&before={cursor}|&after={cursor}][&limit={n}]
      */
     @GetMapping("/conversation")
     public ResponseEntity<List<MessageDTO>> getConversation(
             @RequestParam Long userId1,
-            @RequestParam Long userId2) {
+            @RequestParam Long userId2,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<MessageDTO> messages = messageService.getMessagesBetweenUsers(
-                    userId1.intValue(), userId2.intValue());
-            return ResponseEntity.ok(messages);
+            MessagePageDTO page = messageService.getMessagePageBetweenUsers(
+                    userId1.intValue(), userId2.intValue(), before, after, limit);
+            return pageResponse(page);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * Get messages in a specific conversation
-     * GET /api/messages/conversation/{conversationId}?userId={userId}
+     * Get a page of messages in a specific conversation (newest page when no cursor is given)
+     * GET /api/messages/conversation/{conversationId}?userId={userId}[&before={cursor}|&after={cursor}][&limit={n}]
      */
     @GetMapping("/conversation/{conversationId}")
     public ResponseEntity<List<MessageDTO>> getConversationMessages(
             @PathVariable Long conversationId,
-            @RequestParam Long userId) {
+            @RequestParam Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<MessageDTO> messages = messageService.getMessagesInConversation(
-                    conversationId.intValue(), userId.intValue());
-            return ResponseEntity.ok(messages);
+            MessagePageDTO page = messageService.getMessagePage(
+                    conversationId.intValue(), userId.intValue(), before, after, limit);
+            return pageResponse(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Download a whole conversation as NDJSON, oldest first; gzip-compressed with gzip=true
+     * GET /api/messages/conversation/{conversationId}/export?userId={userId}[&gzip=true]
+     */
+    @GetMapping("/conversation/{conversationId}/export")
+    public ResponseEntity<StreamingResponseBody> exportConversation(
+            @PathVariable Long conversationId,
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            // Checked before the download starts; once it has, a failure can only cut it short
+            conversationService.getParticipants(conversationId.intValue(), userId.intValue());
+            return exportResponse(messageService, conversationId.intValue(), gzip);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -78,29 +143,97 @@ public class MessageController {
     /**
      * Send a message (REST endpoint alternative to WebSocket)
      * POST /api/messages/send
+     * 429 with Retry-After when the sender is over the message rate limit
      */
     @PostMapping("/send")
     public ResponseEntity<MessageDTO> sendMessage(@RequestBody MessageDTO messageDTO) {
+        if (!rateLimitService.tryAcquire(SendRateLimitService.Kind.MESSAGE, messageDTO.getSenderId())) {
+            return tooManyRequests(SendRateLimitService.Kind.MESSAGE, messageDTO.getSenderId());
+        }
         try {
-            MessageDTO sentMessage = messageService.sendMessage(
+            // Waits for the commit; with group commit enabled that is the end of the current batch
+            MessageDTO sentMessage = messageIngestionService.submit(
                     messageDTO.getSenderId().intValue(),
                     messageDTO.getReceiverId().intValue(),
                     messageDTO.getText()
-            );
+            ).join();
+            presenceService.touch(messageDTO.getSenderId().intValue());
             return ResponseEntity.ok(sentMessage);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Edit a message's text; only the sender may edit
+     * PUT /api/messages/{messageId}
+     * Body: { "senderId": ..., "text": ... }
+     */
+    @PutMapping("/{messageId}")
+    public ResponseEntity<MessageDTO> editMessage(@PathVariable Long messageId, @RequestBody MessageDTO messageDTO) {
+        try {
+            MessageDTO edited = messageService.editMessage(
+                    messageId.intValue(),
+                    messageDTO.getSenderId().intValue(),
+                    messageDTO.getText()
+            );
+            return ResponseEntity.ok(edited);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Search the user's conversations, best matches first
+     * GET /api/messages/search?userId={userId}&q={query}[&cursor={cursor}][&limit={n}]
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<MessageSearchResultDTO>> searchMessages(
+            @RequestParam Long userId,
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            MessageSearchPageDTO page = messageSearchService.search(userId.intValue(), q, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header(HAS_MORE_HEADER, String.valueOf(page.isHasMore()));
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getResults());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Changes across all of a user's conversations since a sync token, for reconnecting clients
+     * GET /api/messages/sync/{userId}[?token={token}][&limit={n}]
+     */
+    @GetMapping("/sync/{userId}")
+    public ResponseEntity<SyncResponseDTO> sync(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String token,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(syncService.sync(userId.intValue(), token, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Mark messages as read
      * PUT /api/messages/read?conversationId={id}&readerId={readerId}
+     * 429 with Retry-After when the reader is over the receipt rate limit
      */
     @PutMapping("/read")
     public ResponseEntity<Map<String, String>> markAsRead(
             @RequestParam Long conversationId,
             @RequestParam Long readerId) {
+        if (!rateLimitService.tryAcquire(SendRateLimitService.Kind.RECEIPT, readerId)) {
+            return tooManyRequests(SendRateLimitService.Kind.RECEIPT, readerId);
+        }
         try {
             messageService.markMessagesAsRead(conversationId.intValue(), readerId.intValue());
             Map<String, String> response = new HashMap<>();
@@ -111,6 +244,28 @@ public class MessageController {
         }
     }
 
+    /**
+     * Acknowledge delivery of many messages at once
+     * PUT /api/messages/delivered
+     * Body: { "recipientId": ..., "messageIds": [...], "upToMessageIds": [...] }
+     * 429 with Retry-After when the recipient is over the receipt rate limit
+     */
+    @PutMapping("/delivered")
+    public ResponseEntity<Map<String, Object>> markAsDelivered(@RequestBody DeliveryAckDTO ack) {
+        if (!rateLimitService.tryAcquire(SendRateLimitService.Kind.RECEIPT, ack.getRecipientId())) {
+            return tooManyRequests(SendRateLimitService.Kind.RECEIPT, ack.getRecipientId());
+        }
+        try {
+            int delivered = acknowledgeDelivery(ack);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Messages marked as delivered");
+            response.put("delivered", delivered);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Update user online status
      * PUT /api/messages/status/{userId}
@@ -145,5 +300,85 @@ public class MessageController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
 
+    /**
+     * Get the status of many users at once; unknown ids are left out
+     * GET /api/messages/status?userIds=1,2,3
+     */
+    @GetMapping("/status")
+    public ResponseEntity<List<UserStatusDTO>> getUserStatuses(@RequestParam List<Long> userIds) {
+        try {
+            Map<Integer, User.UserStatus> statuses = presenceService.getStatuses(
+                    userIds.stream().map(Long::intValue).toList());
+            List<UserStatusDTO> response = statuses.entrySet().stream()
+                    .map(entry -> new UserStatusDTO(entry.getKey().longValue(), entry.getValue().name().toLowerCase()))
+                    .toList();
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Helper: Apply a delivery acknowledgement and return how many messages changed state
+     */
+    private int acknowledgeDelivery(DeliveryAckDTO ack) {
+        return messageService.markMessagesAsDelivered(
+                ack.getRecipientId().intValue(),
+                toIntegerIds(ack.getMessageIds()),
+                toIntegerIds(ack.getUpToMessageIds())
+        );
+    }
+
+    /**
+     * Helper: 429 telling the client when the user may send this kind again
+     */
+    private <T> ResponseEntity<T> tooManyRequests(SendRateLimitService.Kind kind, Long userId) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitService.retryAfterSeconds(kind, userId)))
+                .build();
+    }
+
+    /**
+     * Helper: Attachment streaming a conversation export; shared with the admin export
+     */
+    static ResponseEntity<StreamingResponseBody> exportResponse(MessageService messageService,
+                                                                int conversationId, boolean gzip) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                messageService.exportConversation(conversationId, compressed);
+                compressed.finish();
+            } else {
+                messageService.exportConversation(conversationId, out);
+            }
+        };
+        String filename = "conversation-" + conversationId + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private List<Integer> toIntegerIds(List<Long> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().filter(Objects::nonNull).map(Long::intValue).toList();
+    }
+
+    /**
+     * Helper: Page body stays a plain message list; cursors travel in response headers
+     */
+    private ResponseEntity<List<MessageDTO>> pageResponse(MessagePageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HAS_MORE_HEADER, String.valueOf(page.isHasMore()));
+        if (page.getBeforeCursor() != null) {
+            response.header(BEFORE_CURSOR_HEADER, page.getBeforeCursor());
+        }
+        if (page.getAfterCursor() != null) {
+            response.header(AFTER_CURSOR_HEADER, page.getAfterCursor());
+        }
+        return response.body(page.getMessages());
+    }
+}
@@ -0,0 +1,88 @@
+package org.devconnect.devconnectbackend.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.devconnect.devconnectbackend.config.WebSocketOutboundMonitor;
+import org.devconnect.devconnectbackend.dto.OutboundBufferStatsDTO;
+import org.devconnect.devconnectbackend.dto.SummaryCheckDTO;
+import org.devconnect.devconnectbackend.service.ConversationSummaryService;
+import org.devconnect.devconnectbackend.service.ConversationService;
+import org.devconnect.devconnectbackend.service.MessageArchiveService;
+import org.devconnect.devconnectbackend.service.MessageSearchService;
+import org.devconnect.devconnectbackend.service.MessageService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/admin/messaging")
+@RequiredArgsConstructor
+public class MessagingAdminController {
+
+    private final ConversationSummaryService summaryService;
+    private final MessageArchiveService archiveService;
+    private final WebSocketOutboundMonitor outboundMonitor;
+    private final MessageService messageService;
+    private final ConversationService conversationService;
+    private final MessageSearchService searchService;
+
+    // Create summaries for conversations that predate them
+    @PostMapping("/summaries/backfill")
+    public ResponseEntity<Map<String, Object>> backfillSummaries() {
+        int created = summaryService.backfillMissing();
+        Map<String, Object> response = new HashMap<>();
+        response.put("created", created);
+        return ResponseEntity.ok(response);
+    }
+
+    // Compare stored summaries against the raw messages table
+    @GetMapping("/summaries/check")
+    public ResponseEntity<SummaryCheckDTO> checkSummaries() {
+        return ResponseEntity.ok(summaryService.checkConsistency());
+    }
+
+    // Index messages that predate search; already indexed messages are skipped
+    @PostMapping("/search/backfill")
+    public ResponseEntity<Map<String, Object>> backfillSearch() {
+        int indexed = searchService.backfill();
+        Map<String, Object> response = new HashMap<>();
+        response.put("indexed", indexed);
+        return ResponseEntity.ok(response);
+    }
+
+    // Run one archival pass now instead of waiting for the schedule
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Object>> runArchive() {
+        int archived = archiveService.archiveColdConversations();
+        Map<String, Object> response = new HashMap<>();
+        response.put("archived", archived);
+        return ResponseEntity.ok(response);
+    }
+
+    // Outbound WebSocket buffers: totals and the sessions with the most bytes waiting
+    @GetMapping("/websocket/buffers")
+    public ResponseEntity<OutboundBufferStatsDTO> websocketBuffers(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(outboundMonitor.getStats(Math.max(0, limit)));
+    }
+
+    // Any conversation as NDJSON, e.g. for a dispute over a project; same format as the participants' export
+    @GetMapping("/conversations/{conversationId}/export")
+    public ResponseEntity<StreamingResponseBody> exportConversation(
+            @PathVariable Integer conversationId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            conversationService.getParticipants(conversationId);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return MessageController.exportResponse(messageService, conversationId, gzip);
+    }
+}
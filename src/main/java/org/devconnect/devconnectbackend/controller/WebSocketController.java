@@ -1,104 +1,193 @@
-//package org.devconnect.devconnectbackend.controller;
-//
-//import org.devconnect.devconnectbackend.dto.MessageDTO;
-//import org.devconnect.devconnectbackend.dto.TypingIndicatorDTO;
-//import org.devconnect.devconnectbackend.model.Conversation;
-//import org.devconnect.devconnectbackend.service.ConversationService;
-//import org.devconnect.devconnectbackend.service.MessageService;
-//import org.springframework.beans.factory.annotation.Autowired;
-//import org.springframework.messaging.handler.annotation.MessageMapping;
-//import org.springframework.messaging.handler.annotation.Payload;
-//import org.springframework.messaging.simp.SimpMessagingTemplate;
-//import org.springframework.stereotype.Controller;
-//
-//@Controller
-//public class WebSocketController {
-//
-//    @Autowired
-//    private MessageService messageService;
-//
-//    @Autowired
-//    private ConversationService conversationService;
-//
-//    @Autowired
-//    private SimpMessagingTemplate messagingTemplate;
-//
-//    /**
-//     * Handle incoming messages from clients
-//     * Endpoint: /app/chat
-//     */
-//    @MessageMapping("/chat")
-//    public void handleMessage(@Payload MessageDTO messageDTO) {
-//        try {
-//            // Process and send message (without projectId)
-//            MessageDTO savedMessage = messageService.sendMessage(
-//                    messageDTO.getSenderId(),
-//                    messageDTO.getReceiverId(),
-//                    messageDTO.getText()
-//            );
-//
-//            // Send message to receiver
-//            messagingTemplate.convertAndSendToUser(
-//                    messageDTO.getReceiverId().toString(),
-//                    "/queue/messages",
-//                    savedMessage
-//            );
-//
-//            // Send confirmation to sender
-//            messagingTemplate.convertAndSendToUser(
-//                    messageDTO.getSenderId().toString(),
-//                    "/queue/messages",
-//                    savedMessage
-//            );
-//        } catch (Exception e) {
-//            System.err.println("Error handling message: " + e.getMessage());
-//        }
-//    }
-//
-//    /**
-//     * Handle typing indicators
-//     * Endpoint: /app/typing
-//     */
-//    @MessageMapping("/typing")
-//    public void handleTypingIndicator(@Payload TypingIndicatorDTO typingIndicator) {
-//        // Send typing indicator to the receiver
-//        messagingTemplate.convertAndSendToUser(
-//                typingIndicator.getReceiverId().toString(),
-//                "/queue/typing",
-//                typingIndicator
-//        );
-//    }
-//
-//    /**
-//     * Handle message delivery confirmation
-//     * Endpoint: /app/message-delivered
-//     */
-//    @MessageMapping("/message-delivered")
-//    public void handleMessageDelivered(@Payload MessageDTO messageDTO) {
-//        messageService.markMessageAsDelivered(messageDTO.getConversation_id());
-//    }
-//
-//    /**
-//     * Handle message read confirmation
-//     * Endpoint: /app/messages-read
-//     * Expects: { "senderId": ..., "receiverId": ... }
-//     */
-//    @MessageMapping("/messages-read")
-//    public void handleMessagesRead(@Payload MessageDTO messageDTO) {
-//        try {
-//            // Get or create conversation to get conversation ID
-//            Conversation conversation = conversationService.getOrCreateConversation(
-//                messageDTO.getSenderId(),
-//                messageDTO.getReceiverId()
-//            );
-//
-//            messageService.markMessagesAsRead(
-//                conversation.getConversation_id(),
-//                messageDTO.getSenderId(),
-//                messageDTO.getReceiverId()
-//            );
-//        } catch (Exception e) {
-//            System.err.println("Error marking messages as read: " + e.getMessage());
-//        }
-//    }
-//}
+package org.devconnect.devconnectbackend.controller;
+
+import org.devconnect.devconnectbackend.dto.DeliveryAckDTO;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.TypingIndicatorDTO;
+import org.devconnect.devconnectbackend.dto.WebSocketErrorDTO;
+import org.devconnect.devconnectbackend.service.ConversationService;
+import org.devconnect.devconnectbackend.service.MessageFanOutService;
+import org.devconnect.devconnectbackend.service.MessageIngestionService;
+import org.devconnect.devconnectbackend.service.MessageService;
+import org.devconnect.devconnectbackend.service.PresenceService;
+import org.devconnect.devconnectbackend.service.SendRateLimitService;
+import org.devconnect.devconnectbackend.service.TypingIndicatorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+
+/**
+ * STOMP handlers for clients sending over /app.
+ * Connections are authenticated at CONNECT; the acting user is always the session's principal (user id),
+ * never a sender, reader or recipient id from the payload.
+ * Failures are reported to the sending session on /user/queue/errors, as are messages and receipts over the
+ * sender's rate limit; typing events over the limit are dropped quietly.
+ */
+@Controller
+public class WebSocketController {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageIngestionService messageIngestionService;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private TypingIndicatorService typingIndicatorService;
+
+    @Autowired
+    private SendRateLimitService rateLimitService;
+
+    /**
+     * Handle incoming messages from clients
+     * Endpoint: /app/chat (also /app/chat.sendMessage)
+     * The saved message is pushed to the receiver and echoed to the sending session in one fan-out,
+     * converted once for both.
+     */
+    @MessageMapping({"/chat", "/chat.sendMessage"})
+    public void handleMessage(@Payload MessageDTO messageDTO, Principal principal,
+                              SimpMessageHeaderAccessor headerAccessor) {
+        Long senderId = userId(principal);
+        String sessionId = headerAccessor.getSessionId();
+        MessageFanOutService.EchoTarget echo = new MessageFanOutService.EchoTarget(principal.getName(), sessionId);
+        checkRateLimit(SendRateLimitService.Kind.MESSAGE, senderId);
+
+        // Waits for the commit; with group commit enabled that is the end of the current batch
+        messageIngestionService.submit(
+                senderId.intValue(),
+                messageDTO.getReceiverId().intValue(),
+                messageDTO.getText(),
+                echo
+        ).join();
+
+        typingIndicatorService.onMessageSent(senderId, messageDTO.getReceiverId());
+    }
+
+    /**
+     * Handle typing indicators
+     * Endpoint: /app/typing
+     */
+    @MessageMapping("/typing")
+    public void handleTypingIndicator(@Payload TypingIndicatorDTO typingIndicator, Principal principal) {
+        Long senderId = userId(principal);
+        if (!rateLimitService.tryAcquire(SendRateLimitService.Kind.TYPING, senderId)) {
+            return;
+        }
+
+        // Coalesced; the receiver gets at most one started and one stopped frame per interval
+        typingIndicatorService.onTyping(senderId, typingIndicator.getReceiverId(), typingIndicator.isTyping());
+    }
+
+    /**
+     * Handle message delivery confirmation
+     * Endpoint: /app/message-delivered
+     * Expects: { "id": ... }
+     */
+    @MessageMapping("/message-delivered")
+    public void handleMessageDelivered(@Payload MessageDTO messageDTO, Principal principal) {
+        Long recipientId = userId(principal);
+        checkRateLimit(SendRateLimitService.Kind.RECEIPT, recipientId);
+        // Only the message's recipient may acknowledge it
+        messageService.markMessagesAsDelivered(recipientId.intValue(), List.of(messageDTO.getId().intValue()), List.of());
+    }
+
+    /**
+     * Acknowledge delivery of many messages at once
+     * Endpoint: /app/messages-delivered
+     * Expects: { "messageIds": [...], "upToMessageIds": [...] }; the recipient is the session's user
+     */
+    @MessageMapping("/messages-delivered")
+    public void handleMessagesDelivered(@Payload DeliveryAckDTO ack, Principal principal) {
+        Long recipientId = userId(principal);
+        checkRateLimit(SendRateLimitService.Kind.RECEIPT, recipientId);
+        messageService.markMessagesAsDelivered(
+                recipientId.intValue(),
+                toIntegerIds(ack.getMessageIds()),
+                toIntegerIds(ack.getUpToMessageIds())
+        );
+    }
+
+    /**
+     * Handle message read confirmation
+     * Endpoint: /app/messages-read
+     * Expects: { "senderId": ... }, the other participant; the reader is the session's user
+     */
+    @MessageMapping("/messages-read")
+    public void handleMessagesRead(@Payload MessageDTO messageDTO, Principal principal) {
+        Long readerId = userId(principal);
+        checkRateLimit(SendRateLimitService.Kind.RECEIPT, readerId);
+
+        // Get or create conversation to get conversation ID
+        Integer conversationId = conversationService.getOrCreateConversationId(
+                messageDTO.getSenderId().intValue(),
+                readerId.intValue()
+        );
+
+        messageService.markMessagesAsRead(conversationId, readerId.intValue());
+    }
+
+    /**
+     * Keep an authenticated session ONLINE; sessions that stay quiet longer than the presence timeout go OFFLINE
+     * Endpoint: /app/presence.heartbeat
+     */
+    @MessageMapping("/presence.heartbeat")
+    public void handleHeartbeat(Principal principal) {
+        presenceService.heartbeat(userId(principal).intValue());
+    }
+
+    /**
+     * Report a failed frame to the session that sent it
+     */
+    @MessageExceptionHandler
+    @SendToUser(value = "/queue/errors", broadcast = false)
+    public WebSocketErrorDTO handleException(Exception e, SimpMessageHeaderAccessor headerAccessor) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        System.err.println("Error handling WebSocket frame: " + cause.getMessage());
+        return new WebSocketErrorDTO(
+                cause.getMessage(),
+                headerAccessor.getDestination(),
+                headerAccessor.getFirstNativeHeader("receipt")
+        );
+    }
+
+    /**
+     * Helper: The session's user id; CONNECT already refuses sessions without one
+     */
+    private Long userId(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Not authenticated");
+        }
+        return Long.valueOf(principal.getName());
+    }
+
+    /**
+     * Helper: Reject the frame, before any database work, if the user is over the limit for this kind of send
+     */
+    private void checkRateLimit(SendRateLimitService.Kind kind, Long userId) {
+        if (!rateLimitService.tryAcquire(kind, userId)) {
+            throw new RuntimeException("Rate limit exceeded, retry in "
+                    + rateLimitService.retryAfterSeconds(kind, userId) + "s");
+        }
+    }
+
+    private List<Integer> toIntegerIds(List<Long> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().filter(Objects::nonNull).map(Long::intValue).toList();
+    }
+}
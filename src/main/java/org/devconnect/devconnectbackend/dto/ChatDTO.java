@@ -13,6 +13,7 @@ public class ChatDTO {
     private LocalDateTime lastMessageTime;
     private Integer unreadCount;
     private Long projectId;
+    private String lastMessageStatus;
     
     // Constructors
     public ChatDTO() {}
@@ -112,4 +113,12 @@ public class ChatDTO {
     public void setProjectId(Long projectId) {
         this.projectId = projectId;
     }
+    
+    public String getLastMessageStatus() {
+        return lastMessageStatus;
+    }
+    
+    public void setLastMessageStatus(String lastMessageStatus) {
+        this.lastMessageStatus = lastMessageStatus;
+    }
 }
@@ -0,0 +1,25 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+
+import org.devconnect.devconnectbackend.model.Message;
+import org.devconnect.devconnectbackend.model.User;
+
+/**
+ * One inbox row as projected by a single query: the conversation, the other
+ * participant, the last message preview and the caller's unread count.
+ */
+public record ChatInboxRow(
+        Integer conversationId,
+        LocalDateTime conversationCreatedAt,
+        Integer otherUserId,
+        String otherFirstName,
+        String otherLastName,
+        User.UserRole otherUserRole,
+        User.UserStatus otherUserStatus,
+        String lastMessage,
+        Message.MessageStatus lastMessageStatus,
+        LocalDateTime lastMessageTime,
+        Integer unreadCount
+) {
+}
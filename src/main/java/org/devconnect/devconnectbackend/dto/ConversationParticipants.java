@@ -0,0 +1,7 @@
+package org.devconnect.devconnectbackend.dto;
+
+/**
+ * The two participant ids of a conversation, projected without loading the entity or its users
+ */
+public record ConversationParticipants(Integer user1Id, Integer user2Id) {
+}
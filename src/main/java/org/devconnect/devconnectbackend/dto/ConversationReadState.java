@@ -0,0 +1,24 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Both participants' read watermarks for one conversation, projected straight from its summary
+ */
+public record ConversationReadState(
+        Integer user1LastReadMessageId,
+        LocalDateTime user1LastReadAt,
+        Integer user2LastReadMessageId,
+        LocalDateTime user2LastReadAt
+) {
+
+    public static final ConversationReadState NONE = new ConversationReadState(null, null, null, null);
+
+    public ReadWatermark user1() {
+        return ReadWatermark.of(user1LastReadMessageId, user1LastReadAt);
+    }
+
+    public ReadWatermark user2() {
+        return ReadWatermark.of(user2LastReadMessageId, user2LastReadAt);
+    }
+}
@@ -0,0 +1,19 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A conversation's read watermarks as projected for several conversations at once
+ */
+public record ConversationReadStateRow(
+        Integer conversationId,
+        Integer user1LastReadMessageId,
+        LocalDateTime user1LastReadAt,
+        Integer user2LastReadMessageId,
+        LocalDateTime user2LastReadAt
+) {
+
+    public ConversationReadState readState() {
+        return new ConversationReadState(user1LastReadMessageId, user1LastReadAt, user2LastReadMessageId, user2LastReadAt);
+    }
+}
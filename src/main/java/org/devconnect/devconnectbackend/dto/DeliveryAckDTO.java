@@ -0,0 +1,21 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Batch delivery acknowledgement from a recipient.
+ * Either list the delivered message ids, or give the newest received message id
+ * per conversation to acknowledge everything up to and including it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryAckDTO {
+    private Long recipientId;
+    private List<Long> messageIds;
+    private List<Long> upToMessageIds;
+}
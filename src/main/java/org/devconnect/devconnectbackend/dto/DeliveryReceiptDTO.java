@@ -0,0 +1,21 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One aggregated delivery receipt sent to a message sender
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryReceiptDTO {
+    private Long conversationId;
+    private Long recipientId;
+    private List<Long> messageIds;
+    private LocalDateTime deliveredAt;
+}
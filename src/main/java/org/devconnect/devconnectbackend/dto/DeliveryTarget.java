@@ -0,0 +1,7 @@
+package org.devconnect.devconnectbackend.dto;
+
+/**
+ * A message eligible for a SENT → DELIVERED transition, with what is needed to route its receipt
+ */
+public record DeliveryTarget(Integer messageId, Integer conversationId, Integer senderId) {
+}
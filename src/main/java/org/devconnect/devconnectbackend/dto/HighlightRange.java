@@ -0,0 +1,7 @@
+package org.devconnect.devconnectbackend.dto;
+
+/**
+ * A matched term inside a search snippet, as [start, end) character offsets into the snippet
+ */
+public record HighlightRange(int start, int end) {
+}
@@ -0,0 +1,21 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessagePageDTO {
+    // Messages in chronological order (oldest → newest)
+    private List<MessageDTO> messages;
+    // Cursor of the oldest message in the page; pass as "before" to load older history
+    private String beforeCursor;
+    // Cursor of the newest message in the page; pass as "after" to load newer messages
+    private String afterCursor;
+    // Whether more messages exist beyond this page in the direction that was queried
+    private boolean hasMore;
+}
@@ -0,0 +1,19 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageSearchPageDTO {
+    // Best matches first, newest first among equal matches
+    private List<MessageSearchResultDTO> results;
+    // Cursor of the last result in the page; pass as "cursor" to load the next page
+    private String nextCursor;
+    // Whether more results exist after this page
+    private boolean hasMore;
+}
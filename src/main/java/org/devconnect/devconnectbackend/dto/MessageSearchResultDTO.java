@@ -0,0 +1,26 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageSearchResultDTO {
+    private Long messageId;
+    private Long conversationId;
+    private Long senderId;
+    // The other participant of the conversation, from the searching user's point of view
+    private Long otherUserId;
+    // Part of the message around the first match
+    private String snippet;
+    // Matched terms within the snippet
+    private List<HighlightRange> highlights;
+    private LocalDateTime timestamp;
+    // Number of distinct query terms the message contains
+    private long score;
+}
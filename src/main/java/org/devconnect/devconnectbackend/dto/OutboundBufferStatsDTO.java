@@ -0,0 +1,18 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboundBufferStatsDTO {
+    private int sessions;
+    private long bufferedBytes;
+    private long droppedFrames;
+    private long slowConsumerDisconnects;
+    private List<SessionBufferDTO> busiestSessions;
+}
@@ -0,0 +1,20 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One aggregated read receipt: the reader has read every message up to and including lastReadMessageId
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReadReceiptDTO {
+    private Long conversationId;
+    private Long readerId;
+    private Long lastReadMessageId;
+    private LocalDateTime readAt;
+}
@@ -0,0 +1,35 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+
+import org.devconnect.devconnectbackend.model.Message;
+
+/**
+ * A participant's read position in a conversation: everything at or before
+ * the (createdAt, messageId) of the last read message has been read.
+ */
+public record ReadWatermark(Integer messageId, LocalDateTime createdAt) {
+
+    // Nothing read yet; sorts before every stored message
+    public static final ReadWatermark NONE = new ReadWatermark(0, LocalDateTime.of(1970, 1, 1, 0, 0));
+
+    public static ReadWatermark of(Integer messageId, LocalDateTime createdAt) {
+        return messageId == null || createdAt == null ? NONE : new ReadWatermark(messageId, createdAt);
+    }
+
+    public static ReadWatermark of(Message message) {
+        return message == null ? NONE : new ReadWatermark(message.getMessageId(), message.getCreatedAt());
+    }
+
+    public boolean isNone() {
+        return this.equals(NONE);
+    }
+
+    /**
+     * Whether the given message is at or before this watermark
+     */
+    public boolean covers(Message message) {
+        int byTime = message.getCreatedAt().compareTo(createdAt);
+        return byTime < 0 || (byTime == 0 && message.getMessageId() <= messageId);
+    }
+}
@@ -0,0 +1,47 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over search results.
+ * Points at a single hit by its (score, createdAt, messageId) position in ranking order.
+ */
+public record SearchCursor(long score, LocalDateTime createdAt, Integer messageId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static SearchCursor of(SearchHit hit) {
+        return new SearchCursor(hit.score(), hit.createdAt(), hit.messageId());
+    }
+
+    /**
+     * Encode the cursor as a URL-safe token
+     */
+    public String encode() {
+        String raw = score + SEPARATOR + createdAt + SEPARATOR + messageId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}; returns null for a null or blank token
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            return new SearchCursor(
+                    Long.parseLong(raw.substring(0, first)),
+                    LocalDateTime.parse(raw.substring(first + 1, last)),
+                    Integer.valueOf(raw.substring(last + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message matching a search, ranked by how many distinct query terms it contains
+ */
+public record SearchHit(Integer messageId, Integer conversationId, LocalDateTime createdAt, Long score) {
+}
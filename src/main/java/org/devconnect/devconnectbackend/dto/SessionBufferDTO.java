@@ -0,0 +1,16 @@
+package org.devconnect.devconnectbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionBufferDTO {
+    private String sessionId;
+    private String user;
+    private long bufferedBytes;
+    private int bufferedFrames;
+    private long droppedFrames;
+}
@@ -0,0 +1,16 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SummaryCheckDTO {
+    private int conversationsChecked;
+    private int missingSummaries;
+    private List<SummaryMismatchDTO> mismatches;
+}
@@ -0,0 +1,15 @@
+package org.devconnect.devconnectbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SummaryMismatchDTO {
+    private Long conversationId;
+    private String field;
+    private String expected;
+    private String actual;
+}
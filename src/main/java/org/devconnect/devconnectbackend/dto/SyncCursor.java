@@ -0,0 +1,54 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.devconnect.devconnectbackend.model.SyncChange;
+
+/**
+ * Opaque sync token: a position in a user's change feed, by (changedAt, changeId)
+ */
+public record SyncCursor(LocalDateTime changedAt, Long changeId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static SyncCursor of(SyncChange change) {
+        return new SyncCursor(change.getChangedAt(), change.getChangeId());
+    }
+
+    /**
+     * Whether this position lies before the other one
+     */
+    public boolean isBefore(SyncCursor other) {
+        int byTime = changedAt.compareTo(other.changedAt());
+        return byTime < 0 || (byTime == 0 && changeId < other.changeId());
+    }
+
+    /**
+     * Encode the cursor as a URL-safe token
+     */
+    public String encode() {
+        String raw = changedAt + SEPARATOR + changeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}; returns null for a null or blank token
+     */
+    public static SyncCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new SyncCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sync token", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Current state of a message that changed since the client's sync token; clients upsert it by id
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncMessageDTO {
+    private Long id;
+    private Long conversationId;
+    private Long senderId;
+    private Long receiverId;
+    // Null once the message is deleted
+    private String text;
+    private String status;
+    private LocalDateTime timestamp;
+    private LocalDateTime editedAt;
+    private boolean deleted;
+}
@@ -0,0 +1,28 @@
+package org.devconnect.devconnectbackend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Everything that changed in a user's conversations since their sync token
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncResponseDTO {
+    // Inbox rows of conversations that are new or changed, in the same shape as /chats
+    private List<ChatDTO> conversations;
+    // New, edited, deleted or re-statused messages, oldest change first
+    private List<SyncMessageDTO> messages;
+    // The other participant's read position in each changed conversation they have read
+    private List<ReadReceiptDTO> reads;
+    // Pass as "token" on the next sync
+    private String syncToken;
+    // Whether more changes are waiting; sync again right away with syncToken
+    private boolean hasMore;
+    // The token was missing or too old: reload chats and conversations in full, then sync from syncToken
+    private boolean resetRequired;
+}
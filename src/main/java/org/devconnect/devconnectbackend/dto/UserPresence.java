@@ -0,0 +1,11 @@
+package org.devconnect.devconnectbackend.dto;
+
+import org.devconnect.devconnectbackend.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's stored presence columns
+ */
+public record UserPresence(Integer userId, User.UserStatus status, LocalDateTime lastSeen) {
+}
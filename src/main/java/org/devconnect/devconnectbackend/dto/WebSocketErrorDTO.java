@@ -0,0 +1,19 @@
+package org.devconnect.devconnectbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Error pushed to a WebSocket session on /user/queue/errors
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebSocketErrorDTO {
+    private String error;
+    // Destination of the frame that failed, e.g. /app/chat
+    private String destination;
+    // Receipt header of the failed frame, if the client set one
+    private String receiptId;
+}
@@ -0,0 +1,27 @@
+package org.devconnect.devconnectbackend.listener;
+
+import jakarta.persistence.PostRemove;
+import org.devconnect.devconnectbackend.model.Conversation;
+import org.devconnect.devconnectbackend.service.ConversationService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener on {@link Conversation} that keeps ConversationService's in-memory lookups
+ * from answering for deleted conversations. Hibernate creates it through Spring, so it can be autowired.
+ */
+public class ConversationCacheListener {
+
+    // Looked up lazily: the service depends on repositories that are built after this listener
+    @Autowired
+    private ObjectProvider<ConversationService> conversationService;
+
+    @PostRemove
+    public void onRemove(Conversation conversation) {
+        conversationService.ifAvailable(service -> service.evict(
+                conversation.getConversationId(),
+                conversation.getUser1().getUserId(),
+                conversation.getUser2().getUserId()
+        ));
+    }
+}
@@ -0,0 +1,63 @@
+package org.devconnect.devconnectbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Index entry for one block of a conversation's archived messages: where the block sits in the
+ * segment files and the (createdAt, messageId) range it covers, so history reads can find the
+ * blocks they need without opening any others. Blocks of a conversation never overlap.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "archived_message_blocks",
+    indexes = {
+        // Keyset walks over a conversation's blocks by the position of their newest message
+        @Index(name = "idx_archived_blocks_conversation_last", columnList = "conversation_id, last_created_at, last_message_id")
+    }
+)
+public class ArchivedMessageBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "archived_block_seq_gen")
+    @SequenceGenerator(name = "archived_block_seq_gen", sequenceName = "archived_block_seq", allocationSize = 50)
+    @Column(name = "block_id")
+    private Long blockId;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Integer conversationId;
+
+    @Column(name = "segment_id", nullable = false)
+    private Integer segmentId;
+
+    @Column(name = "segment_offset", nullable = false)
+    private Long segmentOffset;
+
+    @Column(name = "block_length", nullable = false)
+    private Integer blockLength;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    @Column(name = "first_created_at", nullable = false)
+    private LocalDateTime firstCreatedAt;
+
+    @Column(name = "first_message_id", nullable = false)
+    private Integer firstMessageId;
+
+    @Column(name = "last_created_at", nullable = false)
+    private LocalDateTime lastCreatedAt;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Integer lastMessageId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -2,6 +2,7 @@ package org.devconnect.devconnectbackend.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import org.devconnect.devconnectbackend.listener.ConversationCacheListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
@@ -10,17 +11,22 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(ConversationCacheListener.class)
 @Table(
     name = "conversations",
     uniqueConstraints = {
         @UniqueConstraint(columnNames = {"user1_id", "user2_id"})
+    },
+    indexes = {
+        // The unique constraint covers lookups by user1; inbox queries also filter by user2
+        @Index(name = "idx_conversations_user2", columnList = "user2_id")
     }
 )
 public class Conversation {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversation_seq_gen")
-    @SequenceGenerator(name = "conversation_seq_gen", sequenceName = "conversation_seq", allocationSize = 1)
+    @SequenceGenerator(name = "conversation_seq_gen", sequenceName = "conversation_seq", allocationSize = 50)
     @Column(name = "conversation_id")
     private Integer conversationId;
 
@@ -0,0 +1,81 @@
+package org.devconnect.devconnectbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized per-conversation inbox state, maintained on the message write path
+ * so inbox reads never have to scan message rows.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "conversation_summaries",
+    indexes = {
+        @Index(name = "idx_conversation_summaries_activity", columnList = "last_activity_at")
+    }
+)
+public class ConversationSummary {
+
+    public static final int PREVIEW_LENGTH = 255;
+
+    @Id
+    @Column(name = "conversation_id")
+    private Integer conversationId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "conversation_id")
+    private Conversation conversation;
+
+    @Column(name = "last_message_id")
+    private Integer lastMessageId;
+
+    @Column(name = "last_message_sender_id")
+    private Integer lastMessageSenderId;
+
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_message_status")
+    private Message.MessageStatus lastMessageStatus;
+
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;
+
+    // Messages not yet read by conversation.user1
+    @Column(name = "user1_unread_count", nullable = false)
+    private int user1UnreadCount = 0;
+
+    // Messages not yet read by conversation.user2
+    @Column(name = "user2_unread_count", nullable = false)
+    private int user2UnreadCount = 0;
+
+    // Read watermark of conversation.user1: last read message and its created_at
+    @Column(name = "user1_last_read_message_id")
+    private Integer user1LastReadMessageId;
+
+    @Column(name = "user1_last_read_at")
+    private LocalDateTime user1LastReadAt;
+
+    // Read watermark of conversation.user2
+    @Column(name = "user2_last_read_message_id")
+    private Integer user2LastReadMessageId;
+
+    @Column(name = "user2_last_read_at")
+    private LocalDateTime user2LastReadAt;
+
+    public static String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH);
+    }
+}
@@ -17,7 +17,7 @@ public class Developer {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "developer_seq_gen")
-    @SequenceGenerator(name = "developer_seq_gen", sequenceName = "developer_seq", allocationSize = 1)
+    @SequenceGenerator(name = "developer_seq_gen", sequenceName = "developer_seq", allocationSize = 50)
     @Column(name = "developer_id")
     private Integer developerId;
 
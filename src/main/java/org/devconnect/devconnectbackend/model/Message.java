@@ -6,12 +6,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "messages")
+@Table(
+    name = "messages",
+    indexes = {
+        // Keyset pagination over a conversation's history: (created_at, message_id) within conversation_id
+        @Index(name = "idx_messages_conversation_created", columnList = "conversation_id, created_at, message_id")
+    }
+)
 public class Message {
 
     public enum MessageStatus {
@@ -22,7 +29,7 @@ public class Message {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq_gen")
-    @SequenceGenerator(name = "message_seq_gen", sequenceName = "message_seq", allocationSize = 1)
+    @SequenceGenerator(name = "message_seq_gen", sequenceName = "message_seq", allocationSize = 50)
     @Column(name = "message_id")
     private Integer messageId;
 
@@ -58,6 +65,8 @@ public class Message {
 
     @PrePersist
     protected void onCreate() {
-        this.createdAt = LocalDateTime.now();
+        // Truncate to the database's microsecond precision so keyset cursors built
+        // from managed entities compare exactly against persisted rows
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 }
@@ -0,0 +1,58 @@
+package org.devconnect.devconnectbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One posting of the message search index: a term that occurs in a message, stored once per
+ * participant so a search only ever reads the caller's own postings and never the message text.
+ * Written on the message write path; see MessageSearchService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(MessageSearchTerm.Key.class)
+@Table(
+    name = "message_search_terms",
+    indexes = {
+        // The primary key serves searches; this one serves re-indexing an edited message
+        @Index(name = "idx_message_search_terms_message", columnList = "message_id")
+    }
+)
+public class MessageSearchTerm {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Id
+    @Column(name = "term", length = MAX_TERM_LENGTH)
+    private String term;
+
+    @Id
+    @Column(name = "message_id")
+    private Integer messageId;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Integer conversationId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer userId;
+        private String term;
+        private Integer messageId;
+    }
+}
@@ -27,7 +27,7 @@ public class Project {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_seq_gen")
-    @SequenceGenerator(name = "project_seq_gen", sequenceName = "project_seq", allocationSize = 1)
+    @SequenceGenerator(name = "project_seq_gen", sequenceName = "project_seq", allocationSize = 50)
     @Column(name = "project_id")
     private Long projectId;
 
@@ -0,0 +1,48 @@
+package org.devconnect.devconnectbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a user's change feed: something in one of their conversations changed at changedAt.
+ * messageId names the message that was sent, edited or changed status; it is null for conversation-level
+ * changes (conversation created, read watermark moved). Written on the write path, read by delta sync;
+ * see SyncChangeRecorder and SyncService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "sync_changes",
+    indexes = {
+        // Delta sync: one range scan over a user's feed past the client's (changed_at, change_id) position
+        @Index(name = "idx_sync_changes_user_changed", columnList = "user_id, changed_at, change_id"),
+        // Retention pruning
+        @Index(name = "idx_sync_changes_changed", columnList = "changed_at")
+    }
+)
+public class SyncChange {
+
+    // Identity rather than a pooled sequence: rows are only ever inserted through JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_id")
+    private Long changeId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Integer conversationId;
+
+    @Column(name = "message_id")
+    private Integer messageId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,55 @@
+package org.devconnect.devconnectbackend.repository;
+
+import org.devconnect.devconnectbackend.model.ArchivedMessageBlock;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedMessageBlockRepository extends JpaRepository<ArchivedMessageBlock, Long> {
+
+    // Newest blocks of a conversation (sorted newest → oldest)
+    @Query("""
+           SELECT b FROM ArchivedMessageBlock b
+           WHERE b.conversationId = :conversationId
+           ORDER BY b.lastCreatedAt DESC, b.lastMessageId DESC
+           """)
+    List<ArchivedMessageBlock> findLatest(Integer conversationId, Limit limit);
+
+    // Oldest blocks of a conversation (sorted oldest → newest)
+    @Query("""
+           SELECT b FROM ArchivedMessageBlock b
+           WHERE b.conversationId = :conversationId
+           ORDER BY b.lastCreatedAt ASC, b.lastMessageId ASC
+           """)
+    List<ArchivedMessageBlock> findOldest(Integer conversationId, Limit limit);
+
+    // Blocks holding messages older than the cursor position (sorted newest → oldest)
+    @Query("""
+           SELECT b FROM ArchivedMessageBlock b
+           WHERE b.conversationId = :conversationId
+             AND (b.firstCreatedAt, b.firstMessageId) < (:createdAt, :messageId)
+           ORDER BY b.lastCreatedAt DESC, b.lastMessageId DESC
+           """)
+    List<ArchivedMessageBlock> findBefore(Integer conversationId, LocalDateTime createdAt, Integer messageId, Limit limit);
+
+    // Blocks holding messages newer than the cursor position (sorted oldest → newest)
+    @Query("""
+           SELECT b FROM ArchivedMessageBlock b
+           WHERE b.conversationId = :conversationId
+             AND (b.lastCreatedAt, b.lastMessageId) > (:createdAt, :messageId)
+           ORDER BY b.lastCreatedAt ASC, b.lastMessageId ASC
+           """)
+    List<ArchivedMessageBlock> findAfter(Integer conversationId, LocalDateTime createdAt, Integer messageId, Limit limit);
+
+    // The block whose range covers the given position, if any
+    @Query("""
+           SELECT b FROM ArchivedMessageBlock b
+           WHERE b.conversationId = :conversationId
+             AND (b.firstCreatedAt, b.firstMessageId) <= (:createdAt, :messageId)
+             AND (b.lastCreatedAt, b.lastMessageId) >= (:createdAt, :messageId)
+           """)
+    List<ArchivedMessageBlock> findCovering(Integer conversationId, LocalDateTime createdAt, Integer messageId, Limit limit);
+}
@@ -1,28 +1,73 @@
 package org.devconnect.devconnectbackend.repository;
 
+import org.devconnect.devconnectbackend.dto.ChatInboxRow;
+import org.devconnect.devconnectbackend.dto.ConversationParticipants;
 import org.devconnect.devconnectbackend.model.Conversation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ConversationRepository extends JpaRepository<Conversation, Integer> {
+public interface ConversationRepository extends JpaRepository<Conversation, Integer>, ConversationRepositoryCustom {
 
-    // Retrieve a conversation between two users
+    // Id of the conversation for a canonical pair (user1Id <= user2Id); a single unique-index probe
     @Query("""
-           SELECT c FROM Conversation c
-           WHERE (c.user1.userId = :userId1 AND c.user2.userId = :userId2)
-              OR (c.user1.userId = :userId2 AND c.user2.userId = :userId1)
+           SELECT c.conversationId FROM Conversation c
+           WHERE c.user1.userId = :user1Id AND c.user2.userId = :user2Id
            """)
-    Optional<Conversation> findByUsers(Integer userId1, Integer userId2);
+    Optional<Integer> findIdByUsers(Integer user1Id, Integer user2Id);
 
-    // Get all conversations for one user
+    // Participants of a conversation, for access checks
     @Query("""
-           SELECT c FROM Conversation c
+           SELECT new org.devconnect.devconnectbackend.dto.ConversationParticipants(c.user1.userId, c.user2.userId)
+           FROM Conversation c
+           WHERE c.conversationId = :conversationId
+           """)
+    Optional<ConversationParticipants> findParticipants(Integer conversationId);
+
+    // Inbox for one user in a single query over the denormalized summaries,
+    // most recently active first
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.ChatInboxRow(
+                  c.conversationId, c.createdAt,
+                  other.userId, other.firstName, other.lastName, other.userRole, other.userStatus,
+                  s.lastMessagePreview, s.lastMessageStatus, s.lastActivityAt,
+                  CASE WHEN c.user1.userId = :userId
+                       THEN s.user1UnreadCount
+                       ELSE s.user2UnreadCount END)
+           FROM ConversationSummary s
+           JOIN s.conversation c
+           JOIN User other
+             ON other.userId = CASE WHEN c.user1.userId = :userId
+                                    THEN c.user2.userId
+                                    ELSE c.user1.userId END
            WHERE c.user1.userId = :userId
               OR c.user2.userId = :userId
-           ORDER BY c.createdAt DESC
+           ORDER BY s.lastActivityAt DESC, c.conversationId DESC
+           """)
+    List<ChatInboxRow> findInboxByUser(Integer userId, Pageable pageable);
+
+    // Inbox rows of specific conversations for one user, e.g. those changed since a sync token
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.ChatInboxRow(
+                  c.conversationId, c.createdAt,
+                  other.userId, other.firstName, other.lastName, other.userRole, other.userStatus,
+                  s.lastMessagePreview, s.lastMessageStatus, s.lastActivityAt,
+                  CASE WHEN c.user1.userId = :userId
+                       THEN s.user1UnreadCount
+                       ELSE s.user2UnreadCount END)
+           FROM ConversationSummary s
+           JOIN s.conversation c
+           JOIN User other
+             ON other.userId = CASE WHEN c.user1.userId = :userId
+                                    THEN c.user2.userId
+                                    ELSE c.user1.userId END
+           WHERE c.conversationId IN :conversationIds
+             AND (c.user1.userId = :userId OR c.user2.userId = :userId)
+           ORDER BY s.lastActivityAt DESC, c.conversationId DESC
            """)
-    List<Conversation> findAllByUser(Integer userId);
+    List<ChatInboxRow> findInboxByUserAndConversations(Integer userId, Collection<Integer> conversationIds);
 }
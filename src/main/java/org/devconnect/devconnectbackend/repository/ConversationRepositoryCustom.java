@@ -0,0 +1,13 @@
+package org.devconnect.devconnectbackend.repository;
+
+import java.time.LocalDateTime;
+
+public interface ConversationRepositoryCustom {
+
+    /**
+     * Insert the conversation for a canonical pair (user1Id <= user2Id) unless it already exists.
+     * Concurrent callers for the same pair never fail on the unique constraint.
+     * Returns 1 when this call created the row, 0 when it was already there.
+     */
+    int insertIfAbsent(Integer user1Id, Integer user2Id, LocalDateTime createdAt);
+}
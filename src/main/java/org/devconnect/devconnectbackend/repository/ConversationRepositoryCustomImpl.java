@@ -0,0 +1,66 @@
+package org.devconnect.devconnectbackend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.LocalDateTime;
+
+public class ConversationRepositoryCustomImpl implements ConversationRepositoryCustom {
+
+    // Ids come straight from the sequence; it steps by the entity's allocationSize,
+    // so these never collide with blocks handed out by Hibernate's pooled optimizer
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO conversations (conversation_id, user1_id, user2_id, created_at)
+            VALUES (nextval('conversation_seq'), :user1Id, :user2Id, :createdAt)
+            ON CONFLICT (user1_id, user2_id) DO NOTHING
+            """;
+
+    private static final String MERGE_UPSERT = """
+            MERGE INTO conversations c
+            USING (SELECT CAST(:user1Id AS INTEGER) AS user1_id, CAST(:user2Id AS INTEGER) AS user2_id) p
+            ON c.user1_id = p.user1_id AND c.user2_id = p.user2_id
+            WHEN NOT MATCHED THEN
+                INSERT (conversation_id, user1_id, user2_id, created_at)
+                VALUES (NEXT VALUE FOR conversation_seq, p.user1_id, p.user2_id, :createdAt)
+            """;
+
+    // MERGE alone can still collide with an uncommitted insert of the same pair, so creators
+    // of a pair queue up on its lower participant's row first
+    private static final String LOCK_USER1 = "SELECT user_id FROM users WHERE user_id = :user1Id FOR UPDATE";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Boolean postgres;
+
+    @Override
+    public int insertIfAbsent(Integer user1Id, Integer user2Id, LocalDateTime createdAt) {
+        // The row references both users; make sure ones created in this transaction are written first
+        entityManager.flush();
+        if (!isPostgres()) {
+            entityManager.createNativeQuery(LOCK_USER1)
+                    .setParameter("user1Id", user1Id)
+                    .getResultList();
+        }
+        return entityManager.createNativeQuery(isPostgres() ? POSTGRES_UPSERT : MERGE_UPSERT)
+                .setParameter("user1Id", user1Id)
+                .setParameter("user2Id", user2Id)
+                .setParameter("createdAt", createdAt)
+                .executeUpdate();
+    }
+
+    /**
+     * Helper: ON CONFLICT on Postgres; standard MERGE elsewhere (H2 in tests)
+     */
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
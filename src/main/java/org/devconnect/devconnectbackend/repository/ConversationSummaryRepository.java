@@ -0,0 +1,158 @@
+package org.devconnect.devconnectbackend.repository;
+
+import org.devconnect.devconnectbackend.dto.ConversationReadState;
+import org.devconnect.devconnectbackend.dto.ConversationReadStateRow;
+import org.devconnect.devconnectbackend.model.ConversationSummary;
+import org.devconnect.devconnectbackend.model.Message.MessageStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Integer> {
+
+    // Record a new last message and bump the recipient's unread counter
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           UPDATE ConversationSummary s
+           SET s.lastMessageId = :messageId,
+               s.lastMessageSenderId = :senderId,
+               s.lastMessagePreview = :preview,
+               s.lastMessageStatus = :status,
+               s.lastActivityAt = :createdAt,
+               s.user1UnreadCount = s.user1UnreadCount + :user1Delta,
+               s.user2UnreadCount = s.user2UnreadCount + :user2Delta
+           WHERE s.conversationId = :conversationId
+           """)
+    int recordMessage(Integer conversationId, Integer messageId, Integer senderId, String preview,
+                      MessageStatus status, LocalDateTime createdAt, int user1Delta, int user2Delta);
+
+    // Replace the preview if the given message is the conversation's last message
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           UPDATE ConversationSummary s
+           SET s.lastMessagePreview = :preview
+           WHERE s.conversationId = :conversationId
+             AND s.lastMessageId = :messageId
+           """)
+    int updateLastMessagePreview(Integer conversationId, Integer messageId, String preview);
+
+    // Update the preview status if one of the given messages is the conversation's last message
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           UPDATE ConversationSummary s
+           SET s.lastMessageStatus = :status
+           WHERE s.conversationId = :conversationId
+             AND s.lastMessageId IN :messageIds
+             AND s.lastMessageStatus <> 'READ'
+           """)
+    int updateLastMessageStatus(Integer conversationId, Collection<Integer> messageIds, MessageStatus status);
+
+    // Update the preview status of every summary whose last message is among the given messages
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           UPDATE ConversationSummary s
+           SET s.lastMessageStatus = :status
+           WHERE s.lastMessageId IN :messageIds
+             AND s.lastMessageStatus <> 'READ'
+           """)
+    int updateLastMessageStatusIn(Collection<Integer> messageIds, MessageStatus status);
+
+    // Move user1's read watermark up to the last message and clear their unread counter
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           UPDATE ConversationSummary s
+           SET s.user1LastReadMessageId = s.lastMessageId,
+               s.user1LastReadAt = s.lastActivityAt,
+               s.user1UnreadCount = 0,
+               s.lastMessageStatus = CASE WHEN s.lastMessageSenderId <> :readerId
+                                          THEN :readStatus
+                                          ELSE s.lastMessageStatus END
+           WHERE s.conversationId = :conversationId
+             AND s.lastMessageId IS NOT NULL
+             AND (s.user1LastReadAt IS NULL
+                  OR (s.user1LastReadAt, s.user1LastReadMessageId) < (s.lastActivityAt, s.lastMessageId))
+           """)
+    int advanceUser1ReadWatermark(Integer conversationId, Integer readerId, MessageStatus readStatus);
+
+    // Move user2's read watermark up to the last message and clear their unread counter
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           UPDATE ConversationSummary s
+           SET s.user2LastReadMessageId = s.lastMessageId,
+               s.user2LastReadAt = s.lastActivityAt,
+               s.user2UnreadCount = 0,
+               s.lastMessageStatus = CASE WHEN s.lastMessageSenderId <> :readerId
+                                          THEN :readStatus
+                                          ELSE s.lastMessageStatus END
+           WHERE s.conversationId = :conversationId
+             AND s.lastMessageId IS NOT NULL
+             AND (s.user2LastReadAt IS NULL
+                  OR (s.user2LastReadAt, s.user2LastReadMessageId) < (s.lastActivityAt, s.lastMessageId))
+           """)
+    int advanceUser2ReadWatermark(Integer conversationId, Integer readerId, MessageStatus readStatus);
+
+    // The summary row, locked until commit so only one archival run works on a conversation at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ConversationSummary s WHERE s.conversationId = :conversationId")
+    Optional<ConversationSummary> findForUpdate(Integer conversationId);
+
+    // Both read watermarks, read from the database rather than the persistence context
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.ConversationReadState(
+                  s.user1LastReadMessageId, s.user1LastReadAt,
+                  s.user2LastReadMessageId, s.user2LastReadAt)
+           FROM ConversationSummary s
+           WHERE s.conversationId = :conversationId
+           """)
+    Optional<ConversationReadState> findReadState(Integer conversationId);
+
+    // Read watermarks of several conversations in one query
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.ConversationReadStateRow(
+                  s.conversationId,
+                  s.user1LastReadMessageId, s.user1LastReadAt,
+                  s.user2LastReadMessageId, s.user2LastReadAt)
+           FROM ConversationSummary s
+           WHERE s.conversationId IN :conversationIds
+           """)
+    List<ConversationReadStateRow> findReadStates(Collection<Integer> conversationIds);
+
+    // Conversations that have no summary row yet (backfill)
+    @Query("""
+           SELECT c.conversationId FROM Conversation c
+           WHERE NOT EXISTS (SELECT s FROM ConversationSummary s WHERE s.conversationId = c.conversationId)
+           ORDER BY c.conversationId
+           """)
+    List<Integer> findConversationIdsWithoutSummary(Limit limit);
+
+    @Query("""
+           SELECT COUNT(c) FROM Conversation c
+           WHERE NOT EXISTS (SELECT s FROM ConversationSummary s WHERE s.conversationId = c.conversationId)
+           """)
+    long countConversationsWithoutSummary();
+
+    // Summaries in id order, for walking the table in chunks (consistency check)
+    @Query("""
+           SELECT s FROM ConversationSummary s
+           JOIN FETCH s.conversation
+           WHERE s.conversationId > :afterConversationId
+           ORDER BY s.conversationId
+           """)
+    List<ConversationSummary> findChunkAfter(Integer afterConversationId, Limit limit);
+
+    // Summarised conversations in id order, for walking the table in chunks (archival)
+    @Query("""
+           SELECT s.conversationId FROM ConversationSummary s
+           WHERE s.conversationId > :afterConversationId
+           ORDER BY s.conversationId
+           """)
+    List<Integer> findConversationIdsAfter(Integer afterConversationId, Limit limit);
+}
@@ -1,32 +1,156 @@
 package org.devconnect.devconnectbackend.repository;
 
+import jakarta.persistence.QueryHint;
+import org.devconnect.devconnectbackend.dto.DeliveryTarget;
 import org.devconnect.devconnectbackend.model.Message;
 import org.devconnect.devconnectbackend.model.Message.MessageStatus;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MessageRepository extends JpaRepository<Message, Integer> {
 
-    // Get all messages for a conversation (sorted oldest → newest)
-    List<Message> findByConversationConversationIdOrderByCreatedAtAsc(Integer conversationId);
+    // Newest page of a conversation (sorted newest → oldest)
+    @Query("""
+           SELECT m FROM Message m
+           WHERE m.conversation.conversationId = :conversationId
+           ORDER BY m.createdAt DESC, m.messageId DESC
+           """)
+    List<Message> findLatestPage(Integer conversationId, Limit limit);
 
-    // Get unread messages sent to a specific user
+    // Page of messages older than the cursor position (sorted newest → oldest)
+    @Query("""
+           SELECT m FROM Message m
+           WHERE m.conversation.conversationId = :conversationId
+             AND (m.createdAt, m.messageId) < (:createdAt, :messageId)
+           ORDER BY m.createdAt DESC, m.messageId DESC
+           """)
+    List<Message> findPageBefore(Integer conversationId, LocalDateTime createdAt, Integer messageId, Limit limit);
+
+    // Page of messages newer than the cursor position (sorted oldest → newest)
+    @Query("""
+           SELECT m FROM Message m
+           WHERE m.conversation.conversationId = :conversationId
+             AND (m.createdAt, m.messageId) > (:createdAt, :messageId)
+           ORDER BY m.createdAt ASC, m.messageId ASC
+           """)
+    List<Message> findPageAfter(Integer conversationId, LocalDateTime createdAt, Integer messageId, Limit limit);
+
+    // Oldest messages of a conversation (sorted oldest → newest), for archival
+    @Query("""
+           SELECT m FROM Message m
+           JOIN FETCH m.sender
+           WHERE m.conversation.conversationId = :conversationId
+           ORDER BY m.createdAt ASC, m.messageId ASC
+           """)
+    List<Message> findOldestPage(Integer conversationId, Limit limit);
+
+    // Whole conversation (sorted oldest → newest) through a forward-only cursor, for exports
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+           SELECT m FROM Message m
+           WHERE m.conversation.conversationId = :conversationId
+           ORDER BY m.createdAt ASC, m.messageId ASC
+           """)
+    Stream<Message> streamConversation(Integer conversationId);
+
+    // Messages after the given id without search postings (sorted by id), for the search backfill
+    @Query("""
+           SELECT m FROM Message m
+           JOIN FETCH m.sender
+           JOIN FETCH m.conversation
+           WHERE m.messageId > :afterMessageId
+             AND m.isDeleted = false
+             AND NOT EXISTS (SELECT t FROM MessageSearchTerm t WHERE t.messageId = m.messageId)
+           ORDER BY m.messageId ASC
+           """)
+    List<Message> findUnindexedAfter(Integer afterMessageId, Limit limit);
+
+    // Get unread messages sent to a specific user: the other participant's messages past their read watermark
+    @Query("""
+           SELECT m FROM Message m
+           WHERE m.conversation.conversationId = :conversationId
+             AND m.sender.userId <> :userId
+             AND (m.createdAt, m.messageId) > (:lastReadAt, :lastReadMessageId)
+           ORDER BY m.createdAt ASC, m.messageId ASC
+           """)
+    List<Message> findUnreadMessages(Integer conversationId, Integer userId,
+                                     LocalDateTime lastReadAt, Integer lastReadMessageId);
+
+    // Count unread messages sent to a specific user, relative to their read watermark
+    @Query("""
+           SELECT COUNT(m) FROM Message m
+           WHERE m.conversation.conversationId = :conversationId
+             AND m.sender.userId <> :userId
+             AND (m.createdAt, m.messageId) > (:lastReadAt, :lastReadMessageId)
+           """)
+    long countUnreadMessages(Integer conversationId, Integer userId,
+                             LocalDateTime lastReadAt, Integer lastReadMessageId);
+
+    // Newest message a user read under the legacy per-message READ status (watermark backfill)
     @Query("""
            SELECT m FROM Message m
            WHERE m.conversation.conversationId = :conversationId
              AND m.sender.userId <> :userId
-             AND m.status <> 'READ'
+             AND m.status = 'READ'
+           ORDER BY m.createdAt DESC, m.messageId DESC
+           LIMIT 1
            """)
-    List<Message> findUnreadMessages(Integer conversationId, Integer userId);
+    Message findLastLegacyReadMessage(Integer conversationId, Integer userId);
 
     // Get last message in a conversation (useful for showing chat previews)
     @Query("""
            SELECT m FROM Message m
            WHERE m.conversation.conversationId = :conversationId
-           ORDER BY m.createdAt DESC
+           ORDER BY m.createdAt DESC, m.messageId DESC
            LIMIT 1
            """)
     Message findLastMessage(Integer conversationId);
+
+    // Listed messages still SENT to the recipient, in conversations the recipient belongs to
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.DeliveryTarget(
+                  m.messageId, c.conversationId, m.sender.userId)
+           FROM Message m JOIN m.conversation c
+           WHERE m.messageId IN :messageIds
+             AND m.status = 'SENT'
+             AND m.sender.userId <> :recipientId
+             AND (c.user1.userId = :recipientId OR c.user2.userId = :recipientId)
+           """)
+    List<DeliveryTarget> findDeliveryTargets(Collection<Integer> messageIds, Integer recipientId);
+
+    // Messages still SENT to the recipient at or before the given message in its conversation
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.DeliveryTarget(
+                  m.messageId, c.conversationId, m.sender.userId)
+           FROM Message anchor JOIN anchor.conversation c, Message m
+           WHERE anchor.messageId = :upToMessageId
+             AND m.conversation = c
+             AND (m.createdAt, m.messageId) <= (anchor.createdAt, anchor.messageId)
+             AND m.status = 'SENT'
+             AND m.sender.userId <> :recipientId
+             AND (c.user1.userId = :recipientId OR c.user2.userId = :recipientId)
+           """)
+    List<DeliveryTarget> findDeliveryTargetsUpTo(Integer upToMessageId, Integer recipientId);
+
+    // SENT → DELIVERED for a batch of messages in one statement
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           UPDATE Message m
+           SET m.status = :deliveredStatus, m.deliveredAt = :deliveredAt
+           WHERE m.messageId IN :messageIds
+             AND m.status = 'SENT'
+           """)
+    int markDelivered(Collection<Integer> messageIds, MessageStatus deliveredStatus, LocalDateTime deliveredAt);
 }
@@ -0,0 +1,45 @@
+package org.devconnect.devconnectbackend.repository;
+
+import org.devconnect.devconnectbackend.dto.SearchHit;
+import org.devconnect.devconnectbackend.model.MessageSearchTerm;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MessageSearchTermRepository extends JpaRepository<MessageSearchTerm, MessageSearchTerm.Key> {
+
+    // First page of a user's matches: a range scan per term on the (user_id, term, message_id) key
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.SearchHit(t.messageId, t.conversationId, t.createdAt, COUNT(t))
+           FROM MessageSearchTerm t
+           WHERE t.userId = :userId
+             AND t.term IN :terms
+           GROUP BY t.messageId, t.conversationId, t.createdAt
+           ORDER BY COUNT(t) DESC, t.createdAt DESC, t.messageId DESC
+           """)
+    List<SearchHit> search(Integer userId, Collection<String> terms, Limit limit);
+
+    // Following pages: matches ranked after the cursor's (score, createdAt, messageId)
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.SearchHit(t.messageId, t.conversationId, t.createdAt, COUNT(t))
+           FROM MessageSearchTerm t
+           WHERE t.userId = :userId
+             AND t.term IN :terms
+           GROUP BY t.messageId, t.conversationId, t.createdAt
+           HAVING COUNT(t) < :score
+               OR (COUNT(t) = :score AND (t.createdAt < :createdAt
+                   OR (t.createdAt = :createdAt AND t.messageId < :messageId)))
+           ORDER BY COUNT(t) DESC, t.createdAt DESC, t.messageId DESC
+           """)
+    List<SearchHit> searchAfter(Integer userId, Collection<String> terms,
+                                long score, LocalDateTime createdAt, Integer messageId, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM MessageSearchTerm t WHERE t.messageId = :messageId")
+    int deleteByMessage(Integer messageId);
+}
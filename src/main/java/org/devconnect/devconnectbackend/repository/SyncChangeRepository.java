@@ -0,0 +1,27 @@
+package org.devconnect.devconnectbackend.repository;
+
+import org.devconnect.devconnectbackend.model.SyncChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SyncChangeRepository extends JpaRepository<SyncChange, Long> {
+
+    // A user's changes past the sync position (sorted oldest → newest)
+    @Query("""
+           SELECT c FROM SyncChange c
+           WHERE c.userId = :userId
+             AND (c.changedAt, c.changeId) > (:changedAt, :changeId)
+           ORDER BY c.changedAt ASC, c.changeId ASC
+           """)
+    List<SyncChange> findAfter(Integer userId, LocalDateTime changedAt, Long changeId, Limit limit);
+
+    // Drop changes past the retention period; tokens older than that require a full reload
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM SyncChange c WHERE c.changedAt < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+}
@@ -1,11 +1,14 @@
 
 package org.devconnect.devconnectbackend.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.devconnect.devconnectbackend.dto.UserPresence;
 import org.devconnect.devconnectbackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -27,4 +30,12 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     List<User> findByIsVerified(Boolean isVerified);
 
+    // Presence columns only, for warming the presence registry
+    @Query("""
+           SELECT new org.devconnect.devconnectbackend.dto.UserPresence(u.userId, u.userStatus, u.lastSeen)
+           FROM User u
+           WHERE u.userId IN :userIds
+           """)
+    List<UserPresence> findPresenceByIds(Collection<Integer> userIds);
+
 }
\ No newline at end of file
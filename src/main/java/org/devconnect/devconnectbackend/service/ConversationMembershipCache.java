@@ -0,0 +1,123 @@
+package org.devconnect.devconnectbackend.service;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fixed-size map from a conversation id to its two participants, for access checks on the hot path.
+ * Direct-mapped over parallel int arrays: a newer conversation replaces whatever shared its slot,
+ * nothing is boxed, and reads are optimistic so a hit neither locks nor allocates.
+ * Participants come back packed into one long as (user1Id, user2Id); see {@link #user1} and {@link #user2}.
+ */
+public class ConversationMembershipCache {
+
+    /**
+     * Returned on a miss; real pairs never pack to zero since user ids are positive
+     */
+    public static final long MISSING = 0L;
+
+    private static final int STRIPES = 64;
+
+    // Slot i is free when conversationIds[i] == 0
+    private final int[] conversationIds;
+    private final int[] user1Ids;
+    private final int[] user2Ids;
+    private final StampedLock[] locks = new StampedLock[STRIPES];
+    private final int shift;
+
+    public ConversationMembershipCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, STRIPES) - 1) << 1;
+        this.conversationIds = new int[size];
+        this.user1Ids = new int[size];
+        this.user2Ids = new int[size];
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(size);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    public static int user1(long participants) {
+        return (int) (participants >>> 32);
+    }
+
+    public static int user2(long participants) {
+        return (int) participants;
+    }
+
+    /**
+     * The participant who is not userId, or -1 when userId is not in the conversation
+     */
+    public static int otherUser(long participants, int userId) {
+        if (user1(participants) == userId) {
+            return user2(participants);
+        }
+        if (user2(participants) == userId) {
+            return user1(participants);
+        }
+        return -1;
+    }
+
+    /**
+     * Both participants of a cached conversation, or {@link #MISSING}
+     */
+    public long get(int conversationId) {
+        int slot = slot(conversationId);
+        StampedLock lock = locks[slot & (STRIPES - 1)];
+
+        long stamp = lock.tryOptimisticRead();
+        int cachedId = conversationIds[slot];
+        int user1Id = user1Ids[slot];
+        int user2Id = user2Ids[slot];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                cachedId = conversationIds[slot];
+                user1Id = user1Ids[slot];
+                user2Id = user2Ids[slot];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return cachedId == conversationId ? ConversationPairCache.key(user1Id, user2Id) : MISSING;
+    }
+
+    public void put(int conversationId, int user1Id, int user2Id) {
+        int slot = slot(conversationId);
+        StampedLock lock = locks[slot & (STRIPES - 1)];
+        long stamp = lock.writeLock();
+        try {
+            conversationIds[slot] = conversationId;
+            user1Ids[slot] = user1Id;
+            user2Ids[slot] = user2Id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Forget a conversation, e.g. once it has been deleted
+     */
+    public void remove(int conversationId) {
+        int slot = slot(conversationId);
+        StampedLock lock = locks[slot & (STRIPES - 1)];
+        long stamp = lock.writeLock();
+        try {
+            if (conversationIds[slot] == conversationId) {
+                conversationIds[slot] = 0;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int capacity() {
+        return conversationIds.length;
+    }
+
+    /**
+     * Helper: Fibonacci hashing; the top bits of the product depend on every bit of the id, so ids that
+     * share their low bits (a sequence allocating in steps of 50) still spread over the whole table
+     */
+    private int slot(int conversationId) {
+        return (conversationId * 0x9E3779B9) >>> shift;
+    }
+}
@@ -0,0 +1,67 @@
+package org.devconnect.devconnectbackend.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size map from a canonical user pair to its conversation id.
+ * Direct-mapped: each pair hashes to exactly one slot and a newer pair simply replaces whatever
+ * was there, so memory stays bounded and lookups never lock. A pair is packed into one long key.
+ */
+public class ConversationPairCache {
+
+    private record Entry(long key, int conversationId) {
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int shift;
+
+    public ConversationPairCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Pack a canonical pair (user1Id <= user2Id) into a single key
+     */
+    public static long key(int user1Id, int user2Id) {
+        return ((long) user1Id << 32) | (user2Id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The cached conversation id for a pair, or null on a miss
+     */
+    public Integer get(int user1Id, int user2Id) {
+        long key = key(user1Id, user2Id);
+        Entry entry = slots.get(slot(key));
+        return entry != null && entry.key() == key ? entry.conversationId() : null;
+    }
+
+    public void put(int user1Id, int user2Id, int conversationId) {
+        long key = key(user1Id, user2Id);
+        slots.set(slot(key), new Entry(key, conversationId));
+    }
+
+    /**
+     * Forget a pair, e.g. once its conversation has been deleted
+     */
+    public void remove(int user1Id, int user2Id) {
+        long key = key(user1Id, user2Id);
+        int slot = slot(key);
+        Entry entry = slots.get(slot);
+        if (entry != null && entry.key() == key) {
+            slots.compareAndSet(slot, entry, null);
+        }
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Helper: Fibonacci hashing; the top bits of the product spread neighbouring ids across the table
+     */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
@@ -1,17 +1,23 @@
 package org.devconnect.devconnectbackend.service;
 
+import jakarta.annotation.PostConstruct;
 import org.devconnect.devconnectbackend.dto.ChatDTO;
+import org.devconnect.devconnectbackend.dto.ChatInboxRow;
+import org.devconnect.devconnectbackend.dto.ConversationParticipants;
 import org.devconnect.devconnectbackend.model.Conversation;
-import org.devconnect.devconnectbackend.model.Message;
-import org.devconnect.devconnectbackend.model.User;
 import org.devconnect.devconnectbackend.repository.ConversationRepository;
-import org.devconnect.devconnectbackend.repository.MessageRepository;
 import org.devconnect.devconnectbackend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -21,70 +27,85 @@ public class ConversationService {
     private ConversationRepository conversationRepository;
 
     @Autowired
-    private MessageRepository messageRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ConversationSummaryService summaryService;
+
+    @Autowired
+    private SyncChangeRecorder syncRecorder;
+
+    @Value("${messaging.conversation-cache.capacity:65536}")
+    private int cacheCapacity = 65536;
+
+    @Value("${messaging.membership-cache.capacity:65536}")
+    private int membershipCacheCapacity = 65536;
+
+    // Built in init from the settings above
+    private ConversationPairCache pairCache;
+    private ConversationMembershipCache membershipCache;
+
+    @Value("${messaging.inbox.default-page-size:50}")
+    private int defaultInboxPageSize = 50;
+
+    @Value("${messaging.inbox.max-page-size:200}")
+    private int maxInboxPageSize = 200;
+
+    @PostConstruct
+    public void init() {
+        pairCache = new ConversationPairCache(cacheCapacity);
+        membershipCache = new ConversationMembershipCache(membershipCacheCapacity);
+    }
 
     /**
-     * Get or create a conversation between two users
+     * Get or create the conversation between two users, in either order.
+     * Conversations are stored as (lower user id, higher user id); the common case is answered
+     * from the pair cache without touching the database.
      */
     @Transactional
-    public Conversation getOrCreateConversation(Integer userId1, Integer userId2) {
-        return conversationRepository.findByUsers(userId1, userId2)
-                .orElseGet(() -> {
-                    User user1 = userRepository.findById(userId1)
-                            .orElseThrow(() -> new RuntimeException("User1 not found"));
-                    User user2 = userRepository.findById(userId2)
-                            .orElseThrow(() -> new RuntimeException("User2 not found"));
-
-                    Conversation conversation = new Conversation();
-                    conversation.setUser1(user1);
-                    conversation.setUser2(user2);
-                    return conversationRepository.save(conversation);
-                });
+    public Integer getOrCreateConversationId(Integer userId1, Integer userId2) {
+        int user1Id = Math.min(userId1, userId2);
+        int user2Id = Math.max(userId1, userId2);
+
+        Integer cached = pairCache.get(user1Id, user2Id);
+        if (cached != null) {
+            return cached;
+        }
+
+        Integer conversationId = conversationRepository.findIdByUsers(user1Id, user2Id)
+                .orElseGet(() -> create(userId1, userId2, user1Id, user2Id));
+        cacheAfterCommit(user1Id, user2Id, conversationId);
+        return conversationId;
     }
 
     /**
-     * Get all conversations for a user as ChatDTOs
+     * Get the first inbox page for a user as ChatDTOs
      */
     public List<ChatDTO> getConversationsForUser(Integer userId) {
-        List<Conversation> conversations = conversationRepository.findAllByUser(userId);
-        List<ChatDTO> chatDTOs = new ArrayList<>();
-
-        for (Conversation conversation : conversations) {
-            // Determine the other user
-            User otherUser = conversation.getUser1().getUserId().equals(userId)
-                    ? conversation.getUser2()
-                    : conversation.getUser1();
-
-            // Get last message for preview
-            Message lastMessage = messageRepository.findLastMessage(conversation.getConversationId());
-            String lastMessagePreview = lastMessage != null ? lastMessage.getContent() : null;
-
-            // Count unread messages for this user
-            Integer unreadCount = messageRepository.findUnreadMessages(
-                    conversation.getConversationId(),
-                    userId
-            ).size();
-
-            String userName = otherUser.getFirstName() + " " + otherUser.getLastName();
-            ChatDTO chatDTO = new ChatDTO(
-                    conversation.getConversationId().longValue(),
-                    otherUser.getUserId().longValue(),
-                    userName,
-                    null, // User model doesn't have avatar field
-                    otherUser.getUserRole().name().toLowerCase(),
-                    otherUser.getUserStatus().name().toLowerCase(),
-                    lastMessagePreview,
-                    lastMessage != null ? lastMessage.getCreatedAt() : conversation.getCreatedAt(),
-                    unreadCount,
-                    null // No projectId in new model
-            );
-            chatDTOs.add(chatDTO);
-        }
+        return getConversationsForUser(userId, 0, null);
+    }
 
-        return chatDTOs;
+    /**
+     * Get one inbox page for a user as ChatDTOs, most recently active first
+     */
+    public List<ChatDTO> getConversationsForUser(Integer userId, int page, Integer size) {
+        int pageSize = (size == null || size <= 0) ? defaultInboxPageSize : size;
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(pageSize, maxInboxPageSize));
+
+        List<ChatInboxRow> rows = conversationRepository.findInboxByUser(userId, pageable);
+        return rows.stream().map(this::toChatDTO).toList();
+    }
+
+    /**
+     * Inbox rows of the given conversations for a user, most recently active first;
+     * conversations the user is not part of are left out
+     */
+    public List<ChatDTO> getConversationsForUser(Integer userId, Collection<Integer> conversationIds) {
+        if (conversationIds.isEmpty()) {
+            return List.of();
+        }
+        List<ChatInboxRow> rows = conversationRepository.findInboxByUserAndConversations(userId, conversationIds);
+        return rows.stream().map(this::toChatDTO).toList();
     }
 
     /**
@@ -102,5 +123,111 @@ public class ConversationService {
 
         return conversation;
     }
+
+    /**
+     * Both participants of a conversation, packed as described on {@link ConversationMembershipCache}.
+     * A conversation's participants never change, so after the first lookup this is answered from memory.
+     */
+    public long getParticipants(Integer conversationId) {
+        long participants = membershipCache.get(conversationId);
+        if (participants != ConversationMembershipCache.MISSING) {
+            return participants;
+        }
+
+        ConversationParticipants row = conversationRepository.findParticipants(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        membershipCache.put(conversationId, row.user1Id(), row.user2Id());
+        return ConversationPairCache.key(row.user1Id(), row.user2Id());
+    }
+
+    /**
+     * Both participants of a conversation (with permission check)
+     */
+    public long getParticipants(Integer conversationId, Integer userId) {
+        long participants = getParticipants(conversationId);
+        if (ConversationMembershipCache.otherUser(participants, userId) < 0) {
+            throw new RuntimeException("Access denied: User is not a participant in this conversation");
+        }
+        return participants;
+    }
+
+    /**
+     * The other participant of a conversation (with permission check)
+     */
+    public int getOtherParticipant(Integer conversationId, Integer userId) {
+        return ConversationMembershipCache.otherUser(getParticipants(conversationId, userId), userId);
+    }
+
+    /**
+     * Drop a deleted conversation from the in-memory lookups
+     */
+    public void evict(Integer conversationId, Integer user1Id, Integer user2Id) {
+        membershipCache.remove(conversationId);
+        pairCache.remove(Math.min(user1Id, user2Id), Math.max(user1Id, user2Id));
+    }
+
+    /**
+     * Helper: Insert-or-get for a canonical pair; a concurrent first message for the same pair
+     * finds the other transaction's row instead of failing on the unique constraint
+     */
+    private Integer create(Integer userId1, Integer userId2, int user1Id, int user2Id) {
+        if (!userRepository.existsById(userId1)) {
+            throw new RuntimeException("User1 not found");
+        }
+        if (!userRepository.existsById(userId2)) {
+            throw new RuntimeException("User2 not found");
+        }
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        int inserted = conversationRepository.insertIfAbsent(user1Id, user2Id, createdAt);
+        Integer conversationId = conversationRepository.findIdByUsers(user1Id, user2Id)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+
+        // Inbox state starts out empty and is maintained on the write path
+        if (inserted > 0) {
+            summaryService.createFor(conversationId, createdAt);
+            syncRecorder.recordConversation(conversationId, user1Id, user2Id);
+        }
+        return conversationId;
+    }
+
+    /**
+     * Helper: One inbox row as a ChatDTO
+     */
+    private ChatDTO toChatDTO(ChatInboxRow row) {
+        String userName = row.otherFirstName() + " " + row.otherLastName();
+        ChatDTO chatDTO = new ChatDTO(
+                row.conversationId().longValue(),
+                row.otherUserId().longValue(),
+                userName,
+                null, // User model doesn't have avatar field
+                row.otherUserRole().name().toLowerCase(),
+                row.otherUserStatus().name().toLowerCase(),
+                row.lastMessage(),
+                row.lastMessageTime() != null ? row.lastMessageTime() : row.conversationCreatedAt(),
+                row.unreadCount(),
+                null // No projectId in new model
+        );
+        if (row.lastMessageStatus() != null) {
+            chatDTO.setLastMessageStatus(row.lastMessageStatus().name().toLowerCase());
+        }
+        return chatDTO;
+    }
+
+    /**
+     * Helper: Only cache ids that are committed, so a rolled-back creation never leaves a dangling entry
+     */
+    private void cacheAfterCommit(int user1Id, int user2Id, Integer conversationId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pairCache.put(user1Id, user2Id, conversationId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pairCache.put(user1Id, user2Id, conversationId);
+            }
+        });
+    }
 }
 
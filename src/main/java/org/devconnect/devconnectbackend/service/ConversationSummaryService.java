@@ -0,0 +1,315 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.ConversationReadState;
+import org.devconnect.devconnectbackend.dto.ReadWatermark;
+import org.devconnect.devconnectbackend.dto.SummaryCheckDTO;
+import org.devconnect.devconnectbackend.dto.SummaryMismatchDTO;
+import org.devconnect.devconnectbackend.model.Conversation;
+import org.devconnect.devconnectbackend.model.ConversationSummary;
+import org.devconnect.devconnectbackend.model.Message;
+import org.devconnect.devconnectbackend.repository.ConversationRepository;
+import org.devconnect.devconnectbackend.repository.ConversationSummaryRepository;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains the denormalized conversation summaries that back the inbox,
+ * including each participant's read watermark.
+ * Write-path methods are meant to run inside the caller's transaction.
+ */
+@Service
+public class ConversationSummaryService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private ConversationSummaryRepository summaryRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    /**
+     * Create the empty summary for a newly created conversation
+     */
+    @Transactional
+    public void createFor(Conversation conversation) {
+        ConversationSummary summary = new ConversationSummary();
+        summary.setConversation(conversation);
+        summary.setLastActivityAt(conversation.getCreatedAt());
+        summaryRepository.save(summary);
+    }
+
+    /**
+     * Create the empty summary for a conversation that was inserted without loading it
+     */
+    @Transactional
+    public void createFor(Integer conversationId, LocalDateTime createdAt) {
+        ConversationSummary summary = new ConversationSummary();
+        summary.setConversation(conversationRepository.getReferenceById(conversationId));
+        summary.setLastActivityAt(createdAt);
+        summaryRepository.save(summary);
+    }
+
+    /**
+     * Record a newly sent message: new preview and one more unread for the recipient
+     */
+    @Transactional
+    public void recordMessage(Conversation conversation, Message message) {
+        recordMessages(conversation, List.of(message));
+    }
+
+    /**
+     * Record several messages sent in one conversation with a single update:
+     * the last one becomes the preview and each recipient's unread counter grows by its share
+     */
+    @Transactional
+    public void recordMessages(Conversation conversation, List<Message> messages) {
+        recordMessages(conversation.getConversationId(), conversation.getUser1().getUserId(), messages);
+    }
+
+    /**
+     * Same as {@link #recordMessages(Conversation, List)} for callers that only hold the ids;
+     * user1Id is the lower of the two participant ids
+     */
+    @Transactional
+    public void recordMessages(Integer conversationId, Integer user1Id, List<Message> messages) {
+        int user1Delta = 0;
+        int user2Delta = 0;
+        for (Message message : messages) {
+            if (user1Id.equals(message.getSender().getUserId())) {
+                user2Delta++;
+            } else {
+                user1Delta++;
+            }
+        }
+
+        Message lastMessage = messages.get(messages.size() - 1);
+        int updated = summaryRepository.recordMessage(
+                conversationId,
+                lastMessage.getMessageId(),
+                lastMessage.getSender().getUserId(),
+                ConversationSummary.preview(lastMessage.getContent()),
+                lastMessage.getStatus(),
+                lastMessage.getCreatedAt(),
+                user1Delta,
+                user2Delta
+        );
+
+        // Conversation predates summaries and was not backfilled yet
+        if (updated == 0) {
+            rebuild(conversationId);
+        }
+    }
+
+    /**
+     * Record an edited message: the preview follows if it is the conversation's last message
+     */
+    @Transactional
+    public void recordEdit(Integer conversationId, Message message) {
+        summaryRepository.updateLastMessagePreview(
+                conversationId, message.getMessageId(), ConversationSummary.preview(message.getContent()));
+    }
+
+    /**
+     * Record a status transition for messages in a conversation
+     */
+    @Transactional
+    public void recordStatus(Integer conversationId, Collection<Integer> messageIds, Message.MessageStatus status) {
+        if (!messageIds.isEmpty()) {
+            summaryRepository.updateLastMessageStatus(conversationId, messageIds, status);
+        }
+    }
+
+    /**
+     * Record a status transition for messages that may span many conversations
+     */
+    @Transactional
+    public void recordStatus(Collection<Integer> messageIds, Message.MessageStatus status) {
+        if (!messageIds.isEmpty()) {
+            summaryRepository.updateLastMessageStatusIn(messageIds, status);
+        }
+    }
+
+    /**
+     * Advance a participant's read watermark to the conversation's last message.
+     * Returns the new watermark, or null when there was nothing new to read.
+     */
+    @Transactional
+    public ReadWatermark advanceReadWatermark(Conversation conversation, Integer readerId) {
+        return advanceReadWatermark(conversation.getConversationId(),
+                conversation.getUser1().getUserId().equals(readerId), readerId);
+    }
+
+    /**
+     * Same as {@link #advanceReadWatermark(Conversation, Integer)} for callers that already know
+     * which side of the conversation the reader is on
+     */
+    @Transactional
+    public ReadWatermark advanceReadWatermark(Integer conversationId, boolean readerIsUser1, Integer readerId) {
+        int updated = readerIsUser1
+                ? summaryRepository.advanceUser1ReadWatermark(conversationId, readerId, Message.MessageStatus.READ)
+                : summaryRepository.advanceUser2ReadWatermark(conversationId, readerId, Message.MessageStatus.READ);
+        if (updated == 0) {
+            return null;
+        }
+
+        ConversationReadState state = getReadState(conversationId);
+        return readerIsUser1 ? state.user1() : state.user2();
+    }
+
+    /**
+     * Both participants' read watermarks for a conversation
+     */
+    @Transactional(readOnly = true)
+    public ConversationReadState getReadState(Integer conversationId) {
+        return summaryRepository.findReadState(conversationId).orElse(ConversationReadState.NONE);
+    }
+
+    /**
+     * Create summaries for every conversation that does not have one yet
+     */
+    @Transactional
+    public int backfillMissing() {
+        int created = 0;
+        List<Integer> missing;
+        do {
+            missing = summaryRepository.findConversationIdsWithoutSummary(Limit.of(CHUNK_SIZE));
+            for (Integer conversationId : missing) {
+                rebuild(conversationId);
+                created++;
+            }
+        } while (missing.size() == CHUNK_SIZE);
+        return created;
+    }
+
+    /**
+     * Recompute one conversation's summary from its raw messages.
+     * Read watermarks are the source of truth and are kept; a missing one is
+     * seeded from the legacy per-message READ status.
+     */
+    @Transactional
+    public ConversationSummary rebuild(Integer conversationId) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        ConversationSummary summary = summaryRepository.findById(conversationId)
+                .orElseGet(ConversationSummary::new);
+
+        ConversationSummary expected = computeFromMessages(conversation, summary);
+        summary.setConversation(conversation);
+        summary.setLastMessageId(expected.getLastMessageId());
+        summary.setLastMessageSenderId(expected.getLastMessageSenderId());
+        summary.setLastMessagePreview(expected.getLastMessagePreview());
+        summary.setLastMessageStatus(expected.getLastMessageStatus());
+        summary.setLastActivityAt(expected.getLastActivityAt());
+        summary.setUser1UnreadCount(expected.getUser1UnreadCount());
+        summary.setUser2UnreadCount(expected.getUser2UnreadCount());
+        summary.setUser1LastReadMessageId(expected.getUser1LastReadMessageId());
+        summary.setUser1LastReadAt(expected.getUser1LastReadAt());
+        summary.setUser2LastReadMessageId(expected.getUser2LastReadMessageId());
+        summary.setUser2LastReadAt(expected.getUser2LastReadAt());
+        return summaryRepository.save(summary);
+    }
+
+    /**
+     * Compare every stored summary against the raw messages table
+     */
+    @Transactional(readOnly = true)
+    public SummaryCheckDTO checkConsistency() {
+        List<SummaryMismatchDTO> mismatches = new ArrayList<>();
+        int checked = 0;
+        int afterId = 0;
+
+        List<ConversationSummary> chunk;
+        do {
+            chunk = summaryRepository.findChunkAfter(afterId, Limit.of(CHUNK_SIZE));
+            for (ConversationSummary actual : chunk) {
+                ConversationSummary expected = computeFromMessages(actual.getConversation(), actual);
+                compare(actual.getConversationId(), "lastMessageId",
+                        expected.getLastMessageId(), actual.getLastMessageId(), mismatches);
+                compare(actual.getConversationId(), "lastMessageStatus",
+                        expected.getLastMessageStatus(), actual.getLastMessageStatus(), mismatches);
+                compare(actual.getConversationId(), "user1UnreadCount",
+                        expected.getUser1UnreadCount(), actual.getUser1UnreadCount(), mismatches);
+                compare(actual.getConversationId(), "user2UnreadCount",
+                        expected.getUser2UnreadCount(), actual.getUser2UnreadCount(), mismatches);
+                afterId = actual.getConversationId();
+                checked++;
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+
+        int missing = (int) summaryRepository.countConversationsWithoutSummary();
+        return new SummaryCheckDTO(checked, missing, mismatches);
+    }
+
+    /**
+     * Helper: Derive what a conversation's summary should contain from its messages
+     * and the watermarks already stored in the given summary
+     */
+    private ConversationSummary computeFromMessages(Conversation conversation, ConversationSummary stored) {
+        Integer conversationId = conversation.getConversationId();
+        Integer user1Id = conversation.getUser1().getUserId();
+        Integer user2Id = conversation.getUser2().getUserId();
+
+        ReadWatermark user1Read = ReadWatermark.of(stored.getUser1LastReadMessageId(), stored.getUser1LastReadAt());
+        if (user1Read.isNone()) {
+            user1Read = ReadWatermark.of(messageRepository.findLastLegacyReadMessage(conversationId, user1Id));
+        }
+        ReadWatermark user2Read = ReadWatermark.of(stored.getUser2LastReadMessageId(), stored.getUser2LastReadAt());
+        if (user2Read.isNone()) {
+            user2Read = ReadWatermark.of(messageRepository.findLastLegacyReadMessage(conversationId, user2Id));
+        }
+
+        ConversationSummary summary = new ConversationSummary();
+        summary.setConversationId(conversationId);
+
+        Message lastMessage = messageRepository.findLastMessage(conversationId);
+        if (lastMessage != null) {
+            Integer senderId = lastMessage.getSender().getUserId();
+            ReadWatermark recipientRead = senderId.equals(user1Id) ? user2Read : user1Read;
+            summary.setLastMessageId(lastMessage.getMessageId());
+            summary.setLastMessageSenderId(senderId);
+            summary.setLastMessagePreview(ConversationSummary.preview(lastMessage.getContent()));
+            summary.setLastMessageStatus(recipientRead.covers(lastMessage)
+                    ? Message.MessageStatus.READ
+                    : lastMessage.getStatus());
+            summary.setLastActivityAt(lastMessage.getCreatedAt());
+        } else {
+            summary.setLastActivityAt(conversation.getCreatedAt());
+        }
+
+        summary.setUser1UnreadCount((int) messageRepository.countUnreadMessages(
+                conversationId, user1Id, user1Read.createdAt(), user1Read.messageId()));
+        summary.setUser2UnreadCount((int) messageRepository.countUnreadMessages(
+                conversationId, user2Id, user2Read.createdAt(), user2Read.messageId()));
+
+        if (!user1Read.isNone()) {
+            summary.setUser1LastReadMessageId(user1Read.messageId());
+            summary.setUser1LastReadAt(user1Read.createdAt());
+        }
+        if (!user2Read.isNone()) {
+            summary.setUser2LastReadMessageId(user2Read.messageId());
+            summary.setUser2LastReadAt(user2Read.createdAt());
+        }
+        return summary;
+    }
+
+    private void compare(Integer conversationId, String field, Object expected, Object actual,
+                         List<SummaryMismatchDTO> mismatches) {
+        if (!Objects.equals(expected, actual)) {
+            mismatches.add(new SummaryMismatchDTO(
+                    conversationId.longValue(), field, String.valueOf(expected), String.valueOf(actual)));
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.devconnect.devconnectbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.devconnect.devconnectbackend.archive.ArchivedMessage;
+import org.devconnect.devconnectbackend.archive.SegmentStore;
+import org.devconnect.devconnectbackend.dto.MessageCursor;
+import org.devconnect.devconnectbackend.dto.ReadWatermark;
+import org.devconnect.devconnectbackend.model.ArchivedMessageBlock;
+import org.devconnect.devconnectbackend.model.ConversationSummary;
+import org.devconnect.devconnectbackend.model.Message;
+import org.devconnect.devconnectbackend.repository.ArchivedMessageBlockRepository;
+import org.devconnect.devconnectbackend.repository.ConversationSummaryRepository;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Moves cold message history out of the messages table into compressed, append-only segment files
+ * (see {@link SegmentStore}) and reads it back for history pages and search results.
+ * A conversation's archived messages form blocks indexed by archived_message_blocks; archival always
+ * takes the oldest hot messages, so the archive holds a prefix of the history and the hot table the rest.
+ *
+ * Only messages their recipient has read are archived, and never a conversation's last message, so
+ * summaries, unread counts and watermarks stay exact without looking at the archive. Archived messages
+ * are immutable: they can no longer be edited, deleted or acknowledged.
+ */
+@Service
+public class MessageArchiveService {
+
+    // Blocks fetched per index query when paging through the archive
+    private static final int BLOCKS_PER_READ = 4;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationSummaryRepository summaryRepository;
+
+    @Autowired
+    private ArchivedMessageBlockRepository blockRepository;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${messaging.archive.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${messaging.archive.directory:data/message-archive}")
+    private String directory = "data/message-archive";
+
+    @Value("${messaging.archive.max-segment-bytes:67108864}")
+    private long maxSegmentBytes = 64L * 1024 * 1024;
+
+    @Value("${messaging.archive.max-age-days:90}")
+    private int maxAgeDays = 90;
+
+    @Value("${messaging.archive.max-block-messages:1000}")
+    private int maxBlockMessages = 1000;
+
+    @Value("${messaging.archive.conversations-per-run:500}")
+    private int conversationsPerRun = 500;
+
+    private SegmentStore segmentStore;
+
+    // Where the next run continues its walk over conversations; guarded by archiveColdConversations,
+    // which the scheduler and the admin endpoint both call
+    private int resumeAfterConversationId = 0;
+
+    @PostConstruct
+    void open() {
+        segmentStore = new SegmentStore(Path.of(directory), maxSegmentBytes);
+    }
+
+    @PreDestroy
+    void close() {
+        segmentStore.close();
+    }
+
+    /**
+     * Scheduled tiering pass, when enabled
+     */
+    @Scheduled(fixedDelayString = "${messaging.archive.interval-ms:3600000}",
+               initialDelayString = "${messaging.archive.interval-ms:3600000}")
+    public void archiveOnSchedule() {
+        if (enabled) {
+            archiveColdConversations();
+        }
+    }
+
+    /**
+     * Archive cold messages of up to conversations-per-run conversations, continuing where the previous
+     * run stopped; returns the number of messages archived. Each conversation commits on its own.
+     * Runs one at a time, so a scheduled and an admin-triggered pass never share the cursor or a conversation.
+     */
+    public synchronized int archiveColdConversations() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        List<Integer> conversationIds = summaryRepository.findConversationIdsAfter(
+                resumeAfterConversationId, Limit.of(conversationsPerRun));
+        // Wrap around once the end of the table is reached
+        resumeAfterConversationId = conversationIds.size() < conversationsPerRun
+                ? 0
+                : conversationIds.get(conversationIds.size() - 1);
+
+        int archived = 0;
+        for (Integer conversationId : conversationIds) {
+            try {
+                archived += archiveConversation(conversationId, cutoff);
+            } catch (RuntimeException e) {
+                System.err.println("Error archiving conversation " + conversationId + ": " + e.getMessage());
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Archive one conversation's messages created before the cutoff, one block per max-block-messages;
+     * returns the number of messages archived
+     */
+    public int archiveConversation(Integer conversationId, LocalDateTime cutoff) {
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBlock(conversationId, cutoff));
+            archived += moved;
+        } while (moved == maxBlockMessages);
+        return archived;
+    }
+
+    /**
+     * Archived messages older than the cursor, newest → oldest; from the newest archived message when
+     * the cursor is null
+     */
+    public List<Message> pageBefore(Integer conversationId, MessageCursor before, int limit) {
+        List<Message> page = new ArrayList<>(limit);
+        MessageCursor position = before;
+        while (page.size() < limit) {
+            List<ArchivedMessageBlock> blocks = position == null
+                    ? blockRepository.findLatest(conversationId, Limit.of(BLOCKS_PER_READ))
+                    : blockRepository.findBefore(conversationId, position.createdAt(), position.messageId(),
+                            Limit.of(BLOCKS_PER_READ));
+            for (ArchivedMessageBlock block : blocks) {
+                List<ArchivedMessage> messages = read(block);
+                for (int i = messages.size() - 1; i >= 0 && page.size() < limit; i--) {
+                    ArchivedMessage message = messages.get(i);
+                    if (position == null || isBefore(message, position)) {
+                        page.add(message.toMessage(conversationId));
+                    }
+                }
+                position = new MessageCursor(block.getFirstCreatedAt(), block.getFirstMessageId());
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+            if (blocks.size() < BLOCKS_PER_READ) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Archived messages newer than the cursor, oldest → newest
+     */
+    public List<Message> pageAfter(Integer conversationId, MessageCursor after, int limit) {
+        List<Message> page = new ArrayList<>(limit);
+        MessageCursor position = after;
+        while (page.size() < limit) {
+            List<ArchivedMessageBlock> blocks = blockRepository.findAfter(
+                    conversationId, position.createdAt(), position.messageId(), Limit.of(BLOCKS_PER_READ));
+            for (ArchivedMessageBlock block : blocks) {
+                for (ArchivedMessage message : read(block)) {
+                    if (page.size() == limit) {
+                        break;
+                    }
+                    if (isBefore(position, message)) {
+                        page.add(message.toMessage(conversationId));
+                    }
+                }
+                position = new MessageCursor(block.getLastCreatedAt(), block.getLastMessageId());
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+            if (blocks.size() < BLOCKS_PER_READ) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Every archived message of a conversation, oldest → newest, decoded one block at a time
+     */
+    public void forEach(Integer conversationId, Consumer<Message> action) {
+        List<ArchivedMessageBlock> blocks = blockRepository.findOldest(conversationId, Limit.of(BLOCKS_PER_READ));
+        while (!blocks.isEmpty()) {
+            for (ArchivedMessageBlock block : blocks) {
+                for (ArchivedMessage message : read(block)) {
+                    action.accept(message.toMessage(conversationId));
+                }
+            }
+            if (blocks.size() < BLOCKS_PER_READ) {
+                break;
+            }
+            ArchivedMessageBlock last = blocks.get(blocks.size() - 1);
+            blocks = blockRepository.findAfter(conversationId, last.getLastCreatedAt(), last.getLastMessageId(),
+                    Limit.of(BLOCKS_PER_READ));
+        }
+    }
+
+    /**
+     * One archived message, located by its position in the conversation
+     */
+    public Optional<Message> find(Integer conversationId, LocalDateTime createdAt, Integer messageId) {
+        List<ArchivedMessageBlock> blocks = blockRepository.findCovering(
+                conversationId, createdAt, messageId, Limit.of(1));
+        if (blocks.isEmpty()) {
+            return Optional.empty();
+        }
+        return read(blocks.get(0)).stream()
+                .filter(message -> message.messageId().equals(messageId))
+                .findFirst()
+                .map(message -> message.toMessage(conversationId));
+    }
+
+    /**
+     * Helper: Move the longest archivable run of oldest messages into one block, inside the caller's
+     * transaction. The summary row stays locked until commit, so concurrent runs cannot archive the same
+     * messages twice; the block is on disk before its index row and the deletes are committed.
+     */
+    private int archiveBlock(Integer conversationId, LocalDateTime cutoff) {
+        ConversationSummary summary = summaryRepository.findForUpdate(conversationId).orElse(null);
+        if (summary == null || summary.getLastMessageId() == null) {
+            return 0;
+        }
+        long participants = conversationService.getParticipants(conversationId);
+        int user1Id = ConversationMembershipCache.user1(participants);
+        ReadWatermark user1Read = ReadWatermark.of(summary.getUser1LastReadMessageId(), summary.getUser1LastReadAt());
+        ReadWatermark user2Read = ReadWatermark.of(summary.getUser2LastReadMessageId(), summary.getUser2LastReadAt());
+
+        List<ArchivedMessage> block = new ArrayList<>();
+        List<Integer> messageIds = new ArrayList<>();
+        for (Message message : messageRepository.findOldestPage(conversationId, Limit.of(maxBlockMessages))) {
+            ReadWatermark recipientRead = message.getSender().getUserId() == user1Id ? user2Read : user1Read;
+            if (!message.getCreatedAt().isBefore(cutoff)
+                    || message.getMessageId().equals(summary.getLastMessageId())
+                    || !recipientRead.covers(message)) {
+                // Stop at the first message that has to stay hot; the archive must remain a prefix
+                break;
+            }
+            block.add(ArchivedMessage.of(message));
+            messageIds.add(message.getMessageId());
+        }
+        if (block.isEmpty()) {
+            return 0;
+        }
+
+        SegmentStore.BlockLocation location = segmentStore.append(conversationId, ArchivedMessage.encode(block));
+        ArchivedMessage first = block.get(0);
+        ArchivedMessage last = block.get(block.size() - 1);
+        blockRepository.save(new ArchivedMessageBlock(
+                null,
+                conversationId,
+                location.segmentId(),
+                location.offset(),
+                location.length(),
+                block.size(),
+                first.createdAt(),
+                first.messageId(),
+                last.createdAt(),
+                last.messageId(),
+                LocalDateTime.now()
+        ));
+        messageRepository.deleteAllByIdInBatch(messageIds);
+        return block.size();
+    }
+
+    /**
+     * Helper: Decode one block from its segment
+     */
+    private List<ArchivedMessage> read(ArchivedMessageBlock block) {
+        SegmentStore.BlockLocation location = new SegmentStore.BlockLocation(
+                block.getSegmentId(), block.getSegmentOffset(), block.getBlockLength());
+        return ArchivedMessage.decode(segmentStore.read(block.getConversationId(), location));
+    }
+
+    private static boolean isBefore(ArchivedMessage message, MessageCursor position) {
+        int byTime = message.createdAt().compareTo(position.createdAt());
+        return byTime < 0 || (byTime == 0 && message.messageId() < position.messageId());
+    }
+
+    private static boolean isBefore(MessageCursor position, ArchivedMessage message) {
+        int byTime = position.createdAt().compareTo(message.createdAt());
+        return byTime < 0 || (byTime == 0 && position.messageId() < message.messageId());
+    }
+}
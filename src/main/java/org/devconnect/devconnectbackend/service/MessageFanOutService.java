@@ -0,0 +1,78 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.config.OutboundPayload;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+
+/**
+ * Pushes saved chat messages to every session of the receiver and echoes them to the sending session.
+ * The DTO is converted to bytes once per message and every target gets the same payload array, instead
+ * of one conversion per convertAndSendToUser call; the broker then hands that array to each of the
+ * receiver's sessions. Connections on CBOR share one CBOR encoding the same way (see {@link OutboundPayload}).
+ */
+@Service
+public class MessageFanOutService {
+
+    private static final String MESSAGES_DESTINATION = "/queue/messages";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * The session a message was sent from, echoed only to that session as @SendToUser(broadcast = false)
+     * would; user is the principal name, or the session id for anonymous connections
+     */
+    public record EchoTarget(String user, String sessionId) {
+    }
+
+    /**
+     * Push a saved message to its receiver and, when given, echo it to the sending session
+     */
+    public void publishMessage(MessageDTO message, EchoTarget echo) {
+        Message<?> encoded = encode(message);
+        send(message.getReceiverId().toString(), null, encoded);
+        if (echo != null) {
+            send(echo.user(), echo.sessionId(), encoded);
+        }
+    }
+
+    /**
+     * Helper: Convert the payload once with the broker's converters
+     */
+    private Message<?> encode(Object payload) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setLeaveMutable(true);
+        Message<?> encoded = messagingTemplate.getMessageConverter().toMessage(payload, headers.getMessageHeaders());
+        if (encoded == null) {
+            throw new MessageConversionException("Unable to convert " + payload.getClass().getName());
+        }
+        return encoded;
+    }
+
+    /**
+     * Helper: Send the converted payload to one user destination, optionally narrowed to one session
+     */
+    private void send(String user, String sessionId, Message<?> encoded) {
+        MessageHeaders encodedHeaders = encoded.getHeaders();
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(encodedHeaders.get(MessageHeaders.CONTENT_TYPE, MimeType.class));
+        headers.setHeader(OutboundPayload.HEADER, encodedHeaders.get(OutboundPayload.HEADER));
+        if (sessionId != null) {
+            headers.setSessionId(sessionId);
+        }
+        headers.setLeaveMutable(true);
+
+        String destination = messagingTemplate.getUserDestinationPrefix()
+                + user.replace("/", "%2F") + MESSAGES_DESTINATION;
+        messagingTemplate.send(destination, MessageBuilder.createMessage(encoded.getPayload(), headers.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,176 @@
+package org.devconnect.devconnectbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point for sending messages.
+ * With batching disabled every send runs its own transaction through {@link MessageService#sendMessage}.
+ * With batching enabled, concurrently submitted messages are gathered into micro-batches
+ * (up to max-batch-size, or whatever arrived within flush-window-ms of the first one),
+ * written in one transaction, and only then are the WebSocket frames pushed and the callers' futures completed.
+ */
+@Service
+public class MessageIngestionService {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private WebSocketOutbox outbox;
+
+    @Value("${messaging.ingest.batching-enabled:false}")
+    private boolean batchingEnabled = false;
+
+    @Value("${messaging.ingest.flush-window-ms:5}")
+    private long flushWindowMs = 5;
+
+    @Value("${messaging.ingest.max-batch-size:100}")
+    private int maxBatchSize = 100;
+
+    @Value("${messaging.ingest.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    private BlockingQueue<PendingMessage> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private record PendingMessage(MessageDTO request, MessageFanOutService.EchoTarget echo,
+                                  CompletableFuture<MessageDTO> result) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!batchingEnabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = Thread.ofPlatform().name("message-ingest").daemon().start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        // Stop accepting work; the flusher writes whatever is still queued and then exits.
+        // Not interrupted, so an in-flight JDBC batch is never cut short.
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Submit a message for sending; the future completes once it has been committed and pushed
+     */
+    public CompletableFuture<MessageDTO> submit(Integer senderId, Integer receiverId, String content) {
+        return submit(senderId, receiverId, content, null);
+    }
+
+    /**
+     * Submit a message for sending; once committed it is pushed to the receiver and echoed to the
+     * sending session, if given
+     */
+    public CompletableFuture<MessageDTO> submit(Integer senderId, Integer receiverId, String content,
+                                                MessageFanOutService.EchoTarget echo) {
+        if (!batchingEnabled) {
+            try {
+                return CompletableFuture.completedFuture(messageService.sendMessage(senderId, receiverId, content, echo));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new RuntimeException("Message ingestion is shutting down"));
+        }
+
+        MessageDTO request = new MessageDTO(null, senderId.longValue(), receiverId.longValue(), content, null, null, null);
+        PendingMessage pending = new PendingMessage(request, echo, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            return CompletableFuture.failedFuture(new RuntimeException("Message ingestion queue is full"));
+        }
+        return pending.result();
+    }
+
+    /**
+     * Helper: Flusher thread body; blocks for the first message of a batch, then waits at most
+     * one flush window for more
+     */
+    private void drainLoop() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushWindowMs);
+                while (running && batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Not expected; flush what we have and keep draining until stop() ends the loop
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Helper: Write one batch, then push frames and complete futures
+     */
+    private void flush(List<PendingMessage> batch) {
+        List<MessageDTO> saved;
+        try {
+            saved = messageService.sendMessageBatch(batch.stream().map(PendingMessage::request).toList(), maxBatchSize);
+        } catch (RuntimeException e) {
+            // One bad message fails the whole transaction; retry individually so only it fails
+            for (PendingMessage pending : batch) {
+                MessageDTO request = pending.request();
+                try {
+                    pending.result().complete(messageService.sendMessage(
+                            request.getSenderId().intValue(), request.getReceiverId().intValue(), request.getText(),
+                            pending.echo()));
+                } catch (RuntimeException individual) {
+                    pending.result().completeExceptionally(individual);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            MessageDTO messageDTO = saved.get(i);
+            try {
+                // Send via WebSocket to receiver (and the sending session)
+                outbox.publishMessage(messageDTO, batch.get(i).echo());
+            } catch (RuntimeException e) {
+                // Already committed; the receiver picks it up from history
+                System.err.println("Error pushing message " + messageDTO.getId() + ": " + e.getMessage());
+            }
+            batch.get(i).result().complete(messageDTO);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.HighlightRange;
+import org.devconnect.devconnectbackend.dto.MessageSearchPageDTO;
+import org.devconnect.devconnectbackend.dto.MessageSearchResultDTO;
+import org.devconnect.devconnectbackend.dto.SearchCursor;
+import org.devconnect.devconnectbackend.dto.SearchHit;
+import org.devconnect.devconnectbackend.model.Message;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.devconnect.devconnectbackend.repository.MessageSearchTermRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text search over a user's message history.
+ * Every message is split into terms on the write path and each term is stored once per participant
+ * (message_search_terms), so a search reads only the caller's postings for the query terms and
+ * never the message text; content is loaded only for the page being returned, to build snippets,
+ * from the messages table or, for archived messages, from the archive.
+ * Results are ranked by how many distinct query terms a message contains, newest first among ties.
+ */
+@Service
+public class MessageSearchService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO message_search_terms (user_id, term, message_id, conversation_id, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    // Messages indexed per transaction by the backfill
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Autowired
+    private MessageSearchTermRepository searchTermRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private MessageArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${messaging.search.default-page-size:20}")
+    private int defaultPageSize = 20;
+
+    @Value("${messaging.search.max-page-size:100}")
+    private int maxPageSize = 100;
+
+    @Value("${messaging.search.max-query-terms:8}")
+    private int maxQueryTerms = 8;
+
+    @Value("${messaging.search.snippet-length:160}")
+    private int snippetLength = 160;
+
+    /**
+     * Index a newly sent message for both participants, in the caller's transaction
+     */
+    @Transactional
+    public void index(Message message, Integer receiverId) {
+        indexAll(List.of(message), List.of(receiverId));
+    }
+
+    /**
+     * Index several newly sent messages with one JDBC batch; receiverIds lines up with messages.
+     * Returns how many of them got postings (a message of only stop words or punctuation gets none).
+     */
+    @Transactional
+    public int indexAll(List<Message> messages, List<Integer> receiverIds) {
+        List<Object[]> rows = new ArrayList<>();
+        int indexed = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            int before = rows.size();
+            addPostings(rows, messages.get(i), receiverIds.get(i));
+            if (rows.size() > before) {
+                indexed++;
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+        return indexed;
+    }
+
+    /**
+     * Replace a message's postings after its content changed
+     */
+    @Transactional
+    public void reindex(Message message, Integer receiverId) {
+        searchTermRepository.deleteByMessage(message.getMessageId());
+        index(message, receiverId);
+    }
+
+    /**
+     * Index messages written before search existed, walking the messages table by id and committing
+     * one batch at a time. Messages that already have postings are skipped, so it can run again at any
+     * time; returns the number of messages that got postings. Messages with no searchable words are read
+     * on every run but never counted.
+     */
+    public int backfill() {
+        int indexed = 0;
+        int afterMessageId = 0;
+        BackfillBatch batch;
+        do {
+            int after = afterMessageId;
+            batch = transactionTemplate.execute(status -> backfillBatch(after));
+            indexed += batch.indexed();
+            if (!batch.messages().isEmpty()) {
+                afterMessageId = batch.messages().get(batch.messages().size() - 1).getMessageId();
+            }
+        } while (batch.messages().size() == BACKFILL_BATCH_SIZE);
+        return indexed;
+    }
+
+    /**
+     * Search the caller's conversations. Pass the previous page's nextCursor to continue.
+     */
+    @Transactional(readOnly = true)
+    public MessageSearchPageDTO search(Integer userId, String query, String cursor, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        SearchCursor after = SearchCursor.decode(cursor);
+
+        List<String> terms = SearchTokenizer.terms(query).stream().limit(maxQueryTerms).toList();
+        if (terms.isEmpty()) {
+            // Only stop words or punctuation
+            return new MessageSearchPageDTO(List.of(), null, false);
+        }
+
+        int pageSize = resolvePageSize(limit);
+        // Fetch one extra hit to learn whether another page exists
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<SearchHit> hits = after == null
+                ? searchTermRepository.search(userId, terms, fetchLimit)
+                : searchTermRepository.searchAfter(
+                        userId, terms, after.score(), after.createdAt(), after.messageId(), fetchLimit);
+
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) {
+            hits = hits.subList(0, pageSize);
+        }
+
+        // Content for this page only
+        Map<Integer, Message> messages = new HashMap<>();
+        for (Message message : messageRepository.findAllById(hits.stream().map(SearchHit::messageId).toList())) {
+            messages.put(message.getMessageId(), message);
+        }
+
+        Set<String> termSet = Set.copyOf(terms);
+        List<MessageSearchResultDTO> results = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            Message message = messages.get(hit.messageId());
+            if (message == null) {
+                // Moved to the archive since it was indexed
+                message = archiveService.find(hit.conversationId(), hit.createdAt(), hit.messageId()).orElse(null);
+            }
+            if (message == null || message.isDeleted()) {
+                continue;
+            }
+            int otherUserId = ConversationMembershipCache.otherUser(
+                    conversationService.getParticipants(hit.conversationId()), userId);
+            results.add(toResult(message, hit, otherUserId, termSet));
+        }
+
+        String nextCursor = hasMore ? SearchCursor.of(hits.get(hits.size() - 1)).encode() : null;
+        return new MessageSearchPageDTO(results, nextCursor, hasMore);
+    }
+
+    /**
+     * Helper: Index the next batch of messages without postings after the given id
+     */
+    private BackfillBatch backfillBatch(int afterMessageId) {
+        List<Message> messages = messageRepository.findUnindexedAfter(afterMessageId, Limit.of(BACKFILL_BATCH_SIZE));
+        List<Integer> receiverIds = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            receiverIds.add(ConversationMembershipCache.otherUser(
+                    conversationService.getParticipants(message.getConversation().getConversationId()),
+                    message.getSender().getUserId()));
+        }
+        return new BackfillBatch(messages, indexAll(messages, receiverIds));
+    }
+
+    /**
+     * Messages read by one backfill transaction, and how many of them got postings
+     */
+    private record BackfillBatch(List<Message> messages, int indexed) {
+    }
+
+    /**
+     * Helper: One row per (participant, distinct term) of a message
+     */
+    private void addPostings(List<Object[]> rows, Message message, Integer receiverId) {
+        Set<String> terms = SearchTokenizer.terms(message.getContent());
+        Integer senderId = message.getSender().getUserId();
+        Integer conversationId = message.getConversation().getConversationId();
+        Timestamp createdAt = Timestamp.valueOf(message.getCreatedAt());
+
+        for (String term : terms) {
+            rows.add(new Object[] {senderId, term, message.getMessageId(), conversationId, createdAt});
+            if (!receiverId.equals(senderId)) {
+                rows.add(new Object[] {receiverId, term, message.getMessageId(), conversationId, createdAt});
+            }
+        }
+    }
+
+    /**
+     * Helper: Build a result with a snippet around the first match and the matches inside it
+     */
+    private MessageSearchResultDTO toResult(Message message, SearchHit hit, int otherUserId, Set<String> terms) {
+        String content = message.getContent();
+        List<SearchTokenizer.Token> matches = SearchTokenizer.tokens(content).stream()
+                .filter(token -> terms.contains(token.term()))
+                .toList();
+
+        int start = 0;
+        if (!matches.isEmpty() && content.length() > snippetLength) {
+            // Show some context before the first match, without running past the end
+            start = Math.max(0, Math.min(matches.get(0).start() - snippetLength / 4, content.length() - snippetLength));
+        }
+        int end = Math.min(content.length(), start + snippetLength);
+
+        List<HighlightRange> highlights = new ArrayList<>();
+        for (SearchTokenizer.Token match : matches) {
+            if (match.start() >= start && match.end() <= end) {
+                highlights.add(new HighlightRange(match.start() - start, match.end() - start));
+            }
+        }
+
+        return new MessageSearchResultDTO(
+                message.getMessageId().longValue(),
+                hit.conversationId().longValue(),
+                message.getSender().getUserId().longValue(),
+                (long) otherUserId,
+                content.substring(start, end),
+                highlights,
+                message.getCreatedAt(),
+                hit.score()
+        );
+    }
+
+    /**
+     * Helper: Clamp a requested page size to the configured bounds
+     */
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(limit, maxPageSize);
+    }
+}
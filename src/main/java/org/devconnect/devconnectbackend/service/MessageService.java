@@ -1,19 +1,51 @@
 package org.devconnect.devconnectbackend.service;
 
+import org.devconnect.devconnectbackend.archive.ArchivedMessage;
+import org.devconnect.devconnectbackend.dto.ConversationReadState;
+import org.devconnect.devconnectbackend.dto.DeliveryReceiptDTO;
+import org.devconnect.devconnectbackend.dto.DeliveryTarget;
+import org.devconnect.devconnectbackend.dto.MessageCursor;
 import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.MessagePageDTO;
+import org.devconnect.devconnectbackend.dto.ReadReceiptDTO;
+import org.devconnect.devconnectbackend.dto.ReadWatermark;
 import org.devconnect.devconnectbackend.model.Conversation;
 import org.devconnect.devconnectbackend.model.Message;
 import org.devconnect.devconnectbackend.model.User;
 import org.devconnect.devconnectbackend.repository.MessageRepository;
 import org.devconnect.devconnectbackend.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MessageService {
@@ -28,21 +60,84 @@ public class MessageService {
     private UserRepository userRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ConversationSummaryService summaryService;
+
+    @Autowired
+    private MessageSearchService searchService;
+
+    @Autowired
+    private MessageArchiveService archiveService;
+
+    @Autowired
+    private SyncChangeRecorder syncRecorder;
+
+    @Autowired
+    private WebSocketOutbox outbox;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${messaging.history.default-page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${messaging.history.max-page-size:200}")
+    private int maxPageSize = 200;
+
+    @Value("${messaging.delivery.max-batch-size:1000}")
+    private int maxDeliveryBatchSize = 1000;
+
+    @Value("${messaging.tail-cache.enabled:true}")
+    private boolean tailCacheEnabled = true;
+
+    @Value("${messaging.tail-cache.conversations:2048}")
+    private int tailCacheConversations = 2048;
+
+    @Value("${messaging.tail-cache.messages-per-conversation:64}")
+    private int tailCacheMessages = 64;
+
+    @Value("${messaging.tail-cache.entry-bytes:256}")
+    private int tailCacheEntryBytes = 256;
+
+    @Value("${messaging.cluster.enabled:false}")
+    private boolean clusterEnabled = false;
+
+    // Newest messages of active conversations, off-heap; built in init, null when disabled
+    private MessageTailCache tailCache;
+
+    @PostConstruct
+    public void init() {
+        // Writes on other nodes never reach this node's cache, so a cluster reads from the database
+        tailCache = tailCacheEnabled && !clusterEnabled
+                ? new MessageTailCache(tailCacheConversations, tailCacheMessages, tailCacheEntryBytes)
+                : null;
+    }
 
     /**
      * Send a message from one user to another
      */
     @Transactional
     public MessageDTO sendMessage(Integer senderId, Integer receiverId, String content) {
+        return sendMessage(senderId, receiverId, content, null);
+    }
+
+    /**
+     * Send a message from one user to another and echo the saved message to the sending session, if given
+     */
+    @Transactional
+    public MessageDTO sendMessage(Integer senderId, Integer receiverId, String content,
+                                  MessageFanOutService.EchoTarget echo) {
         // Validate users exist
         User sender = userRepository.findById(senderId)
                 .orElseThrow(() -> new RuntimeException("Sender not found"));
         User receiver = userRepository.findById(receiverId)
                 .orElseThrow(() -> new RuntimeException("Receiver not found"));
 
-        // Get or create conversation
-        Conversation conversation = conversationService.getOrCreateConversation(senderId, receiverId);
+        // Get or create conversation; usually answered from the pair cache, so nothing is loaded here
+        Integer conversationId = conversationService.getOrCreateConversationId(senderId, receiverId);
+        Conversation conversation = entityManager.getReference(Conversation.class, conversationId);
 
         // Create and save message
         Message message = new Message();
@@ -53,73 +148,302 @@ public class MessageService {
         message.setCreatedAt(LocalDateTime.now());
 
         message = messageRepository.save(message);
+        ArchivedMessage saved = ArchivedMessage.of(message);
+        afterCommit(cache -> cache.append(conversationId, saved));
+
+        // Keep the inbox summary in step within the same transaction
+        summaryService.recordMessages(conversationId, Math.min(senderId, receiverId), List.of(message));
+        searchService.index(message, receiverId);
+        syncRecorder.recordMessages(List.of(message), List.of(receiverId));
 
         // Convert to DTO
-        MessageDTO messageDTO = convertToDTO(message, receiverId);
+        MessageDTO messageDTO = convertToDTO(message, receiverId, ReadWatermark.NONE);
 
-        // Send via WebSocket to receiver
-        messagingTemplate.convertAndSendToUser(
-                receiverId.toString(),
-                "/queue/messages",
-                messageDTO
-        );
+        // Send via WebSocket to receiver (and the sending session) once committed
+        outbox.publishMessage(messageDTO, echo);
 
         return messageDTO;
     }
 
     /**
-     * Get all messages in a conversation
+     * Persist a batch of messages in one transaction: one user lookup, one conversation lookup per
+     * pair, JDBC-batched inserts and one summary update per conversation. Does not push WebSocket
+     * frames; the caller does that after commit. Fails as a whole if any request is invalid.
+     * Returns the saved messages in request order.
+     */
+    @Transactional
+    public List<MessageDTO> sendMessageBatch(List<MessageDTO> requests, int jdbcBatchSize) {
+        Set<Integer> userIds = new HashSet<>();
+        for (MessageDTO request : requests) {
+            userIds.add(request.getSenderId().intValue());
+            userIds.add(request.getReceiverId().intValue());
+        }
+        Map<Integer, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            users.put(user.getUserId(), user);
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(jdbcBatchSize);
+        // Conversation lookups must not dirty-check the whole batch before every query
+        session.setHibernateFlushMode(FlushMode.COMMIT);
+
+        // Keyed by the canonical user pair, so A→B and B→A share one lookup and one summary update
+        Map<Long, Integer> conversationIds = new HashMap<>();
+        Map<Long, List<Message>> byConversation = new LinkedHashMap<>();
+        List<Message> messages = new ArrayList<>(requests.size());
+        List<Integer> messageConversationIds = new ArrayList<>(requests.size());
+        for (MessageDTO request : requests) {
+            Integer senderId = request.getSenderId().intValue();
+            Integer receiverId = request.getReceiverId().intValue();
+            User sender = users.get(senderId);
+            if (sender == null) {
+                throw new RuntimeException("Sender not found");
+            }
+            if (!users.containsKey(receiverId)) {
+                throw new RuntimeException("Receiver not found");
+            }
+
+            long pair = ConversationPairCache.key(Math.min(senderId, receiverId), Math.max(senderId, receiverId));
+            Integer conversationId = conversationIds.computeIfAbsent(pair,
+                    p -> conversationService.getOrCreateConversationId(senderId, receiverId));
+
+            Message message = new Message();
+            message.setConversation(entityManager.getReference(Conversation.class, conversationId));
+            message.setSender(sender);
+            message.setContent(request.getText());
+            message.setStatus(Message.MessageStatus.SENT);
+            message.setCreatedAt(LocalDateTime.now());
+            messages.add(message);
+            messageConversationIds.add(conversationId);
+            byConversation.computeIfAbsent(pair, p -> new ArrayList<>()).add(message);
+        }
+
+        messageRepository.saveAll(messages);
+        // Write the batch in one go, then detach it so the per-conversation summary updates have nothing left to flush
+        entityManager.flush();
+        List<ArchivedMessage> saved = messages.stream().map(ArchivedMessage::of).toList();
+        afterCommit(cache -> {
+            for (int i = 0; i < saved.size(); i++) {
+                cache.append(messageConversationIds.get(i), saved.get(i));
+            }
+        });
+        entityManager.clear();
+        // The high half of the pair key is the lower user id, i.e. the conversation's user1
+        byConversation.forEach((pair, sent) -> summaryService.recordMessages(
+                conversationIds.get(pair), (int) (pair >>> 32), sent));
+        List<Integer> receiverIds = requests.stream().map(request -> request.getReceiverId().intValue()).toList();
+        searchService.indexAll(messages, receiverIds);
+        syncRecorder.recordMessages(messages, receiverIds);
+
+        List<MessageDTO> messageDTOs = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            Integer receiverId = requests.get(i).getReceiverId().intValue();
+            messageDTOs.add(convertToDTO(messages.get(i), receiverId, ReadWatermark.NONE));
+        }
+        return messageDTOs;
+    }
+
+    /**
+     * Edit the text of a message; only its sender may do so.
+     * Keeps the search index and, for the latest message, the inbox preview in step.
+     */
+    @Transactional
+    public MessageDTO editMessage(Integer messageId, Integer editorId, String content) {
+        Message message = messageRepository.findById(messageId)
+                .filter(m -> !m.isDeleted())
+                .orElseThrow(() -> new RuntimeException("Message not found"));
+        if (!message.getSender().getUserId().equals(editorId)) {
+            throw new RuntimeException("Access denied: Only the sender can edit a message");
+        }
+
+        message.setContent(content);
+        message.setEditedAt(LocalDateTime.now());
+
+        Integer conversationId = message.getConversation().getConversationId();
+        long participants = conversationService.getParticipants(conversationId);
+        Integer receiverId = ConversationMembershipCache.otherUser(participants, editorId);
+        summaryService.recordEdit(conversationId, message);
+        ArchivedMessage edited = ArchivedMessage.of(message);
+        afterCommit(cache -> cache.update(conversationId, edited));
+        searchService.reindex(message, receiverId);
+        syncRecorder.recordMessages(List.of(message), List.of(receiverId));
+
+        ConversationReadState readState = summaryService.getReadState(conversationId);
+        ReadWatermark receiverRead = ConversationMembershipCache.user1(participants) == receiverId
+                ? readState.user1()
+                : readState.user2();
+        return convertToDTO(message, receiverId, receiverRead);
+    }
+
+    /**
+     * Get the newest page of messages in a conversation
      */
     public List<MessageDTO> getMessagesInConversation(Integer conversationId, Integer requestingUserId) {
+        return getMessagePage(conversationId, requestingUserId, null, null, null).getMessages();
+    }
+
+    /**
+     * Get one page of messages in a conversation using keyset pagination on (createdAt, messageId).
+     * With no cursor the newest page is returned; "before" pages backwards, "after" pages forwards.
+     */
+    public MessagePageDTO getMessagePage(Integer conversationId, Integer requestingUserId,
+                                         String before, String after, Integer limit) {
+        MessageCursor beforeCursor = MessageCursor.decode(before);
+        MessageCursor afterCursor = MessageCursor.decode(after);
+        if (beforeCursor != null && afterCursor != null) {
+            throw new IllegalArgumentException("Only one of before/after cursors may be given");
+        }
+
         // Verify user is a participant
-        Conversation conversation = conversationService.getConversation(conversationId, requestingUserId);
+        long participants = conversationService.getParticipants(conversationId, requestingUserId);
+
+        int pageSize = resolvePageSize(limit);
+        // Fetch one extra row to learn whether another page exists
+        Limit fetchLimit = Limit.of(pageSize + 1);
 
-        List<Message> messages = messageRepository.findByConversationConversationIdOrderByCreatedAtAsc(conversationId);
-        List<MessageDTO> messageDTOs = new ArrayList<>();
+        // Archived messages are always older than hot ones: forward pages start in the archive,
+        // backward pages continue into it once the hot table runs out
+        List<Message> messages;
+        if (afterCursor != null) {
+            messages = archiveService.pageAfter(conversationId, afterCursor, pageSize + 1);
+            if (messages.size() <= pageSize) {
+                MessageCursor from = messages.isEmpty() ? afterCursor : MessageCursor.of(messages.get(messages.size() - 1));
+                messages = concat(messages, messageRepository.findPageAfter(
+                        conversationId, from.createdAt(), from.messageId(), Limit.of(pageSize + 1 - messages.size())));
+            }
+        } else if (beforeCursor == null && (messages = cachedLatestPage(conversationId, pageSize + 1)) != null) {
+            // Newest page of an active conversation, straight from the tail cache
+        } else {
+            long stamp = tailCache != null ? tailCache.stamp(conversationId) : 0;
+            messages = beforeCursor != null
+                    ? messageRepository.findPageBefore(
+                            conversationId, beforeCursor.createdAt(), beforeCursor.messageId(), fetchLimit)
+                    : messageRepository.findLatestPage(conversationId, fetchLimit);
+            if (messages.size() <= pageSize) {
+                MessageCursor from = messages.isEmpty() ? beforeCursor : MessageCursor.of(messages.get(messages.size() - 1));
+                messages = concat(messages, archiveService.pageBefore(conversationId, from, pageSize + 1 - messages.size()));
+            }
+            if (beforeCursor == null) {
+                fillTailCache(conversationId, stamp, messages, pageSize + 1);
+            }
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+        // Backward pages come out newest → oldest; always hand them back oldest → newest
+        if (afterCursor == null) {
+            messages = new ArrayList<>(messages);
+            Collections.reverse(messages);
+        }
 
         // Determine the other user in the conversation
-        Integer otherUserId = getOtherUserId(conversation, requestingUserId);
+        Integer otherUserId = ConversationMembershipCache.otherUser(participants, requestingUserId);
+        // One lookup per page: READ status comes from the receiver's watermark
+        ConversationReadState readState = summaryService.getReadState(conversationId);
 
+        List<MessageDTO> messageDTOs = new ArrayList<>(messages.size());
         for (Message message : messages) {
             // Determine receiverId for DTO (opposite of sender)
             Integer receiverId = message.getSender().getUserId().equals(requestingUserId)
                                   ? otherUserId
                                   : requestingUserId;
-            messageDTOs.add(convertToDTO(message, receiverId));
+            ReadWatermark receiverRead = ConversationMembershipCache.user1(participants) == receiverId
+                                  ? readState.user1()
+                                  : readState.user2();
+            messageDTOs.add(convertToDTO(message, receiverId, receiverRead));
         }
 
-        return messageDTOs;
+        String oldestCursor = messages.isEmpty() ? null : MessageCursor.of(messages.get(0)).encode();
+        String newestCursor = messages.isEmpty() ? null : MessageCursor.of(messages.get(messages.size() - 1)).encode();
+
+        return new MessagePageDTO(messageDTOs, oldestCursor, newestCursor, hasMore);
+    }
+
+    /**
+     * Write a whole conversation as NDJSON (one message DTO per line), oldest first: the archived history,
+     * then the messages table through a forward-only cursor. Each message is detached once written, so
+     * memory stays flat however long the conversation is. Returns the number of messages written.
+     */
+    @Transactional(readOnly = true)
+    public long exportConversation(Integer conversationId, OutputStream out) throws IOException {
+        long participants = conversationService.getParticipants(conversationId);
+        ConversationReadState readState = summaryService.getReadState(conversationId);
+        // The output is flushed as the generator's buffer fills, not after every line
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        // Opened before the archive is read, so messages archived meanwhile are still in the cursor's snapshot;
+        // those at or before the last archived message have been written from the archive already
+        try (Stream<Message> hot = messageRepository.streamConversation(conversationId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines end in a newline instead of Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+            long[] written = new long[1];
+            Message[] lastArchived = new Message[1];
+            archiveService.forEach(conversationId, message -> {
+                writeExportLine(generator, writer, message, participants, readState);
+                lastArchived[0] = message;
+                written[0]++;
+            });
+
+            MessageCursor archivedUpTo = lastArchived[0] != null ? MessageCursor.of(lastArchived[0]) : null;
+            for (Message message : (Iterable<Message>) hot::iterator) {
+                if (archivedUpTo == null || isAfter(message, archivedUpTo)) {
+                    writeExportLine(generator, writer, message, participants, readState);
+                    written[0]++;
+                }
+                entityManager.detach(message);
+            }
+            return written[0];
+        }
     }
 
     /**
-     * Get messages between two users (creates conversation if needed)
+     * Get the newest page of messages between two users (creates conversation if needed)
      */
     public List<MessageDTO> getMessagesBetweenUsers(Integer userId1, Integer userId2) {
-        Conversation conversation = conversationService.getOrCreateConversation(userId1, userId2);
-        return getMessagesInConversation(conversation.getConversationId(), userId1);
+        return getMessagePageBetweenUsers(userId1, userId2, null, null, null).getMessages();
+    }
+
+    /**
+     * Get one page of messages between two users (creates conversation if needed)
+     */
+    public MessagePageDTO getMessagePageBetweenUsers(Integer userId1, Integer userId2,
+                                                     String before, String after, Integer limit) {
+        Integer conversationId = conversationService.getOrCreateConversationId(userId1, userId2);
+        return getMessagePage(conversationId, userId1, before, after, limit);
     }
 
     /**
-     * Mark messages as read in a conversation
+     * Mark messages as read in a conversation by advancing the reader's watermark
+     * to the latest message, then send the other participant a single read receipt
      */
     @Transactional
     public void markMessagesAsRead(Integer conversationId, Integer readerId) {
-        List<Message> unreadMessages = messageRepository.findUnreadMessages(conversationId, readerId);
-
-        for (Message message : unreadMessages) {
-            message.setStatus(Message.MessageStatus.READ);
-            message.setReadAt(LocalDateTime.now());
-            messageRepository.save(message);
+        // Verify user is a participant
+        long participants = conversationService.getParticipants(conversationId, readerId);
 
-            // Notify sender about read receipt
-            Integer senderId = message.getSender().getUserId();
-            MessageDTO messageDTO = convertToDTO(message, readerId);
-            messagingTemplate.convertAndSendToUser(
-                    senderId.toString(),
-                    "/queue/read-receipts",
-                    messageDTO
-            );
+        ReadWatermark watermark = summaryService.advanceReadWatermark(
+                conversationId, ConversationMembershipCache.user1(participants) == readerId, readerId);
+        if (watermark == null) {
+            // Nothing new since the last read
+            return;
         }
+        syncRecorder.recordConversation(conversationId,
+                ConversationMembershipCache.user1(participants), ConversationMembershipCache.user2(participants));
+
+        // Notify sender about read receipt once committed
+        Integer senderId = ConversationMembershipCache.otherUser(participants, readerId);
+        ReadReceiptDTO receipt = new ReadReceiptDTO(
+                conversationId.longValue(),
+                readerId.longValue(),
+                watermark.messageId().longValue(),
+                LocalDateTime.now()
+        );
+        outbox.sendToUser(senderId.toString(), "/queue/read-receipts", receipt);
     }
 
     /**
@@ -130,48 +454,181 @@ public class MessageService {
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
 
-        if (message.getStatus() == Message.MessageStatus.SENT) {
-            message.setStatus(Message.MessageStatus.DELIVERED);
-            message.setDeliveredAt(LocalDateTime.now());
-            messageRepository.save(message);
+        Integer recipientId = conversationService.getOtherParticipant(
+                message.getConversation().getConversationId(), message.getSender().getUserId());
+        markMessagesAsDelivered(recipientId, List.of(messageId), List.of());
+    }
+
+    /**
+     * Mark a batch of messages as delivered to a recipient, given explicit message ids and/or
+     * "up to" message ids (everything at or before that message in its conversation).
+     * Applies SENT → DELIVERED in one bulk update and sends each sender one aggregated receipt.
+     * Returns the number of messages that moved to DELIVERED.
+     */
+    @Transactional
+    public int markMessagesAsDelivered(Integer recipientId, Collection<Integer> messageIds,
+                                       Collection<Integer> upToMessageIds) {
+        int requested = (messageIds == null ? 0 : messageIds.size())
+                + (upToMessageIds == null ? 0 : upToMessageIds.size());
+        if (requested > maxDeliveryBatchSize) {
+            throw new IllegalArgumentException("Too many message ids in one delivery acknowledgement");
+        }
+
+        // Only messages still SENT to this recipient; keyed by id to drop overlaps between the two forms
+        Map<Integer, DeliveryTarget> targets = new LinkedHashMap<>();
+        if (messageIds != null && !messageIds.isEmpty()) {
+            for (DeliveryTarget target : messageRepository.findDeliveryTargets(messageIds, recipientId)) {
+                targets.putIfAbsent(target.messageId(), target);
+            }
+        }
+        if (upToMessageIds != null) {
+            for (Integer upToMessageId : upToMessageIds) {
+                for (DeliveryTarget target : messageRepository.findDeliveryTargetsUpTo(upToMessageId, recipientId)) {
+                    targets.putIfAbsent(target.messageId(), target);
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime deliveredAt = LocalDateTime.now();
+        messageRepository.markDelivered(targets.keySet(), Message.MessageStatus.DELIVERED, deliveredAt);
+        Map<Integer, List<Integer>> deliveredByConversation = new LinkedHashMap<>();
+        for (DeliveryTarget target : targets.values()) {
+            deliveredByConversation.computeIfAbsent(target.conversationId(), id -> new ArrayList<>()).add(target.messageId());
+        }
+        afterCommit(cache -> deliveredByConversation.forEach((conversationId, ids) ->
+                cache.updateStatus(conversationId, ids, Message.MessageStatus.DELIVERED, deliveredAt)));
+        summaryService.recordStatus(targets.keySet(), Message.MessageStatus.DELIVERED);
+        syncRecorder.recordDeliveries(targets.values());
+
+        // Notify each sender once, after commit; a sender shares exactly one conversation with the recipient
+        Map<Integer, DeliveryReceiptDTO> receipts = new LinkedHashMap<>();
+        for (DeliveryTarget target : targets.values()) {
+            receipts.computeIfAbsent(target.senderId(), senderId -> new DeliveryReceiptDTO(
+                    target.conversationId().longValue(),
+                    recipientId.longValue(),
+                    new ArrayList<>(),
+                    deliveredAt
+            )).getMessageIds().add(target.messageId().longValue());
+        }
+        receipts.forEach((senderId, receipt) ->
+                outbox.sendToUser(senderId.toString(), "/queue/delivery-receipts", receipt));
+
+        return targets.size();
+    }
+
+    /**
+     * Helper: The newest messages of a conversation from the tail cache, newest first, or null on a miss
+     */
+    private List<Message> cachedLatestPage(Integer conversationId, int limit) {
+        if (tailCache == null) {
+            return null;
+        }
+        List<ArchivedMessage> cached = tailCache.latest(conversationId, limit);
+        if (cached == null) {
+            return null;
+        }
+        List<Message> messages = new ArrayList<>(cached.size());
+        for (ArchivedMessage message : cached) {
+            messages.add(message.toMessage(conversationId));
+        }
+        return messages;
+    }
+
+    /**
+     * Helper: Cache the newest page just read from the database (newest first); a short read is the whole conversation
+     */
+    private void fillTailCache(Integer conversationId, long stamp, List<Message> newestFirst, int limit) {
+        if (tailCache == null || limit > tailCache.entriesPerConversation()) {
+            return;
+        }
+        List<ArchivedMessage> messages = new ArrayList<>(newestFirst.size());
+        for (Message message : newestFirst) {
+            messages.add(ArchivedMessage.of(message));
+        }
+        tailCache.fill(conversationId, stamp, messages, newestFirst.size() < limit);
+    }
+
+    /**
+     * Helper: Apply a change to the tail cache once the transaction commits, so it never holds uncommitted rows
+     */
+    private void afterCommit(Consumer<MessageTailCache> update) {
+        MessageTailCache cache = tailCache;
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.accept(cache);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.accept(cache);
+            }
+        });
+    }
 
-            // Get conversation to determine receiver
-            Conversation conversation = message.getConversation();
-            Integer senderId = message.getSender().getUserId();
-            Integer receiverId = getOtherUserId(conversation, senderId);
+    /**
+     * Helper: One NDJSON line; the receiver is the participant who did not send the message
+     */
+    private void writeExportLine(JsonGenerator generator, ObjectWriter writer, Message message,
+                                 long participants, ConversationReadState readState) {
+        Integer receiverId = ConversationMembershipCache.otherUser(participants, message.getSender().getUserId());
+        ReadWatermark receiverRead = ConversationMembershipCache.user1(participants) == receiverId
+                ? readState.user1()
+                : readState.user2();
+        try {
+            writer.writeValue(generator, convertToDTO(message, receiverId, receiverRead));
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            // Notify sender about delivery
-            MessageDTO messageDTO = convertToDTO(message, receiverId);
-            messagingTemplate.convertAndSendToUser(
-                    senderId.toString(),
-                    "/queue/delivery-receipts",
-                    messageDTO
-            );
+    private static boolean isAfter(Message message, MessageCursor position) {
+        int byTime = message.getCreatedAt().compareTo(position.createdAt());
+        return byTime > 0 || (byTime == 0 && message.getMessageId() > position.messageId());
+    }
+
+    /**
+     * Helper: Clamp a requested page size to the configured bounds
+     */
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
         }
+        return Math.min(limit, maxPageSize);
     }
 
     /**
-     * Helper: Get the other user in a conversation
+     * Helper: Hot and archived rows of one page, in fetch order
      */
-    private Integer getOtherUserId(Conversation conversation, Integer userId) {
-        if (conversation.getUser1().getUserId().equals(userId)) {
-            return conversation.getUser2().getUserId();
-        } else if (conversation.getUser2().getUserId().equals(userId)) {
-            return conversation.getUser1().getUserId();
+    private static List<Message> concat(List<Message> first, List<Message> second) {
+        if (second.isEmpty()) {
+            return first;
         }
-        throw new RuntimeException("User is not a participant in this conversation");
+        List<Message> messages = new ArrayList<>(first.size() + second.size());
+        messages.addAll(first);
+        messages.addAll(second);
+        return messages;
     }
 
     /**
-     * Convert Message entity to DTO
+     * Convert Message entity to DTO; messages covered by the receiver's read watermark report "read"
      */
-    private MessageDTO convertToDTO(Message message, Integer receiverId) {
+    private MessageDTO convertToDTO(Message message, Integer receiverId, ReadWatermark receiverRead) {
+        Message.MessageStatus status = receiverRead.covers(message)
+                ? Message.MessageStatus.READ
+                : message.getStatus();
         return new MessageDTO(
                 message.getMessageId().longValue(),
                 message.getSender().getUserId().longValue(),
                 receiverId.longValue(),
                 message.getContent(),
-                message.getStatus().name().toLowerCase(),
+                status.name().toLowerCase(),
                 message.getCreatedAt(),
                 null // No projectId in current model
         );
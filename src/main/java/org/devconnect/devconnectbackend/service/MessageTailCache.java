@@ -0,0 +1,431 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.archive.ArchivedMessage;
+import org.devconnect.devconnectbackend.model.Message;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The newest messages of the most recently used conversations, kept off-heap.
+ * Each cached conversation owns one slot: a direct buffer holding a ring of fixed-size entries, oldest
+ * to newest, so cached messages cost the garbage collector nothing but one buffer object per slot.
+ * Slots are reused for other conversations with the CLOCK algorithm. A message whose text does not
+ * fit in an entry is not cached; the slot keeps only what is newer than it.
+ *
+ * A slot either holds the newest messages of its conversation without gaps, or it is dropped. Fills
+ * from the database carry a stamp taken before the query; any change to the conversation in between
+ * makes the fill a no-op, so a fill can never overwrite a newer change with an older read.
+ */
+public class MessageTailCache {
+
+    private static final int EMPTY = -1;
+    private static final long NO_TIME = -1L;
+
+    // Entry layout: message id, sender id, status, deleted, created/delivered/read/edited, text length, text
+    private static final int HEADER_BYTES = 4 + 4 + 1 + 1 + 8 * 4 + 2;
+
+    private final int slotCount;
+    private final int entriesPerSlot;
+    private final int entryBytes;
+
+    private final ConcurrentHashMap<Integer, Integer> slotsByConversation = new ConcurrentHashMap<>();
+    private final ByteBuffer[] buffers;
+    private final int[] owners;
+    private final int[] starts;
+    private final int[] counts;
+    // True when nothing older than the oldest entry exists, so a short ring still answers any page
+    private final boolean[] complete;
+    private final Object[] locks;
+    private final AtomicIntegerArray referenced;
+
+    private final AtomicLongArray stamps;
+    private final int stampShift;
+
+    private final Object allocationLock = new Object();
+    private int nextUnused;
+    private int hand;
+
+    public MessageTailCache(int conversations, int entriesPerConversation, int entryBytes) {
+        this.slotCount = Math.max(conversations, 1);
+        this.entriesPerSlot = Math.max(entriesPerConversation, 1);
+        // Text length is stored as a short
+        this.entryBytes = Math.min(Math.max(entryBytes, HEADER_BYTES + 16), Short.MAX_VALUE);
+        this.buffers = new ByteBuffer[slotCount];
+        this.owners = new int[slotCount];
+        Arrays.fill(owners, EMPTY);
+        this.starts = new int[slotCount];
+        this.counts = new int[slotCount];
+        this.complete = new boolean[slotCount];
+        this.locks = new Object[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            locks[i] = new Object();
+        }
+        this.referenced = new AtomicIntegerArray(slotCount);
+
+        int stampSize = Integer.highestOneBit(Math.max(slotCount * 4, 2) - 1) << 1;
+        this.stamps = new AtomicLongArray(stampSize);
+        this.stampShift = Long.SIZE - Integer.numberOfTrailingZeros(stampSize);
+    }
+
+    public int entriesPerConversation() {
+        return entriesPerSlot;
+    }
+
+    /**
+     * Off-heap bytes reserved by slots that have been used so far
+     */
+    public long reservedBytes() {
+        synchronized (allocationLock) {
+            return (long) nextUnused * entriesPerSlot * entryBytes;
+        }
+    }
+
+    /**
+     * The conversation's change stamp; take it before reading the page that will be passed to fill
+     */
+    public long stamp(int conversationId) {
+        return stamps.get(stampIndex(conversationId));
+    }
+
+    /**
+     * The newest messages of a conversation, newest first: up to limit of them, or null when the slot
+     * cannot answer (not cached, or holding fewer than limit with older ones left in the database)
+     */
+    public List<ArchivedMessage> latest(int conversationId, int limit) {
+        Integer slot = slotsByConversation.get(conversationId);
+        if (slot == null || limit > entriesPerSlot) {
+            return null;
+        }
+        synchronized (locks[slot]) {
+            if (owners[slot] != conversationId || (counts[slot] < limit && !complete[slot])) {
+                return null;
+            }
+            referenced.set(slot, 1);
+            int size = Math.min(limit, counts[slot]);
+            List<ArchivedMessage> messages = new ArrayList<>(size);
+            for (int i = counts[slot] - 1; i >= counts[slot] - size; i--) {
+                messages.add(read(slot, i));
+            }
+            return messages;
+        }
+    }
+
+    /**
+     * Cache a conversation's newest messages as read from the database, newest first.
+     * Complete when the read returned everything the conversation has.
+     */
+    public void fill(int conversationId, long stamp, List<ArchivedMessage> newestFirst, boolean complete) {
+        // Keep only the newest run of messages that fit, so the slot never has a gap
+        int size = 0;
+        while (size < newestFirst.size() && size < entriesPerSlot && fits(newestFirst.get(size))) {
+            size++;
+        }
+        boolean whole = complete && size == newestFirst.size();
+        if (size == 0 && !whole) {
+            return;
+        }
+
+        synchronized (allocationLock) {
+            Integer existing = slotsByConversation.get(conversationId);
+            int slot = existing != null ? existing : claimSlot();
+            synchronized (locks[slot]) {
+                if (owners[slot] != conversationId) {
+                    if (owners[slot] != EMPTY) {
+                        slotsByConversation.remove(owners[slot], slot);
+                    }
+                    owners[slot] = conversationId;
+                    counts[slot] = 0;
+                    // Published before the stamp is checked: a change either bumps the stamp first
+                    // and the fill is dropped, or finds the slot and waits for the fill to finish
+                    slotsByConversation.put(conversationId, slot);
+                }
+                if (stamp(conversationId) != stamp) {
+                    if (counts[slot] == 0) {
+                        release(slot);
+                    }
+                    return;
+                }
+                if (buffers[slot] == null) {
+                    buffers[slot] = ByteBuffer.allocateDirect(entriesPerSlot * entryBytes);
+                }
+                starts[slot] = 0;
+                counts[slot] = size;
+                this.complete[slot] = whole;
+                for (int i = 0; i < size; i++) {
+                    write(slot, size - 1 - i, newestFirst.get(i));
+                }
+                referenced.set(slot, 1);
+            }
+        }
+    }
+
+    /**
+     * Add a newly committed message to its conversation, if the conversation is cached
+     */
+    public void append(int conversationId, ArchivedMessage message) {
+        stamps.incrementAndGet(stampIndex(conversationId));
+        Integer slot = slotsByConversation.get(conversationId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (locks[slot]) {
+            if (owners[slot] != conversationId) {
+                return;
+            }
+            if (!fits(message)) {
+                // Cannot leave a gap at the newest end
+                release(slot);
+                return;
+            }
+            insert(slot, message);
+            referenced.set(slot, 1);
+        }
+    }
+
+    /**
+     * Replace a cached message with its committed state, e.g. after an edit
+     */
+    public void update(int conversationId, ArchivedMessage message) {
+        stamps.incrementAndGet(stampIndex(conversationId));
+        Integer slot = slotsByConversation.get(conversationId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (locks[slot]) {
+            if (owners[slot] != conversationId) {
+                return;
+            }
+            int index = indexOf(slot, message.messageId());
+            if (index == EMPTY) {
+                return;
+            }
+            if (fits(message)) {
+                write(slot, index, message);
+            } else {
+                release(slot);
+            }
+        }
+    }
+
+    /**
+     * Record a committed status change for cached messages of one conversation
+     */
+    public void updateStatus(int conversationId, Collection<Integer> messageIds, Message.MessageStatus status,
+                             LocalDateTime at) {
+        stamps.incrementAndGet(stampIndex(conversationId));
+        Integer slot = slotsByConversation.get(conversationId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (locks[slot]) {
+            if (owners[slot] != conversationId) {
+                return;
+            }
+            for (Integer messageId : messageIds) {
+                int index = indexOf(slot, messageId);
+                if (index == EMPTY) {
+                    continue;
+                }
+                ArchivedMessage cached = read(slot, index);
+                write(slot, index, new ArchivedMessage(
+                        cached.messageId(),
+                        cached.senderId(),
+                        cached.content(),
+                        status,
+                        cached.createdAt(),
+                        status == Message.MessageStatus.DELIVERED ? at : cached.deliveredAt(),
+                        status == Message.MessageStatus.READ ? at : cached.readAt(),
+                        cached.editedAt(),
+                        cached.deleted()
+                ));
+            }
+        }
+    }
+
+    /**
+     * Drop a conversation from the cache
+     */
+    public void invalidate(int conversationId) {
+        stamps.incrementAndGet(stampIndex(conversationId));
+        Integer slot = slotsByConversation.get(conversationId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (locks[slot]) {
+            if (owners[slot] == conversationId) {
+                release(slot);
+            }
+        }
+    }
+
+    /**
+     * Helper: A slot to reuse, chosen by CLOCK; recently used slots get a second chance
+     */
+    private int claimSlot() {
+        if (nextUnused < slotCount) {
+            return nextUnused++;
+        }
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) % slotCount;
+            if (referenced.getAndSet(slot, 0) == 0) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Helper: Empty a slot; its buffer stays allocated for the next conversation. Caller holds the slot lock.
+     */
+    private void release(int slot) {
+        slotsByConversation.remove(owners[slot], slot);
+        owners[slot] = EMPTY;
+        counts[slot] = 0;
+        complete[slot] = false;
+    }
+
+    /**
+     * Helper: Insert in (createdAt, messageId) order; commits can finish out of order. Caller holds the slot lock.
+     */
+    private void insert(int slot, ArchivedMessage message) {
+        int existing = indexOf(slot, message.messageId());
+        if (existing != EMPTY) {
+            // Already read from the database by a concurrent fill
+            write(slot, existing, message);
+            return;
+        }
+
+        int position = counts[slot];
+        while (position > 0 && compare(read(slot, position - 1), message) > 0) {
+            position--;
+        }
+        if (position == 0 && !complete[slot]) {
+            // Older than everything cached, and older messages are not cached either
+            return;
+        }
+        if (counts[slot] == entriesPerSlot) {
+            complete[slot] = false;
+            if (position == 0) {
+                return;
+            }
+            // Drop the oldest entry
+            starts[slot] = (starts[slot] + 1) % entriesPerSlot;
+            counts[slot]--;
+            position--;
+        }
+        for (int i = counts[slot]; i > position; i--) {
+            copy(slot, i - 1, i);
+        }
+        write(slot, position, message);
+        counts[slot]++;
+    }
+
+    private int indexOf(int slot, Integer messageId) {
+        if (messageId == null) {
+            return EMPTY;
+        }
+        ByteBuffer buffer = buffers[slot];
+        for (int i = counts[slot] - 1; i >= 0; i--) {
+            if (buffer.getInt(offset(slot, i)) == messageId) {
+                return i;
+            }
+        }
+        return EMPTY;
+    }
+
+    private boolean fits(ArchivedMessage message) {
+        if (message.messageId() == null || message.senderId() == null || message.status() == null
+                || message.createdAt() == null) {
+            return false;
+        }
+        String content = message.content();
+        return content == null || HEADER_BYTES + (long) content.length() * 3 <= entryBytes
+                || HEADER_BYTES + content.getBytes(StandardCharsets.UTF_8).length <= entryBytes;
+    }
+
+    private int offset(int slot, int index) {
+        return ((starts[slot] + index) % entriesPerSlot) * entryBytes;
+    }
+
+    private void copy(int slot, int from, int to) {
+        ByteBuffer buffer = buffers[slot];
+        buffer.put(offset(slot, to), buffer, offset(slot, from), entryBytes);
+    }
+
+    private void write(int slot, int index, ArchivedMessage message) {
+        ByteBuffer buffer = buffers[slot];
+        int offset = offset(slot, index);
+        buffer.putInt(offset, message.messageId());
+        buffer.putInt(offset + 4, message.senderId());
+        buffer.put(offset + 8, (byte) message.status().ordinal());
+        buffer.put(offset + 9, (byte) (message.deleted() ? 1 : 0));
+        buffer.putLong(offset + 10, toMicros(message.createdAt()));
+        buffer.putLong(offset + 18, toMicros(message.deliveredAt()));
+        buffer.putLong(offset + 26, toMicros(message.readAt()));
+        buffer.putLong(offset + 34, toMicros(message.editedAt()));
+        if (message.content() == null) {
+            buffer.putShort(offset + 42, (short) -1);
+        } else {
+            byte[] text = message.content().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort(offset + 42, (short) text.length);
+            buffer.put(offset + HEADER_BYTES, text);
+        }
+    }
+
+    private ArchivedMessage read(int slot, int index) {
+        ByteBuffer buffer = buffers[slot];
+        int offset = offset(slot, index);
+        short length = buffer.getShort(offset + 42);
+        String content = null;
+        if (length >= 0) {
+            byte[] text = new byte[length];
+            buffer.get(offset + HEADER_BYTES, text);
+            content = new String(text, StandardCharsets.UTF_8);
+        }
+        return new ArchivedMessage(
+                buffer.getInt(offset),
+                buffer.getInt(offset + 4),
+                content,
+                Message.MessageStatus.values()[buffer.get(offset + 8)],
+                fromMicros(buffer.getLong(offset + 10)),
+                fromMicros(buffer.getLong(offset + 18)),
+                fromMicros(buffer.getLong(offset + 26)),
+                fromMicros(buffer.getLong(offset + 34)),
+                buffer.get(offset + 9) == 1
+        );
+    }
+
+    private static int compare(ArchivedMessage a, ArchivedMessage b) {
+        int byTime = a.createdAt().compareTo(b.createdAt());
+        return byTime != 0 ? byTime : Integer.compare(a.messageId(), b.messageId());
+    }
+
+    private int stampIndex(int conversationId) {
+        return (int) ((conversationId * 0x9E3779B97F4A7C15L) >>> stampShift);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
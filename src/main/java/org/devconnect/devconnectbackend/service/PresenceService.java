@@ -0,0 +1,278 @@
+package org.devconnect.devconnectbackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.devconnect.devconnectbackend.dto.UserPresence;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Live user presence, kept in memory.
+ * WebSocket connects/disconnects, heartbeats, inbound frames, sends and explicit status changes only touch
+ * the map; changed entries are written to users.user_status / last_seen in one JDBC batch per flush interval.
+ * ONLINE users that send nothing for session-timeout-ms are marked OFFLINE, except a status set explicitly
+ * by a user without a WebSocket session, which stays until it is changed. Quiet OFFLINE entries that are
+ * already written are dropped from the map and loaded again on the next touch.
+ * The map is per node: with messaging.cluster.enabled a user's sessions and activity on other nodes are
+ * not seen here, so a status read on one node can be stale until the users table is written and re-read.
+ */
+@Service
+public class PresenceService {
+
+    private static final String FLUSH_SQL = "UPDATE users SET user_status = ?, last_seen = ? WHERE user_id = ?";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${messaging.presence.session-timeout-ms:90000}")
+    private long sessionTimeoutMs = 90000;
+
+    @Value("${messaging.presence.max-batch-size:500}")
+    private int maxBatchSize = 500;
+
+    private final Map<Integer, Presence> presence = new ConcurrentHashMap<>();
+
+    // Replaced as a whole under ConcurrentHashMap.compute; sessions holds the ids of the user's open
+    // WebSocket sessions, so an event repeated for one session is not counted twice; dirty means not yet
+    // written to users, explicit means the status came from setStatus rather than from sessions coming and going
+    private record Presence(User.UserStatus status, LocalDateTime lastSeen, Set<String> sessions,
+                            long lastActivityMillis, boolean dirty, boolean explicit) {
+
+        static Presence stored(UserPresence row) {
+            return new Presence(row.status(), row.lastSeen(), Set.of(), System.currentTimeMillis(), false, false);
+        }
+
+        Presence with(User.UserStatus status, LocalDateTime lastSeen, Set<String> sessions) {
+            return new Presence(status, lastSeen, sessions, System.currentTimeMillis(), true, false);
+        }
+
+        Presence explicitly(User.UserStatus status) {
+            return new Presence(status, lastSeen, sessions, System.currentTimeMillis(), true, true);
+        }
+
+        Presence active() {
+            return new Presence(status, LocalDateTime.now(), sessions, System.currentTimeMillis(), dirty, explicit);
+        }
+
+        Presence clean() {
+            return new Presence(status, lastSeen, sessions, lastActivityMillis, false, explicit);
+        }
+
+        Presence markDirty() {
+            return new Presence(status, lastSeen, sessions, lastActivityMillis, true, explicit);
+        }
+
+        boolean live() {
+            return !sessions.isEmpty();
+        }
+    }
+
+    /**
+     * A WebSocket session for the user opened
+     */
+    public void connected(Integer userId, String sessionId) {
+        update(userId, p -> {
+            Set<String> sessions = new HashSet<>(p.sessions());
+            sessions.add(sessionId);
+            return p.with(User.UserStatus.ONLINE, LocalDateTime.now(), Set.copyOf(sessions));
+        });
+    }
+
+    /**
+     * A WebSocket session for the user closed; the user goes OFFLINE with their last one.
+     * A session that is not open (a repeated disconnect event) changes nothing.
+     */
+    public void disconnected(Integer userId, String sessionId) {
+        update(userId, p -> {
+            if (!p.sessions().contains(sessionId)) {
+                return p;
+            }
+            Set<String> sessions = new HashSet<>(p.sessions());
+            sessions.remove(sessionId);
+            return p.with(sessions.isEmpty() ? User.UserStatus.OFFLINE : p.status(), LocalDateTime.now(),
+                    Set.copyOf(sessions));
+        });
+    }
+
+    /**
+     * The user is still there: refresh last seen, and bring an expired live session back ONLINE
+     */
+    public void heartbeat(Integer userId) {
+        update(userId, p -> p.with(p.live() ? User.UserStatus.ONLINE : p.status(),
+                LocalDateTime.now(), p.sessions()));
+    }
+
+    /**
+     * The user sent a frame or a message: refresh their activity without a write, and bring an expired
+     * live session back ONLINE. Users not in memory have no session on this node and are left alone.
+     */
+    public void touch(Integer userId) {
+        presence.computeIfPresent(userId, (id, p) -> p.live() && p.status() == User.UserStatus.OFFLINE
+                ? p.with(User.UserStatus.ONLINE, LocalDateTime.now(), p.sessions())
+                : p.active());
+    }
+
+    /**
+     * Set a status explicitly
+     */
+    public void setStatus(Integer userId, User.UserStatus status) {
+        update(userId, p -> p.explicitly(status));
+    }
+
+    public User.UserStatus getStatus(Integer userId) {
+        Presence current = presence.get(userId);
+        if (current == null) {
+            load(List.of(userId));
+            current = presence.get(userId);
+        }
+        if (current == null) {
+            throw new RuntimeException("User not found");
+        }
+        return current.status();
+    }
+
+    /**
+     * Statuses for many users; users not in memory are loaded with one query, unknown ids are left out
+     */
+    public Map<Integer, User.UserStatus> getStatuses(Collection<Integer> userIds) {
+        if (userIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " user ids per request");
+        }
+
+        List<Integer> missing = userIds.stream().distinct().filter(id -> !presence.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            load(missing);
+        }
+
+        Map<Integer, User.UserStatus> statuses = new LinkedHashMap<>();
+        for (Integer userId : userIds) {
+            Presence current = presence.get(userId);
+            if (current != null) {
+                statuses.put(userId, current.status());
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Mark ONLINE users that have been quiet longer than the session timeout as OFFLINE, and drop quiet
+     * OFFLINE entries without sessions that are already written. A user without a session that set ONLINE
+     * explicitly keeps it.
+     */
+    @Scheduled(fixedDelayString = "${messaging.presence.expiry-interval-ms:15000}")
+    public int expireIdleSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTimeoutMs;
+        int expired = 0;
+        for (Integer userId : presence.keySet()) {
+            boolean[] changed = {false};
+            presence.computeIfPresent(userId, (id, p) -> {
+                if (p.lastActivityMillis() > cutoff) {
+                    return p;
+                }
+                if (p.status() == User.UserStatus.OFFLINE && !p.live() && !p.dirty()) {
+                    return null;
+                }
+                if (p.status() != User.UserStatus.ONLINE || (!p.live() && p.explicit())) {
+                    return p;
+                }
+                changed[0] = true;
+                // last seen stays at the last sign of life
+                return new Presence(User.UserStatus.OFFLINE, p.lastSeen(), p.sessions(), p.lastActivityMillis(), true, false);
+            });
+            if (changed[0]) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Write every changed entry to the users table; returns the number of users written
+     */
+    @Scheduled(fixedDelayString = "${messaging.presence.flush-interval-ms:5000}")
+    public int flush() {
+        List<Integer> userIds = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Integer userId : presence.keySet()) {
+            Presence[] snapshot = new Presence[1];
+            presence.computeIfPresent(userId, (id, p) -> {
+                if (!p.dirty()) {
+                    return p;
+                }
+                snapshot[0] = p;
+                return p.clean();
+            });
+            if (snapshot[0] != null) {
+                userIds.add(userId);
+                rows.add(new Object[] {
+                        snapshot[0].status().name(),
+                        snapshot[0].lastSeen() != null ? Timestamp.valueOf(snapshot[0].lastSeen()) : null,
+                        userId
+                });
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            for (int from = 0; from < rows.size(); from += maxBatchSize) {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, rows.subList(from, Math.min(rows.size(), from + maxBatchSize)));
+            }
+        } catch (RuntimeException e) {
+            // Keep the changes for the next flush
+            for (Integer userId : userIds) {
+                presence.computeIfPresent(userId, (id, p) -> p.markDirty());
+            }
+            System.err.println("Error flushing presence: " + e.getMessage());
+            return 0;
+        }
+        return rows.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Helper: Apply a change to a user's presence, loading the stored state on first touch;
+     * tried a second time if the expiry pass dropped the entry in between
+     */
+    private void update(Integer userId, UnaryOperator<Presence> change) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (!presence.containsKey(userId)) {
+                load(List.of(userId));
+            }
+            if (presence.computeIfPresent(userId, (id, current) -> change.apply(current)) != null) {
+                return;
+            }
+        }
+        throw new RuntimeException("User not found");
+    }
+
+    private void load(List<Integer> userIds) {
+        for (UserPresence row : userRepository.findPresenceByIds(userIds)) {
+            presence.putIfAbsent(row.userId(), Presence.stored(row));
+        }
+    }
+}
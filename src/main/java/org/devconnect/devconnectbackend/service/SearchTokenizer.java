@@ -0,0 +1,90 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.model.MessageSearchTerm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into search terms: runs of letters and digits, lower-cased, at least two characters,
+ * common English stop words dropped. Messages and queries go through the same rules.
+ */
+final class SearchTokenizer {
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "an", "and", "are", "as", "at", "be", "but", "by", "do", "for", "from", "has", "have",
+            "he", "her", "his", "if", "in", "into", "is", "it", "its", "me", "my", "no", "not", "of",
+            "on", "or", "our", "she", "so", "that", "the", "their", "them", "then", "there", "these",
+            "they", "this", "to", "us", "was", "we", "were", "will", "with", "you", "your"
+    );
+
+    /**
+     * A searchable term and where it sits in the original text, as [start, end) offsets
+     */
+    record Token(String term, int start, int end) {
+    }
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Every searchable token of a text, in order of appearance
+     */
+    static List<Token> tokens(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        StringBuilder term = new StringBuilder();
+        int start = -1;
+        int offset = 0;
+        while (offset < text.length()) {
+            int codePoint = text.codePointAt(offset);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = offset;
+                }
+                term.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (start >= 0) {
+                addToken(tokens, term, start, offset);
+                start = -1;
+            }
+            offset += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            addToken(tokens, term, start, offset);
+        }
+        return tokens;
+    }
+
+    /**
+     * The distinct searchable terms of a text
+     */
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Token token : tokens(text)) {
+            terms.add(token.term());
+        }
+        return terms;
+    }
+
+    /**
+     * Helper: Keep the term in the builder if it is searchable, then reset the builder
+     */
+    private static void addToken(List<Token> tokens, StringBuilder term, int start, int end) {
+        if (term.length() >= MIN_TERM_LENGTH) {
+            String value = term.length() > MessageSearchTerm.MAX_TERM_LENGTH
+                    ? term.substring(0, MessageSearchTerm.MAX_TERM_LENGTH)
+                    : term.toString();
+            if (!STOP_WORDS.contains(value)) {
+                tokens.add(new Token(value, start, end));
+            }
+        }
+        term.setLength(0);
+    }
+}
@@ -0,0 +1,88 @@
+package org.devconnect.devconnectbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per-user send limits for the messaging write path, checked before anything touches the database.
+ * Messages, typing events and receipts (read and delivery) each have their own rate and burst,
+ * and the same limits apply whether the client sends over REST or STOMP.
+ */
+@Service
+public class SendRateLimitService {
+
+    public enum Kind {
+        MESSAGE,
+        TYPING,
+        RECEIPT
+    }
+
+    @Value("${messaging.rate-limit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${messaging.rate-limit.capacity:65536}")
+    private int capacity = 65536;
+
+    @Value("${messaging.rate-limit.messages.per-second:5}")
+    private double messagesPerSecond = 5;
+
+    @Value("${messaging.rate-limit.messages.burst:20}")
+    private int messageBurst = 20;
+
+    @Value("${messaging.rate-limit.typing.per-second:10}")
+    private double typingPerSecond = 10;
+
+    @Value("${messaging.rate-limit.typing.burst:30}")
+    private int typingBurst = 30;
+
+    @Value("${messaging.rate-limit.receipts.per-second:10}")
+    private double receiptsPerSecond = 10;
+
+    @Value("${messaging.rate-limit.receipts.burst:50}")
+    private int receiptBurst = 50;
+
+    // Built in init from the settings above
+    private SendRateLimiter messages;
+    private SendRateLimiter typing;
+    private SendRateLimiter receipts;
+
+    @PostConstruct
+    public void init() {
+        messages = new SendRateLimiter(capacity, messagesPerSecond, messageBurst);
+        typing = new SendRateLimiter(capacity, typingPerSecond, typingBurst);
+        receipts = new SendRateLimiter(capacity, receiptsPerSecond, receiptBurst);
+    }
+
+    /**
+     * Take one send of the given kind from the user's allowance; false if the user is over the limit.
+     * Sends without a user id are left to the handler to reject.
+     */
+    public boolean tryAcquire(Kind kind, Long userId) {
+        if (!enabled || userId == null) {
+            return true;
+        }
+        return limiter(kind).tryAcquire(userId);
+    }
+
+    /**
+     * Whole seconds until the user may send the given kind again, for Retry-After
+     */
+    public long retryAfterSeconds(Kind kind, Long userId) {
+        if (!enabled || userId == null) {
+            return 0;
+        }
+        return Math.max(1, limiter(kind).secondsUntilAvailable(userId));
+    }
+
+    /**
+     * Helper: The limiter for one kind of send
+     */
+    private SendRateLimiter limiter(Kind kind) {
+        return switch (kind) {
+            case MESSAGE -> messages;
+            case TYPING -> typing;
+            case RECEIPT -> receipts;
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package org.devconnect.devconnectbackend.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Token buckets keyed by user id, in a fixed-size table.
+ * Each bucket holds up to burst tokens and refills at a steady rate; a send takes one token.
+ * Direct-mapped like {@link ConversationPairCache}: a user hashes to one slot, so memory stays bounded.
+ * A user that lands on a slot held by someone else takes it over only once that bucket has fully
+ * refilled; until then both are charged against the same bucket, so a collision can make a limit
+ * stricter but never hands out a fresh burst. Buckets are immutable and swapped with compare-and-set,
+ * so concurrent sends never lock.
+ */
+public class SendRateLimiter {
+
+    private record Bucket(long key, double tokens, long refilledAt) {
+    }
+
+    private final AtomicReferenceArray<Bucket> slots;
+    private final int shift;
+    private final double tokensPerNano;
+    private final double burst;
+
+    public SendRateLimiter(int capacity, double perSecond, int burst) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(size);
+        this.tokensPerNano = perSecond / 1_000_000_000.0;
+        this.burst = Math.max(burst, 1);
+    }
+
+    /**
+     * Take a token for the user if one is available
+     */
+    public boolean tryAcquire(long userId) {
+        return tryAcquire(userId, System.nanoTime());
+    }
+
+    /**
+     * Take a token for the user at the given System.nanoTime() instant
+     */
+    public boolean tryAcquire(long userId, long now) {
+        int slot = slot(userId);
+        while (true) {
+            Bucket current = slots.get(slot);
+            double tokens = current != null ? refilled(current, now) : burst;
+            if (tokens < 1) {
+                return false;
+            }
+            // Someone else's bucket is shared until it is full again, then it becomes this user's
+            long key = current != null && current.key() != userId && tokens < burst ? current.key() : userId;
+            if (slots.compareAndSet(slot, current, new Bucket(key, tokens - 1, now))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Whole seconds until the user has a token again; 0 when one is available now
+     */
+    public long secondsUntilAvailable(long userId) {
+        // A bucket held by another user is shared until it refills, so it applies here too
+        Bucket current = slots.get(slot(userId));
+        if (current == null) {
+            return 0;
+        }
+        double tokens = refilled(current, System.nanoTime());
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano / 1_000_000_000.0);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Helper: The bucket's tokens at the given instant, capped at the burst
+     */
+    private double refilled(Bucket bucket, long now) {
+        return Math.min(burst, bucket.tokens() + Math.max(0, now - bucket.refilledAt()) * tokensPerNano);
+    }
+
+    /**
+     * Helper: Fibonacci hashing; the top bits of the product spread neighbouring ids across the table
+     */
+    int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
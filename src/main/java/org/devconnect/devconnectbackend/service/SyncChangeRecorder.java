@@ -0,0 +1,83 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.DeliveryTarget;
+import org.devconnect.devconnectbackend.model.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Write side of delta sync: appends entries to the affected users' change feeds (sync_changes)
+ * in the caller's transaction, one JDBC batch per call. Kept apart from SyncService so the
+ * conversation and message services can record changes without depending on the read side.
+ */
+@Service
+public class SyncChangeRecorder {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO sync_changes (user_id, conversation_id, message_id, changed_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * New or edited messages, for both participants; receiverIds lines up with messages
+     */
+    @Transactional
+    public void recordMessages(List<Message> messages, List<Integer> receiverIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(messages.size() * 2);
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            Integer senderId = message.getSender().getUserId();
+            Integer conversationId = message.getConversation().getConversationId();
+            rows.add(new Object[] {senderId, conversationId, message.getMessageId(), now});
+            if (!receiverIds.get(i).equals(senderId)) {
+                rows.add(new Object[] {receiverIds.get(i), conversationId, message.getMessageId(), now});
+            }
+        }
+        insert(rows);
+    }
+
+    /**
+     * Messages that moved to DELIVERED; only their senders see the status
+     */
+    @Transactional
+    public void recordDeliveries(Collection<DeliveryTarget> targets) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(targets.size());
+        for (DeliveryTarget target : targets) {
+            rows.add(new Object[] {target.senderId(), target.conversationId(), target.messageId(), now});
+        }
+        insert(rows);
+    }
+
+    /**
+     * A conversation-level change (created, read watermark moved), for both participants
+     */
+    @Transactional
+    public void recordConversation(Integer conversationId, Integer user1Id, Integer user2Id) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(2);
+        rows.add(new Object[] {user1Id, conversationId, null, now});
+        if (!user1Id.equals(user2Id)) {
+            rows.add(new Object[] {user2Id, conversationId, null, now});
+        }
+        insert(rows);
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+}
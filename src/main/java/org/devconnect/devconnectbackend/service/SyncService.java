@@ -0,0 +1,196 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.ConversationReadState;
+import org.devconnect.devconnectbackend.dto.ConversationReadStateRow;
+import org.devconnect.devconnectbackend.dto.ReadReceiptDTO;
+import org.devconnect.devconnectbackend.dto.ReadWatermark;
+import org.devconnect.devconnectbackend.dto.SyncCursor;
+import org.devconnect.devconnectbackend.dto.SyncMessageDTO;
+import org.devconnect.devconnectbackend.dto.SyncResponseDTO;
+import org.devconnect.devconnectbackend.model.Message;
+import org.devconnect.devconnectbackend.model.SyncChange;
+import org.devconnect.devconnectbackend.repository.ConversationSummaryRepository;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.devconnect.devconnectbackend.repository.SyncChangeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Delta sync for reconnecting clients: everything that changed in a user's conversations since
+ * their sync token, read with one range scan over the user's change feed (sync_changes) plus one
+ * lookup each for the changed messages, inbox rows and read watermarks.
+ *
+ * Responses carry current state rather than a replay of events, so clients upsert by id and
+ * getting a change twice is harmless. Feed entries are stamped before their transaction commits,
+ * so a token never points past the present minus commit-lag-ms, on any page: changes in that window
+ * come again on the next sync instead of being skipped when a slower transaction commits late.
+ */
+@Service
+public class SyncService {
+
+    @Autowired
+    private SyncChangeRepository changeRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationSummaryRepository summaryRepository;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Value("${messaging.sync.default-page-size:500}")
+    private int defaultPageSize = 500;
+
+    @Value("${messaging.sync.max-page-size:2000}")
+    private int maxPageSize = 2000;
+
+    @Value("${messaging.sync.commit-lag-ms:5000}")
+    private long commitLagMs = 5000;
+
+    @Value("${messaging.sync.retention-days:7}")
+    private int retentionDays = 7;
+
+    /**
+     * Changes in the user's conversations since the token. Without a token, or with one older than
+     * the retention period, the client is told to reload in full and gets a token to sync from afterwards.
+     */
+    @Transactional(readOnly = true)
+    public SyncResponseDTO sync(Integer userId, String token, Integer limit) {
+        SyncCursor after = SyncCursor.decode(token);
+        LocalDateTime now = LocalDateTime.now();
+        SyncCursor settled = new SyncCursor(now.minusNanos(commitLagMs * 1_000_000), 0L);
+        if (after == null || after.changedAt().isBefore(now.minusDays(retentionDays))) {
+            return new SyncResponseDTO(List.of(), List.of(), List.of(), settled.encode(), false, true);
+        }
+
+        int pageSize = resolvePageSize(limit);
+        // Fetch one extra change to learn whether another page exists
+        List<SyncChange> changes = changeRepository.findAfter(
+                userId, after.changedAt(), after.changeId(), Limit.of(pageSize + 1));
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        Set<Integer> conversationIds = new LinkedHashSet<>();
+        Set<Integer> messageIds = new LinkedHashSet<>();
+        for (SyncChange change : changes) {
+            conversationIds.add(change.getConversationId());
+            if (change.getMessageId() != null) {
+                messageIds.add(change.getMessageId());
+            }
+        }
+
+        Map<Integer, ConversationReadState> readStates = new HashMap<>();
+        if (!conversationIds.isEmpty()) {
+            for (ConversationReadStateRow row : summaryRepository.findReadStates(conversationIds)) {
+                readStates.put(row.conversationId(), row.readState());
+            }
+        }
+
+        // Messages archived since the change was recorded are old and read; the client has them already
+        Map<Integer, Message> byId = new HashMap<>();
+        for (Message message : messageRepository.findAllById(messageIds)) {
+            byId.put(message.getMessageId(), message);
+        }
+        List<SyncMessageDTO> messages = new ArrayList<>(byId.size());
+        for (Integer messageId : messageIds) {
+            Message message = byId.get(messageId);
+            if (message != null) {
+                Integer conversationId = message.getConversation().getConversationId();
+                messages.add(toSyncMessage(message, conversationService.getParticipants(conversationId),
+                        readStates.getOrDefault(conversationId, ConversationReadState.NONE)));
+            }
+        }
+
+        List<ReadReceiptDTO> reads = new ArrayList<>();
+        for (Map.Entry<Integer, ConversationReadState> entry : readStates.entrySet()) {
+            long participants = conversationService.getParticipants(entry.getKey());
+            int otherUserId = ConversationMembershipCache.otherUser(participants, userId);
+            ReadWatermark otherRead = otherUserId == ConversationMembershipCache.user1(participants)
+                    ? entry.getValue().user1()
+                    : entry.getValue().user2();
+            if (!otherRead.isNone()) {
+                reads.add(new ReadReceiptDTO(
+                        entry.getKey().longValue(),
+                        (long) otherUserId,
+                        otherRead.messageId().longValue(),
+                        null // Only the read position is kept, not when it was reached
+                ));
+            }
+        }
+
+        // A page that reaches into the commit-lag window ends the sync at the settled position;
+        // its newest changes come again next time, along with anything that commits late in between
+        SyncCursor next = changes.isEmpty() ? after : SyncCursor.of(changes.get(changes.size() - 1));
+        if (settled.isBefore(next)) {
+            next = settled;
+            hasMore = false;
+        }
+
+        return new SyncResponseDTO(
+                conversationService.getConversationsForUser(userId, conversationIds),
+                messages,
+                reads,
+                next.encode(),
+                hasMore,
+                false
+        );
+    }
+
+    /**
+     * Drop change feed entries past the retention period
+     */
+    @Scheduled(fixedDelayString = "${messaging.sync.prune-interval-ms:3600000}")
+    @Transactional
+    public int prune() {
+        return changeRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * Helper: A message's current state as seen by the syncing client
+     */
+    private SyncMessageDTO toSyncMessage(Message message, long participants, ConversationReadState readState) {
+        Integer senderId = message.getSender().getUserId();
+        int receiverId = ConversationMembershipCache.otherUser(participants, senderId);
+        ReadWatermark receiverRead = receiverId == ConversationMembershipCache.user1(participants)
+                ? readState.user1()
+                : readState.user2();
+        Message.MessageStatus status = receiverRead.covers(message) ? Message.MessageStatus.READ : message.getStatus();
+        return new SyncMessageDTO(
+                message.getMessageId().longValue(),
+                message.getConversation().getConversationId().longValue(),
+                senderId.longValue(),
+                (long) receiverId,
+                message.isDeleted() ? null : message.getContent(),
+                status.name().toLowerCase(),
+                message.getCreatedAt(),
+                message.getEditedAt(),
+                message.isDeleted()
+        );
+    }
+
+    /**
+     * Helper: Clamp a requested page size to the configured bounds
+     */
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(limit, maxPageSize);
+    }
+}
@@ -0,0 +1,138 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.TypingIndicatorDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Turns a stream of typing events into at most one "started" and one "stopped" frame
+ * per (sender, receiver) pair per min-frame-interval-ms.
+ * Each pair remembers what the sender is doing and what the receiver was last told; a single
+ * scheduled sweep expires typing that has gone quiet for typing-timeout-ms and sends any change
+ * the rate limit held back.
+ */
+@Service
+public class TypingIndicatorService {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${messaging.typing.min-frame-interval-ms:3000}")
+    private long minFrameIntervalMs = 3000;
+
+    @Value("${messaging.typing.typing-timeout-ms:5000}")
+    private long typingTimeoutMs = 5000;
+
+    // (senderId << 32 | receiverId) -> state
+    private final Map<Long, TypingState> pairs = new ConcurrentHashMap<>();
+
+    /**
+     * typing: what the sender is doing; announced: what the receiver was last told.
+     * Replaced as a whole under ConcurrentHashMap.compute.
+     */
+    private record TypingState(boolean typing, boolean announced, long typingUntil,
+                               long lastStartedAt, long lastStoppedAt) {
+
+        static final TypingState IDLE = new TypingState(false, false, 0, Long.MIN_VALUE / 2, Long.MIN_VALUE / 2);
+
+        /**
+         * Announce the current state if it differs from the announced one and the rate limit allows
+         */
+        TypingState reconcile(long now, long interval) {
+            if (typing && !announced && now - lastStartedAt >= interval) {
+                return new TypingState(true, true, typingUntil, now, lastStoppedAt);
+            }
+            if (!typing && announced && now - lastStoppedAt >= interval) {
+                return new TypingState(false, false, typingUntil, lastStartedAt, now);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * A typing event from the sender; frames reach the receiver on /queue/typing
+     */
+    public void onTyping(Long senderId, Long receiverId, boolean typing) {
+        long now = System.currentTimeMillis();
+        update(key(senderId, receiverId), current -> {
+            TypingState state = current != null ? current : TypingState.IDLE;
+            return new TypingState(typing, state.announced(),
+                    typing ? now + typingTimeoutMs : state.typingUntil(),
+                    state.lastStartedAt(), state.lastStoppedAt()
+            ).reconcile(now, minFrameIntervalMs);
+        });
+    }
+
+    /**
+     * The sender's message arrived, which already tells the receiver they stopped typing
+     */
+    public void onMessageSent(Long senderId, Long receiverId) {
+        pairs.remove(key(senderId, receiverId));
+    }
+
+    /**
+     * Shared timer: expire quiet typing, flush held-back changes and forget settled pairs
+     */
+    @Scheduled(fixedDelayString = "${messaging.typing.sweep-interval-ms:500}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Long key : pairs.keySet()) {
+            update(key, current -> {
+                if (current == null) {
+                    return null;
+                }
+                TypingState state = current.typing() && now >= current.typingUntil()
+                        ? new TypingState(false, current.announced(), current.typingUntil(),
+                                current.lastStartedAt(), current.lastStoppedAt())
+                        : current;
+                state = state.reconcile(now, minFrameIntervalMs);
+                boolean settled = !state.typing() && !state.announced()
+                        && now - Math.max(state.lastStartedAt(), state.lastStoppedAt()) >= minFrameIntervalMs;
+                return settled ? null : state;
+            });
+        }
+    }
+
+    /**
+     * Number of pairs currently tracked
+     */
+    public int trackedPairs() {
+        return pairs.size();
+    }
+
+    /**
+     * Helper: Apply a state change and send the frame it implies, outside the map lock
+     */
+    private void update(long key, UnaryOperator<TypingState> change) {
+        boolean[] announce = new boolean[2];
+        pairs.compute(key, (k, current) -> {
+            TypingState next = change.apply(current);
+            boolean before = current != null && current.announced();
+            boolean after = next != null && next.announced();
+            // [0]: frame needed, [1]: its value
+            announce[0] = before != after;
+            announce[1] = after;
+            return next;
+        });
+        if (announce[0]) {
+            Long senderId = key >>> 32;
+            Long receiverId = key & 0xffffffffL;
+            messagingTemplate.convertAndSendToUser(
+                    receiverId.toString(),
+                    "/queue/typing",
+                    new TypingIndicatorDTO(senderId, receiverId, announce[1])
+            );
+        }
+    }
+
+    private long key(Long senderId, Long receiverId) {
+        return (senderId << 32) | (receiverId & 0xffffffffL);
+    }
+}
@@ -1,6 +1,5 @@
 package org.devconnect.devconnectbackend.service;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -49,6 +48,9 @@ public class UserService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private PresenceService presenceService;
+
     public UserResponseDTO registerUser(UserRegistrationDTO userRegistrationDTO) {
         // Check if email already exists
         if (userRepository.existsByEmail(userRegistrationDTO.getEmail())) {
@@ -173,26 +175,18 @@ public class UserService {
     }
 
     public void updateUserStatus(Integer userId, User.UserStatus status) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.setUserStatus(status);
-
-        userRepository.save(user);
+        // Written to the users table on the next presence flush
+        presenceService.setStatus(userId, status);
 
         // TODO: Broadcast status change to all users via WebSocket
     }
 
     public String getUserStatus(Integer userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getUserStatus().name().toLowerCase();
+        return presenceService.getStatus(userId).name().toLowerCase();
     }
 
     public void updateLastSeen(Integer userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.setLastSeen(LocalDateTime.now());
-
-        userRepository.save(user);
+        presenceService.heartbeat(userId);
     }
 
     public boolean isEmailExists(String email) {
@@ -0,0 +1,236 @@
+package org.devconnect.devconnectbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket pushes that belong to a database change. Pushes recorded inside a transaction are held
+ * until it commits and dropped if it rolls back, so clients never see a change that was not saved.
+ * Committed pushes are handed to one dispatcher thread, which sends them in batches; the transaction
+ * (and its pooled connection) never waits on broker I/O. Pushes are sent in the order their transactions
+ * committed, and in recording order within one transaction, so each recipient sees them in order.
+ *
+ * Outside a transaction a push is queued straight away. With dispatch-after-commit disabled every
+ * push is sent inline, as before the outbox existed.
+ *
+ * When the dispatcher falls behind and the queue is full, the committing thread waits for room
+ * (offer-timeout-ms at a time) instead of dropping: chat messages and receipts are never lost. Only pushes
+ * to the droppable destinations (typing, presence) are shed, since the next one replaces them anyway.
+ */
+@Service
+public class WebSocketOutbox {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MessageFanOutService fanOutService;
+
+    @Value("${messaging.outbox.dispatch-after-commit:true}")
+    private boolean dispatchAfterCommit = true;
+
+    @Value("${messaging.outbox.max-batch-size:256}")
+    private int maxBatchSize = 256;
+
+    @Value("${messaging.outbox.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${messaging.outbox.offer-timeout-ms:1000}")
+    private long offerTimeoutMs = 1000;
+
+    @Value("${messaging.websocket.outbound.droppable-destinations:/queue/typing,/queue/presence}")
+    private List<String> droppableDestinations = List.of("/queue/typing", "/queue/presence");
+
+    private BlockingQueue<Push> queue;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private final AtomicLong droppedPushes = new AtomicLong();
+    private final AtomicLong delayedPushes = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!dispatchAfterCommit) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        dispatcher = Thread.ofPlatform().name("websocket-outbox").daemon().start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (dispatcher == null) {
+            return;
+        }
+        // The dispatcher sends whatever is still queued and then exits
+        running = false;
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Push a saved message to its receiver and, when given, echo it to the sending session
+     */
+    public void publishMessage(MessageDTO message, MessageFanOutService.EchoTarget echo) {
+        record(new Push(() -> fanOutService.publishMessage(message, echo), false));
+    }
+
+    /**
+     * Convert and push a payload to one of a user's queues
+     */
+    public void sendToUser(String user, String destination, Object payload) {
+        boolean droppable = droppableDestinations.stream().anyMatch(destination::startsWith);
+        record(new Push(() -> messagingTemplate.convertAndSendToUser(user, destination, payload), droppable));
+    }
+
+    /**
+     * Typing/presence pushes shed because the dispatcher had fallen behind
+     */
+    public long getDroppedPushes() {
+        return droppedPushes.get();
+    }
+
+    /**
+     * Pushes whose committing thread had to wait for room in the queue
+     */
+    public long getDelayedPushes() {
+        return delayedPushes.get();
+    }
+
+    /**
+     * Helper: Hold a push until the current transaction commits, or queue it if there is none
+     */
+    private void record(Push push) {
+        if (!dispatchAfterCommit) {
+            dispatch(push);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(List.of(push));
+            return;
+        }
+        PendingPushes pending = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingPushes candidate && candidate.outbox == this) {
+                pending = candidate;
+                break;
+            }
+        }
+        if (pending == null) {
+            pending = new PendingPushes(this);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.pushes.add(push);
+    }
+
+    /**
+     * Helper: Queue committed pushes for the dispatcher, keeping their order; waits while the queue is full
+     */
+    private void enqueue(List<Push> pushes) {
+        for (Push push : pushes) {
+            if (!running) {
+                // Shutting down; nothing will drain the queue any more
+                dispatch(push);
+            } else if (push.droppable()) {
+                if (!queue.offer(push)) {
+                    droppedPushes.incrementAndGet();
+                }
+            } else if (!offer(push)) {
+                dispatch(push);
+            }
+        }
+    }
+
+    /**
+     * Helper: Wait for room for a push that must not be dropped; false if the outbox stopped meanwhile
+     */
+    private boolean offer(Push push) {
+        try {
+            if (queue.offer(push, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            delayedPushes.incrementAndGet();
+            System.err.println("WebSocket outbox is full, waiting for the dispatcher");
+            while (running) {
+                if (queue.offer(push, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Helper: Dispatcher thread body; sends queued pushes in batches of up to max-batch-size
+     */
+    private void drainLoop() {
+        List<Push> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Push first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+            } catch (InterruptedException e) {
+                // Not expected; send what we have and keep draining until stop() ends the loop
+            }
+
+            batch.forEach(this::dispatch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Helper: Send one push; a failure only loses that push
+     */
+    private void dispatch(Push push) {
+        try {
+            push.send().run();
+        } catch (RuntimeException e) {
+            System.err.println("Error sending WebSocket push: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One WebSocket send; droppable ones may be shed when the dispatcher falls behind
+     */
+    private record Push(Runnable send, boolean droppable) {
+    }
+
+    /**
+     * Pushes recorded by one transaction, queued once it commits. Compared by identity, as
+     * synchronizations are kept in a set.
+     */
+    private static final class PendingPushes implements TransactionSynchronization {
+
+        private final WebSocketOutbox outbox;
+        private final List<Push> pushes = new ArrayList<>();
+
+        private PendingPushes(WebSocketOutbox outbox) {
+            this.outbox = outbox;
+        }
+
+        @Override
+        public void afterCommit() {
+            outbox.enqueue(pushes);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Composite index backing keyset pagination of conversation history
+CREATE INDEX IF NOT EXISTS idx_messages_conversation_created
+    ON messages (conversation_id, created_at, message_id);
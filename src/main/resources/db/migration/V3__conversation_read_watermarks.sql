@@ -0,0 +1,37 @@
+-- Read watermarks replace per-message READ updates. Summaries written before the
+-- watermark columns existed get the last sender and each participant's newest
+-- legacy READ message filled in; rows that already have a value are left alone.
+UPDATE conversation_summaries s
+SET last_message_sender_id = (SELECT m.sender_id FROM messages m WHERE m.message_id = s.last_message_id)
+WHERE s.last_message_sender_id IS NULL
+  AND s.last_message_id IS NOT NULL;
+
+UPDATE conversation_summaries s
+SET user1_last_read_message_id = (SELECT m.message_id FROM messages m
+                                  JOIN conversations c ON c.conversation_id = m.conversation_id
+                                  WHERE m.conversation_id = s.conversation_id
+                                    AND m.sender_id <> c.user1_id
+                                    AND m.status = 'READ'
+                                  ORDER BY m.created_at DESC, m.message_id DESC
+                                  LIMIT 1)
+WHERE s.user1_last_read_message_id IS NULL;
+
+UPDATE conversation_summaries s
+SET user2_last_read_message_id = (SELECT m.message_id FROM messages m
+                                  JOIN conversations c ON c.conversation_id = m.conversation_id
+                                  WHERE m.conversation_id = s.conversation_id
+                                    AND m.sender_id <> c.user2_id
+                                    AND m.status = 'READ'
+                                  ORDER BY m.created_at DESC, m.message_id DESC
+                                  LIMIT 1)
+WHERE s.user2_last_read_message_id IS NULL;
+
+UPDATE conversation_summaries s
+SET user1_last_read_at = (SELECT m.created_at FROM messages m WHERE m.message_id = s.user1_last_read_message_id)
+WHERE s.user1_last_read_at IS NULL
+  AND s.user1_last_read_message_id IS NOT NULL;
+
+UPDATE conversation_summaries s
+SET user2_last_read_at = (SELECT m.created_at FROM messages m WHERE m.message_id = s.user2_last_read_message_id)
+WHERE s.user2_last_read_at IS NULL
+  AND s.user2_last_read_message_id IS NOT NULL;
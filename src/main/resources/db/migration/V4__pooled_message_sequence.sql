@@ -0,0 +1,4 @@
+-- message_seq moves to pooled allocation (allocationSize = 50). With the pooled
+-- optimizer each nextval hands out the block ending at the returned value, so the
+-- increment must match the allocation size. Idempotent.
+ALTER SEQUENCE message_seq INCREMENT BY 50;
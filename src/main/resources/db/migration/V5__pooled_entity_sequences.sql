@@ -0,0 +1,7 @@
+-- Every entity sequence moves to pooled allocation (allocationSize = 50), matching
+-- message_seq in V4. The increment must equal the allocation size. Idempotent.
+ALTER SEQUENCE user_seq INCREMENT BY 50;
+ALTER SEQUENCE developer_seq INCREMENT BY 50;
+ALTER SEQUENCE client_sequence INCREMENT BY 50;
+ALTER SEQUENCE conversation_seq INCREMENT BY 50;
+ALTER SEQUENCE project_seq INCREMENT BY 50;
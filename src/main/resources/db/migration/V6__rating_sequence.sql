@@ -0,0 +1,8 @@
+-- ratings.rating_id switches from IDENTITY to the pooled rating_seq (PostgreSQL).
+-- The sequence is moved past the highest existing id, but never rewound, so
+-- blocks already handed out to running instances stay valid. Idempotent.
+CREATE SEQUENCE IF NOT EXISTS rating_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE rating_seq INCREMENT BY 50;
+SELECT setval('rating_seq', GREATEST((SELECT COALESCE(MAX(rating_id), 1) FROM ratings),
+                                     (SELECT last_value FROM rating_seq)));
+ALTER TABLE ratings ALTER COLUMN rating_id DROP IDENTITY IF EXISTS;
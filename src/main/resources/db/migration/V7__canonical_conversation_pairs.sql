@@ -0,0 +1,50 @@
+-- Conversations are stored with user1_id <= user2_id so a pair has exactly one row
+-- and lookups hit the (user1_id, user2_id) unique index directly.
+
+-- A pair stored in both orders (a lost race): move the reversed row's messages into the
+-- canonical one and drop both summaries; the summary backfill rebuilds the survivor.
+UPDATE messages
+SET conversation_id = (SELECT k.conversation_id
+                       FROM conversations d
+                       JOIN conversations k ON k.user1_id = d.user2_id AND k.user2_id = d.user1_id
+                       WHERE d.conversation_id = messages.conversation_id)
+WHERE conversation_id IN (SELECT d.conversation_id
+                          FROM conversations d
+                          JOIN conversations k ON k.user1_id = d.user2_id AND k.user2_id = d.user1_id
+                          WHERE d.user1_id > d.user2_id);
+
+DELETE FROM conversation_summaries
+WHERE conversation_id IN (SELECT d.conversation_id
+                          FROM conversations d
+                          JOIN conversations k ON k.user1_id = d.user2_id AND k.user2_id = d.user1_id
+                          WHERE d.user1_id > d.user2_id)
+   OR conversation_id IN (SELECT k.conversation_id
+                          FROM conversations d
+                          JOIN conversations k ON k.user1_id = d.user2_id AND k.user2_id = d.user1_id
+                          WHERE d.user1_id > d.user2_id);
+
+DELETE FROM conversations
+WHERE conversation_id IN (SELECT d.conversation_id
+                          FROM conversations d
+                          JOIN conversations k ON k.user1_id = d.user2_id AND k.user2_id = d.user1_id
+                          WHERE d.user1_id > d.user2_id);
+
+-- Per-participant summary columns follow their participant
+UPDATE conversation_summaries
+SET user1_unread_count = user2_unread_count,
+    user2_unread_count = user1_unread_count,
+    user1_last_read_message_id = user2_last_read_message_id,
+    user2_last_read_message_id = user1_last_read_message_id,
+    user1_last_read_at = user2_last_read_at,
+    user2_last_read_at = user1_last_read_at
+WHERE conversation_id IN (SELECT conversation_id FROM conversations WHERE user1_id > user2_id);
+
+UPDATE conversations
+SET user1_id = user2_id,
+    user2_id = user1_id
+WHERE user1_id > user2_id;
+
+-- Re-run on every start: drop and re-add the check so a second run does not fail
+-- (PostgreSQL has no ADD CONSTRAINT IF NOT EXISTS). Idempotent.
+ALTER TABLE conversations DROP CONSTRAINT IF EXISTS chk_conversations_canonical_pair;
+ALTER TABLE conversations ADD CONSTRAINT chk_conversations_canonical_pair CHECK (user1_id <= user2_id);
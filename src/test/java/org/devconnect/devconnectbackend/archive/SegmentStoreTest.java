@@ -0,0 +1,125 @@
+package org.devconnect.devconnectbackend.archive;
+
+import org.devconnect.devconnectbackend.model.Message;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Segment Store Tests")
+class SegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read back appended blocks, including ones appended after the segment was mapped")
+    void testAppendAndRead() {
+        // Arrange
+        try (SegmentStore store = new SegmentStore(directory, 1024 * 1024)) {
+            byte[] first = "first block ".repeat(50).getBytes();
+            byte[] second = "second block ".repeat(50).getBytes();
+
+            // Act
+            SegmentStore.BlockLocation firstLocation = store.append(7, first);
+            byte[] firstRead = store.read(7, firstLocation);
+            SegmentStore.BlockLocation secondLocation = store.append(8, second);
+
+            // Assert
+            assertArrayEquals(first, firstRead);
+            assertArrayEquals(second, store.read(8, secondLocation));
+            assertEquals(firstLocation.segmentId(), secondLocation.segmentId());
+            assertTrue(firstLocation.length() < first.length, "blocks are compressed");
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll over to a new segment and continue the newest one after reopening")
+    void testRollOverAndReopen() throws IOException {
+        // Arrange
+        byte[] raw = new byte[4096];
+        new Random(42).nextBytes(raw);
+        SegmentStore.BlockLocation first;
+        SegmentStore.BlockLocation second;
+
+        // Act
+        try (SegmentStore store = new SegmentStore(directory, 5000)) {
+            first = store.append(1, raw);
+            second = store.append(1, raw);
+        }
+        SegmentStore.BlockLocation third;
+        try (SegmentStore reopened = new SegmentStore(directory, 1024 * 1024)) {
+            third = reopened.append(1, raw);
+
+            // Assert
+            assertArrayEquals(raw, reopened.read(1, first));
+            assertArrayEquals(raw, reopened.read(1, third));
+        }
+        assertEquals(first.segmentId() + 1, second.segmentId());
+        assertEquals(second.segmentId(), third.segmentId());
+        assertEquals(second.length(), third.offset());
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a block read for another conversation or with corrupted bytes")
+    void testIntegrityChecks() throws IOException {
+        // Arrange
+        SegmentStore.BlockLocation location;
+        try (SegmentStore store = new SegmentStore(directory, 1024 * 1024)) {
+            location = store.append(3, "some archived history".getBytes());
+        }
+
+        // Act & Assert
+        try (SegmentStore store = new SegmentStore(directory, 1024 * 1024)) {
+            assertThrows(IllegalStateException.class, () -> store.read(4, location));
+        }
+
+        Path segment;
+        try (var files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x55}), location.offset() + location.length() - 1);
+        }
+        try (SegmentStore store = new SegmentStore(directory, 1024 * 1024)) {
+            assertThrows(IllegalStateException.class, () -> store.read(3, location));
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode and decode archived messages without losing fields")
+    void testMessageCodec() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 2, 3, 4, 5, 123_456_000);
+        List<ArchivedMessage> messages = List.of(
+                new ArchivedMessage(1, 10, "héllo ✓", Message.MessageStatus.READ,
+                        createdAt, createdAt.plusSeconds(1), createdAt.plusSeconds(2), null, false),
+                new ArchivedMessage(2, 11, "x".repeat(70_000), Message.MessageStatus.SENT,
+                        createdAt.plusMinutes(1), null, null, createdAt.plusMinutes(2), true)
+        );
+
+        // Act
+        List<ArchivedMessage> decoded = ArchivedMessage.decode(ArchivedMessage.encode(messages));
+
+        // Assert
+        assertEquals(messages, decoded);
+        Message message = decoded.get(0).toMessage(99);
+        assertEquals(10, message.getSender().getUserId());
+        assertEquals(99, message.getConversation().getConversationId());
+        assertEquals("héllo ✓", message.getContent());
+    }
+}
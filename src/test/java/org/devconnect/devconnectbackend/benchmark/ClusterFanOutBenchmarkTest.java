@@ -0,0 +1,213 @@
+package org.devconnect.devconnectbackend.benchmark;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.HdrHistogram.Histogram;
+import org.devconnect.devconnectbackend.DevConnectBackendApplication;
+import org.devconnect.devconnectbackend.cluster.ClusterUserRegistry;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.devconnect.devconnectbackend.service.JWTService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.PrintStream;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency of cross-node user delivery: a frame published on node A (this test's context) for a user
+ * connected to node B (a second application context on the same loopback hub), one frame at a time,
+ * measured from publish to arrival at the client.
+ *
+ * Settings are system properties, forwarded by `gradle benchmark`: load.probes (2000),
+ * load.max-p99-ms (50) and load.report-dir (build/reports/cluster-fan-out). The summary and the
+ * distribution in HdrHistogram's .hgrm format are written to the report directory.
+ * Excluded from the regular test run.
+ */
+@Tag("benchmark")
+@SuppressWarnings("null")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "messaging.cluster.enabled=true",
+        "messaging.cluster.node-id=node-a",
+        "messaging.cluster.loopback.hub=cluster-benchmark"
+})
+@DisplayName("Cluster Fan-out Benchmark")
+class ClusterFanOutBenchmarkTest {
+
+    private static final int PROBES = Integer.getInteger("load.probes", 2000);
+    private static final long MAX_P99_MILLIS = Long.getLong("load.max-p99-ms", 50);
+    private static final Path REPORT_DIR = Path.of(System.getProperty("load.report-dir", "build/reports/cluster-fan-out"));
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ClusterUserRegistry registry;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    static void startNodeB() {
+        nodeB = new SpringApplicationBuilder(DevConnectBackendApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:node-b-benchmark",
+                        "messaging.cluster.enabled=true",
+                        "messaging.cluster.node-id=node-b",
+                        "messaging.cluster.loopback.hub=cluster-benchmark"
+                )
+                .run();
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        nodeB.close();
+    }
+
+    @Test
+    @DisplayName("Frames for a user on another node should arrive within the p99 budget")
+    void crossNodeLatency() throws Exception {
+        // Arrange - the receiver connects to node B
+        User receiver = saveUser();
+        String receiverId = receiver.getUserId().toString();
+        BlockingQueue<MessageDTO> received = connectToNodeB(receiver);
+        awaitRegistered(receiverId);
+        warmUp(receiverId, received);
+
+        // Act - publish on node A, one frame at a time
+        Histogram latency = new Histogram(TimeUnit.SECONDS.toNanos(10), 3);
+        for (int i = 0; i < PROBES; i++) {
+            long start = System.nanoTime();
+            messagingTemplate.convertAndSendToUser(receiverId, "/queue/messages", probe(i));
+            MessageDTO frame = received.poll(5, TimeUnit.SECONDS);
+            latency.recordValue(System.nanoTime() - start);
+            assertNotNull(frame, "Probe " + i + " should arrive on node B");
+            assertEquals("probe " + i, frame.getText());
+        }
+
+        // Assert
+        report(latency);
+        assertTrue(latency.getValueAtPercentile(99) <= TimeUnit.MILLISECONDS.toNanos(MAX_P99_MILLIS),
+                "p99 " + latency.getValueAtPercentile(99) / 1e6 + " ms is over " + MAX_P99_MILLIS + " ms");
+    }
+
+    /**
+     * Helper: Write the summary and the latency distribution (in ms) to the report directory
+     */
+    private void report(Histogram latency) throws Exception {
+        Files.createDirectories(REPORT_DIR);
+        Files.writeString(REPORT_DIR.resolve("summary.txt"), String.format(
+                "Cross-node user delivery, %d frames: p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                latency.getTotalCount(),
+                latency.getValueAtPercentile(50) / 1e6,
+                latency.getValueAtPercentile(99) / 1e6,
+                latency.getValueAtPercentile(99.9) / 1e6,
+                latency.getMaxValue() / 1e6));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(REPORT_DIR.resolve("delivery-latency.hgrm")))) {
+            latency.outputPercentileDistribution(out, 1_000_000.0);
+        }
+    }
+
+    private User saveUser() {
+        User user = new User();
+        user.setFirstName("Receiver");
+        user.setLastName("Cluster");
+        user.setEmail("receiver-" + System.nanoTime() + "@cluster.test");
+        user.setPasswordHash("password");
+        user.setUserRole(User.UserRole.DEVELOPER);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Helper: Open an authenticated native STOMP session on node B subscribed to the user's message queue
+     */
+    private BlockingQueue<MessageDTO> connectToNodeB(User user) throws Exception {
+        BlockingQueue<MessageDTO> received = new ArrayBlockingQueue<>(PROBES);
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(JsonMapper.builder().findAndAddModules().build());
+        stompClient.setMessageConverter(converter);
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateAccessToken(user.getEmail(), user.getUserId()));
+
+        String url = "ws://localhost:" + nodeB.getEnvironment().getProperty("local.server.port") + "/ws";
+        StompSession session = stompClient.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders,
+                new StompSessionHandlerAdapter() { }).get(5, TimeUnit.SECONDS);
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return MessageDTO.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.offer((MessageDTO) payload);
+            }
+        });
+        return received;
+    }
+
+    /**
+     * Helper: Wait until node A has learned that the user is connected to node B
+     */
+    private void awaitRegistered(String userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!registry.remoteNodesFor(userId).contains("node-b")) {
+            assertTrue(System.nanoTime() < deadline, "Node A should learn the user's node");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Helper: Probe until frames come through, then run a few hundred more so the JIT has settled
+     */
+    private void warmUp(String userId, BlockingQueue<MessageDTO> received) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.poll(50, TimeUnit.MILLISECONDS) == null) {
+            assertTrue(System.nanoTime() < deadline, "Warm-up frame should arrive on node B");
+            messagingTemplate.convertAndSendToUser(userId, "/queue/messages", probe(-1));
+        }
+        for (int i = 0; i < 500; i++) {
+            messagingTemplate.convertAndSendToUser(userId, "/queue/messages", probe(-1));
+            assertNotNull(received.poll(5, TimeUnit.SECONDS), "Warm-up frame should arrive on node B");
+        }
+        // Let stragglers land, then start clean
+        Thread.sleep(100);
+        received.clear();
+    }
+
+    private MessageDTO probe(int n) {
+        return new MessageDTO(null, null, null, "probe " + n, null, null, null);
+    }
+}
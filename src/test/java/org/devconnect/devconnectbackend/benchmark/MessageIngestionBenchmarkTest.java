@@ -0,0 +1,118 @@
+package org.devconnect.devconnectbackend.benchmark;
+
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.devconnect.devconnectbackend.service.MessageIngestionService;
+import org.devconnect.devconnectbackend.service.MessageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput of the per-message send path against group-commit ingestion.
+ * Excluded from the regular test run; use `gradle benchmark`.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "messaging.ingest.batching-enabled=true",
+        "messaging.ingest.flush-window-ms=2",
+        "messaging.ingest.max-batch-size=100"
+})
+@DisplayName("Message Ingestion Benchmark")
+class MessageIngestionBenchmarkTest {
+
+    private static final int SENDERS = 64;
+    private static final int MESSAGES_PER_SENDER = 100;
+    private static final int WARMUP_MESSAGES_PER_SENDER = 10;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageIngestionService messageIngestionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    private final List<User> users = new ArrayList<>();
+
+    private interface Sender {
+        void send(Integer senderId, Integer receiverId, String content) throws Exception;
+    }
+
+    @BeforeEach
+    void setUp() {
+        // One user per sender thread; sender i writes to user (i + 1) so every thread has its own conversation
+        for (int i = 0; i < SENDERS; i++) {
+            User user = new User();
+            user.setFirstName("Bench");
+            user.setLastName("User" + i);
+            user.setEmail("bench" + i + "-" + System.nanoTime() + "@test.com");
+            user.setPasswordHash("password");
+            user.setUserRole(i % 2 == 0 ? User.UserRole.CLIENT : User.UserRole.DEVELOPER);
+            users.add(userRepository.save(user));
+        }
+    }
+
+    @Test
+    @DisplayName("Group commit should out-run the per-message path under concurrent sends")
+    void compareThroughput() throws Exception {
+        Sender direct = messageService::sendMessage;
+        Sender batched = (senderId, receiverId, content) ->
+                messageIngestionService.submit(senderId, receiverId, content).join();
+
+        // Warm up both paths (JIT, connection pool, conversations)
+        run(direct, WARMUP_MESSAGES_PER_SENDER);
+        run(batched, WARMUP_MESSAGES_PER_SENDER);
+        long before = messageRepository.count();
+
+        double directRate = run(direct, MESSAGES_PER_SENDER);
+        double batchedRate = run(batched, MESSAGES_PER_SENDER);
+
+        System.out.printf("%nMessage ingestion, %d concurrent senders x %d messages%n", SENDERS, MESSAGES_PER_SENDER);
+        System.out.printf("  per-message transactions: %10.0f msg/s%n", directRate);
+        System.out.printf("  group commit:             %10.0f msg/s (%.2fx)%n", batchedRate, batchedRate / directRate);
+
+        assertEquals(before + 2L * SENDERS * MESSAGES_PER_SENDER, messageRepository.count());
+    }
+
+    /**
+     * Helper: Send from every user concurrently and return messages per second
+     */
+    private double run(Sender sender, int messagesPerSender) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(SENDERS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < SENDERS; i++) {
+                Integer senderId = users.get(i).getUserId();
+                Integer receiverId = users.get((i + 1) % SENDERS).getUserId();
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < messagesPerSender; n++) {
+                        sender.send(senderId, receiverId, "benchmark message " + n);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return (double) SENDERS * messagesPerSender / (elapsed / 1_000_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.devconnect.devconnectbackend.benchmark;
+
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.devconnect.devconnectbackend.service.JWTService;
+import org.devconnect.devconnectbackend.service.MessageService;
+import org.devconnect.devconnectbackend.service.WebSocketOutbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Time each send holds its transaction, and so its pooled connection, when the WebSocket pushes go out
+ * inside the transaction against when the outbox sends them after commit. The receiver has several
+ * connected devices. Excluded from the regular test run; use `gradle benchmark`.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Outbox Dispatch Benchmark")
+class OutboxDispatchBenchmarkTest {
+
+    private static final int RECEIVER_SESSIONS = 16;
+    private static final int WARMUP_MESSAGES = 500;
+    private static final int MESSAGES = 2000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private WebSocketOutbox outbox;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final AtomicInteger framesReceived = new AtomicInteger();
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(outbox, "dispatchAfterCommit", true);
+        sessions.forEach(StompSession::disconnect);
+    }
+
+    @Test
+    @DisplayName("Sends should hold their transaction for less time with after-commit dispatch")
+    void compareHoldTime() throws Exception {
+        User sender = saveUser("Sender", User.UserRole.CLIENT);
+        User receiver = saveUser("Receiver", User.UserRole.DEVELOPER);
+        for (int i = 0; i < RECEIVER_SESSIONS; i++) {
+            sessions.add(connect(receiver));
+        }
+        // Let the subscriptions reach the broker before anything is published
+        Thread.sleep(500);
+
+        ReflectionTestUtils.setField(outbox, "dispatchAfterCommit", false);
+        run(sender, receiver, WARMUP_MESSAGES);
+        double inlineMicros = run(sender, receiver, MESSAGES);
+
+        ReflectionTestUtils.setField(outbox, "dispatchAfterCommit", true);
+        run(sender, receiver, WARMUP_MESSAGES);
+        double afterCommitMicros = run(sender, receiver, MESSAGES);
+
+        System.out.printf("%nTransaction time per send, receiver on %d sessions, %d messages%n", RECEIVER_SESSIONS, MESSAGES);
+        System.out.printf("  pushed inside the transaction: %8.1f us%n", inlineMicros);
+        System.out.printf("  pushed after commit:           %8.1f us (%.2fx)%n", afterCommitMicros, inlineMicros / afterCommitMicros);
+
+        assertTrue(afterCommitMicros < inlineMicros, "After-commit dispatch should shorten the transaction");
+    }
+
+    /**
+     * Helper: Send messages one after another, wait until every session has them, and return the mean
+     * time of one sendMessage call (its whole transaction) in microseconds
+     */
+    private double run(User sender, User receiver, int messages) throws InterruptedException {
+        framesReceived.set(0);
+        long total = 0;
+        for (int n = 0; n < messages; n++) {
+            long start = System.nanoTime();
+            messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "benchmark message " + n);
+            total += System.nanoTime() - start;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (framesReceived.get() < messages * RECEIVER_SESSIONS) {
+            assertTrue(System.nanoTime() < deadline, "Every session should receive every message");
+            Thread.sleep(10);
+        }
+        return total / 1_000.0 / messages;
+    }
+
+    private User saveUser(String firstName, User.UserRole role) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName("Outbox");
+        user.setEmail(firstName.toLowerCase() + "-" + System.nanoTime() + "@outbox.test");
+        user.setPasswordHash("password");
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Helper: Open an authenticated native STOMP session that counts the frames it receives
+     */
+    private StompSession connect(User user) throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        // Frames are only counted, so take the payload bytes as they are
+        stompClient.setMessageConverter(new SimpleMessageConverter());
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateAccessToken(user.getEmail(), user.getUserId()));
+
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                framesReceived.incrementAndGet();
+            }
+        });
+        return session;
+    }
+}
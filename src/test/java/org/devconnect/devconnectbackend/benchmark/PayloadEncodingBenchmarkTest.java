@@ -0,0 +1,85 @@
+package org.devconnect.devconnectbackend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.devconnect.devconnectbackend.config.CborMessageConverter;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.ReadReceiptDTO;
+import org.devconnect.devconnectbackend.dto.TypingIndicatorDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Frame payload size and serialization time of the default JSON encoding against negotiated CBOR,
+ * for the three frames pushed most often. Excluded from the regular test run; use `gradle benchmark`.
+ */
+@Tag("benchmark")
+@DisplayName("Payload Encoding Benchmark")
+class PayloadEncodingBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    // Configured like Spring Boot's ObjectMapper, which the JSON message converter uses
+    private final ObjectMapper json = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final CborMessageConverter cbor = new CborMessageConverter();
+
+    @Test
+    @DisplayName("CBOR frames should be smaller than JSON frames")
+    void compareEncodings() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> frames = new LinkedHashMap<>();
+        frames.put("message", new MessageDTO(123456L, 42L, 43L, "See you at the standup tomorrow?", "sent", now, null));
+        frames.put("read receipt", new ReadReceiptDTO(9876L, 43L, 123456L, now));
+        frames.put("typing", new TypingIndicatorDTO(42L, 43L, true));
+
+        System.out.printf("%-14s %10s %10s %12s %12s%n", "frame", "json B", "cbor B", "json ns/op", "cbor ns/op");
+        for (Map.Entry<String, Object> frame : frames.entrySet()) {
+            Object payload = frame.getValue();
+            int jsonBytes = encodeJson(payload).length;
+            int cborBytes = cbor.encode(payload).length;
+            double jsonNanos = nanosPerOp(this::encodeJson, payload);
+            double cborNanos = nanosPerOp(cbor::encode, payload);
+
+            System.out.printf("%-14s %10d %10d %12.1f %12.1f%n",
+                    frame.getKey(), jsonBytes, cborBytes, jsonNanos, cborNanos);
+            assertTrue(cborBytes < jsonBytes, frame.getKey() + " should be smaller as CBOR");
+        }
+    }
+
+    private byte[] encodeJson(Object payload) {
+        try {
+            return json.writeValueAsBytes(payload);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double nanosPerOp(Function<Object, byte[]> encoder, Object payload) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += encoder.apply(payload).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += encoder.apply(payload).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        // Keep the results live so the loop is not optimised away
+        assertTrue(sink > 0);
+        return (double) elapsed / ITERATIONS;
+    }
+}
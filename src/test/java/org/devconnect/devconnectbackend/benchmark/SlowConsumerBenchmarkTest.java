@@ -0,0 +1,165 @@
+package org.devconnect.devconnectbackend.benchmark;
+
+import org.devconnect.devconnectbackend.config.WebSocketOutboundMonitor;
+import org.devconnect.devconnectbackend.dto.OutboundBufferStatsDTO;
+import org.devconnect.devconnectbackend.service.JWTService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Heap use while a client that has stopped reading stays subscribed to a busy stream.
+ * The client blocks in its first frame handler, so the server's writes back up once the socket buffers
+ * are full. Excluded from the regular test run; use `gradle benchmark`.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Slow Consumer Benchmark")
+class SlowConsumerBenchmarkTest {
+
+    private static final int FRAME_CHARS = 4096;
+    private static final int TYPING_FRAMES = 50_000;
+    private static final int MAX_CHAT_FRAMES = 20_000;
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+    private static final int USER_ID = 1;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private WebSocketOutboundMonitor outboundMonitor;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Test
+    @DisplayName("Heap should stay flat while a stalled consumer is connected")
+    void stalledConsumerKeepsHeapFlat() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StompSession client = connectStalledClient(stalled, release);
+        try {
+            String sessionId = awaitSingleSession();
+            String payload = "x".repeat(FRAME_CHARS);
+
+            // Get the client stuck in its first frame handler
+            send("/queue/messages", payload);
+            assertTrue(stalled.await(10, TimeUnit.SECONDS), "Client should receive its first frame");
+            long heapBefore = usedHeapAfterGc();
+
+            // Typing frames alone never disconnect; past the threshold they are dropped
+            long start = System.nanoTime();
+            for (int i = 0; i < TYPING_FRAMES; i++) {
+                send("/queue/typing", payload);
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            Thread.sleep(500);
+            long heapAfter = usedHeapAfterGc();
+            OutboundBufferStatsDTO afterTyping = outboundMonitor.getStats(1);
+
+            System.out.printf("typing: %d frames of %d bytes in %d ms, %d dropped, %d bytes buffered, heap %+d KB%n",
+                    TYPING_FRAMES, FRAME_CHARS, elapsedMs, afterTyping.getDroppedFrames(),
+                    outboundMonitor.getBufferedBytes(sessionId), (heapAfter - heapBefore) / 1024);
+            assertEquals(1, afterTyping.getSessions(), "Typing frames must not disconnect the client");
+            assertTrue(afterTyping.getDroppedFrames() > 0);
+            assertTrue(heapAfter - heapBefore < MAX_HEAP_GROWTH_BYTES,
+                    "Heap grew by " + (heapAfter - heapBefore) + " bytes");
+
+            // Chat frames are never dropped; once they no longer fit the client is disconnected
+            int sent = 0;
+            while (sent < MAX_CHAT_FRAMES && outboundMonitor.getStats(0).getSlowConsumerDisconnects() == 0) {
+                send("/queue/messages", payload);
+                sent++;
+            }
+            System.out.printf("chat: disconnected after %d frames%n", sent);
+            assertEquals(1, outboundMonitor.getStats(0).getSlowConsumerDisconnects());
+        } finally {
+            release.countDown();
+            if (client.isConnected()) {
+                client.disconnect();
+            }
+        }
+    }
+
+    private StompSession connectStalledClient(CountDownLatch stalled, CountDownLatch release) throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new StringMessageConverter());
+        stompClient.setInboundMessageSizeLimit(64 * 1024);
+
+        StompFrameHandler stall = new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                // Block the client's read thread, so nothing more is read from the socket
+                stalled.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        // The user only needs to exist in the token; frames are addressed by its id
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateAccessToken("slow-consumer@benchmark.test", USER_ID));
+
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+        session.subscribe("/user/queue/messages", stall);
+        session.subscribe("/user/queue/typing", stall);
+        // Let the subscriptions reach the broker before anything is published
+        Thread.sleep(500);
+        return session;
+    }
+
+    private String awaitSingleSession() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            OutboundBufferStatsDTO stats = outboundMonitor.getStats(1);
+            if (stats.getSessions() == 1) {
+                return stats.getBusiestSessions().get(0).getSessionId();
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Client session not registered");
+    }
+
+    private void send(String destination, String payload) {
+        messagingTemplate.convertAndSendToUser(String.valueOf(USER_ID), destination, payload);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
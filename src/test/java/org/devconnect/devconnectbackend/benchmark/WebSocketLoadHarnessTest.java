@@ -0,0 +1,298 @@
+package org.devconnect.devconnectbackend.benchmark;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.WebSocketErrorDTO;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.devconnect.devconnectbackend.service.JWTService;
+import org.devconnect.devconnectbackend.service.WebSocketOutbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.PrintStream;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load harness for the STOMP endpoint: thousands of authenticated clients on /ws, in pairs, each sending
+ * to its partner on a virtual thread at a fixed share of the target rate. Every message carries the time
+ * it was scheduled to go out, so the recorded sender→receiver latency includes any time a sender fell
+ * behind schedule, not just the time on the wire. Runs against H2 with the regular configuration.
+ *
+ * Settings are system properties, forwarded by `gradle benchmark`:
+ * load.clients (2000), load.rate messages per second in total (500), load.warmup-seconds (5, and at
+ * least two send intervals so that conversations are created before measuring),
+ * load.seconds (20), load.max-p99-ms (500) and load.report-dir (build/reports/websocket-load).
+ * Keep load.rate / load.clients within the per-user message limit (messaging.rate-limit.messages.*);
+ * sends over it come back as errors. Excluded from the regular test run.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("WebSocket Load Harness")
+class WebSocketLoadHarnessTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 2000) & ~1;
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "500"));
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 20);
+    private static final long MAX_P99_MILLIS = Long.getLong("load.max-p99-ms", 500);
+    private static final Path REPORT_DIR = Path.of(System.getProperty("load.report-dir", "build/reports/websocket-load"));
+
+    // Handshakes in flight at once while the clients connect
+    private static final int CONNECT_CONCURRENCY = 64;
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final String TEXT_PREFIX = "load ";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private WebSocketOutbox outbox;
+
+    // Scheduled send time to arrival at the partner, and to the echo on the sender's own session
+    private final Histogram deliveryLatency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+    private final Histogram echoLatency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    // Only messages scheduled inside [measureFrom, measureUntil) are counted
+    private volatile long measureFrom;
+    private volatile long measureUntil;
+
+    @AfterEach
+    void tearDown() {
+        for (StompSession session : sessions) {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Clients should get every message within the p99 budget at the target rate")
+    void sustainedLoad() throws Exception {
+        List<User> users = saveUsers();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(JsonMapper.builder().findAndAddModules().build());
+        stompClient.setMessageConverter(converter);
+
+        long connectStart = System.nanoTime();
+        connectAll(stompClient, users);
+        double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+        // Let the subscriptions reach the broker before anything is published
+        Thread.sleep(1000);
+
+        long delayedBefore = outbox.getDelayedPushes();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) * CLIENTS / RATE);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        // Each pair's first message creates its conversation; keep those out of the measurement
+        measureFrom = start + Math.max(TimeUnit.SECONDS.toNanos(WARMUP_SECONDS), 2 * interval);
+        measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(SECONDS);
+        runSenders(users, interval, start, measureUntil);
+
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (delivered.get() < sent.get() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        long delayed = outbox.getDelayedPushes() - delayedBefore;
+
+        report(connectSeconds, (measureFrom - start) / 1e9, delayed);
+
+        assertEquals(0, errors.get(), "No send should be rejected");
+        assertEquals(sent.get(), delivered.get(), "Every message should reach its receiver");
+        long p99Millis = TimeUnit.NANOSECONDS.toMillis(deliveryLatency.getValueAtPercentile(99));
+        assertTrue(p99Millis <= MAX_P99_MILLIS,
+                "p99 delivery latency " + p99Millis + " ms is over the " + MAX_P99_MILLIS + " ms budget");
+    }
+
+    /**
+     * Helper: One virtual thread per client, sending to its partner every interval until the end
+     */
+    private void runSenders(List<User> users, long interval, long start, long end) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                StompSession session = sessions.get(i);
+                User self = users.get(i);
+                User partner = users.get(i ^ 1);
+                // Spread the clients over one interval so the sends do not arrive in lockstep
+                long first = start + ThreadLocalRandom.current().nextLong(interval);
+                futures.add(executor.submit(() -> {
+                    for (long scheduled = first; scheduled < end; scheduled += interval) {
+                        long wait = scheduled - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        MessageDTO message = new MessageDTO(null, self.getUserId().longValue(),
+                                partner.getUserId().longValue(), TEXT_PREFIX + scheduled, "sent", null, null);
+                        try {
+                            session.send("/app/chat.sendMessage", message);
+                            if (scheduled >= measureFrom) {
+                                sent.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    /**
+     * Helper: Connect and subscribe every client, a bounded number of handshakes at a time
+     */
+    private void connectAll(WebSocketStompClient stompClient, List<User> users) throws Exception {
+        Semaphore handshakes = new Semaphore(CONNECT_CONCURRENCY);
+        List<Future<StompSession>> futures = new ArrayList<>(users.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (User user : users) {
+                futures.add(executor.submit(() -> {
+                    handshakes.acquire();
+                    try {
+                        return connect(stompClient, user);
+                    } finally {
+                        handshakes.release();
+                    }
+                }));
+            }
+            for (Future<StompSession> future : futures) {
+                sessions.add(future.get());
+            }
+        }
+    }
+
+    /**
+     * Helper: An authenticated STOMP session that records latency for the messages it receives
+     */
+    private StompSession connect(WebSocketStompClient stompClient, User user) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateAccessToken(user.getEmail(), user.getUserId()));
+
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() { }).get(30, TimeUnit.SECONDS);
+        long userId = user.getUserId();
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return MessageDTO.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                long arrived = System.nanoTime();
+                MessageDTO message = (MessageDTO) payload;
+                long scheduled = Long.parseLong(message.getText().substring(TEXT_PREFIX.length()));
+                if (scheduled < measureFrom || scheduled >= measureUntil) {
+                    return;
+                }
+                if (message.getSenderId() == userId) {
+                    echoLatency.recordValue(Math.max(0, arrived - scheduled));
+                } else {
+                    deliveryLatency.recordValue(Math.max(0, arrived - scheduled));
+                    delivered.incrementAndGet();
+                }
+            }
+        });
+        session.subscribe("/user/queue/errors", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return WebSocketErrorDTO.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                errors.incrementAndGet();
+            }
+        });
+        return session;
+    }
+
+    private List<User> saveUsers() {
+        List<User> users = new ArrayList<>(CLIENTS);
+        long run = System.nanoTime();
+        for (int i = 0; i < CLIENTS; i++) {
+            User user = new User();
+            user.setFirstName("Load" + i);
+            user.setLastName("Client");
+            user.setEmail("load-" + run + "-" + i + "@load.test");
+            user.setPasswordHash("password");
+            user.setUserRole(i % 2 == 0 ? User.UserRole.CLIENT : User.UserRole.DEVELOPER);
+            users.add(user);
+        }
+        return userRepository.saveAll(users);
+    }
+
+    /**
+     * Helper: Print the summary and write both latency distributions in HdrHistogram's .hgrm format
+     */
+    private void report(double connectSeconds, double warmupSeconds, long delayed) throws Exception {
+        System.out.printf("%nWebSocket load: %d clients, target %.0f msg/s, %d s measured after %.0f s warm-up%n",
+                CLIENTS, RATE, SECONDS, warmupSeconds);
+        System.out.printf("  connected in          %8.1f s%n", connectSeconds);
+        System.out.printf("  sent                  %8d (%.0f msg/s)%n", sent.get(), sent.get() / (double) SECONDS);
+        System.out.printf("  delivered             %8d (%.0f msg/s)%n", delivered.get(), delivered.get() / (double) SECONDS);
+        System.out.printf("  errors                %8d%n", errors.get());
+        System.out.printf("  outbox waits          %8d%n", delayed);
+        printPercentiles("sender -> receiver", deliveryLatency);
+        printPercentiles("sender -> own echo", echoLatency);
+
+        Files.createDirectories(REPORT_DIR);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(REPORT_DIR.resolve("delivery-latency.hgrm")))) {
+            deliveryLatency.outputPercentileDistribution(out, 1_000_000.0);
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(REPORT_DIR.resolve("echo-latency.hgrm")))) {
+            echoLatency.outputPercentileDistribution(out, 1_000_000.0);
+        }
+        System.out.println("  distributions (ms) in " + REPORT_DIR.toAbsolutePath());
+    }
+
+    private static void printPercentiles(String label, Histogram histogram) {
+        System.out.printf("  %-20s  p50 %7.2f ms  p99 %7.2f ms  p99.9 %7.2f ms  max %7.2f ms%n", label,
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6);
+    }
+}
@@ -0,0 +1,114 @@
+package org.devconnect.devconnectbackend.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Cluster User Registry Tests")
+class ClusterUserRegistryTest {
+
+    @Mock
+    private ClusterTransport transport;
+
+    private ClusterUserRegistry registry;
+
+    private final Message<byte[]> frame = MessageBuilder.withPayload(new byte[0]).build();
+    private final Message<byte[]> s1 = connected("s1");
+    private final Message<byte[]> s2 = connected("s2");
+    private final Principal user = new UsernamePasswordAuthenticationToken("7", null, List.of());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new ClusterUserRegistry("node-a", transport);
+    }
+
+    @Test
+    @DisplayName("Should announce only a user's first connect and last disconnect")
+    void testAnnouncesPerUserNotPerSession() {
+        // Act
+        registry.handleSessionConnected(new SessionConnectedEvent(this, s1, user));
+        registry.handleSessionConnected(new SessionConnectedEvent(this, s2, user));
+        registry.handleSessionDisconnect(new SessionDisconnectEvent(this, frame, "s1", CloseStatus.NORMAL, user));
+
+        // Assert - still one session open
+        assertTrue(registry.isConnectedLocally("7"));
+        verify(transport, times(1)).broadcast(new ClusterEnvelope.PresenceUpdate("node-a", "7", true));
+        verify(transport, never()).broadcast(new ClusterEnvelope.PresenceUpdate("node-a", "7", false));
+
+        registry.handleSessionDisconnect(new SessionDisconnectEvent(this, frame, "s2", CloseStatus.NORMAL, user));
+        assertFalse(registry.isConnectedLocally("7"));
+        verify(transport, times(1)).broadcast(new ClusterEnvelope.PresenceUpdate("node-a", "7", false));
+    }
+
+    @Test
+    @DisplayName("Should ignore a disconnect event repeated for the same session")
+    void testRepeatedDisconnect() {
+        // Arrange - two devices
+        registry.handleSessionConnected(new SessionConnectedEvent(this, s1, user));
+        registry.handleSessionConnected(new SessionConnectedEvent(this, s2, user));
+
+        // Act - the event for s1 is published twice
+        registry.handleSessionDisconnect(new SessionDisconnectEvent(this, frame, "s1", CloseStatus.NORMAL, user));
+        registry.handleSessionDisconnect(new SessionDisconnectEvent(this, frame, "s1", CloseStatus.NORMAL, user));
+
+        // Assert - s2 is still routed to
+        assertTrue(registry.isConnectedLocally("7"));
+        verify(transport, never()).broadcast(new ClusterEnvelope.PresenceUpdate("node-a", "7", false));
+    }
+
+    @Test
+    @DisplayName("Should track remote nodes from updates, snapshots and departures")
+    void testTracksRemoteNodes() {
+        // Act
+        registry.apply(new ClusterEnvelope.PresenceUpdate("node-b", "7", true));
+        registry.apply(new ClusterEnvelope.PresenceSnapshot("node-c", Set.of("7", "8")));
+
+        // Assert
+        assertEquals(Set.of("node-b", "node-c"), registry.remoteNodesFor("7"));
+        assertEquals(Set.of("node-c"), registry.remoteNodesFor("8"));
+
+        registry.apply(new ClusterEnvelope.PresenceUpdate("node-b", "7", false));
+        registry.apply(new ClusterEnvelope.NodeLeft("node-c"));
+        assertTrue(registry.remoteNodesFor("7").isEmpty());
+        assertTrue(registry.remoteNodesFor("8").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should answer a joining node with the users connected locally")
+    void testAnswersSnapshotRequest() {
+        // Arrange
+        registry.handleSessionConnected(new SessionConnectedEvent(this, s1, user));
+
+        // Act
+        registry.apply(new ClusterEnvelope.PresenceSnapshotRequest("node-b"));
+
+        // Assert
+        verify(transport).send("node-b", new ClusterEnvelope.PresenceSnapshot("node-a", Set.of("7")));
+        verify(transport, never()).send(eq("node-c"), any());
+    }
+
+    private static Message<byte[]> connected(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
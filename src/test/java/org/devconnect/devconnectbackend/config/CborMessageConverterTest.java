@@ -0,0 +1,75 @@
+package org.devconnect.devconnectbackend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.ReadReceiptDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CBOR Message Converter Tests")
+class CborMessageConverterTest {
+
+    private final CborMessageConverter converter = new CborMessageConverter();
+
+    @Test
+    @DisplayName("Should write timestamps as epoch millis and leave out null fields")
+    void testCompactFields() throws Exception {
+        // Arrange
+        LocalDateTime readAt = LocalDateTime.of(2026, 3, 1, 12, 30, 15, 250_000_000);
+        ReadReceiptDTO receipt = new ReadReceiptDTO(7L, 2L, 340L, readAt);
+        MessageDTO message = new MessageDTO(1L, 2L, 3L, "Hello", "sent", null, null);
+
+        // Act
+        JsonNode receiptTree = CborMessageConverter.createMapper().readTree(converter.encode(receipt));
+        JsonNode messageTree = CborMessageConverter.createMapper().readTree(converter.encode(message));
+
+        // Assert
+        assertTrue(receiptTree.get("readAt").isIntegralNumber());
+        assertEquals(readAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), receiptTree.get("readAt").asLong());
+        assertFalse(messageTree.has("timestamp"));
+        assertFalse(messageTree.has("projectId"));
+    }
+
+    @Test
+    @DisplayName("Should round-trip a payload through application/cbor messages")
+    void testRoundTrip() {
+        // Arrange
+        LocalDateTime timestamp = LocalDateTime.of(2026, 3, 1, 12, 30, 15, 250_000_000);
+        MessageDTO original = new MessageDTO(1L, 2L, 3L, "Hello", "sent", timestamp, null);
+        MessageHeaders headers = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, CborMessageConverter.APPLICATION_CBOR));
+
+        // Act
+        Message<?> message = converter.toMessage(original, headers);
+        MessageDTO decoded = (MessageDTO) converter.fromMessage(message, MessageDTO.class);
+
+        // Assert
+        assertNotNull(decoded);
+        assertEquals("Hello", decoded.getText());
+        assertEquals(3L, decoded.getReceiverId());
+        assertEquals(timestamp, decoded.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should ignore frames that are not application/cbor")
+    void testRequiresCborContentType() {
+        // Arrange
+        Message<byte[]> json = MessageBuilder.withPayload("{\"text\":\"Hello\"}".getBytes())
+                .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+                .build();
+        Message<byte[]> untyped = MessageBuilder.withPayload(new byte[]{1}).build();
+
+        // Act & Assert
+        assertNull(converter.fromMessage(json, MessageDTO.class));
+        assertNull(converter.fromMessage(untyped, MessageDTO.class));
+        assertNull(converter.toMessage(new MessageDTO(), null));
+    }
+}
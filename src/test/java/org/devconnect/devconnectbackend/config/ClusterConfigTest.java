@@ -0,0 +1,50 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.devconnect.devconnectbackend.cluster.LoopbackClusterTransport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Cluster Config Tests")
+class ClusterConfigTest {
+
+    @Test
+    @DisplayName("Should refuse to start cluster mode without a hub for the loopback transport")
+    void testNoTransport() {
+        // Arrange
+        ClusterConfig config = config("loopback", "");
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, config::clusterTransport);
+        assertTrue(exception.getMessage().contains("messaging.cluster.loopback.hub"));
+    }
+
+    @Test
+    @DisplayName("Should refuse an unknown transport")
+    void testUnknownTransport() {
+        // Arrange
+        ClusterConfig config = config("redis", "local");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, config::clusterTransport);
+    }
+
+    @Test
+    @DisplayName("Should use the loopback transport when a hub is named")
+    void testLoopback() {
+        // Arrange
+        ClusterConfig config = config("loopback", "cluster-config-test");
+
+        // Act & Assert
+        assertInstanceOf(LoopbackClusterTransport.class, config.clusterTransport());
+    }
+
+    private ClusterConfig config(String transport, String hub) {
+        ClusterConfig config = new ClusterConfig();
+        ReflectionTestUtils.setField(config, "transport", transport);
+        ReflectionTestUtils.setField(config, "loopbackHub", hub);
+        return config;
+    }
+}
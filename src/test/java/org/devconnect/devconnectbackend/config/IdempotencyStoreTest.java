@@ -0,0 +1,89 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Idempotency Store Tests")
+class IdempotencyStoreTest {
+
+    private static final IdempotencyStore.StoredResponse OK =
+            new IdempotencyStore.StoredResponse(200, "application/json", "{\"id\":1}".getBytes());
+
+    @Test
+    @DisplayName("Should let the first request run and hand its response to duplicates, including waiting ones")
+    void testClaimAndReplay() throws Exception {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        IdempotencyStore.Claim first = store.claim("k", "body");
+
+        // Act - a duplicate arrives while the first request still runs
+        IdempotencyStore.Claim concurrent = store.claim("k", "body");
+        CompletableFuture<IdempotencyStore.StoredResponse> waiting = concurrent.response();
+        store.complete("k", first, OK);
+        IdempotencyStore.Claim retry = store.claim("k", "body");
+
+        // Assert
+        assertTrue(first.owner());
+        assertFalse(concurrent.owner());
+        assertSame(OK, waiting.get(1, TimeUnit.SECONDS));
+        assertFalse(retry.owner());
+        assertSame(OK, retry.response().getNow(null));
+    }
+
+    @Test
+    @DisplayName("Should report a key reused for a different request")
+    void testMismatch() {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        store.claim("k", "body");
+
+        // Act
+        IdempotencyStore.Claim other = store.claim("k", "another body");
+
+        // Assert
+        assertTrue(other.mismatch());
+        assertFalse(other.owner());
+    }
+
+    @Test
+    @DisplayName("Should free a released key for waiting duplicates and later retries")
+    void testRelease() {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        IdempotencyStore.Claim first = store.claim("k", "body");
+        IdempotencyStore.Claim waiting = store.claim("k", "body");
+
+        // Act
+        store.release("k", first);
+
+        // Assert - waiters see null and claim again
+        assertTrue(waiting.response().isDone());
+        assertNull(waiting.response().getNow(OK));
+        assertTrue(store.claim("k", "body").owner());
+    }
+
+    @Test
+    @DisplayName("Should expire completed responses and stay within its bound")
+    void testExpiryAndBound() {
+        // Arrange
+        IdempotencyStore expiring = new IdempotencyStore(10, 0);
+        IdempotencyStore bounded = new IdempotencyStore(3, 60_000);
+
+        // Act
+        expiring.complete("k", expiring.claim("k", "body"), OK);
+        for (int i = 0; i < 5; i++) {
+            bounded.complete("k" + i, bounded.claim("k" + i, "body"), OK);
+        }
+
+        // Assert
+        assertTrue(expiring.claim("k", "body").owner());
+        assertEquals(3, bounded.size());
+        assertTrue(bounded.claim("k0", "body").owner());
+        assertFalse(bounded.claim("k4", "body").owner());
+    }
+}
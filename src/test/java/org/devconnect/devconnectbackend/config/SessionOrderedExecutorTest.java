@@ -0,0 +1,137 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Session Ordered Executor Tests")
+class SessionOrderedExecutorTest {
+
+    private final List<Message<?>> rejected = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Should run one session's messages in arrival order")
+    void testPreservesOrderPerSession() throws InterruptedException {
+        // Arrange
+        SessionOrderedExecutor executor = new SessionOrderedExecutor(100, rejected::add);
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(50);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            executor.execute(task(message("s1", SimpMessageType.MESSAGE), m -> {
+                handled.add(n);
+                done.countDown();
+            }));
+        }
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, handled.get(i));
+        }
+        assertTrue(rejected.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject sends over the limit and report each one once")
+    void testRejectsOverLimit() throws InterruptedException {
+        // Arrange - the first message blocks so the others stay in flight
+        SessionOrderedExecutor executor = new SessionOrderedExecutor(2, rejected::add);
+        CountDownLatch release = new CountDownLatch(1);
+        MessageHandler blocking = m -> await(release);
+        Message<?> first = message("s1", SimpMessageType.MESSAGE);
+        Message<?> second = message("s1", SimpMessageType.MESSAGE);
+        Message<?> third = message("s1", SimpMessageType.MESSAGE);
+
+        // Act - every message goes to two subscribers, as on the inbound channel
+        for (Message<?> message : List.of(first, second, third)) {
+            executor.execute(task(message, blocking));
+            executor.execute(task(message, m -> { }));
+        }
+
+        // Assert
+        assertEquals(List.of(third), rejected);
+        assertEquals(2, executor.inFlight("s1"));
+        release.countDown();
+        assertTrue(waitUntilIdle(executor, "s1"));
+    }
+
+    @Test
+    @DisplayName("Should never reject session control frames or other sessions")
+    void testLimitIsPerSessionAndSendsOnly() throws InterruptedException {
+        // Arrange
+        SessionOrderedExecutor executor = new SessionOrderedExecutor(1, rejected::add);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherSession = new CountDownLatch(1);
+
+        // Act
+        executor.execute(task(message("s1", SimpMessageType.MESSAGE), m -> await(release)));
+        executor.execute(task(message("s1", SimpMessageType.DISCONNECT), m -> { }));
+        executor.execute(task(message("s2", SimpMessageType.MESSAGE), m -> otherSession.countDown()));
+
+        // Assert
+        assertTrue(otherSession.await(5, TimeUnit.SECONDS));
+        assertTrue(rejected.isEmpty());
+        release.countDown();
+        assertTrue(waitUntilIdle(executor, "s1"));
+    }
+
+    private Message<?> message(String sessionId, SimpMessageType type) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination("/app/chat");
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private MessageHandlingRunnable task(Message<?> message, MessageHandler handler) {
+        return new MessageHandlingRunnable() {
+            @Override
+            public Message<?> getMessage() {
+                return message;
+            }
+
+            @Override
+            public MessageHandler getMessageHandler() {
+                return handler;
+            }
+
+            @Override
+            public void run() {
+                handler.handleMessage(message);
+            }
+        };
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean waitUntilIdle(SessionOrderedExecutor executor, String sessionId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.inFlight(sessionId) > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,196 @@
+package org.devconnect.devconnectbackend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Slow Consumer Session Decorator Tests")
+class SlowConsumerSessionDecoratorTest {
+
+    private static final int FRAME_BYTES = 100;
+
+    private final Executor writer = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong slowConsumerCloses = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should write frames in order when the client keeps up")
+    void testWritesInOrder() throws Exception {
+        // Arrange
+        WebSocketSession raw = rawSession(false);
+        SlowConsumerSessionDecorator session = decorate(raw, 10_000, 5_000);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            session.sendMessage(frame("/user/queue/messages", "m" + i));
+        }
+
+        // Assert
+        awaitWritten(20);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(written.get(i).contains("\n\nm" + i + " "));
+        }
+        assertEquals(0, dropped.get());
+    }
+
+    @Test
+    @DisplayName("Should drop typing frames but keep chat frames once past the threshold")
+    void testDropsTypingPastThreshold() throws Exception {
+        // Arrange - the first write blocks, so everything after it stays buffered
+        WebSocketSession raw = rawSession(true);
+        SlowConsumerSessionDecorator session = decorate(raw, 10_000, 3 * FRAME_BYTES);
+        session.sendMessage(frame("/user/queue/messages", "first"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        session.sendMessage(frame("/user/queue/messages", "chat-1"));
+        session.sendMessage(frame("/user/queue/messages", "chat-2"));
+        session.sendMessage(frame("/user/queue/typing", "typing"));
+        session.sendMessage(frame("/user/queue/messages", "chat-3"));
+
+        // Assert
+        assertEquals(1, dropped.get());
+        assertEquals(1, session.getDroppedFrames());
+        assertEquals(4 * FRAME_BYTES, session.getBufferedBytes());
+        release.countDown();
+        awaitWritten(4);
+        assertTrue(written.stream().noneMatch(frame -> frame.contains("typing")));
+        verify(raw, never()).close(any());
+    }
+
+    @Test
+    @DisplayName("Should evict queued typing frames before closing for a chat frame")
+    void testEvictsTypingBeforeClosing() throws Exception {
+        // Arrange - typing frames fit under the threshold, then chat fills the buffer
+        WebSocketSession raw = rawSession(true);
+        SlowConsumerSessionDecorator session = decorate(raw, 5 * FRAME_BYTES, 3 * FRAME_BYTES);
+        session.sendMessage(frame("/user/queue/messages", "first"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        session.sendMessage(frame("/user/queue/typing", "typing-1"));
+        session.sendMessage(frame("/user/queue/typing", "typing-2"));
+        session.sendMessage(frame("/user/queue/messages", "chat-1"));
+        session.sendMessage(frame("/user/queue/messages", "chat-2"));
+
+        // Act - the buffer is full; room is made by dropping the two typing frames
+        session.sendMessage(frame("/user/queue/messages", "chat-3"));
+
+        // Assert
+        assertEquals(2, dropped.get());
+        assertEquals(0, slowConsumerCloses.get());
+        assertEquals(4 * FRAME_BYTES, session.getBufferedBytes());
+        verify(raw, never()).close(any());
+    }
+
+    @Test
+    @DisplayName("Should close the session when a chat frame does not fit")
+    void testClosesWhenChatWouldOverflow() throws Exception {
+        // Arrange
+        WebSocketSession raw = rawSession(true);
+        SlowConsumerSessionDecorator session = decorate(raw, 3 * FRAME_BYTES, 2 * FRAME_BYTES);
+        session.sendMessage(frame("/user/queue/messages", "first"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        session.sendMessage(frame("/user/queue/messages", "chat-1"));
+        session.sendMessage(frame("/user/queue/messages", "chat-2"));
+
+        // Act
+        session.sendMessage(frame("/user/queue/messages", "chat-3"));
+        session.sendMessage(frame("/user/queue/messages", "chat-4"));
+
+        // Assert
+        assertEquals(1, slowConsumerCloses.get());
+        verify(raw, timeout(5000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(FRAME_BYTES, session.getBufferedBytes());
+    }
+
+    @Test
+    @DisplayName("Should close the session when one write is blocked past the send time limit")
+    void testClosesOnSendTimeLimit() throws Exception {
+        // Arrange
+        WebSocketSession raw = rawSession(true);
+        SlowConsumerSessionDecorator session = new SlowConsumerSessionDecorator(
+                raw, 10_000, 5_000, 50, List.of("/queue/typing"), writer, dropped::addAndGet,
+                slowConsumerCloses::incrementAndGet);
+        session.sendMessage(frame("/user/queue/messages", "first"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Thread.sleep(100);
+        session.sendMessage(frame("/user/queue/messages", "late"));
+
+        // Assert
+        assertEquals(1, slowConsumerCloses.get());
+        verify(raw, timeout(5000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    @DisplayName("Should read the destination header of an encoded frame")
+    void testDestinationOf() {
+        assertEquals("/user/queue/typing",
+                SlowConsumerSessionDecorator.destinationOf(bytes("MESSAGE\ndestination:/user/queue/typing\nsubscription:1\n\n{}\0")));
+        assertNull(SlowConsumerSessionDecorator.destinationOf(bytes("MESSAGE\nsubscription:1\n\n\ndestination:/x\0")));
+        assertNull(SlowConsumerSessionDecorator.destinationOf(bytes("\n")));
+    }
+
+    private SlowConsumerSessionDecorator decorate(WebSocketSession raw, int limit, int threshold) {
+        return new SlowConsumerSessionDecorator(raw, limit, threshold, 60_000, List.of("/queue/typing"), writer,
+                dropped::addAndGet, slowConsumerCloses::incrementAndGet);
+    }
+
+    private WebSocketSession rawSession(boolean blockFirstWrite) throws Exception {
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("s1");
+        doAnswer(invocation -> {
+            WebSocketMessage<?> message = invocation.getArgument(0);
+            if (blockFirstWrite && firstWriteStarted.getCount() > 0) {
+                firstWriteStarted.countDown();
+                release.await();
+            }
+            written.add(new String(((TextMessage) message).asBytes(), StandardCharsets.UTF_8));
+            return null;
+        }).when(raw).sendMessage(any());
+        return raw;
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (written.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, written.size());
+    }
+
+    // A STOMP MESSAGE frame of exactly FRAME_BYTES bytes
+    private static TextMessage frame(String destination, String body) {
+        String head = "MESSAGE\ndestination:" + destination + "\n\n" + body;
+        return new TextMessage(bytes(head + " ".repeat(FRAME_BYTES - head.length() - 1) + "\0"));
+    }
+
+    private static byte[] bytes(String frame) {
+        return frame.getBytes(StandardCharsets.UTF_8);
+    }
+}
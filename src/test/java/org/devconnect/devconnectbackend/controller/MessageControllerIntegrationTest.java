@@ -1,9 +1,18 @@
 package org.devconnect.devconnectbackend.controller;
 
+import org.devconnect.devconnectbackend.config.IdempotencyFilter;
+import org.devconnect.devconnectbackend.dto.DeliveryAckDTO;
 import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.SyncCursor;
+import org.devconnect.devconnectbackend.model.SyncChange;
 import org.devconnect.devconnectbackend.model.User;
 import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.devconnect.devconnectbackend.repository.MessageSearchTermRepository;
+import org.devconnect.devconnectbackend.repository.SyncChangeRepository;
 import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.devconnect.devconnectbackend.service.MessageSearchService;
+import org.devconnect.devconnectbackend.service.MessageService;
+import org.devconnect.devconnectbackend.service.SyncService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,15 +21,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.test.context.support.WithMockUser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 @SuppressWarnings("null")
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -41,6 +60,21 @@ class MessageControllerIntegrationTest {
     @Autowired
     private MessageRepository messageRepository;
 
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageSearchService messageSearchService;
+
+    @Autowired
+    private MessageSearchTermRepository searchTermRepository;
+
+    @Autowired
+    private SyncChangeRepository syncChangeRepository;
+
+    @Autowired
+    private SyncService syncService;
+
     private User sender;
     private User receiver;
 
@@ -106,6 +140,86 @@ class MessageControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    @DisplayName("Should page conversation history with cursors")
+    void testGetConversationPaged() throws Exception {
+        // Arrange - three messages in one conversation
+        for (String text : new String[] {"one", "two", "three"}) {
+            MessageDTO messageDTO = new MessageDTO(
+                    null,
+                    sender.getUserId().longValue(),
+                    receiver.getUserId().longValue(),
+                    text,
+                    "sent",
+                    null,
+                    null
+            );
+            mockMvc.perform(post("/api/messages/send")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(messageDTO)))
+                    .andExpect(status().isOk());
+        }
+
+        // Act & Assert - newest page holds the two latest messages, oldest first
+        MvcResult newest = mockMvc.perform(get("/api/messages/conversation")
+                        .param("userId1", sender.getUserId().toString())
+                        .param("userId2", receiver.getUserId().toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].text").value("two"))
+                .andExpect(jsonPath("$[1].text").value("three"))
+                .andExpect(header().string(MessageController.HAS_MORE_HEADER, "true"))
+                .andReturn();
+
+        String before = newest.getResponse().getHeader(MessageController.BEFORE_CURSOR_HEADER);
+
+        // Older page holds the remaining message
+        mockMvc.perform(get("/api/messages/conversation")
+                        .param("userId1", sender.getUserId().toString())
+                        .param("userId2", receiver.getUserId().toString())
+                        .param("limit", "2")
+                        .param("before", before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].text").value("one"))
+                .andExpect(header().string(MessageController.HAS_MORE_HEADER, "false"));
+    }
+
+    @Test
+    @DisplayName("Should list chats with last message and unread count")
+    void testGetUserChats() throws Exception {
+        // Arrange - two unread messages from sender to receiver
+        for (String text : new String[] {"first", "latest"}) {
+            MessageDTO messageDTO = new MessageDTO(
+                    null,
+                    sender.getUserId().longValue(),
+                    receiver.getUserId().longValue(),
+                    text,
+                    "sent",
+                    null,
+                    null
+            );
+            mockMvc.perform(post("/api/messages/send")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(messageDTO)))
+                    .andExpect(status().isOk());
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/api/messages/chats/" + receiver.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].userId").value(sender.getUserId()))
+                .andExpect(jsonPath("$[0].userName").value("John Doe"))
+                .andExpect(jsonPath("$[0].lastMessage").value("latest"))
+                .andExpect(jsonPath("$[0].unreadCount").value(2));
+
+        mockMvc.perform(get("/api/messages/chats/" + sender.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].unreadCount").value(0));
+    }
+
     @Test
     @DisplayName("Should mark messages as read")
     void testMarkMessagesAsRead() throws Exception {
@@ -124,10 +238,222 @@ class MessageControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(messageDTO)))
                 .andExpect(status().isOk());
-        
-        // Note: The new API requires conversationId. For this test, we just verify endpoint exists.
-        // A proper test would need to fetch the conversation ID first.
-        // Skipping the actual read marking test since it requires conversation ID.
+
+        MvcResult chats = mockMvc.perform(get("/api/messages/chats/" + receiver.getUserId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        long conversationId = objectMapper.readTree(chats.getResponse().getContentAsString())
+                .get(0).get("id").asLong();
+
+        // Act
+        mockMvc.perform(put("/api/messages/read")
+                        .param("conversationId", String.valueOf(conversationId))
+                        .param("readerId", String.valueOf(receiver.getUserId())))
+                .andExpect(status().isOk());
+
+        // Assert - the watermark clears the unread count and reports the message as read
+        mockMvc.perform(get("/api/messages/chats/" + receiver.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].unreadCount").value(0));
+
+        mockMvc.perform(get("/api/messages/chats/" + sender.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastMessageStatus").value("read"));
+
+        mockMvc.perform(get("/api/messages/conversation/" + conversationId)
+                        .param("userId", String.valueOf(sender.getUserId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("read"));
+    }
+
+    @Test
+    @DisplayName("Should acknowledge delivery of a batch of messages")
+    void testMarkMessagesAsDelivered() throws Exception {
+        // Arrange - three messages from sender to receiver
+        long lastId = 0;
+        for (String text : new String[] {"one", "two", "three"}) {
+            MessageDTO messageDTO = new MessageDTO(
+                    null,
+                    sender.getUserId().longValue(),
+                    receiver.getUserId().longValue(),
+                    text,
+                    "sent",
+                    null,
+                    null
+            );
+            MvcResult result = mockMvc.perform(post("/api/messages/send")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(messageDTO)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            lastId = objectMapper.readValue(result.getResponse().getContentAsString(), MessageDTO.class).getId();
+        }
+        DeliveryAckDTO ack = new DeliveryAckDTO(receiver.getUserId().longValue(), List.of(), List.of(lastId));
+
+        // Act & Assert - the first ack moves all three, a repeat is a no-op
+        mockMvc.perform(put("/api/messages/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ack)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.delivered").value(3));
+
+        mockMvc.perform(put("/api/messages/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ack)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.delivered").value(0));
+
+        mockMvc.perform(get("/api/messages/chats/" + sender.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastMessageStatus").value("delivered"));
+    }
+
+    @Test
+    @DisplayName("Should write a group-committed batch visible to history and inbox")
+    void testSendMessageBatch() throws Exception {
+        // Arrange - both directions of one conversation in a single batch
+        List<MessageDTO> batch = List.of(
+                new MessageDTO(null, sender.getUserId().longValue(), receiver.getUserId().longValue(), "one", null, null, null),
+                new MessageDTO(null, receiver.getUserId().longValue(), sender.getUserId().longValue(), "two", null, null, null),
+                new MessageDTO(null, sender.getUserId().longValue(), receiver.getUserId().longValue(), "three", null, null, null)
+        );
+
+        // Act
+        List<MessageDTO> saved = messageService.sendMessageBatch(batch, 50);
+
+        // Assert
+        assertEquals(3, saved.size());
+        assertEquals("two", saved.get(1).getText());
+        assertEquals(sender.getUserId().longValue(), saved.get(1).getReceiverId());
+
+        mockMvc.perform(get("/api/messages/conversation")
+                        .param("userId1", String.valueOf(sender.getUserId()))
+                        .param("userId2", String.valueOf(receiver.getUserId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].text").value("three"));
+
+        mockMvc.perform(get("/api/messages/chats/" + receiver.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].lastMessage").value("three"))
+                .andExpect(jsonPath("$[0].unreadCount").value(2));
+
+        mockMvc.perform(get("/api/messages/chats/" + sender.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].unreadCount").value(1));
+    }
+
+    @Test
+    @DisplayName("Should search the caller's messages with ranking, highlights and cursors")
+    void testSearchMessages() throws Exception {
+        // Arrange
+        messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "Budget review on Friday");
+        messageService.sendMessage(receiver.getUserId(), sender.getUserId(), "The budget is approved");
+        MessageDTO best = messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "Budget for the design review");
+
+        User outsider = new User();
+        outsider.setFirstName("Eve");
+        outsider.setLastName("Doe");
+        outsider.setEmail("eve@test.com");
+        outsider.setPasswordHash("password789");
+        outsider.setUserRole(User.UserRole.CLIENT);
+        outsider = userRepository.save(outsider);
+
+        // Act & Assert - both words beat one; newest first among equals
+        MvcResult first = mockMvc.perform(get("/api/messages/search")
+                        .param("userId", receiver.getUserId().toString())
+                        .param("q", "budget REVIEW")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MessageController.HAS_MORE_HEADER, "true"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].messageId").value(best.getId()))
+                .andExpect(jsonPath("$[0].score").value(2))
+                .andExpect(jsonPath("$[0].otherUserId").value(sender.getUserId()))
+                .andExpect(jsonPath("$[0].highlights[0].start").value(0))
+                .andExpect(jsonPath("$[0].highlights[0].end").value(6))
+                .andExpect(jsonPath("$[1].snippet").value("Budget review on Friday"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/messages/search")
+                        .param("userId", receiver.getUserId().toString())
+                        .param("q", "budget review")
+                        .param("limit", "2")
+                        .param("cursor", first.getResponse().getHeader(MessageController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MessageController.HAS_MORE_HEADER, "false"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].snippet").value("The budget is approved"))
+                .andExpect(jsonPath("$[0].score").value(1));
+
+        // Other users' conversations stay out of reach
+        mockMvc.perform(get("/api/messages/search")
+                        .param("userId", outsider.getUserId().toString())
+                        .param("q", "budget"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("Should backfill the search index for messages without postings, once")
+    void testSearchBackfill() throws Exception {
+        // Arrange - messages from before the index existed
+        messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "Invoice for March");
+        messageService.sendMessage(receiver.getUserId(), sender.getUserId(), "Invoice paid");
+        // Nothing searchable; read by every run but never indexed
+        messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "!!!");
+        searchTermRepository.deleteAll();
+
+        // Act
+        int indexed = messageSearchService.backfill();
+        int indexedAgain = messageSearchService.backfill();
+
+        // Assert - only messages that got postings are counted
+        assertEquals(2, indexed);
+        assertEquals(0, indexedAgain);
+        mockMvc.perform(get("/api/messages/search")
+                        .param("userId", sender.getUserId().toString())
+                        .param("q", "invoice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("Should re-index an edited message and reject edits by others")
+    void testEditMessage() throws Exception {
+        // Arrange
+        MessageDTO sent = messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "Draft proposal attached");
+        MessageDTO edit = new MessageDTO(null, sender.getUserId().longValue(), null, "Final contract attached", null, null, null);
+        MessageDTO foreignEdit = new MessageDTO(null, receiver.getUserId().longValue(), null, "Hijacked", null, null, null);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/messages/" + sent.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(foreignEdit)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(put("/api/messages/" + sent.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(edit)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.text").value("Final contract attached"));
+
+        mockMvc.perform(get("/api/messages/search")
+                        .param("userId", sender.getUserId().toString())
+                        .param("q", "proposal"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/messages/search")
+                        .param("userId", receiver.getUserId().toString())
+                        .param("q", "contract"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].messageId").value(sent.getId()));
+
+        mockMvc.perform(get("/api/messages/chats/" + receiver.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastMessage").value("Final contract attached"));
     }
 
     @Test
@@ -153,6 +479,25 @@ class MessageControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("online"));
     }
 
+    @Test
+    @DisplayName("Should get the status of many users at once")
+    void testGetUserStatuses() throws Exception {
+        // Arrange
+        mockMvc.perform(put("/api/messages/status/" + sender.getUserId())
+                .param("status", "ONLINE"))
+                .andExpect(status().isOk());
+
+        // Act & Assert - unknown ids are left out
+        mockMvc.perform(get("/api/messages/status")
+                        .param("userIds", sender.getUserId() + "," + receiver.getUserId() + ",999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].userId").value(sender.getUserId()))
+                .andExpect(jsonPath("$[0].status").value("online"))
+                .andExpect(jsonPath("$[1].userId").value(receiver.getUserId()))
+                .andExpect(jsonPath("$[1].status").value("offline"));
+    }
+
     @Test
     @DisplayName("Should return bad request for invalid user")
     void testSendMessageInvalidUser() throws Exception {
@@ -173,4 +518,263 @@ class MessageControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(messageDTO)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @DisplayName("Should return only changes since the sync token, paged, with read positions")
+    void testDeltaSync() throws Exception {
+        // Every change counts as committed, so small pages can advance past changes made just now
+        Object commitLagMs = ReflectionTestUtils.getField(syncService, "commitLagMs");
+        ReflectionTestUtils.setField(syncService, "commitLagMs", 0L);
+        try {
+            assertDeltaSync();
+        } finally {
+            ReflectionTestUtils.setField(syncService, "commitLagMs", commitLagMs);
+        }
+    }
+
+    private void assertDeltaSync() throws Exception {
+        // Arrange - a client without a token is told to reload, and gets a token to sync from
+        MvcResult reset = mockMvc.perform(get("/api/messages/sync/" + receiver.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resetRequired").value(true))
+                .andReturn();
+        String token = objectMapper.readTree(reset.getResponse().getContentAsString()).get("syncToken").asText();
+
+        MessageDTO first = messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "first");
+        MessageDTO second = messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "second");
+        messageService.editMessage(first.getId().intValue(), sender.getUserId(), "first, edited");
+
+        // Act & Assert - one page with everything; the edited message appears once, in its current state
+        mockMvc.perform(get("/api/messages/sync/" + receiver.getUserId()).param("token", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resetRequired").value(false))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.conversations.length()").value(1))
+                .andExpect(jsonPath("$.conversations[0].unreadCount").value(2))
+                .andExpect(jsonPath("$.messages.length()").value(2))
+                .andExpect(jsonPath("$.messages[0].id").value(first.getId()))
+                .andExpect(jsonPath("$.messages[0].text").value("first, edited"))
+                .andExpect(jsonPath("$.messages[0].editedAt").exists())
+                .andExpect(jsonPath("$.messages[1].id").value(second.getId()))
+                .andExpect(jsonPath("$.reads.length()").value(0));
+
+        // Small pages continue from the returned token; the feed starts with the new conversation
+        MvcResult page = mockMvc.perform(get("/api/messages/sync/" + receiver.getUserId())
+                        .param("token", token)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.messages.length()").value(1))
+                .andExpect(jsonPath("$.messages[0].id").value(first.getId()))
+                .andReturn();
+        String next = objectMapper.readTree(page.getResponse().getContentAsString()).get("syncToken").asText();
+        mockMvc.perform(get("/api/messages/sync/" + receiver.getUserId())
+                        .param("token", next)
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages.length()").value(1))
+                .andExpect(jsonPath("$.messages[0].id").value(second.getId()));
+
+        // The sender learns that the receiver read up to the latest message
+        Integer conversationId = messageRepository.findById(first.getId().intValue()).orElseThrow()
+                .getConversation().getConversationId();
+        messageService.markMessagesAsRead(conversationId, receiver.getUserId());
+        mockMvc.perform(get("/api/messages/sync/" + sender.getUserId()).param("token", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reads.length()").value(1))
+                .andExpect(jsonPath("$.reads[0].readerId").value(receiver.getUserId()))
+                .andExpect(jsonPath("$.reads[0].lastReadMessageId").value(second.getId()))
+                .andExpect(jsonPath("$.messages[1].status").value("read"));
+
+        // Unreadable tokens are rejected
+        mockMvc.perform(get("/api/messages/sync/" + receiver.getUserId()).param("token", "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should not let a full page move the sync token past a change that commits late")
+    void testDeltaSyncLateCommit() throws Exception {
+        // Arrange - one settled change and two inside the 5 s commit-lag window
+        List<MessageDTO> sent = List.of(
+                messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "settled"),
+                messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "recent"),
+                messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "newest"),
+                messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "late"));
+        Integer conversationId = messageRepository.findById(sent.get(0).getId().intValue()).orElseThrow()
+                .getConversation().getConversationId();
+        syncChangeRepository.deleteAll();
+        LocalDateTime now = LocalDateTime.now();
+        recordChange(conversationId, sent.get(0), now.minusSeconds(10));
+        recordChange(conversationId, sent.get(1), now.minusSeconds(1));
+        recordChange(conversationId, sent.get(2), now);
+        String token = new SyncCursor(now.minusSeconds(20), 0L).encode();
+
+        // Act - a full page ending inside the window
+        MvcResult page = mockMvc.perform(get("/api/messages/sync/" + receiver.getUserId())
+                        .param("token", token)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn();
+        String next = objectMapper.readTree(page.getResponse().getContentAsString()).get("syncToken").asText();
+
+        // A slower transaction commits a change stamped between the settled position and the page end
+        recordChange(conversationId, sent.get(3), now.minusSeconds(3));
+
+        // Assert - the next sync still returns it
+        mockMvc.perform(get("/api/messages/sync/" + receiver.getUserId()).param("token", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages[?(@.id == " + sent.get(3).getId() + ")]").exists());
+    }
+
+    private void recordChange(Integer conversationId, MessageDTO message, LocalDateTime changedAt) {
+        syncChangeRepository.save(new SyncChange(
+                null, receiver.getUserId(), conversationId, message.getId().intValue(), changedAt));
+    }
+
+    @Test
+    @DisplayName("Should replay the first response to a retry with the same Idempotency-Key")
+    void testIdempotentSend() throws Exception {
+        // Arrange
+        MessageDTO messageDTO = new MessageDTO(
+                null,
+                sender.getUserId().longValue(),
+                receiver.getUserId().longValue(),
+                "Sent once",
+                "sent",
+                null,
+                null
+        );
+        String body = objectMapper.writeValueAsString(messageDTO);
+
+        // Act
+        MvcResult first = mockMvc.perform(post("/api/messages/send")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "send-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult retry = mockMvc.perform(post("/api/messages/send")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "send-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        // Assert - one row, the same response twice
+        assertEquals(1, messageRepository.count());
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+
+        // The same key with a different body is refused; a new key sends again
+        mockMvc.perform(post("/api/messages/send")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "send-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("Sent once", "Something else")))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/api/messages/send")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "send-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        assertEquals(2, messageRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should not keep a failed response for an Idempotency-Key")
+    void testIdempotentSendAfterFailure() throws Exception {
+        // Arrange - the receiver does not exist yet, so the first attempt fails
+        MessageDTO messageDTO = new MessageDTO(
+                null,
+                sender.getUserId().longValue(),
+                receiver.getUserId().longValue() + 1000,
+                "Retried",
+                "sent",
+                null,
+                null
+        );
+
+        // Act
+        mockMvc.perform(post("/api/messages/send")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "send-failed")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(messageDTO)))
+                .andExpect(status().isBadRequest());
+        messageDTO.setReceiverId(receiver.getUserId().longValue());
+
+        // Assert - the corrected retry runs instead of replaying the 400
+        mockMvc.perform(post("/api/messages/send")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "send-failed")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(messageDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, messageRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should refuse a conversation export to a non-participant before streaming anything")
+    void testExportRequiresParticipant() throws Exception {
+        // Arrange
+        MessageDTO sent = messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "private");
+        Integer conversationId = messageRepository.findById(sent.getId().intValue()).orElseThrow()
+                .getConversation().getConversationId();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/messages/conversation/" + conversationId + "/export")
+                        .param("userId", String.valueOf(receiver.getUserId() + sender.getUserId() + 1000)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/messages/conversation/" + conversationId + "/export")
+                        .param("userId", sender.getUserId().toString())
+                        .param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"conversation-" + conversationId + ".ndjson.gz\""));
+    }
+
+    @Test
+    @DisplayName("Should reject sends over the sender's rate limit with 429 and no database write")
+    void testSendRateLimited() throws Exception {
+        // Arrange - the default burst is 20 messages, refilled at 5 per second
+        String body = objectMapper.writeValueAsString(new MessageDTO(
+                null,
+                sender.getUserId().longValue(),
+                receiver.getUserId().longValue(),
+                "Flood",
+                "sent",
+                null,
+                null
+        ));
+
+        // Act - send back to back until the limiter steps in
+        int accepted = 0;
+        MvcResult rejected = null;
+        while (rejected == null && accepted < 200) {
+            MvcResult result = mockMvc.perform(post("/api/messages/send")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andReturn();
+            if (result.getResponse().getStatus() == 429) {
+                rejected = result;
+            } else {
+                assertEquals(200, result.getResponse().getStatus());
+                accepted++;
+            }
+        }
+
+        // Assert - the burst went through, the rejected send wrote nothing
+        assertNotNull(rejected, "Sender should be rate limited");
+        assertTrue(accepted >= 20);
+        assertNotNull(rejected.getResponse().getHeader("Retry-After"));
+        assertEquals(accepted, messageRepository.count());
+
+        // Receipts have their own allowance
+        mockMvc.perform(put("/api/messages/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new DeliveryAckDTO(receiver.getUserId().longValue(), List.of(), List.of()))))
+                .andExpect(status().isOk());
+    }
 }
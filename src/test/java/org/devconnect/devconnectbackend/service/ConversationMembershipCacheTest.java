@@ -0,0 +1,88 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Conversation Membership Cache Tests")
+class ConversationMembershipCacheTest {
+
+    @Test
+    @DisplayName("Should return packed participants and miss on unknown conversations")
+    void testGetAndPut() {
+        // Arrange
+        ConversationMembershipCache cache = new ConversationMembershipCache(128);
+
+        // Act
+        cache.put(7, 3, 9);
+        long participants = cache.get(7);
+
+        // Assert
+        assertEquals(3, ConversationMembershipCache.user1(participants));
+        assertEquals(9, ConversationMembershipCache.user2(participants));
+        assertEquals(9, ConversationMembershipCache.otherUser(participants, 3));
+        assertEquals(3, ConversationMembershipCache.otherUser(participants, 9));
+        assertEquals(-1, ConversationMembershipCache.otherUser(participants, 4));
+        assertEquals(ConversationMembershipCache.MISSING, cache.get(8));
+    }
+
+    @Test
+    @DisplayName("Should forget removed conversations")
+    void testRemove() {
+        // Arrange
+        ConversationMembershipCache cache = new ConversationMembershipCache(128);
+        cache.put(7, 3, 9);
+
+        // Act
+        cache.remove(7);
+
+        // Assert
+        assertEquals(ConversationMembershipCache.MISSING, cache.get(7));
+    }
+
+    @Test
+    @DisplayName("Should stay bounded and never answer for an evicted conversation")
+    void testBounded() {
+        // Arrange
+        ConversationMembershipCache cache = new ConversationMembershipCache(100);
+
+        // Act
+        for (int id = 1; id <= 10_000; id++) {
+            cache.put(id, id, id + 1);
+        }
+        int hits = 0;
+        for (int id = 1; id <= 10_000; id++) {
+            long participants = cache.get(id);
+            if (participants != ConversationMembershipCache.MISSING) {
+                assertEquals(id, ConversationMembershipCache.user1(participants));
+                hits++;
+            }
+        }
+
+        // Assert
+        assertEquals(128, cache.capacity());
+        assertEquals(128, hits);
+    }
+
+    @Test
+    @DisplayName("Should spread ids spaced by the sequence increment over the whole table")
+    void testSpacedIds() {
+        // Arrange - conversation_seq allocates in steps of 50, so every id is even
+        ConversationMembershipCache cache = new ConversationMembershipCache(128);
+
+        // Act
+        for (int i = 1; i <= 128; i++) {
+            cache.put(i * 50, i, i + 1);
+        }
+        int hits = 0;
+        for (int i = 1; i <= 128; i++) {
+            if (cache.get(i * 50) != ConversationMembershipCache.MISSING) {
+                hits++;
+            }
+        }
+
+        // Assert - slots taken from the low bits would all be even, capping this at 64
+        assertTrue(hits > 64, "Only " + hits + " of 128 spaced ids stayed cached");
+    }
+}
@@ -0,0 +1,51 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Conversation Pair Cache Tests")
+class ConversationPairCacheTest {
+
+    @Test
+    @DisplayName("Should return cached ids and miss on unknown pairs")
+    void testGetAndPut() {
+        // Arrange
+        ConversationPairCache cache = new ConversationPairCache(16);
+
+        // Act
+        cache.put(1, 2, 10);
+        cache.put(3, 4, 20);
+
+        // Assert
+        assertEquals(10, cache.get(1, 2));
+        assertEquals(20, cache.get(3, 4));
+        assertNull(cache.get(2, 1));
+        assertNull(cache.get(1, 3));
+    }
+
+    @Test
+    @DisplayName("Should round capacity up to a power of two and stay bounded")
+    void testBounded() {
+        // Arrange
+        ConversationPairCache cache = new ConversationPairCache(100);
+
+        // Act
+        for (int user = 1; user <= 10_000; user++) {
+            cache.put(user, user + 1, user);
+        }
+        int hits = 0;
+        for (int user = 1; user <= 10_000; user++) {
+            Integer cached = cache.get(user, user + 1);
+            if (cached != null) {
+                assertEquals(user, cached);
+                hits++;
+            }
+        }
+
+        // Assert - evicted pairs miss instead of returning another pair's id
+        assertEquals(128, cache.capacity());
+        assertTrue(hits > 0 && hits <= 128);
+    }
+}
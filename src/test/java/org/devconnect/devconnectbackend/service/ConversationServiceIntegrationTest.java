@@ -0,0 +1,108 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.model.Conversation;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.ConversationRepository;
+import org.devconnect.devconnectbackend.repository.ConversationSummaryRepository;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a test transaction: concurrent creators must see each other's commits
+ */
+@SpringBootTest
+@DisplayName("Conversation Service Integration Tests")
+class ConversationServiceIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationSummaryRepository summaryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User first;
+    private User second;
+
+    @BeforeEach
+    void setUp() {
+        first = userRepository.save(user("pair-first"));
+        second = userRepository.save(user("pair-second"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        conversationRepository.findIdByUsers(first.getUserId(), second.getUserId()).ifPresent(id -> {
+            summaryRepository.deleteById(id);
+            conversationRepository.deleteById(id);
+        });
+        userRepository.deleteAll(List.of(first, second));
+    }
+
+    @Test
+    @DisplayName("Should create exactly one canonical conversation under concurrent first messages")
+    void testConcurrentCreation() throws Exception {
+        // Arrange - half the threads name the pair the other way round
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                boolean reversed = i % 2 == 1;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return reversed
+                            ? conversationService.getOrCreateConversationId(second.getUserId(), first.getUserId())
+                            : conversationService.getOrCreateConversationId(first.getUserId(), second.getUserId());
+                }));
+            }
+            start.countDown();
+        }
+
+        // Assert
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Integer> result : results) {
+            ids.add(result.get());
+        }
+        assertEquals(1, ids.size());
+
+        Integer conversationId = ids.iterator().next();
+        Conversation conversation = conversationRepository.findById(conversationId).orElseThrow();
+        assertTrue(conversation.getUser1().getUserId() < conversation.getUser2().getUserId());
+        assertTrue(summaryRepository.existsById(conversationId));
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setFirstName(name);
+        user.setLastName("User");
+        user.setEmail(name + "-" + System.nanoTime() + "@test.com");
+        user.setPasswordHash("password");
+        user.setUserRole(User.UserRole.CLIENT);
+        return user;
+    }
+}
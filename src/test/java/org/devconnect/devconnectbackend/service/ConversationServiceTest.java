@@ -1,6 +1,8 @@
 package org.devconnect.devconnectbackend.service;
 
 import org.devconnect.devconnectbackend.dto.ChatDTO;
+import org.devconnect.devconnectbackend.dto.ChatInboxRow;
+import org.devconnect.devconnectbackend.dto.ConversationParticipants;
 import org.devconnect.devconnectbackend.model.Conversation;
 import org.devconnect.devconnectbackend.model.Message;
 import org.devconnect.devconnectbackend.model.User;
@@ -13,9 +15,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +39,12 @@ class ConversationServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ConversationSummaryService summaryService;
+
+    @Mock
+    private SyncChangeRecorder syncRecorder;
+
     @InjectMocks
     private ConversationService conversationService;
 
@@ -47,6 +56,7 @@ class ConversationServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        conversationService.init();
 
         // Create test users
         user1 = new User();
@@ -85,77 +95,121 @@ class ConversationServiceTest {
     @DisplayName("Should get existing conversation")
     void testGetOrCreateConversationExisting() {
         // Arrange
-        when(conversationRepository.findByUsers(1, 2)).thenReturn(Optional.of(testConversation));
+        when(conversationRepository.findIdByUsers(1, 2)).thenReturn(Optional.of(1));
 
         // Act
-        Conversation result = conversationService.getOrCreateConversation(1, 2);
+        Integer result = conversationService.getOrCreateConversationId(1, 2);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getConversationId());
-        verify(conversationRepository, times(1)).findByUsers(1, 2);
-        verify(conversationRepository, never()).save(any());
+        assertEquals(1, result);
+        verify(conversationRepository, times(1)).findIdByUsers(1, 2);
+        verify(conversationRepository, never()).insertIfAbsent(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should look up the canonical pair whichever way round the users are given")
+    void testGetOrCreateConversationReversedPair() {
+        // Arrange
+        when(conversationRepository.findIdByUsers(1, 2)).thenReturn(Optional.of(1));
+
+        // Act
+        Integer result = conversationService.getOrCreateConversationId(2, 1);
+
+        // Assert
+        assertEquals(1, result);
+        verify(conversationRepository, times(1)).findIdByUsers(1, 2);
+        verify(conversationRepository, never()).findIdByUsers(2, 1);
+    }
+
+    @Test
+    @DisplayName("Should answer repeat lookups from the pair cache")
+    void testGetOrCreateConversationCached() {
+        // Arrange
+        when(conversationRepository.findIdByUsers(1, 2)).thenReturn(Optional.of(1));
+
+        // Act
+        conversationService.getOrCreateConversationId(1, 2);
+        Integer result = conversationService.getOrCreateConversationId(2, 1);
+
+        // Assert
+        assertEquals(1, result);
+        verify(conversationRepository, times(1)).findIdByUsers(1, 2);
     }
 
     @Test
     @DisplayName("Should create new conversation when not exists")
     void testGetOrCreateConversationNew() {
         // Arrange
-        when(conversationRepository.findByUsers(1, 2)).thenReturn(Optional.empty());
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(userRepository.findById(2)).thenReturn(Optional.of(user2));
-        when(conversationRepository.save(any(Conversation.class))).thenReturn(testConversation);
+        when(conversationRepository.findIdByUsers(1, 2)).thenReturn(Optional.empty(), Optional.of(1));
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(2)).thenReturn(true);
+        when(conversationRepository.insertIfAbsent(eq(1), eq(2), any(LocalDateTime.class))).thenReturn(1);
 
         // Act
-        Conversation result = conversationService.getOrCreateConversation(1, 2);
+        Integer result = conversationService.getOrCreateConversationId(2, 1);
 
         // Assert
-        assertNotNull(result);
-        verify(conversationRepository, times(1)).findByUsers(1, 2);
-        verify(userRepository, times(1)).findById(1);
-        verify(userRepository, times(1)).findById(2);
-        verify(conversationRepository, times(1)).save(any(Conversation.class));
+        assertEquals(1, result);
+        verify(conversationRepository, times(1)).insertIfAbsent(eq(1), eq(2), any(LocalDateTime.class));
+        verify(summaryService, times(1)).createFor(eq(1), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should reuse the other transaction's row when a concurrent insert wins")
+    void testGetOrCreateConversationLostRace() {
+        // Arrange
+        when(conversationRepository.findIdByUsers(1, 2)).thenReturn(Optional.empty(), Optional.of(7));
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(2)).thenReturn(true);
+        when(conversationRepository.insertIfAbsent(eq(1), eq(2), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act
+        Integer result = conversationService.getOrCreateConversationId(1, 2);
+
+        // Assert
+        assertEquals(7, result);
+        verify(summaryService, never()).createFor(anyInt(), any());
     }
 
     @Test
     @DisplayName("Should throw exception when user1 not found")
     void testGetOrCreateConversationUser1NotFound() {
         // Arrange
-        when(conversationRepository.findByUsers(1, 2)).thenReturn(Optional.empty());
-        when(userRepository.findById(1)).thenReturn(Optional.empty());
+        when(conversationRepository.findIdByUsers(1, 2)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1)).thenReturn(false);
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> {
-            conversationService.getOrCreateConversation(1, 2);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            conversationService.getOrCreateConversationId(1, 2);
         });
 
-        verify(conversationRepository, never()).save(any());
+        assertEquals("User1 not found", exception.getMessage());
+        verify(conversationRepository, never()).insertIfAbsent(anyInt(), anyInt(), any());
     }
 
     @Test
     @DisplayName("Should throw exception when user2 not found")
     void testGetOrCreateConversationUser2NotFound() {
         // Arrange
-        when(conversationRepository.findByUsers(1, 2)).thenReturn(Optional.empty());
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(userRepository.findById(2)).thenReturn(Optional.empty());
+        when(conversationRepository.findIdByUsers(1, 2)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(2)).thenReturn(false);
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> {
-            conversationService.getOrCreateConversation(1, 2);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            conversationService.getOrCreateConversationId(1, 2);
         });
 
-        verify(conversationRepository, never()).save(any());
+        assertEquals("User2 not found", exception.getMessage());
+        verify(conversationRepository, never()).insertIfAbsent(anyInt(), anyInt(), any());
     }
 
     @Test
     @DisplayName("Should get conversations for user")
     void testGetConversationsForUser() {
         // Arrange
-        List<Conversation> conversations = Arrays.asList(testConversation);
-        when(conversationRepository.findAllByUser(1)).thenReturn(conversations);
-        when(messageRepository.findLastMessage(1)).thenReturn(testMessage);
-        when(messageRepository.findUnreadMessages(1, 1)).thenReturn(Collections.emptyList());
+        when(conversationRepository.findInboxByUser(eq(1), any(Pageable.class)))
+                .thenReturn(List.of(inboxRow(testMessage, 0)));
 
         // Act
         List<ChatDTO> result = conversationService.getConversationsForUser(1);
@@ -172,19 +226,17 @@ class ConversationServiceTest {
         assertEquals("Hello!", chatDTO.getLastMessage());
         assertEquals(0, chatDTO.getUnreadCount());
 
-        verify(conversationRepository, times(1)).findAllByUser(1);
-        verify(messageRepository, times(1)).findLastMessage(1);
-        verify(messageRepository, times(1)).findUnreadMessages(1, 1);
+        // One query for the whole inbox page
+        verify(conversationRepository, times(1)).findInboxByUser(1, PageRequest.of(0, 50));
+        verifyNoInteractions(messageRepository);
     }
 
     @Test
     @DisplayName("Should handle conversation with no messages")
     void testGetConversationsForUserNoMessages() {
         // Arrange
-        List<Conversation> conversations = Arrays.asList(testConversation);
-        when(conversationRepository.findAllByUser(1)).thenReturn(conversations);
-        when(messageRepository.findLastMessage(1)).thenReturn(null);
-        when(messageRepository.findUnreadMessages(1, 1)).thenReturn(Collections.emptyList());
+        when(conversationRepository.findInboxByUser(eq(1), any(Pageable.class)))
+                .thenReturn(List.of(inboxRow(null, 0)));
 
         // Act
         List<ChatDTO> result = conversationService.getConversationsForUser(1);
@@ -255,11 +307,57 @@ class ConversationServiceTest {
         assertEquals(1, result.getConversationId());
     }
 
+    @Test
+    @DisplayName("Should resolve the other participant and answer repeat checks from memory")
+    void testGetOtherParticipantCached() {
+        // Arrange
+        when(conversationRepository.findParticipants(1)).thenReturn(Optional.of(new ConversationParticipants(1, 2)));
+
+        // Act
+        int fromUser1 = conversationService.getOtherParticipant(1, 1);
+        int fromUser2 = conversationService.getOtherParticipant(1, 2);
+
+        // Assert
+        assertEquals(2, fromUser1);
+        assertEquals(1, fromUser2);
+        verify(conversationRepository, times(1)).findParticipants(1);
+        verify(conversationRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should deny participant lookups to non-participants")
+    void testGetParticipantsAccessDenied() {
+        // Arrange
+        when(conversationRepository.findParticipants(1)).thenReturn(Optional.of(new ConversationParticipants(1, 2)));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            conversationService.getParticipants(1, 999);
+        });
+
+        assertTrue(exception.getMessage().contains("Access denied"));
+    }
+
+    @Test
+    @DisplayName("Should look a conversation up again after it is evicted")
+    void testEvict() {
+        // Arrange
+        when(conversationRepository.findParticipants(1)).thenReturn(Optional.of(new ConversationParticipants(1, 2)));
+        conversationService.getParticipants(1);
+
+        // Act
+        conversationService.evict(1, 1, 2);
+        conversationService.getParticipants(1);
+
+        // Assert
+        verify(conversationRepository, times(2)).findParticipants(1);
+    }
+
     @Test
     @DisplayName("Should return empty list when user has no conversations")
     void testGetConversationsForUserEmpty() {
         // Arrange
-        when(conversationRepository.findAllByUser(1)).thenReturn(Collections.emptyList());
+        when(conversationRepository.findInboxByUser(eq(1), any(Pageable.class))).thenReturn(Collections.emptyList());
 
         // Act
         List<ChatDTO> result = conversationService.getConversationsForUser(1);
@@ -267,21 +365,15 @@ class ConversationServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(conversationRepository, times(1)).findAllByUser(1);
+        verify(conversationRepository, times(1)).findInboxByUser(eq(1), any(Pageable.class));
     }
 
     @Test
     @DisplayName("Should count unread messages correctly")
     void testGetConversationsForUserWithUnreadMessages() {
         // Arrange
-        Message unreadMessage1 = new Message();
-        Message unreadMessage2 = new Message();
-        List<Message> unreadMessages = Arrays.asList(unreadMessage1, unreadMessage2);
-
-        List<Conversation> conversations = Arrays.asList(testConversation);
-        when(conversationRepository.findAllByUser(1)).thenReturn(conversations);
-        when(messageRepository.findLastMessage(1)).thenReturn(testMessage);
-        when(messageRepository.findUnreadMessages(1, 1)).thenReturn(unreadMessages);
+        when(conversationRepository.findInboxByUser(eq(1), any(Pageable.class)))
+                .thenReturn(List.of(inboxRow(testMessage, 2)));
 
         // Act
         List<ChatDTO> result = conversationService.getConversationsForUser(1);
@@ -291,5 +383,33 @@ class ConversationServiceTest {
         assertEquals(1, result.size());
         assertEquals(2, result.get(0).getUnreadCount());
     }
-}
 
+    @Test
+    @DisplayName("Should cap inbox page size")
+    void testGetConversationsForUserPageCapped() {
+        // Arrange
+        when(conversationRepository.findInboxByUser(eq(1), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        // Act
+        conversationService.getConversationsForUser(1, 3, 10_000);
+
+        // Assert
+        verify(conversationRepository, times(1)).findInboxByUser(1, PageRequest.of(3, 200));
+    }
+
+    private ChatInboxRow inboxRow(Message lastMessage, int unreadCount) {
+        return new ChatInboxRow(
+                testConversation.getConversationId(),
+                testConversation.getCreatedAt(),
+                user2.getUserId(),
+                user2.getFirstName(),
+                user2.getLastName(),
+                user2.getUserRole(),
+                user2.getUserStatus(),
+                lastMessage != null ? lastMessage.getContent() : null,
+                lastMessage != null ? lastMessage.getStatus() : null,
+                lastMessage != null ? lastMessage.getCreatedAt() : testConversation.getCreatedAt(),
+                unreadCount
+        );
+    }
+}
@@ -0,0 +1,188 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.ConversationReadState;
+import org.devconnect.devconnectbackend.dto.ReadWatermark;
+import org.devconnect.devconnectbackend.dto.SummaryCheckDTO;
+import org.devconnect.devconnectbackend.model.Conversation;
+import org.devconnect.devconnectbackend.model.ConversationSummary;
+import org.devconnect.devconnectbackend.model.Message;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.ConversationRepository;
+import org.devconnect.devconnectbackend.repository.ConversationSummaryRepository;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Conversation Summary Service Tests")
+class ConversationSummaryServiceTest {
+
+    @Mock
+    private ConversationSummaryRepository summaryRepository;
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @InjectMocks
+    private ConversationSummaryService summaryService;
+
+    private User user1;
+    private User user2;
+    private Conversation testConversation;
+    private Message testMessage;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        user1 = new User();
+        user1.setUserId(1);
+
+        user2 = new User();
+        user2.setUserId(2);
+
+        testConversation = new Conversation();
+        testConversation.setConversationId(10);
+        testConversation.setUser1(user1);
+        testConversation.setUser2(user2);
+        testConversation.setCreatedAt(LocalDateTime.now().minusDays(1));
+
+        testMessage = new Message();
+        testMessage.setMessageId(100);
+        testMessage.setConversation(testConversation);
+        testMessage.setSender(user2);
+        testMessage.setContent("Hello!");
+        testMessage.setStatus(Message.MessageStatus.SENT);
+        testMessage.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should bump the recipient's unread counter on send")
+    void testRecordMessageFromUser2() {
+        // Arrange
+        when(summaryRepository.recordMessage(anyInt(), anyInt(), anyInt(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(1);
+
+        // Act
+        summaryService.recordMessage(testConversation, testMessage);
+
+        // Assert - user2 sent it, so user1 gains an unread message
+        verify(summaryRepository, times(1)).recordMessage(
+                10, 100, 2, "Hello!", Message.MessageStatus.SENT, testMessage.getCreatedAt(), 1, 0);
+        verify(conversationRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the summary when none exists yet")
+    void testRecordMessageWithoutSummary() {
+        // Arrange
+        when(summaryRepository.recordMessage(anyInt(), anyInt(), anyInt(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(0);
+        when(conversationRepository.findById(10)).thenReturn(Optional.of(testConversation));
+        when(summaryRepository.findById(10)).thenReturn(Optional.empty());
+        when(messageRepository.findLastMessage(10)).thenReturn(testMessage);
+        when(messageRepository.countUnreadMessages(eq(10), eq(1), any(), any())).thenReturn(1L);
+        when(messageRepository.countUnreadMessages(eq(10), eq(2), any(), any())).thenReturn(0L);
+        when(summaryRepository.save(any(ConversationSummary.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        summaryService.recordMessage(testConversation, testMessage);
+
+        // Assert
+        verify(summaryRepository, times(1)).save(argThat(summary ->
+                summary.getLastMessageId() == 100
+                        && summary.getUser1UnreadCount() == 1
+                        && summary.getUser2UnreadCount() == 0));
+    }
+
+    @Test
+    @DisplayName("Should seed read watermarks from legacy READ messages on rebuild")
+    void testRebuildSeedsWatermarkFromLegacyStatus() {
+        // Arrange - user1 read user2's message before watermarks existed
+        testMessage.setStatus(Message.MessageStatus.READ);
+        when(conversationRepository.findById(10)).thenReturn(Optional.of(testConversation));
+        when(summaryRepository.findById(10)).thenReturn(Optional.empty());
+        when(messageRepository.findLastMessage(10)).thenReturn(testMessage);
+        when(messageRepository.findLastLegacyReadMessage(10, 1)).thenReturn(testMessage);
+        when(summaryRepository.save(any(ConversationSummary.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ConversationSummary summary = summaryService.rebuild(10);
+
+        // Assert
+        assertEquals(100, summary.getUser1LastReadMessageId());
+        assertEquals(testMessage.getCreatedAt(), summary.getUser1LastReadAt());
+        assertNull(summary.getUser2LastReadMessageId());
+        assertEquals(2, summary.getLastMessageSenderId());
+        assertEquals(Message.MessageStatus.READ, summary.getLastMessageStatus());
+        verify(messageRepository, times(1))
+                .countUnreadMessages(10, 1, testMessage.getCreatedAt(), 100);
+    }
+
+    @Test
+    @DisplayName("Should advance only the reader's watermark")
+    void testAdvanceReadWatermark() {
+        // Arrange
+        when(summaryRepository.advanceUser2ReadWatermark(10, 2, Message.MessageStatus.READ)).thenReturn(1);
+        when(summaryRepository.findReadState(10)).thenReturn(Optional.of(
+                new ConversationReadState(null, null, 100, testMessage.getCreatedAt())));
+
+        // Act
+        ReadWatermark watermark = summaryService.advanceReadWatermark(testConversation, 2);
+
+        // Assert
+        assertEquals(new ReadWatermark(100, testMessage.getCreatedAt()), watermark);
+        verify(summaryRepository, never()).advanceUser1ReadWatermark(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should return null when the watermark is already at the last message")
+    void testAdvanceReadWatermarkNothingNew() {
+        // Arrange
+        when(summaryRepository.advanceUser1ReadWatermark(10, 1, Message.MessageStatus.READ)).thenReturn(0);
+
+        // Act
+        ReadWatermark watermark = summaryService.advanceReadWatermark(testConversation, 1);
+
+        // Assert
+        assertNull(watermark);
+        verify(summaryRepository, never()).findReadState(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should report summaries that drifted from the messages table")
+    void testCheckConsistency() {
+        // Arrange - stored summary claims no unread messages for user1
+        ConversationSummary stored = new ConversationSummary(
+                10, testConversation, 100, 2, "Hello!", Message.MessageStatus.SENT, testMessage.getCreatedAt(),
+                0, 0, null, null, null, null);
+        when(summaryRepository.findChunkAfter(eq(0), any(Limit.class))).thenReturn(List.of(stored));
+        when(messageRepository.findLastMessage(10)).thenReturn(testMessage);
+        when(messageRepository.countUnreadMessages(eq(10), eq(1), any(), any())).thenReturn(1L);
+        when(messageRepository.countUnreadMessages(eq(10), eq(2), any(), any())).thenReturn(0L);
+
+        // Act
+        SummaryCheckDTO result = summaryService.checkConsistency();
+
+        // Assert
+        assertEquals(1, result.getConversationsChecked());
+        assertEquals(1, result.getMismatches().size());
+        assertEquals("user1UnreadCount", result.getMismatches().get(0).getField());
+        assertEquals("1", result.getMismatches().get(0).getExpected());
+    }
+}
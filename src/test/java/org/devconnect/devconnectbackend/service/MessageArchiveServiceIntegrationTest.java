@@ -0,0 +1,205 @@
+package org.devconnect.devconnectbackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.MessagePageDTO;
+import org.devconnect.devconnectbackend.dto.MessageSearchPageDTO;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.ArchivedMessageBlockRepository;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+@DisplayName("Message Archive Integration Tests")
+class MessageArchiveServiceIntegrationTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("messaging.archive.directory", () -> archiveDirectory.toString());
+    }
+
+    @Autowired
+    private MessageArchiveService archiveService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageSearchService searchService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ArchivedMessageBlockRepository blockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User sender;
+    private User receiver;
+
+    @BeforeEach
+    void setUp() {
+        sender = userRepository.save(user("archive-sender"));
+        receiver = userRepository.save(user("archive-receiver"));
+    }
+
+    @Test
+    @DisplayName("Should archive read history but keep the last message hot, and page across both tiers")
+    void testArchiveAndPage() {
+        // Arrange - five messages, all read by the receiver
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ids.add(messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "history number" + i).getId());
+        }
+        Integer conversationId = conversationId();
+        messageService.markMessagesAsRead(conversationId, receiver.getUserId());
+        // The job runs in its own transaction; start from what is committed to the tables
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        int archived = archiveService.archiveConversation(conversationId, LocalDateTime.now().plusSeconds(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert - everything but the last message moved to one block
+        assertEquals(4, archived);
+        assertEquals(1, blockRepository.count());
+        assertEquals(List.of(ids.get(4).intValue()),
+                messageRepository.findAll().stream().map(m -> m.getMessageId()).toList());
+
+        // Newest page: one hot message, one archived
+        MessagePageDTO latest = messageService.getMessagePage(conversationId, sender.getUserId(), null, null, 2);
+        assertEquals(ids.subList(3, 5), idsOf(latest));
+        assertTrue(latest.isHasMore());
+        assertEquals("read", latest.getMessages().get(0).getStatus());
+
+        // Scrolling back stays in the archive
+        MessagePageDTO older = messageService.getMessagePage(
+                conversationId, sender.getUserId(), latest.getBeforeCursor(), null, 2);
+        assertEquals(ids.subList(1, 3), idsOf(older));
+        assertTrue(older.isHasMore());
+        MessagePageDTO oldest = messageService.getMessagePage(
+                conversationId, sender.getUserId(), older.getBeforeCursor(), null, 2);
+        assertEquals(ids.subList(0, 1), idsOf(oldest));
+        assertFalse(oldest.isHasMore());
+
+        // Catching up forward crosses from the archive into the hot table
+        MessagePageDTO newer = messageService.getMessagePage(
+                conversationId, receiver.getUserId(), null, oldest.getBeforeCursor(), 10);
+        assertEquals(ids.subList(1, 5), idsOf(newer));
+        assertFalse(newer.isHasMore());
+    }
+
+    @Test
+    @DisplayName("Should leave unread messages hot and still find archived ones in search")
+    void testUnreadStaysHotAndSearch() {
+        // Arrange - two read messages, then one the receiver has not read
+        Long first = messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "quarterly budget").getId();
+        messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "second note");
+        Integer conversationId = conversationId();
+        messageService.markMessagesAsRead(conversationId, receiver.getUserId());
+        messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "unread reminder");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        int archived = archiveService.archiveConversation(conversationId, LocalDateTime.now().plusSeconds(1));
+        entityManager.flush();
+        entityManager.clear();
+        MessageSearchPageDTO results = searchService.search(receiver.getUserId(), "budget", null, null);
+
+        // Assert
+        assertEquals(2, archived);
+        assertEquals(1, messageRepository.count());
+        assertEquals(1, results.getResults().size());
+        assertEquals(first, results.getResults().get(0).getMessageId());
+        assertEquals("quarterly budget", results.getResults().get(0).getSnippet());
+    }
+
+    @Test
+    @DisplayName("Should export archived and hot history as one NDJSON stream, oldest first")
+    void testExportAcrossTiers() throws Exception {
+        // Arrange - four read messages archived, the unread reply left hot
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            ids.add(messageService.sendMessage(sender.getUserId(), receiver.getUserId(), "line \"" + i + "\"\n").getId());
+        }
+        Integer conversationId = conversationId();
+        messageService.markMessagesAsRead(conversationId, receiver.getUserId());
+        ids.add(messageService.sendMessage(receiver.getUserId(), sender.getUserId(), "reply").getId());
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(4, archiveService.archiveConversation(conversationId, LocalDateTime.now().plusSeconds(1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = messageService.exportConversation(conversationId, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, written);
+        assertEquals(5, lines.length);
+        List<MessageDTO> exported = new ArrayList<>();
+        for (String line : lines) {
+            exported.add(objectMapper.readValue(line, MessageDTO.class));
+        }
+        assertEquals(ids, exported.stream().map(MessageDTO::getId).toList());
+        assertEquals("line \"1\"\n", exported.get(0).getText());
+        assertEquals("read", exported.get(3).getStatus());
+        assertEquals(receiver.getUserId().longValue(), exported.get(0).getReceiverId());
+        assertEquals(sender.getUserId().longValue(), exported.get(4).getReceiverId());
+        assertEquals("sent", exported.get(4).getStatus());
+    }
+
+    private Integer conversationId() {
+        return messageRepository.findAll().get(0).getConversation().getConversationId();
+    }
+
+    private static List<Long> idsOf(MessagePageDTO page) {
+        return page.getMessages().stream().map(MessageDTO::getId).toList();
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setFirstName(name);
+        user.setLastName("User");
+        user.setEmail(name + "-" + System.nanoTime() + "@test.com");
+        user.setPasswordHash("password");
+        user.setUserRole(User.UserRole.CLIENT);
+        return user;
+    }
+}
@@ -0,0 +1,79 @@
+package org.devconnect.devconnectbackend.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.devconnect.devconnectbackend.config.OutboundPayload;
+import org.devconnect.devconnectbackend.config.PayloadRetainingMessageConverter;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Message Fan-Out Service Tests")
+class MessageFanOutServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private MessageFanOutService fanOutService;
+
+    private final MessageDTO message = new MessageDTO(10L, 1L, 2L, "Hello", "sent", LocalDateTime.now(), null);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        MappingJackson2MessageConverter json = new MappingJackson2MessageConverter();
+        json.setObjectMapper(JsonMapper.builder().findAndAddModules().build());
+        when(messagingTemplate.getMessageConverter()).thenReturn(new PayloadRetainingMessageConverter(json));
+        when(messagingTemplate.getUserDestinationPrefix()).thenReturn("/user/");
+    }
+
+    @Test
+    @DisplayName("Should convert once and send the same payload to the receiver and the echo session")
+    void testPublishSharesPayload() {
+        // Act
+        fanOutService.publishMessage(message, new MessageFanOutService.EchoTarget("1", "session-1"));
+
+        // Assert
+        ArgumentCaptor<String> destinations = ArgumentCaptor.forClass(String.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<?>> messages = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(2)).send(destinations.capture(), messages.capture());
+
+        assertEquals(List.of("/user/2/queue/messages", "/user/1/queue/messages"), destinations.getAllValues());
+        Message<?> toReceiver = messages.getAllValues().get(0);
+        Message<?> echo = messages.getAllValues().get(1);
+        assertSame(toReceiver.getPayload(), echo.getPayload());
+        assertSame(toReceiver.getHeaders().get(OutboundPayload.HEADER), echo.getHeaders().get(OutboundPayload.HEADER));
+        assertTrue(new String((byte[]) toReceiver.getPayload()).contains("\"text\":\"Hello\""));
+
+        // Only the echo is narrowed to one session
+        assertNull(SimpMessageHeaderAccessor.getSessionId(toReceiver.getHeaders()));
+        assertEquals("session-1", SimpMessageHeaderAccessor.getSessionId(echo.getHeaders()));
+    }
+
+    @Test
+    @DisplayName("Should only push to the receiver without an echo target")
+    void testPublishWithoutEcho() {
+        // Act
+        fanOutService.publishMessage(message, null);
+
+        // Assert
+        verify(messagingTemplate, times(1)).send(eq("/user/2/queue/messages"), any(Message.class));
+    }
+}
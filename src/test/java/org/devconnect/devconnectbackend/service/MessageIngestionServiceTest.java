@@ -0,0 +1,119 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Message Ingestion Service Tests")
+class MessageIngestionServiceTest {
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private WebSocketOutbox outbox;
+
+    @InjectMocks
+    private MessageIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestionService.stop();
+    }
+
+    @Test
+    @DisplayName("Should send directly when batching is disabled")
+    void testSubmitWithoutBatching() {
+        // Arrange
+        MessageDTO saved = saved(1L, 1L, 2L, "Hello");
+        when(messageService.sendMessage(1, 2, "Hello", null)).thenReturn(saved);
+
+        // Act
+        CompletableFuture<MessageDTO> result = ingestionService.submit(1, 2, "Hello");
+
+        // Assert
+        assertSame(saved, result.join());
+        verify(messageService, never()).sendMessageBatch(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should write concurrent submissions as one batch and push after the write")
+    void testSubmitBatchesMessages() {
+        // Arrange - a long window so all three land in the same batch
+        startBatching(200, 3);
+        when(messageService.sendMessageBatch(anyList(), eq(3))).thenAnswer(invocation -> {
+            List<MessageDTO> requests = invocation.getArgument(0);
+            List<MessageDTO> result = new ArrayList<>();
+            long id = 1;
+            for (MessageDTO request : requests) {
+                result.add(saved(id++, request.getSenderId(), request.getReceiverId(), request.getText()));
+            }
+            return result;
+        });
+
+        // Act
+        CompletableFuture<MessageDTO> first = ingestionService.submit(1, 2, "one");
+        CompletableFuture<MessageDTO> second = ingestionService.submit(3, 4, "two");
+        CompletableFuture<MessageDTO> third = ingestionService.submit(1, 2, "three");
+
+        // Assert
+        assertEquals("one", first.orTimeout(5, TimeUnit.SECONDS).join().getText());
+        assertEquals(2L, second.join().getId());
+        assertEquals(3L, third.join().getId());
+        verify(messageService, times(1)).sendMessageBatch(anyList(), eq(3));
+        verify(messageService, never()).sendMessage(anyInt(), anyInt(), anyString(), any());
+        verify(outbox, times(3)).publishMessage(any(MessageDTO.class), isNull());
+    }
+
+    @Test
+    @DisplayName("Should fail only the bad message when a batch is rejected")
+    void testSubmitIsolatesFailures() {
+        // Arrange
+        startBatching(200, 2);
+        when(messageService.sendMessageBatch(anyList(), anyInt())).thenThrow(new RuntimeException("Receiver not found"));
+        when(messageService.sendMessage(1, 2, "ok", null)).thenReturn(saved(1L, 1L, 2L, "ok"));
+        when(messageService.sendMessage(1, 99, "bad", null)).thenThrow(new RuntimeException("Receiver not found"));
+
+        // Act
+        CompletableFuture<MessageDTO> good = ingestionService.submit(1, 2, "ok");
+        CompletableFuture<MessageDTO> bad = ingestionService.submit(1, 99, "bad");
+
+        // Assert
+        assertEquals("ok", good.orTimeout(5, TimeUnit.SECONDS).join().getText());
+        CompletionException failure = assertThrows(CompletionException.class, bad::join);
+        assertEquals("Receiver not found", failure.getCause().getMessage());
+    }
+
+    private void startBatching(long flushWindowMs, int maxBatchSize) {
+        ReflectionTestUtils.setField(ingestionService, "batchingEnabled", true);
+        ReflectionTestUtils.setField(ingestionService, "flushWindowMs", flushWindowMs);
+        ReflectionTestUtils.setField(ingestionService, "maxBatchSize", maxBatchSize);
+        ingestionService.start();
+    }
+
+    private MessageDTO saved(Long id, Long senderId, Long receiverId, String text) {
+        return new MessageDTO(id, senderId, receiverId, text, "sent", LocalDateTime.now(), null);
+    }
+}
@@ -1,23 +1,33 @@
 package org.devconnect.devconnectbackend.service;
 
+import org.devconnect.devconnectbackend.dto.ConversationReadState;
+import org.devconnect.devconnectbackend.dto.DeliveryReceiptDTO;
+import org.devconnect.devconnectbackend.dto.DeliveryTarget;
+import org.devconnect.devconnectbackend.dto.MessageCursor;
 import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.MessagePageDTO;
+import org.devconnect.devconnectbackend.dto.ReadReceiptDTO;
+import org.devconnect.devconnectbackend.dto.ReadWatermark;
 import org.devconnect.devconnectbackend.model.Conversation;
 import org.devconnect.devconnectbackend.model.Message;
 import org.devconnect.devconnectbackend.model.User;
 import org.devconnect.devconnectbackend.repository.MessageRepository;
 import org.devconnect.devconnectbackend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,6 +36,9 @@ import static org.mockito.Mockito.*;
 @DisplayName("Message Service Tests")
 class MessageServiceTest {
 
+    // Conversation 1 is between user 1 and user 2
+    private static final long PARTICIPANTS = ConversationPairCache.key(1, 2);
+
     @Mock
     private MessageRepository messageRepository;
 
@@ -36,7 +49,22 @@ class MessageServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private ConversationSummaryService summaryService;
+
+    @Mock
+    private WebSocketOutbox outbox;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private MessageSearchService searchService;
+
+    @Mock
+    private MessageArchiveService archiveService;
+
+    @Mock
+    private SyncChangeRecorder syncRecorder;
 
     @InjectMocks
     private MessageService messageService;
@@ -82,6 +110,9 @@ class MessageServiceTest {
         testMessage.setContent("Hello Jane!");
         testMessage.setStatus(Message.MessageStatus.SENT);
         testMessage.setCreatedAt(LocalDateTime.now());
+
+        // No read watermarks unless a test says otherwise
+        when(summaryService.getReadState(anyInt())).thenReturn(ConversationReadState.NONE);
     }
 
     @Test
@@ -90,7 +121,8 @@ class MessageServiceTest {
         // Arrange
         when(userRepository.findById(1)).thenReturn(Optional.of(sender));
         when(userRepository.findById(2)).thenReturn(Optional.of(receiver));
-        when(conversationService.getOrCreateConversation(1, 2)).thenReturn(testConversation);
+        when(conversationService.getOrCreateConversationId(1, 2)).thenReturn(1);
+        when(entityManager.getReference(Conversation.class, 1)).thenReturn(testConversation);
         when(messageRepository.save(any(Message.class))).thenReturn(testMessage);
 
         // Act
@@ -106,10 +138,11 @@ class MessageServiceTest {
 
         verify(userRepository, times(1)).findById(1);
         verify(userRepository, times(1)).findById(2);
-        verify(conversationService, times(1)).getOrCreateConversation(1, 2);
+        verify(conversationService, times(1)).getOrCreateConversationId(1, 2);
         verify(messageRepository, times(1)).save(any(Message.class));
-        verify(messagingTemplate, times(1))
-                .convertAndSendToUser(eq("2"), eq("/queue/messages"), any(MessageDTO.class));
+        verify(summaryService, times(1)).recordMessages(1, 1, List.of(testMessage));
+        verify(searchService, times(1)).index(testMessage, 2);
+        verify(outbox, times(1)).publishMessage(result, null);
     }
 
     @Test
@@ -156,10 +189,11 @@ class MessageServiceTest {
         message2.setStatus(Message.MessageStatus.SENT);
         message2.setCreatedAt(LocalDateTime.now().plusMinutes(1));
 
-        List<Message> messages = Arrays.asList(testMessage, message2);
+        // Newest page is read newest → oldest
+        List<Message> messages = Arrays.asList(message2, testMessage);
 
-        when(conversationService.getConversation(1, 1)).thenReturn(testConversation);
-        when(messageRepository.findByConversationConversationIdOrderByCreatedAtAsc(1))
+        when(conversationService.getParticipants(1, 1)).thenReturn(PARTICIPANTS);
+        when(messageRepository.findLatestPage(eq(1), any(Limit.class)))
                 .thenReturn(messages);
 
         // Act
@@ -175,8 +209,8 @@ class MessageServiceTest {
         assertEquals(2L, result.get(1).getSenderId());
         assertEquals(1L, result.get(1).getReceiverId());
 
-        verify(conversationService, times(1)).getConversation(1, 1);
-        verify(messageRepository, times(1)).findByConversationConversationIdOrderByCreatedAtAsc(1);
+        verify(conversationService, times(1)).getParticipants(1, 1);
+        verify(messageRepository, times(1)).findLatestPage(1, Limit.of(51));
     }
 
     @Test
@@ -185,9 +219,9 @@ class MessageServiceTest {
         // Arrange
         List<Message> messages = Arrays.asList(testMessage);
 
-        when(conversationService.getOrCreateConversation(1, 2)).thenReturn(testConversation);
-        when(conversationService.getConversation(1, 1)).thenReturn(testConversation);
-        when(messageRepository.findByConversationConversationIdOrderByCreatedAtAsc(1))
+        when(conversationService.getOrCreateConversationId(1, 2)).thenReturn(1);
+        when(conversationService.getParticipants(1, 1)).thenReturn(PARTICIPANTS);
+        when(messageRepository.findLatestPage(eq(1), any(Limit.class)))
                 .thenReturn(messages);
 
         // Act
@@ -198,30 +232,107 @@ class MessageServiceTest {
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getId());
 
-        verify(conversationService, times(1)).getOrCreateConversation(1, 2);
-        verify(messageRepository, times(1)).findByConversationConversationIdOrderByCreatedAtAsc(1);
+        verify(conversationService, times(1)).getOrCreateConversationId(1, 2);
+        verify(messageRepository, times(1)).findLatestPage(eq(1), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Should cap page size and report more history")
+    void testGetMessagePageCapsLimit() {
+        // Arrange
+        when(conversationService.getParticipants(1, 1)).thenReturn(PARTICIPANTS);
+        when(messageRepository.findLatestPage(eq(1), any(Limit.class)))
+                .thenReturn(Arrays.asList(testMessage, testMessage));
+
+        // Act - a limit of 1 fetches one extra row to detect more history
+        MessagePageDTO page = messageService.getMessagePage(1, 1, null, null, 1);
+
+        // Assert
+        assertEquals(1, page.getMessages().size());
+        assertTrue(page.isHasMore());
+        assertNotNull(page.getBeforeCursor());
+        verify(messageRepository, times(1)).findLatestPage(1, Limit.of(2));
     }
 
     @Test
-    @DisplayName("Should mark messages as read")
+    @DisplayName("Should page backwards from a before cursor")
+    void testGetMessagePageBefore() {
+        // Arrange
+        String cursor = MessageCursor.of(testMessage).encode();
+        when(conversationService.getParticipants(1, 1)).thenReturn(PARTICIPANTS);
+        when(messageRepository.findPageBefore(eq(1), any(LocalDateTime.class), eq(1), any(Limit.class)))
+                .thenReturn(List.of());
+
+        // Act
+        MessagePageDTO page = messageService.getMessagePage(1, 1, cursor, null, 10);
+
+        // Assert
+        assertTrue(page.getMessages().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getBeforeCursor());
+        verify(messageRepository, times(1))
+                .findPageBefore(1, testMessage.getCreatedAt(), 1, Limit.of(11));
+        verify(messageRepository, never()).findLatestPage(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors")
+    void testGetMessagePageInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            messageService.getMessagePage(1, 1, "not-a-cursor", null, 10);
+        });
+
+        verify(conversationService, never()).getParticipants(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should mark messages as read with one watermark update and one receipt")
     void testMarkMessagesAsRead() {
         // Arrange
-        List<Message> unreadMessages = Arrays.asList(testMessage);
+        when(conversationService.getParticipants(1, 2)).thenReturn(PARTICIPANTS);
+        when(summaryService.advanceReadWatermark(1, false, 2))
+                .thenReturn(ReadWatermark.of(testMessage));
 
-        when(messageRepository.findUnreadMessages(1, 2)).thenReturn(unreadMessages);
-        when(messageRepository.save(any(Message.class))).thenReturn(testMessage);
+        // Act
+        messageService.markMessagesAsRead(1, 2);
+
+        // Assert
+        verify(messageRepository, never()).save(any(Message.class));
+        verify(outbox, times(1)).sendToUser(eq("1"), eq("/queue/read-receipts"),
+                argThat((ReadReceiptDTO receipt) -> receipt.getReaderId() == 2L
+                        && receipt.getLastReadMessageId() == 1L
+                        && receipt.getConversationId() == 1L));
+    }
+
+    @Test
+    @DisplayName("Should not send a read receipt when nothing new was read")
+    void testMarkMessagesAsReadNothingNew() {
+        // Arrange
+        when(conversationService.getParticipants(1, 2)).thenReturn(PARTICIPANTS);
+        when(summaryService.advanceReadWatermark(1, false, 2)).thenReturn(null);
 
         // Act
         messageService.markMessagesAsRead(1, 2);
 
         // Assert
-        verify(messageRepository, times(1)).findUnreadMessages(1, 2);
-        verify(messageRepository, times(1)).save(any(Message.class));
-        verify(messagingTemplate, times(1))
-                .convertAndSendToUser(eq("1"), eq("/queue/read-receipts"), any(MessageDTO.class));
+        verify(outbox, never()).sendToUser(anyString(), anyString(), any());
+    }
 
-        assertEquals(Message.MessageStatus.READ, testMessage.getStatus());
-        assertNotNull(testMessage.getReadAt());
+    @Test
+    @DisplayName("Should report messages covered by the receiver's watermark as read")
+    void testGetMessagePageDerivesReadStatus() {
+        // Arrange - receiver (user2) has read up to testMessage
+        when(conversationService.getParticipants(1, 1)).thenReturn(PARTICIPANTS);
+        when(messageRepository.findLatestPage(eq(1), any(Limit.class))).thenReturn(List.of(testMessage));
+        when(summaryService.getReadState(1)).thenReturn(
+                new ConversationReadState(null, null, 1, testMessage.getCreatedAt()));
+
+        // Act
+        MessagePageDTO page = messageService.getMessagePage(1, 1, null, null, 10);
+
+        // Assert
+        assertEquals("read", page.getMessages().get(0).getStatus());
+        assertEquals(Message.MessageStatus.SENT, testMessage.getStatus());
     }
 
     @Test
@@ -229,25 +340,25 @@ class MessageServiceTest {
     void testMarkMessageAsDelivered() {
         // Arrange
         when(messageRepository.findById(1)).thenReturn(Optional.of(testMessage));
-        when(messageRepository.save(any(Message.class))).thenReturn(testMessage);
+        when(conversationService.getOtherParticipant(1, 1)).thenReturn(2);
+        when(messageRepository.findDeliveryTargets(List.of(1), 2))
+                .thenReturn(List.of(new DeliveryTarget(1, 1, 1)));
 
         // Act
         messageService.markMessageAsDelivered(1);
 
         // Assert
         verify(messageRepository, times(1)).findById(1);
-        verify(messageRepository, times(1)).save(any(Message.class));
-        verify(messagingTemplate, times(1))
-                .convertAndSendToUser(eq("1"), eq("/queue/delivery-receipts"), any(MessageDTO.class));
-
-        assertEquals(Message.MessageStatus.DELIVERED, testMessage.getStatus());
-        assertNotNull(testMessage.getDeliveredAt());
+        verify(messageRepository, times(1))
+                .markDelivered(eq(Set.of(1)), eq(Message.MessageStatus.DELIVERED), any(LocalDateTime.class));
+        verify(outbox, times(1))
+                .sendToUser(eq("1"), eq("/queue/delivery-receipts"), any(DeliveryReceiptDTO.class));
     }
 
     @Test
     @DisplayName("Should not mark already delivered message")
     void testMarkMessageAsDeliveredAlreadyDelivered() {
-        // Arrange
+        // Arrange - no longer SENT, so it is not a delivery target
         testMessage.setStatus(Message.MessageStatus.DELIVERED);
         when(messageRepository.findById(1)).thenReturn(Optional.of(testMessage));
 
@@ -256,8 +367,48 @@ class MessageServiceTest {
 
         // Assert
         verify(messageRepository, times(1)).findById(1);
-        verify(messageRepository, never()).save(any());
-        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+        verify(messageRepository, never()).markDelivered(any(), any(), any());
+        verify(outbox, never()).sendToUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should deliver a batch with one update and one receipt per sender")
+    void testMarkMessagesAsDeliveredBatch() {
+        // Arrange - user 2 acknowledges two listed messages from user 1 and everything up to 7 from user 3
+        when(messageRepository.findDeliveryTargets(List.of(1, 2), 2)).thenReturn(List.of(
+                new DeliveryTarget(1, 1, 1),
+                new DeliveryTarget(2, 1, 1)));
+        when(messageRepository.findDeliveryTargetsUpTo(7, 2)).thenReturn(List.of(
+                new DeliveryTarget(2, 1, 1),
+                new DeliveryTarget(6, 5, 3),
+                new DeliveryTarget(7, 5, 3)));
+
+        // Act
+        int delivered = messageService.markMessagesAsDelivered(2, List.of(1, 2), List.of(7));
+
+        // Assert
+        assertEquals(4, delivered);
+        verify(messageRepository, times(1)).markDelivered(
+                eq(Set.of(1, 2, 6, 7)), eq(Message.MessageStatus.DELIVERED), any(LocalDateTime.class));
+        verify(summaryService, times(1)).recordStatus(Set.of(1, 2, 6, 7), Message.MessageStatus.DELIVERED);
+        verify(outbox, times(1)).sendToUser(eq("1"), eq("/queue/delivery-receipts"),
+                argThat((DeliveryReceiptDTO receipt) -> receipt.getMessageIds().equals(List.of(1L, 2L))
+                        && receipt.getConversationId() == 1L));
+        verify(outbox, times(1)).sendToUser(eq("3"), eq("/queue/delivery-receipts"),
+                argThat((DeliveryReceiptDTO receipt) -> receipt.getMessageIds().equals(List.of(6L, 7L))
+                        && receipt.getConversationId() == 5L));
+    }
+
+    @Test
+    @DisplayName("Should reject oversized delivery acknowledgements")
+    void testMarkMessagesAsDeliveredTooMany() {
+        List<Integer> ids = IntStream.rangeClosed(1, 1001).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            messageService.markMessagesAsDelivered(2, ids, List.of());
+        });
+
+        verify(messageRepository, never()).markDelivered(any(), any(), any());
     }
 
     @Test
@@ -272,7 +423,7 @@ class MessageServiceTest {
         });
 
         verify(messageRepository, times(1)).findById(1);
-        verify(messageRepository, never()).save(any());
+        verify(messageRepository, never()).markDelivered(any(), any(), any());
     }
 }
 
@@ -0,0 +1,164 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.archive.ArchivedMessage;
+import org.devconnect.devconnectbackend.model.Message;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Message Tail Cache Tests")
+class MessageTailCacheTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0).plusNanos(123_456_000);
+
+    @Test
+    @DisplayName("Should return a filled page newest first with every field intact")
+    void testFillAndLatest() {
+        // Arrange
+        MessageTailCache cache = new MessageTailCache(4, 8, 256);
+        List<ArchivedMessage> newestFirst = List.of(
+                new ArchivedMessage(3, 2, "third", Message.MessageStatus.SENT, BASE.plusSeconds(3), null, null, null, false),
+                new ArchivedMessage(2, 1, null, Message.MessageStatus.DELIVERED, BASE.plusSeconds(2),
+                        BASE.plusSeconds(5), null, BASE.plusSeconds(4), true),
+                message(1, 1));
+
+        // Act
+        cache.fill(10, cache.stamp(10), newestFirst, true);
+        List<ArchivedMessage> page = cache.latest(10, 2);
+
+        // Assert
+        assertEquals(newestFirst.subList(0, 2), page);
+        assertEquals(newestFirst, cache.latest(10, 8));
+        assertNull(cache.latest(11, 2));
+    }
+
+    @Test
+    @DisplayName("Should not answer a page larger than an incomplete slot")
+    void testIncompleteSlot() {
+        // Arrange
+        MessageTailCache cache = new MessageTailCache(4, 8, 256);
+
+        // Act
+        cache.fill(10, cache.stamp(10), List.of(message(2, 1), message(1, 1)), false);
+
+        // Assert
+        assertEquals(2, cache.latest(10, 2).size());
+        assertNull(cache.latest(10, 3));
+    }
+
+    @Test
+    @DisplayName("Should drop a fill that raced with a change to the conversation")
+    void testStaleFill() {
+        // Arrange
+        MessageTailCache cache = new MessageTailCache(4, 8, 256);
+        long stamp = cache.stamp(10);
+
+        // Act - a message commits between the stamp and the fill
+        cache.append(10, message(2, 1));
+        cache.fill(10, stamp, List.of(message(1, 1)), true);
+
+        // Assert
+        assertNull(cache.latest(10, 1));
+    }
+
+    @Test
+    @DisplayName("Should append in order and evict the oldest entry when full")
+    void testAppendAndEvict() {
+        // Arrange
+        MessageTailCache cache = new MessageTailCache(4, 3, 256);
+        cache.fill(10, cache.stamp(10), List.of(message(2, 1), message(1, 1)), true);
+
+        // Act - 4 commits after 5, then 3 arrives last
+        cache.append(10, message(5, 2));
+        cache.append(10, message(4, 2));
+        cache.append(10, message(3, 1));
+
+        // Assert
+        assertEquals(List.of(5, 4, 3), ids(cache.latest(10, 3)));
+        assertEquals(List.of(5), ids(cache.latest(10, 1)));
+    }
+
+    @Test
+    @DisplayName("Should apply edits and status changes to cached messages")
+    void testUpdates() {
+        // Arrange
+        MessageTailCache cache = new MessageTailCache(4, 8, 256);
+        cache.fill(10, cache.stamp(10), List.of(message(2, 1), message(1, 1)), true);
+        LocalDateTime deliveredAt = BASE.plusMinutes(1);
+
+        // Act
+        ArchivedMessage edited = new ArchivedMessage(1, 1, "edited", Message.MessageStatus.SENT,
+                BASE.plusSeconds(1), null, null, BASE.plusMinutes(2), false);
+        cache.update(10, edited);
+        cache.updateStatus(10, List.of(1, 2, 99), Message.MessageStatus.DELIVERED, deliveredAt);
+
+        // Assert
+        List<ArchivedMessage> page = cache.latest(10, 2);
+        assertEquals("edited", page.get(1).content());
+        assertEquals(BASE.plusMinutes(2), page.get(1).editedAt());
+        assertTrue(page.stream().allMatch(m -> m.status() == Message.MessageStatus.DELIVERED));
+        assertTrue(page.stream().allMatch(m -> deliveredAt.equals(m.deliveredAt())));
+    }
+
+    @Test
+    @DisplayName("Should drop the slot rather than leave a gap for text that does not fit")
+    void testOversizedText() {
+        // Arrange
+        MessageTailCache cache = new MessageTailCache(4, 8, 128);
+        cache.fill(10, cache.stamp(10), List.of(message(1, 1)), true);
+        ArchivedMessage large = new ArchivedMessage(2, 1, "x".repeat(500), Message.MessageStatus.SENT,
+                BASE.plusSeconds(2), null, null, null, false);
+
+        // Act
+        cache.append(10, large);
+
+        // Assert
+        assertNull(cache.latest(10, 1));
+
+        // A fill keeps only the newest run that fits
+        cache.fill(10, cache.stamp(10), List.of(message(3, 1), large, message(1, 1)), true);
+        assertEquals(List.of(3), ids(cache.latest(10, 1)));
+        assertNull(cache.latest(10, 2));
+    }
+
+    @Test
+    @DisplayName("Should give a recently read conversation a second chance when slots are reused")
+    void testSlotReuse() {
+        // Arrange
+        MessageTailCache cache = new MessageTailCache(3, 4, 128);
+        for (int conversation = 1; conversation <= 3; conversation++) {
+            cache.fill(conversation, cache.stamp(conversation), List.of(message(conversation, 1)), true);
+        }
+        long reserved = cache.reservedBytes();
+
+        // Act - every slot is referenced, so the first sweep takes conversation 1's slot
+        cache.fill(4, cache.stamp(4), List.of(message(4, 1)), true);
+        cache.latest(2, 1);
+        cache.fill(5, cache.stamp(5), List.of(message(5, 1)), true);
+
+        // Assert - conversation 2 was read since the sweep, conversation 3 was not
+        assertNull(cache.latest(1, 1));
+        assertEquals(List.of(2), ids(cache.latest(2, 1)));
+        assertNull(cache.latest(3, 1));
+        assertEquals(List.of(4), ids(cache.latest(4, 1)));
+        assertEquals(List.of(5), ids(cache.latest(5, 1)));
+        assertEquals(reserved, cache.reservedBytes());
+    }
+
+    private static ArchivedMessage message(int id, int senderId) {
+        return new ArchivedMessage(id, senderId, "message " + id, Message.MessageStatus.SENT,
+                BASE.plusSeconds(id).truncatedTo(ChronoUnit.MICROS), null, null, null, false);
+    }
+
+    private static List<Integer> ids(List<ArchivedMessage> messages) {
+        List<Integer> ids = new ArrayList<>();
+        messages.forEach(m -> ids.add(m.messageId()));
+        return ids;
+    }
+}
@@ -0,0 +1,199 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.UserPresence;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Presence Service Tests")
+class PresenceServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(userRepository.findPresenceByIds(anyCollection())).thenAnswer(invocation -> {
+            List<Integer> ids = List.copyOf(invocation.getArgument(0));
+            return ids.stream()
+                    .filter(id -> id < 100)
+                    .map(id -> new UserPresence(id, User.UserStatus.OFFLINE, null))
+                    .toList();
+        });
+    }
+
+    @Test
+    @DisplayName("Should stay ONLINE until the last session disconnects")
+    void testConnectAndDisconnect() {
+        // Act
+        presenceService.connected(1, "s1");
+        presenceService.connected(1, "s2");
+        presenceService.disconnected(1, "s1");
+
+        // Assert
+        assertEquals(User.UserStatus.ONLINE, presenceService.getStatus(1));
+        presenceService.disconnected(1, "s2");
+        assertEquals(User.UserStatus.OFFLINE, presenceService.getStatus(1));
+
+        // Stored state is loaded once, on first touch
+        verify(userRepository, times(1)).findPresenceByIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should ignore a disconnect event repeated for the same session")
+    void testRepeatedDisconnect() {
+        // Arrange - two devices
+        presenceService.connected(1, "s1");
+        presenceService.connected(1, "s2");
+
+        // Act - the event for s1 arrives twice
+        presenceService.disconnected(1, "s1");
+        presenceService.disconnected(1, "s1");
+
+        // Assert
+        assertEquals(User.UserStatus.ONLINE, presenceService.getStatus(1));
+        presenceService.disconnected(1, "s2");
+        assertEquals(User.UserStatus.OFFLINE, presenceService.getStatus(1));
+    }
+
+    @Test
+    @DisplayName("Should coalesce many changes into one batched write per user")
+    @SuppressWarnings("unchecked")
+    void testFlushCoalescesWrites() {
+        // Arrange
+        presenceService.connected(1, "s1");
+        presenceService.heartbeat(1);
+        presenceService.heartbeat(1);
+        presenceService.connected(2, "s2");
+
+        // Act
+        int written = presenceService.flush();
+        int writtenAgain = presenceService.flush();
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals(0, writtenAgain);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertEquals("ONLINE", rows.getValue().get(0)[0]);
+    }
+
+    @Test
+    @DisplayName("Should keep changes for the next flush when the write fails")
+    void testFlushRetriesAfterFailure() {
+        // Arrange
+        presenceService.connected(1, "s1");
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("Database down"));
+
+        // Act
+        int failed = presenceService.flush();
+        reset(jdbcTemplate);
+        int retried = presenceService.flush();
+
+        // Assert
+        assertEquals(0, failed);
+        assertEquals(1, retried);
+    }
+
+    @Test
+    @DisplayName("Should expire ONLINE users that went quiet and revive them on heartbeat")
+    void testExpireIdleSessions() {
+        // Arrange
+        ReflectionTestUtils.setField(presenceService, "sessionTimeoutMs", -1L);
+        presenceService.connected(1, "s1");
+
+        // Act
+        int expired = presenceService.expireIdleSessions();
+
+        // Assert
+        assertEquals(1, expired);
+        assertEquals(User.UserStatus.OFFLINE, presenceService.getStatus(1));
+        presenceService.heartbeat(1);
+        assertEquals(User.UserStatus.ONLINE, presenceService.getStatus(1));
+    }
+
+    @Test
+    @DisplayName("Should keep an explicit ONLINE without a session and revive a live session on activity")
+    void testExplicitStatusAndActivity() {
+        // Arrange
+        ReflectionTestUtils.setField(presenceService, "sessionTimeoutMs", -1L);
+        presenceService.setStatus(1, User.UserStatus.ONLINE);
+        presenceService.connected(2, "s2");
+
+        // Act
+        int expired = presenceService.expireIdleSessions();
+
+        // Assert - only the quiet WebSocket session expires
+        assertEquals(1, expired);
+        assertEquals(User.UserStatus.ONLINE, presenceService.getStatus(1));
+        assertEquals(User.UserStatus.OFFLINE, presenceService.getStatus(2));
+        presenceService.touch(2);
+        assertEquals(User.UserStatus.ONLINE, presenceService.getStatus(2));
+    }
+
+    @Test
+    @DisplayName("Should drop written OFFLINE entries without sessions and load them again on the next touch")
+    void testEvictQuietOfflineEntries() {
+        // Arrange
+        ReflectionTestUtils.setField(presenceService, "sessionTimeoutMs", -1L);
+        presenceService.connected(1, "s1");
+        presenceService.disconnected(1, "s1");
+        presenceService.getStatuses(List.of(2));
+
+        // Act - the unwritten change keeps user 1 until it is flushed
+        presenceService.expireIdleSessions();
+        presenceService.flush();
+        presenceService.expireIdleSessions();
+
+        // Assert
+        assertEquals(User.UserStatus.OFFLINE, presenceService.getStatus(1));
+        assertEquals(User.UserStatus.OFFLINE, presenceService.getStatus(2));
+        verify(userRepository, times(2)).findPresenceByIds(List.of(1));
+        verify(userRepository, times(2)).findPresenceByIds(List.of(2));
+    }
+
+    @Test
+    @DisplayName("Should look up many users with one query and leave out unknown ids")
+    void testGetStatuses() {
+        // Arrange
+        presenceService.connected(1, "s1");
+
+        // Act
+        Map<Integer, User.UserStatus> statuses = presenceService.getStatuses(List.of(1, 2, 3, 500));
+
+        // Assert
+        assertEquals(Map.of(1, User.UserStatus.ONLINE, 2, User.UserStatus.OFFLINE, 3, User.UserStatus.OFFLINE), statuses);
+        verify(userRepository).findPresenceByIds(List.of(2, 3, 500));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown users")
+    void testUnknownUser() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> presenceService.connected(500, "s1"));
+        assertEquals("User not found", exception.getMessage());
+    }
+}
@@ -0,0 +1,35 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Search Tokenizer Tests")
+class SearchTokenizerTest {
+
+    @Test
+    @DisplayName("Should lower-case words, drop stop words and keep offsets into the original text")
+    void testTokens() {
+        // Act
+        List<SearchTokenizer.Token> tokens = SearchTokenizer.tokens("The Budget, for Q3: approved!");
+
+        // Assert
+        assertEquals(List.of("budget", "q3", "approved"), tokens.stream().map(SearchTokenizer.Token::term).toList());
+        assertEquals(4, tokens.get(0).start());
+        assertEquals(10, tokens.get(0).end());
+    }
+
+    @Test
+    @DisplayName("Should return distinct terms and ignore single characters")
+    void testTerms() {
+        // Act
+        Set<String> terms = SearchTokenizer.terms("Café a café x Ünïcode");
+
+        // Assert
+        assertEquals(Set.of("café", "ünïcode"), terms);
+    }
+}
@@ -0,0 +1,125 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Send Rate Limiter Tests")
+class SendRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should allow a burst, then refill at the configured rate")
+    void testBurstAndRefill() {
+        // Arrange - 2 per second, burst of 3
+        SendRateLimiter limiter = new SendRateLimiter(16, 2, 3);
+        long start = 1_000 * SECOND;
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire(7, start));
+        assertTrue(limiter.tryAcquire(7, start));
+        assertTrue(limiter.tryAcquire(7, start));
+        assertFalse(limiter.tryAcquire(7, start));
+
+        // Half a second brings back one token, not more
+        assertTrue(limiter.tryAcquire(7, start + SECOND / 2));
+        assertFalse(limiter.tryAcquire(7, start + SECOND / 2));
+
+        // A long pause refills up to the burst only
+        long later = start + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(7, later));
+        }
+        assertFalse(limiter.tryAcquire(7, later));
+    }
+
+    @Test
+    @DisplayName("Should keep users apart")
+    void testPerUser() {
+        // Arrange
+        SendRateLimiter limiter = new SendRateLimiter(1024, 1, 1);
+        long now = 1_000 * SECOND;
+
+        // Act
+        assertTrue(limiter.tryAcquire(1, now));
+
+        // Assert
+        assertFalse(limiter.tryAcquire(1, now));
+        assertTrue(limiter.tryAcquire(2, now));
+        assertEquals(0, limiter.secondsUntilAvailable(3));
+    }
+
+    @Test
+    @DisplayName("Should never hand out more tokens than the burst under contention")
+    void testConcurrentAcquire() throws Exception {
+        // Arrange - no refill to speak of during the test
+        SendRateLimiter limiter = new SendRateLimiter(16, 0.001, 100);
+        AtomicInteger granted = new AtomicInteger();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire(42)) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        // Assert
+        assertEquals(100, granted.get());
+        assertTrue(limiter.secondsUntilAvailable(42) > 0);
+    }
+
+    @Test
+    @DisplayName("Should charge a user on a colliding slot against the shared bucket until it refills")
+    void testCollidingKeys() {
+        // Arrange - 1 per second, burst of 2; find a user on the same slot as user 1
+        SendRateLimiter limiter = new SendRateLimiter(16, 1, 2);
+        long other = 2;
+        while (limiter.slot(other) != limiter.slot(1)) {
+            other++;
+        }
+        // Real time, so secondsUntilAvailable sees the same clock
+        long now = System.nanoTime();
+
+        // Act & Assert - user 1 spends its burst; the newcomer gets no fresh one
+        assertTrue(limiter.tryAcquire(1, now));
+        assertTrue(limiter.tryAcquire(1, now));
+        assertFalse(limiter.tryAcquire(other, now));
+        assertTrue(limiter.secondsUntilAvailable(other) > 0);
+
+        // Partly refilled: still shared, so one token serves one of them
+        assertTrue(limiter.tryAcquire(other, now + SECOND));
+        assertFalse(limiter.tryAcquire(1, now + SECOND));
+
+        // Fully refilled: the newcomer takes the slot over with its own burst
+        long later = now + 10 * SECOND;
+        assertTrue(limiter.tryAcquire(other, later));
+        assertTrue(limiter.tryAcquire(other, later));
+        assertFalse(limiter.tryAcquire(other, later));
+    }
+
+    @Test
+    @DisplayName("Should round capacity up to a power of two")
+    void testCapacity() {
+        assertEquals(128, new SendRateLimiter(100, 1, 1).capacity());
+    }
+}
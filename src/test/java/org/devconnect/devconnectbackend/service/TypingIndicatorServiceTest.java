@@ -0,0 +1,103 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.TypingIndicatorDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Typing Indicator Service Tests")
+class TypingIndicatorServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private TypingIndicatorService typingIndicatorService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Should send one started frame for a burst of keystrokes")
+    void testCoalescesKeystrokes() {
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            typingIndicatorService.onTyping(1L, 2L, true);
+        }
+
+        // Assert
+        ArgumentCaptor<TypingIndicatorDTO> frame = ArgumentCaptor.forClass(TypingIndicatorDTO.class);
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("2"), eq("/queue/typing"), frame.capture());
+        assertEquals(1L, frame.getValue().getSenderId());
+        assertTrue(frame.getValue().isTyping());
+    }
+
+    @Test
+    @DisplayName("Should hold back a restart inside the interval and send it from the sweep")
+    void testRateLimitsFlapping() {
+        // Arrange - started and stopped both go out, the restart is within the interval
+        typingIndicatorService.onTyping(1L, 2L, true);
+        typingIndicatorService.onTyping(1L, 2L, false);
+        typingIndicatorService.onTyping(1L, 2L, true);
+        typingIndicatorService.onTyping(1L, 2L, false);
+        typingIndicatorService.onTyping(1L, 2L, true);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), anyString(), any(TypingIndicatorDTO.class));
+
+        // Act - interval over
+        ReflectionTestUtils.setField(typingIndicatorService, "minFrameIntervalMs", 0L);
+        typingIndicatorService.sweep();
+
+        // Assert
+        ArgumentCaptor<TypingIndicatorDTO> frames = ArgumentCaptor.forClass(TypingIndicatorDTO.class);
+        verify(messagingTemplate, times(3)).convertAndSendToUser(eq("2"), eq("/queue/typing"), frames.capture());
+        assertTrue(frames.getAllValues().get(0).isTyping());
+        assertFalse(frames.getAllValues().get(1).isTyping());
+        assertTrue(frames.getAllValues().get(2).isTyping());
+        assertEquals(1, typingIndicatorService.trackedPairs());
+    }
+
+    @Test
+    @DisplayName("Should clear typing that went quiet through the shared sweep")
+    void testExpiresQuietTyping() {
+        // Arrange
+        ReflectionTestUtils.setField(typingIndicatorService, "minFrameIntervalMs", 0L);
+        ReflectionTestUtils.setField(typingIndicatorService, "typingTimeoutMs", 0L);
+        typingIndicatorService.onTyping(1L, 2L, true);
+
+        // Act
+        typingIndicatorService.sweep();
+
+        // Assert
+        ArgumentCaptor<TypingIndicatorDTO> frames = ArgumentCaptor.forClass(TypingIndicatorDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("2"), eq("/queue/typing"), frames.capture());
+        assertTrue(frames.getAllValues().get(0).isTyping());
+        assertFalse(frames.getAllValues().get(1).isTyping());
+    }
+
+    @Test
+    @DisplayName("Should drop typing state without a frame once the message is sent")
+    void testMessageSentClearsState() {
+        // Arrange
+        typingIndicatorService.onTyping(1L, 2L, true);
+
+        // Act
+        typingIndicatorService.onMessageSent(1L, 2L);
+        typingIndicatorService.sweep();
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSendToUser(anyString(), anyString(), any(TypingIndicatorDTO.class));
+        assertEquals(0, typingIndicatorService.trackedPairs());
+    }
+}
@@ -0,0 +1,186 @@
+package org.devconnect.devconnectbackend.service;
+
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("WebSocket Outbox Tests")
+class WebSocketOutboxTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private MessageFanOutService fanOutService;
+
+    @InjectMocks
+    private WebSocketOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        outbox.stop();
+    }
+
+    @Test
+    @DisplayName("Should hold pushes until the transaction commits")
+    void testDispatchAfterCommit() {
+        // Arrange
+        outbox.start();
+        MessageDTO message = new MessageDTO(10L, 1L, 2L, "Hello", "sent", null, null);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        outbox.publishMessage(message, null);
+        outbox.sendToUser("1", "/queue/read-receipts", "receipt");
+
+        // Assert - nothing leaves before commit
+        verifyNoInteractions(fanOutService, messagingTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(fanOutService, timeout(1000)).publishMessage(message, null);
+        verify(messagingTemplate, timeout(1000)).convertAndSendToUser("1", "/queue/read-receipts", "receipt");
+    }
+
+    @Test
+    @DisplayName("Should drop pushes when the transaction rolls back")
+    void testRollbackDropsPushes() throws InterruptedException {
+        // Arrange
+        outbox.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        outbox.sendToUser("1", "/queue/read-receipts", "receipt");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        outbox.stop();
+
+        // Assert
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    @DisplayName("Should send pushes to a recipient in the order they were recorded")
+    void testKeepsOrder() throws InterruptedException {
+        // Arrange
+        outbox.start();
+
+        // Act - outside a transaction each push is queued straight away
+        IntStream.range(0, 500).forEach(i -> outbox.sendToUser("2", "/queue/delivery-receipts", i));
+        outbox.stop();
+
+        // Assert
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(500)).convertAndSendToUser(eq("2"), eq("/queue/delivery-receipts"), payloads.capture());
+        assertEquals(IntStream.range(0, 500).boxed().toList(), payloads.getAllValues());
+    }
+
+    @Test
+    @DisplayName("Should wait for room rather than drop chat pushes when the queue is full")
+    void testBackpressure() throws InterruptedException {
+        // Arrange - a two-slot queue and a dispatcher stuck on the first push
+        ReflectionTestUtils.setField(outbox, "queueCapacity", 2);
+        ReflectionTestUtils.setField(outbox, "offerTimeoutMs", 10L);
+        outbox.start();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+                .when(fanOutService).publishMessage(argThat(message -> message != null && message.getId() == 0L), isNull());
+
+        // Act
+        Thread sender = Thread.ofVirtual().start(() -> IntStream.range(0, 20).forEach(i ->
+                outbox.publishMessage(new MessageDTO((long) i, 1L, 2L, "Hello", "sent", null, null), null)));
+        Thread.sleep(100);
+        boolean senderWaiting = sender.isAlive();
+        release.countDown();
+        sender.join(5000);
+        outbox.stop();
+
+        // Assert
+        assertTrue(senderWaiting, "The sender should wait while the queue is full");
+        verify(fanOutService, times(20)).publishMessage(any(), isNull());
+        assertEquals(0, outbox.getDroppedPushes());
+        assertTrue(outbox.getDelayedPushes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should shed only typing pushes when the queue is full")
+    void testShedsDroppablePushes() throws InterruptedException {
+        // Arrange - a one-slot queue and a dispatcher stuck on the first push
+        ReflectionTestUtils.setField(outbox, "queueCapacity", 1);
+        outbox.start();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+                .when(messagingTemplate).convertAndSendToUser("1", "/queue/read-receipts", "blocker");
+        outbox.sendToUser("1", "/queue/read-receipts", "blocker");
+        verify(messagingTemplate, timeout(1000)).convertAndSendToUser("1", "/queue/read-receipts", "blocker");
+
+        // Act - the first typing push takes the free slot, the rest are shed
+        IntStream.range(0, 5).forEach(i -> outbox.sendToUser("1", "/queue/typing", i));
+        release.countDown();
+        outbox.stop();
+
+        // Assert
+        assertEquals(4, outbox.getDroppedPushes());
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("1"), eq("/queue/typing"), any());
+    }
+
+    @Test
+    @DisplayName("Should keep going after a push fails")
+    void testFailedPushIsIsolated() throws InterruptedException {
+        // Arrange
+        outbox.start();
+        doThrow(new RuntimeException("Broker unavailable"))
+                .when(messagingTemplate).convertAndSendToUser("1", "/queue/read-receipts", "first");
+
+        // Act
+        outbox.sendToUser("1", "/queue/read-receipts", "first");
+        outbox.sendToUser("1", "/queue/read-receipts", "second");
+        outbox.stop();
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSendToUser("1", "/queue/read-receipts", "second");
+    }
+
+    @Test
+    @DisplayName("Should send inline when dispatch after commit is disabled")
+    void testInlineDispatch() {
+        // Arrange
+        ReflectionTestUtils.setField(outbox, "dispatchAfterCommit", false);
+        outbox.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        outbox.sendToUser("1", "/queue/read-receipts", "receipt");
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSendToUser("1", "/queue/read-receipts", "receipt");
+        assertEquals(List.of(), TransactionSynchronizationManager.getSynchronizations());
+    }
+}
@@ -0,0 +1,202 @@
+package org.devconnect.devconnectbackend.websocket;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.devconnect.devconnectbackend.DevConnectBackendApplication;
+import org.devconnect.devconnectbackend.cluster.ClusterEnvelope;
+import org.devconnect.devconnectbackend.cluster.ClusterUserRegistry;
+import org.devconnect.devconnectbackend.cluster.LoopbackClusterTransport;
+import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.devconnect.devconnectbackend.service.JWTService;
+import org.devconnect.devconnectbackend.service.MessageIngestionService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three nodes on one loopback hub: this test's context (node A), a second application
+ * context (node B) and a bare transport (node C) that no user is connected to.
+ */
+@SuppressWarnings("null")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "messaging.cluster.enabled=true",
+        "messaging.cluster.node-id=node-a",
+        "messaging.cluster.loopback.hub=cluster-test"
+})
+@DisplayName("Cluster Fan-out Integration Tests")
+class ClusterFanOutIntegrationTest {
+
+    private static final int PROBES = 200;
+
+    private static ConfigurableApplicationContext nodeB;
+    private static LoopbackClusterTransport nodeC;
+    private static final AtomicInteger framesAtNodeC = new AtomicInteger();
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ClusterUserRegistry registry;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MessageIngestionService messageIngestionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    static void startOtherNodes() {
+        nodeB = new SpringApplicationBuilder(DevConnectBackendApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:node-b",
+                        "messaging.cluster.enabled=true",
+                        "messaging.cluster.node-id=node-b",
+                        "messaging.cluster.loopback.hub=cluster-test"
+                )
+                .run();
+
+        nodeC = new LoopbackClusterTransport("cluster-test");
+        nodeC.start("node-c", envelope -> {
+            if (envelope instanceof ClusterEnvelope.UserFrame) {
+                framesAtNodeC.incrementAndGet();
+            }
+        });
+    }
+
+    @AfterAll
+    static void stopOtherNodes() {
+        nodeC.stop();
+        nodeB.close();
+    }
+
+    @Test
+    @DisplayName("Should deliver to a user connected to another node, and only to that node")
+    void testCrossNodeDelivery() throws Exception {
+        // Arrange - both users live in node A's database; the receiver connects to node B
+        User sender = saveUser("Sender", User.UserRole.CLIENT);
+        User receiver = saveUser("Receiver", User.UserRole.DEVELOPER);
+        String receiverId = receiver.getUserId().toString();
+        BlockingQueue<MessageDTO> received = connectToNodeB(receiver);
+
+        awaitRegistered(receiverId);
+        warmUp(receiverId, received);
+
+        // Act - a chat message sent on node A
+        MessageDTO sent = messageIngestionService.submit(sender.getUserId(), receiver.getUserId(), "Across nodes").join();
+
+        // Assert
+        MessageDTO delivered = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(delivered, "Receiver on node B should get the message sent on node A");
+        assertEquals(sent.getId(), delivered.getId());
+        assertEquals("Across nodes", delivered.getText());
+
+        // A -> B delivery, one frame at a time
+        for (int i = 0; i < PROBES; i++) {
+            messagingTemplate.convertAndSendToUser(receiverId, "/queue/messages", probe(i));
+            MessageDTO frame = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(frame, "Probe " + i + " should arrive on node B");
+            assertEquals("probe " + i, frame.getText());
+        }
+
+        // Frames are routed, not broadcast
+        assertEquals(0, framesAtNodeC.get());
+    }
+
+    private User saveUser(String firstName, User.UserRole role) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName("Cluster");
+        user.setEmail(firstName.toLowerCase() + "-" + System.nanoTime() + "@cluster.test");
+        user.setPasswordHash("password");
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Helper: Open an authenticated STOMP session on node B subscribed to the user's message queue
+     */
+    private BlockingQueue<MessageDTO> connectToNodeB(User user) throws Exception {
+        BlockingQueue<MessageDTO> received = new ArrayBlockingQueue<>(PROBES);
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new SockJsClient(
+                Collections.singletonList(new WebSocketTransport(new StandardWebSocketClient()))));
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(JsonMapper.builder().findAndAddModules().build());
+        stompClient.setMessageConverter(converter);
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateAccessToken(user.getEmail(), user.getUserId()));
+
+        String url = "ws://localhost:" + nodeB.getEnvironment().getProperty("local.server.port") + "/ws";
+        StompSession session = stompClient.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders,
+                new StompSessionHandlerAdapter() { }).get(5, TimeUnit.SECONDS);
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return MessageDTO.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.offer((MessageDTO) payload);
+            }
+        });
+        return received;
+    }
+
+    /**
+     * Helper: Wait until node A has learned that the user is connected to node B
+     */
+    private void awaitRegistered(String userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!registry.remoteNodesFor(userId).contains("node-b")) {
+            assertTrue(System.nanoTime() < deadline, "Node A should learn the user's node");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Helper: The SUBSCRIBE may still be in flight on node B; probe until a frame comes through
+     */
+    private void warmUp(String userId, BlockingQueue<MessageDTO> received) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.poll(50, TimeUnit.MILLISECONDS) == null) {
+            assertTrue(System.nanoTime() < deadline, "Warm-up frame should arrive on node B");
+            messagingTemplate.convertAndSendToUser(userId, "/queue/messages", probe(-1));
+        }
+        // Let stragglers land, then start clean
+        Thread.sleep(100);
+        received.clear();
+    }
+
+    private MessageDTO probe(int n) {
+        return new MessageDTO(null, null, null, "probe " + n, null, null, null);
+    }
+}
@@ -1,16 +1,26 @@
 package org.devconnect.devconnectbackend.websocket;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.devconnect.devconnectbackend.config.CborMessageConverter;
+import org.devconnect.devconnectbackend.config.PayloadEncodingInterceptor;
 import org.devconnect.devconnectbackend.dto.MessageDTO;
+import org.devconnect.devconnectbackend.dto.WebSocketErrorDTO;
 import org.devconnect.devconnectbackend.model.User;
+import org.devconnect.devconnectbackend.repository.ConversationRepository;
+import org.devconnect.devconnectbackend.repository.ConversationSummaryRepository;
+import org.devconnect.devconnectbackend.repository.MessageRepository;
 import org.devconnect.devconnectbackend.repository.UserRepository;
+import org.devconnect.devconnectbackend.service.JWTService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.CompositeMessageConverter;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.simp.stomp.*;
+import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
@@ -18,6 +28,7 @@ import org.springframework.web.socket.sockjs.client.WebSocketTransport;
 
 import java.lang.reflect.Type;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +44,18 @@ class WebSocketMessagingIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationSummaryRepository summaryRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private JWTService jwtService;
+
     private WebSocketStompClient stompClient;
     private String wsUrl;
     private User sender;
@@ -40,7 +63,10 @@ class WebSocketMessagingIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        // Clean up database
+        // Clean up database; messages sent over STOMP are committed
+        messageRepository.deleteAll();
+        summaryRepository.deleteAll();
+        conversationRepository.deleteAll();
         userRepository.deleteAll();
 
         // Create test users
@@ -67,7 +93,9 @@ class WebSocketMessagingIntegrationTest {
                 Collections.singletonList(new WebSocketTransport(new StandardWebSocketClient())));
         
         stompClient = new WebSocketStompClient(sockJsClient);
-        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(JsonMapper.builder().findAndAddModules().build());
+        stompClient.setMessageConverter(converter);
     }
 
     @Test
@@ -93,13 +121,43 @@ class WebSocketMessagingIntegrationTest {
             }
         };
 
-        stompClient.connectAsync(wsUrl, sessionHandler);
+        stompClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), authHeaders(sender), sessionHandler);
 
         String result = blockingQueue.poll(5, TimeUnit.SECONDS);
         assertNotNull(result, "WebSocket connection should be established");
         assertEquals("CONNECTED", result);
     }
 
+    @Test
+    @DisplayName("Should refuse a connection without an access token")
+    void testConnectionWithoutTokenRefused() throws Exception {
+        BlockingQueue<String> outcomes = new ArrayBlockingQueue<>(4);
+
+        StompSessionHandler sessionHandler = new StompSessionHandlerAdapter() {
+            @Override
+            public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                outcomes.offer("CONNECTED");
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                outcomes.offer("ERROR");
+            }
+
+            @Override
+            public void handleTransportError(StompSession session, Throwable exception) {
+                outcomes.offer("CLOSED");
+            }
+        };
+
+        stompClient.connectAsync(wsUrl, sessionHandler);
+
+        String outcome = outcomes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(outcome, "The server should answer the CONNECT");
+        assertNotEquals("CONNECTED", outcome);
+        assertFalse(outcomes.contains("CONNECTED"));
+    }
+
     @Test
     @DisplayName("Should receive message via WebSocket")
     void testReceiveMessageViaWebSocket() throws Exception {
@@ -135,16 +193,98 @@ class WebSocketMessagingIntegrationTest {
             }
         };
 
-        stompClient.connectAsync(wsUrl, sessionHandler);
+        stompClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), authHeaders(sender), sessionHandler);
 
         MessageDTO receivedMessage = receivedMessages.poll(5, TimeUnit.SECONDS);
-        
-        // Note: This test may timeout if WebSocket handler is not implemented
-        // The test structure is correct for when the handler is added
-        if (receivedMessage != null) {
-            assertNotNull(receivedMessage.getText());
-            assertEquals("WebSocket test message", receivedMessage.getText());
-        }
+
+        // The sending session gets the saved message echoed back
+        assertNotNull(receivedMessage, "Sender should receive the saved message");
+        assertNotNull(receivedMessage.getId());
+        assertEquals("WebSocket test message", receivedMessage.getText());
+        assertEquals(receiver.getUserId().longValue(), receivedMessage.getReceiverId());
+    }
+
+    @Test
+    @DisplayName("Should send CBOR frames to a connection that negotiated them")
+    void testCompactEncodingNegotiated() throws Exception {
+        BlockingQueue<MessageDTO> receivedMessages = new ArrayBlockingQueue<>(1);
+        BlockingQueue<String> contentTypes = new ArrayBlockingQueue<>(1);
+
+        // The client decodes by content-type: CBOR when the frame says so, JSON otherwise
+        MappingJackson2MessageConverter json = new MappingJackson2MessageConverter();
+        json.setObjectMapper(JsonMapper.builder().findAndAddModules().build());
+        WebSocketStompClient cborClient = new WebSocketStompClient(new StandardWebSocketClient());
+        cborClient.setMessageConverter(new CompositeMessageConverter(List.of(new CborMessageConverter(), json)));
+
+        StompHeaders connectHeaders = authHeaders(sender);
+        connectHeaders.add(PayloadEncodingInterceptor.ENCODING_HEADER, PayloadEncodingInterceptor.CBOR);
+
+        StompSessionHandler sessionHandler = new StompSessionHandlerAdapter() {
+            @Override
+            public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                session.subscribe("/user/queue/messages", new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders headers) {
+                        return MessageDTO.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        contentTypes.offer(String.valueOf(headers.getContentType()));
+                        receivedMessages.offer((MessageDTO) payload);
+                    }
+                });
+
+                MessageDTO messageDTO = new MessageDTO(
+                        null, sender.getUserId().longValue(), receiver.getUserId().longValue(),
+                        "Compact frame", null, null, null);
+                session.send("/app/chat", messageDTO);
+            }
+        };
+
+        cborClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), connectHeaders, sessionHandler);
+
+        MessageDTO receivedMessage = receivedMessages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(receivedMessage, "Sender should receive the saved message");
+        assertEquals("application/cbor", contentTypes.poll());
+        assertEquals("Compact frame", receivedMessage.getText());
+        assertNotNull(receivedMessage.getId());
+        assertNotNull(receivedMessage.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should report a failed send on the error queue")
+    void testSendErrorIsReported() throws Exception {
+        BlockingQueue<WebSocketErrorDTO> errors = new ArrayBlockingQueue<>(1);
+
+        StompSessionHandler sessionHandler = new StompSessionHandlerAdapter() {
+            @Override
+            public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                session.subscribe("/user/queue/errors", new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders headers) {
+                        return WebSocketErrorDTO.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        errors.offer((WebSocketErrorDTO) payload);
+                    }
+                });
+
+                // Receiver does not exist
+                MessageDTO messageDTO = new MessageDTO(
+                        null, sender.getUserId().longValue(), 999999L, "Nobody home", null, null, null);
+                session.send("/app/chat", messageDTO);
+            }
+        };
+
+        stompClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), authHeaders(sender), sessionHandler);
+
+        WebSocketErrorDTO error = errors.poll(5, TimeUnit.SECONDS);
+        assertNotNull(error, "Sender should receive an error frame");
+        assertEquals("Receiver not found", error.getError());
+        assertEquals("/app/chat", error.getDestination());
     }
 
     @Test
@@ -161,7 +301,7 @@ class WebSocketMessagingIntegrationTest {
                 }
             };
 
-            stompClient.connectAsync(wsUrl, sessionHandler);
+            stompClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), authHeaders(sender), sessionHandler);
         }
 
         boolean allConnected = latch.await(10, TimeUnit.SECONDS);
@@ -186,4 +326,10 @@ class WebSocketMessagingIntegrationTest {
         String error = errorQueue.poll(5, TimeUnit.SECONDS);
         assertNotNull(error, "Should receive transport error");
     }
+
+    private StompHeaders authHeaders(User user) {
+        StompHeaders headers = new StompHeaders();
+        headers.add("Authorization", "Bearer " + jwtService.generateAccessToken(user.getEmail(), user.getUserId()));
+        return headers;
+    }
 }